@@ -26,15 +26,15 @@ import net.flintmc.framework.config.storage.ConfigStorage;
 import net.flintmc.framework.config.storage.ConfigStorageProvider;
 import net.flintmc.framework.config.storage.StoragePriority;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.stereotype.service.ConcurrentServiceHandler;
 import net.flintmc.framework.stereotype.service.CtResolver;
 import net.flintmc.framework.stereotype.service.Service;
-import net.flintmc.framework.stereotype.service.ServiceHandler;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.metaprogramming.identifier.Identifier;
 
 @Singleton
 @Service(value = StoragePriority.class, priority = -1000)
-public class ConfigStorageService implements ServiceHandler<StoragePriority> {
+public class ConfigStorageService implements ConcurrentServiceHandler<StoragePriority> {
 
   private final ConfigStorageProvider storageProvider;
 
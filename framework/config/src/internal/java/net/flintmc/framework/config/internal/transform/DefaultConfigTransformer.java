@@ -22,9 +22,6 @@ package net.flintmc.framework.config.internal.transform;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
@@ -33,7 +30,6 @@ import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.Modifier;
 import javassist.NotFoundException;
-import javassist.bytecode.ClassFile;
 import net.flintmc.framework.config.annotation.implemented.ConfigImplementation;
 import net.flintmc.framework.config.annotation.implemented.ImplementedConfig;
 import net.flintmc.framework.config.generator.ConfigImplementer;
@@ -51,6 +47,7 @@ import net.flintmc.launcher.classloading.ClassTransformException;
 import net.flintmc.launcher.classloading.common.CommonClassLoader;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.transform.launchplugin.LateInjectedTransformer;
+import net.flintmc.transform.launchplugin.TransformedClass;
 import net.flintmc.transform.minecraft.MinecraftTransformer;
 
 @Singleton
@@ -125,8 +122,8 @@ public class DefaultConfigTransformer
   }
 
   @Override
-  public byte[] transform(String className, CommonClassLoader classLoader, byte[] classData)
-      throws ClassTransformException {
+  public void transform(String className, CommonClassLoader classLoader,
+      TransformedClass transformed) throws ClassTransformException {
     // implement methods in classes of the config (including the class annotated with @Config) that
     // are also half-generated
 
@@ -143,18 +140,12 @@ public class DefaultConfigTransformer
     boolean configInterface = this.implementedService.getConfigInterfaces().contains(className);
 
     if (!shouldTransform && !configInterface) {
-      return classData;
+      return;
     }
 
-    CtClass transforming;
-
-    try {
-      transforming =
-          this.pool.makeClass(
-              new ClassFile(new DataInputStream(new ByteArrayInputStream(classData))), true);
-    } catch (IOException exception) {
-      throw new ClassTransformException("unable to read class", exception);
-    }
+    // the pending transforms are updated while implementing the methods
+    transformed.disableCaching();
+    CtClass transforming = transformed.getCtClass();
 
     try {
       this.implementMethods(transforming);
@@ -175,14 +166,6 @@ public class DefaultConfigTransformer
         throw new ClassTransformException("ParsedConfig not found in class pool", exception);
       }
     }
-
-    try {
-      return transforming.toBytecode();
-    } catch (IOException | CannotCompileException exception) {
-      // Basically unreachable.
-      throw new ClassTransformException(
-          "Unable to write class bytecode to byte array: " + className, exception);
-    }
   }
 
   private void implementMethods(CtClass implementation)
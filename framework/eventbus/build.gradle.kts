@@ -19,6 +19,7 @@
 
 plugins {
     id("java-library")
+    id("me.champeau.jmh")
 }
 
 group = "net.flintmc"
@@ -32,4 +33,15 @@ dependencies {
     api(project(":framework:framework-inject"))
     api(project(":transform:transform-hook"))
     api(project(":transform:transform-minecraft"))
+
+    testImplementation(project(":util:util-unit-testing"))
+    testImplementation(project(":framework:framework-eventbus", "internal"))
+
+    jmhImplementation(project(":framework:framework-eventbus", "internal"))
+    jmhImplementation(project(":framework:framework-inject", "internal"))
+    jmhImplementation(project(":util:util-unit-testing"))
+}
+
+jmh {
+    jmhVersion.set("1.27")
 }
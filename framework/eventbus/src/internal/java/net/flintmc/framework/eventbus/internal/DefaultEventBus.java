@@ -28,12 +28,15 @@ import net.flintmc.framework.eventbus.event.EventDetails;
 import net.flintmc.framework.eventbus.event.subscribe.Subscribable;
 import net.flintmc.framework.eventbus.event.subscribe.Subscribe;
 import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.internal.async.AsyncEventDispatcher;
+import net.flintmc.framework.eventbus.internal.method.handler.EventDispatchDetails;
 import net.flintmc.framework.eventbus.internal.method.handler.EventMethodRegistry;
+import net.flintmc.framework.eventbus.internal.method.handler.SubscribeMethodList;
+import net.flintmc.framework.eventbus.internal.metrics.DefaultEventBusMetrics;
 import net.flintmc.framework.eventbus.method.SubscribeMethod;
 import net.flintmc.framework.inject.implement.Implement;
 import net.flintmc.framework.inject.logging.InjectLogger;
 import org.apache.logging.log4j.Logger;
-import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -46,11 +49,19 @@ public class DefaultEventBus implements EventBus {
 
   private final Logger logger;
   private final EventMethodRegistry registry;
+  private final AsyncEventDispatcher asyncDispatcher;
+  private final DefaultEventBusMetrics metrics;
 
   @Inject
-  private DefaultEventBus(@InjectLogger Logger logger, EventMethodRegistry registry) {
+  private DefaultEventBus(
+      @InjectLogger Logger logger,
+      EventMethodRegistry registry,
+      AsyncEventDispatcher asyncDispatcher,
+      DefaultEventBusMetrics metrics) {
     this.logger = logger;
     this.registry = registry;
+    this.asyncDispatcher = asyncDispatcher;
+    this.metrics = metrics;
   }
 
   /**
@@ -138,6 +149,13 @@ public class DefaultEventBus implements EventBus {
       ));
     }
 
+    if (method.isAsync() && Cancellable.class.isAssignableFrom(method.getEventClass())) {
+      throw new IllegalStateException(String.format(
+          "Cannot register an asynchronous SubscribeMethod to an event (%s) that is cancellable",
+          method.getEventClass().getName()
+      ));
+    }
+
     this.registry.registerForEvents(method);
   }
 
@@ -146,7 +164,7 @@ public class DefaultEventBus implements EventBus {
    */
   @Override
   public void unregisterSubscribeMethod(SubscribeMethod method) {
-    this.registry.forEachEvent((eventClass, methods) -> methods.remove(method));
+    this.registry.unregisterFromEvents(method);
   }
 
   /**
@@ -154,7 +172,7 @@ public class DefaultEventBus implements EventBus {
    */
   @Override
   public void unregisterSubscribeMethods(Class<? extends Event> eventClass) {
-    this.registry.getSubscribeMethods(eventClass).clear();
+    this.registry.unregisterFromEvents(eventClass);
   }
 
   /**
@@ -165,18 +183,55 @@ public class DefaultEventBus implements EventBus {
    * @param <E>   The event type.
    */
   private <E extends Event> void postEvent(E event, Subscribe.Phase phase) {
-    List<SubscribeMethod> methods = ((EventDetails) event).getMethods();
-    if (methods.isEmpty()) {
+    // the list is always generated by the SubscribableService, the methods in the array are
+    // already filtered by the phase and sorted by their priority
+    SubscribeMethodList list = ((EventDispatchDetails) event).getSubscribeMethodList();
+    // checked once per fire so that disabled metrics don't take any timestamps
+    boolean measure = this.metrics.isEnabled();
+    if (measure) {
+      this.metrics.recordFire(((EventDetails) event).getEventClass());
+    }
+
+    for (SubscribeMethod method : list.getMethods(phase)) {
+      this.invokeMethod(event, phase, method, measure);
+    }
+
+    SubscribeMethod[] asyncMethods = list.getAsyncMethods(phase);
+    if (asyncMethods.length == 0) {
       return;
     }
 
-    for (SubscribeMethod method : methods) {
-      if (method.getPhase() == Subscribe.Phase.ANY
-          || phase == method.getPhase()
-          || phase == Subscribe.Phase.ANY) {
-        this.invokeMethod(event, phase, method);
+    if (event instanceof Cancellable) {
+      // implementations of the event may be cancellable even though the subscribed class isn't,
+      // the subscribers need to be invoked before the cancellation is checked
+      for (SubscribeMethod method : asyncMethods) {
+        this.invokeMethod(event, phase, method, measure);
       }
+      return;
     }
+
+    this.asyncDispatcher.dispatch(event, phase);
+  }
+
+  /**
+   * Invokes the subscribed method.
+   *
+   * @param event   The fired event.
+   * @param method  The subscribed method.
+   * @param measure Whether the time the method takes should be recorded in the metrics.
+   * @param <E>     The event type.
+   */
+  private <E extends Event> void invokeMethod(
+      E event, Subscribe.Phase phase, SubscribeMethod method, boolean measure) {
+    if (!measure) {
+      this.invokeMethod(event, phase, method);
+      return;
+    }
+
+    long start = System.nanoTime();
+    this.invokeMethod(event, phase, method);
+    this.metrics.recordInvocation(
+        ((EventDetails) event).getEventClass(), method, System.nanoTime() - start);
   }
 
   /**
@@ -108,15 +108,19 @@ public class SubscribeService implements ServiceHandler<Annotation> {
 
     byte priority;
     Subscribe.Phase phase;
+    boolean async;
     if (subscribe instanceof PreSubscribe) {
       priority = ((PreSubscribe) subscribe).priority();
       phase = Subscribe.Phase.PRE;
+      async = ((PreSubscribe) subscribe).async();
     } else if (subscribe instanceof PostSubscribe) {
       priority = ((PostSubscribe) subscribe).priority();
       phase = Subscribe.Phase.POST;
+      async = ((PostSubscribe) subscribe).async();
     } else if (subscribe instanceof Subscribe) {
       priority = ((Subscribe) subscribe).priority();
       phase = ((Subscribe) subscribe).value();
+      async = ((Subscribe) subscribe).async();
     } else {
       throw new ServiceNotFoundException(
           "Unknown subscribe annotation: " + subscribe.annotationType().getName());
@@ -134,7 +138,8 @@ public class SubscribeService implements ServiceHandler<Annotation> {
         this.methodBuilderFactory
             .newBuilder(CtResolver.get(eventClass))
             .priority(priority)
-            .phaseOnly(phase);
+            .phaseOnly(phase)
+            .async(async);
 
     builder.to(executor).buildAndRegister();
   }
@@ -0,0 +1,66 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.async;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.ExecutorService;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.event.EventDetails;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.internal.metrics.DefaultEventBusMetrics;
+import net.flintmc.framework.inject.logging.InjectLogger;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Passes fired events to the methods that are subscribed {@link
+ * net.flintmc.framework.eventbus.event.subscribe.Subscribe#async() asynchronously} to them, every
+ * event class has its own {@link AsyncEventQueue}.
+ */
+@Singleton
+public class AsyncEventDispatcher {
+
+  private final ClassValue<AsyncEventQueue> queues;
+
+  @Inject
+  private AsyncEventDispatcher(
+      @InjectLogger Logger logger,
+      DefaultEventBusMetrics metrics,
+      ExecutorService executorService) {
+    this.queues = new ClassValue<AsyncEventQueue>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      protected AsyncEventQueue computeValue(Class<?> type) {
+        return new AsyncEventQueue(
+            logger, metrics, executorService, (Class<? extends Event>) type);
+      }
+    };
+  }
+
+  /**
+   * Queues the given event for its asynchronous subscribers.
+   *
+   * @param event The non-null event that has been fired
+   * @param phase The non-null phase in which the event has been fired
+   */
+  public void dispatch(Event event, Phase phase) {
+    this.queues.get(((EventDetails) event).getEventClass()).enqueue(event, phase);
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.async;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribable;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribable.AsyncPolicy;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.internal.method.handler.EventDispatchDetails;
+import net.flintmc.framework.eventbus.internal.metrics.DefaultEventBusMetrics;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Queue for the asynchronous subscribers of a single event class. Events are drained in batches by
+ * at most one worker of the executor at a time.
+ */
+public class AsyncEventQueue implements AsyncEventRingBuffer.Sink {
+
+  private static final int BATCH_SIZE = 64;
+  private static final long BLOCK_PARK_NANOS = 50_000;
+
+  private final Logger logger;
+  private final DefaultEventBusMetrics metrics;
+  private final Executor executor;
+  private final Class<? extends Event> eventClass;
+  private final AsyncPolicy policy;
+
+  private final AsyncEventRingBuffer buffer;
+  private final AtomicReferenceArray<Event> latestEvents;
+
+  private final AtomicBoolean scheduled;
+  private final Runnable drainTask;
+  private volatile Thread drainThread;
+  private volatile boolean warnedFull;
+
+  public AsyncEventQueue(Logger logger, DefaultEventBusMetrics metrics, Executor executor,
+      Class<? extends Event> eventClass) {
+    this.logger = logger;
+    this.metrics = metrics;
+    this.executor = executor;
+    this.eventClass = eventClass;
+
+    Subscribable subscribable = eventClass.getAnnotation(Subscribable.class);
+    this.policy = subscribable != null ? subscribable.asyncPolicy() : AsyncPolicy.DROP;
+
+    if (this.policy == AsyncPolicy.COALESCE_LATEST) {
+      this.buffer = null;
+      this.latestEvents = new AtomicReferenceArray<>(Phase.values().length);
+    } else {
+      this.buffer = new AsyncEventRingBuffer(subscribable != null
+          ? subscribable.asyncQueueSize() : 1024);
+      this.latestEvents = null;
+    }
+
+    this.scheduled = new AtomicBoolean();
+    this.drainTask = this::drain;
+  }
+
+  /**
+   * Queues the given event for the asynchronous subscribers and schedules a worker to handle it.
+   *
+   * @param event The non-null event to be queued
+   * @param phase The non-null phase in which the event has been fired
+   */
+  public void enqueue(Event event, Phase phase) {
+    if (this.policy == AsyncPolicy.COALESCE_LATEST) {
+      this.latestEvents.set(phase.ordinal(), event);
+      this.schedule();
+      return;
+    }
+
+    while (!this.buffer.offer(event, phase)) {
+      if (this.policy == AsyncPolicy.DROP) {
+        if (!this.warnedFull) {
+          this.warnedFull = true;
+          this.logger.warn(
+              "The queue for asynchronous subscribers of {} is full, events will be dropped",
+              this.eventClass.getName());
+        }
+        return;
+      }
+
+      if (Thread.currentThread() == this.drainThread) {
+        // the event has been fired by an asynchronous subscriber of the same event, waiting for
+        // the queue would never finish
+        this.accept(event, phase);
+        return;
+      }
+
+      this.schedule();
+      LockSupport.parkNanos(BLOCK_PARK_NANOS);
+    }
+
+    this.schedule();
+  }
+
+  private void schedule() {
+    if (this.scheduled.compareAndSet(false, true)) {
+      this.executor.execute(this.drainTask);
+    }
+  }
+
+  private void drain() {
+    this.drainThread = Thread.currentThread();
+
+    try {
+      if (this.policy == AsyncPolicy.COALESCE_LATEST) {
+        for (Phase phase : Phase.values()) {
+          Event event = this.latestEvents.getAndSet(phase.ordinal(), null);
+          if (event != null) {
+            this.accept(event, phase);
+          }
+        }
+      } else {
+        while (this.buffer.drain(this, BATCH_SIZE) == BATCH_SIZE) {
+          // drain until there are less events than a full batch left
+        }
+      }
+    } finally {
+      this.drainThread = null;
+      this.scheduled.set(false);
+    }
+
+    if (this.hasPending()) {
+      // events that have been queued while the scheduled flag was still set
+      this.schedule();
+    }
+  }
+
+  private boolean hasPending() {
+    if (this.policy != AsyncPolicy.COALESCE_LATEST) {
+      return !this.buffer.isEmpty();
+    }
+
+    for (int i = 0; i < this.latestEvents.length(); i++) {
+      if (this.latestEvents.get(i) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Invokes all asynchronous subscribers of the given event on the current thread.
+   *
+   * @param event The non-null event that has been fired
+   * @param phase The non-null phase in which the event has been fired
+   */
+  @Override
+  public void accept(Event event, Phase phase) {
+    SubscribeMethod[] methods =
+        ((EventDispatchDetails) event).getSubscribeMethodList().getAsyncMethods(phase);
+
+    boolean measure = this.metrics.isEnabled();
+
+    for (SubscribeMethod method : methods) {
+      long start = measure ? System.nanoTime() : 0;
+      try {
+        method.invoke(event, phase);
+      } catch (Throwable throwable) {
+        this.logger.error(
+            "Error while posting event " + this.eventClass.getName() + " asynchronously",
+            throwable);
+      }
+
+      if (measure) {
+        this.metrics.recordInvocation(this.eventClass, method, System.nanoTime() - start);
+      }
+    }
+  }
+}
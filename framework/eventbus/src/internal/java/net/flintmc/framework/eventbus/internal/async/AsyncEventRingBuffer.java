@@ -0,0 +1,156 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+
+/**
+ * Bounded ring buffer for fired events that supports multiple threads offering events, but only
+ * one thread draining them at a time. Every slot has a sequence number which tells producers and
+ * the consumer whether the slot is free or has been published, so neither offering nor draining
+ * needs a lock or allocates anything.
+ */
+public class AsyncEventRingBuffer {
+
+  private final int capacity;
+  private final int mask;
+
+  private final AtomicLongArray sequences;
+  private final Event[] events;
+  private final Phase[] phases;
+
+  private final AtomicLong tail;
+  // only written by the draining thread, but read by the thread that drained before it
+  private volatile long head;
+
+  /**
+   * Creates a new ring buffer with the given capacity.
+   *
+   * @param capacity The maximum amount of events in the buffer, will be rounded up to the next
+   *                 power of two
+   */
+  public AsyncEventRingBuffer(int capacity) {
+    this.capacity = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = this.capacity - 1;
+
+    this.sequences = new AtomicLongArray(this.capacity);
+    for (int i = 0; i < this.capacity; i++) {
+      this.sequences.set(i, i);
+    }
+    this.events = new Event[this.capacity];
+    this.phases = new Phase[this.capacity];
+
+    this.tail = new AtomicLong();
+  }
+
+  /**
+   * Adds the given event to the end of this buffer, may be called by any thread.
+   *
+   * @param event The non-null event to be added
+   * @param phase The non-null phase in which the event has been fired
+   * @return {@code true} if the event has been added, {@code false} if the buffer is full
+   */
+  public boolean offer(Event event, Phase phase) {
+    long position = this.tail.get();
+
+    while (true) {
+      int index = (int) position & this.mask;
+      long difference = this.sequences.get(index) - position;
+
+      if (difference == 0) {
+        if (this.tail.compareAndSet(position, position + 1)) {
+          this.events[index] = event;
+          this.phases[index] = phase;
+          // publishes the event to the consumer
+          this.sequences.lazySet(index, position + 1);
+          return true;
+        }
+      } else if (difference < 0) {
+        // the consumer hasn't freed this slot yet
+        return false;
+      }
+
+      position = this.tail.get();
+    }
+  }
+
+  /**
+   * Removes up to {@code limit} events from the start of this buffer and passes them to the given
+   * sink. May only be called by one thread at a time.
+   *
+   * @param sink  The non-null sink for the removed events
+   * @param limit The maximum amount of events to be removed
+   * @return The amount of events that have been removed
+   */
+  public int drain(Sink sink, int limit) {
+    int drained = 0;
+    long head = this.head;
+
+    while (drained < limit) {
+      int index = (int) head & this.mask;
+      if (this.sequences.get(index) != head + 1) {
+        break;
+      }
+
+      Event event = this.events[index];
+      Phase phase = this.phases[index];
+      this.events[index] = null;
+      this.phases[index] = null;
+
+      // frees the slot for the producers
+      this.sequences.lazySet(index, head + this.capacity);
+      this.head = ++head;
+      drained++;
+
+      sink.accept(event, phase);
+    }
+
+    return drained;
+  }
+
+  /**
+   * Retrieves whether this buffer contains events that can be drained. May be called by any thread,
+   * but the result may already be outdated if another thread is draining or offering events.
+   *
+   * @return {@code true} if there are no events in this buffer, {@code false} otherwise
+   */
+  public boolean isEmpty() {
+    long head = this.head;
+    return this.sequences.get((int) head & this.mask) != head + 1;
+  }
+
+  /**
+   * Receiver for the events that are drained from an {@link AsyncEventRingBuffer}.
+   */
+  @FunctionalInterface
+  public interface Sink {
+
+    /**
+     * Handles an event that has been drained from the buffer.
+     *
+     * @param event The non-null drained event
+     * @param phase The non-null phase in which the event has been fired
+     */
+    void accept(Event event, Phase phase);
+  }
+}
@@ -35,6 +35,7 @@ public class DefaultSubscribeMethod implements SubscribeMethod {
   private final Class<? extends Event> eventClass;
   private final byte priority;
   private final Subscribe.Phase phase;
+  private final boolean async;
   private final EventExecutor executor;
 
   @AssistedInject
@@ -43,9 +44,20 @@ public class DefaultSubscribeMethod implements SubscribeMethod {
       @Assisted byte priority,
       @Assisted Subscribe.Phase phase,
       @Assisted EventExecutor<?> executor) {
+    this(eventClass, priority, phase, false, executor);
+  }
+
+  @AssistedInject
+  private DefaultSubscribeMethod(
+      @Assisted Class<? extends Event> eventClass,
+      @Assisted byte priority,
+      @Assisted Subscribe.Phase phase,
+      @Assisted boolean async,
+      @Assisted EventExecutor<?> executor) {
     this.eventClass = eventClass;
     this.priority = priority;
     this.phase = phase;
+    this.async = async;
     this.executor = executor;
   }
 
@@ -67,9 +79,27 @@ public class DefaultSubscribeMethod implements SubscribeMethod {
     return this.phase;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public boolean isAsync() {
+    return this.async;
+  }
+
   /** {@inheritDoc} */
   @Override
   public void invoke(Event event, Subscribe.Phase phase) throws Throwable {
     this.executor.invoke(event, phase, this);
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return "SubscribeMethod{"
+        + "eventClass=" + this.eventClass.getName()
+        + ", priority=" + this.priority
+        + ", phase=" + this.phase
+        + ", async=" + this.async
+        + ", executor=" + this.executor
+        + '}';
+  }
 }
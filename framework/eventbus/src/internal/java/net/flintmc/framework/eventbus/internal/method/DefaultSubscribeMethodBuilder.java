@@ -38,6 +38,7 @@ public class DefaultSubscribeMethodBuilder<E extends Event> implements Subscribe
   private final Class<E> eventClass;
   private byte priority;
   private Subscribe.Phase phase;
+  private boolean async;
   private EventExecutor<?> executor;
 
   protected DefaultSubscribeMethodBuilder(
@@ -64,6 +65,13 @@ public class DefaultSubscribeMethodBuilder<E extends Event> implements Subscribe
     return this;
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public SubscribeMethodBuilder<E> async(boolean async) {
+    this.async = async;
+    return this;
+  }
+
   /** {@inheritDoc} */
   @Override
   public SubscribeMethodBuilder<E> to(Consumer<E> executor) {
@@ -82,7 +90,8 @@ public class DefaultSubscribeMethodBuilder<E extends Event> implements Subscribe
   public SubscribeMethod build() throws NullPointerException {
     Preconditions.checkNotNull(this.executor, "to() has not been called");
 
-    return this.methodFactory.create(this.eventClass, this.priority, this.phase, this.executor);
+    return this.methodFactory.create(
+        this.eventClass, this.priority, this.phase, this.async, this.executor);
   }
 
   /** {@inheritDoc} */
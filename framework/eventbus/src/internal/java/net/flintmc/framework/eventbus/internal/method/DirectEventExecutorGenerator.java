@@ -0,0 +1,169 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.method;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtNewMethod;
+import javassist.Modifier;
+import javassist.NotFoundException;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.internal.exception.ExecutorGenerationException;
+import net.flintmc.framework.eventbus.method.EventExecutor;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.stereotype.service.CtResolver;
+
+/**
+ * Generates one {@link EventExecutor} class per subscribed method which directly invokes the target
+ * method with the concrete type of the event, without going through a {@link
+ * net.flintmc.framework.inject.method.MethodInjector}. This only works for methods whose parameters
+ * are exclusively the event, the {@link Phase} and the {@link SubscribeMethod}, every other method
+ * needs the injector to resolve its parameters.
+ */
+@Singleton
+public class DirectEventExecutorGenerator {
+
+  private final ClassPool pool;
+  private final CtClass eventInterface;
+  private final AtomicInteger idCounter;
+
+  @Inject
+  private DirectEventExecutorGenerator(ClassPool pool) throws NotFoundException {
+    this.pool = pool;
+    this.eventInterface = pool.get(Event.class.getName());
+    this.idCounter = new AtomicInteger();
+  }
+
+  /**
+   * Generates a new executor that directly invokes the given method.
+   *
+   * @param targetMethod The non-null method to be invoked by the executor
+   * @return The new executor or {@code null} if the given method cannot be invoked directly
+   * @throws ExecutorGenerationException If the executor could not be compiled or defined
+   */
+  public EventExecutor<?> generate(CtMethod targetMethod) {
+    CtClass declaring = targetMethod.getDeclaringClass();
+    if (!declaring.isFrozen()) {
+      targetMethod.setModifiers(Modifier.setPublic(targetMethod.getModifiers()));
+    }
+
+    if (!Modifier.isPublic(declaring.getModifiers())
+        || !Modifier.isPublic(targetMethod.getModifiers())) {
+      return null;
+    }
+
+    try {
+      String arguments = this.buildArguments(targetMethod);
+      if (arguments == null) {
+        return null;
+      }
+
+      return this.generate(targetMethod, arguments);
+    } catch (NotFoundException | CannotCompileException | IOException
+        | ReflectiveOperationException exception) {
+      throw new ExecutorGenerationException(
+          String.format(
+              "Failed to generate a direct event executor for %s.%s",
+              declaring.getName(), targetMethod.getName()),
+          exception);
+    }
+  }
+
+  private String buildArguments(CtMethod targetMethod) throws NotFoundException {
+    StringBuilder arguments = new StringBuilder();
+    boolean event = false;
+
+    for (CtClass parameter : targetMethod.getParameterTypes()) {
+      if (arguments.length() != 0) {
+        arguments.append(',');
+      }
+
+      if (!event && parameter.subtypeOf(this.eventInterface)) {
+        // $1 is the event, $2 the phase and $3 the holder method
+        arguments.append('(').append(parameter.getName()).append(") $1");
+        event = true;
+      } else if (parameter.getName().equals(Phase.class.getName())) {
+        arguments.append("$2");
+      } else if (parameter.getName().equals(SubscribeMethod.class.getName())) {
+        arguments.append("$3");
+      } else {
+        // parameters from the injector are only supported by the MethodInjector
+        return null;
+      }
+    }
+
+    return event ? arguments.toString() : null;
+  }
+
+  private EventExecutor<?> generate(CtMethod targetMethod, String arguments)
+      throws NotFoundException, CannotCompileException, IOException,
+      ReflectiveOperationException {
+    String targetClass = targetMethod.getDeclaringClass().getName();
+    boolean isStatic = Modifier.isStatic(targetMethod.getModifiers());
+
+    CtClass generating = this.pool.makeClass(
+        "GeneratedDirectEventExecutor_" + this.idCounter.incrementAndGet() + "_"
+            + UUID.randomUUID().toString().replace("-", ""));
+    generating.addInterface(this.pool.get(EventExecutor.class.getName()));
+
+    String target;
+    if (isStatic) {
+      target = targetClass;
+    } else {
+      generating.addField(
+          CtField.make(String.format("private %s instance;", targetClass), generating));
+      target = "this.instance";
+    }
+
+    StringBuilder body = new StringBuilder(String.format(
+        "public void invoke(%s event, %s phase, %s holderMethod) {",
+        Event.class.getName(), Phase.class.getName(), SubscribeMethod.class.getName()));
+
+    if (!isStatic) {
+      body.append(String.format(
+          "if (this.instance == null) { this.instance = (%1$s) %2$s.getInjectedInstance(%1$s.class); }",
+          targetClass, InjectionHolder.class.getName()));
+    }
+
+    body.append(target).append('.').append(targetMethod.getName())
+        .append('(').append(arguments).append(");");
+    body.append('}');
+
+    generating.addMethod(CtNewMethod.make(body.toString(), generating));
+    // readable name for log messages, e.g. from the EventBusMetrics
+    generating.addMethod(CtNewMethod.make(String.format(
+        "public String toString() { return \"%s#%s\"; }", targetClass, targetMethod.getName()),
+        generating));
+
+    return (EventExecutor<?>) CtResolver.defineClass(generating)
+        .getDeclaredConstructor()
+        .newInstance();
+  }
+}
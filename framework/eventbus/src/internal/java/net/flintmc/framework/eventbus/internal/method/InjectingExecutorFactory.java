@@ -28,36 +28,52 @@ import net.flintmc.framework.eventbus.method.EventExecutor;
 import net.flintmc.framework.eventbus.method.ExecutorFactory;
 import net.flintmc.framework.inject.implement.Implement;
 import net.flintmc.framework.inject.method.MethodInjector;
+import net.flintmc.framework.stereotype.service.CtMemberKey;
 import net.flintmc.framework.stereotype.service.CtResolver;
 
-/** An executor factory which uses the {@link MethodInjector} to create event executors. */
+/**
+ * An executor factory which uses the {@link MethodInjector} to create event executors. Methods that
+ * only take the event, phase and subscribe method as parameters are invoked by an executor generated
+ * by the {@link DirectEventExecutorGenerator} instead, unless the system property {@code
+ * net.flintmc.eventbus.direct-executors} is set to {@code false}.
+ */
 @Singleton
 @Implement(ExecutorFactory.class)
 public class InjectingExecutorFactory implements ExecutorFactory {
 
   private final MethodInjector.Factory injectorFactory;
-  private final Map<Integer, EventExecutor<?>> executors;
+  private final DirectEventExecutorGenerator directGenerator;
+  private final boolean directExecutors;
+  private final Map<CtMemberKey, EventExecutor<?>> executors;
 
   @Inject
-  private InjectingExecutorFactory(MethodInjector.Factory injectorFactory) {
+  private InjectingExecutorFactory(
+      MethodInjector.Factory injectorFactory, DirectEventExecutorGenerator directGenerator) {
     this.injectorFactory = injectorFactory;
+    this.directGenerator = directGenerator;
+    this.directExecutors = Boolean.parseBoolean(
+        System.getProperty("net.flintmc.eventbus.direct-executors", "true"));
     this.executors = new ConcurrentHashMap<>();
   }
 
   /** {@inheritDoc} */
   @Override
   public EventExecutor<?> create(CtMethod targetMethod) {
-    int hash = CtResolver.hash(targetMethod);
-    if (this.executors.containsKey(hash)) {
-      return this.executors.get(hash);
-    }
+    return this.executors.computeIfAbsent(
+        CtResolver.key(targetMethod), key -> this.generate(targetMethod));
+  }
 
-    // we need another class because Guice cannot read the dependencies for generic parameter types
-    GeneratedEventExecutor executor =
-        this.injectorFactory.generate(targetMethod, GeneratedEventExecutor.class);
-    EventExecutor<?> eventExecutor = executor::invoke;
+  private EventExecutor<?> generate(CtMethod targetMethod) {
+    EventExecutor<?> eventExecutor =
+        this.directExecutors ? this.directGenerator.generate(targetMethod) : null;
 
-    this.executors.put(hash, eventExecutor);
+    if (eventExecutor == null) {
+      // we need another class because Guice cannot read the dependencies for generic parameter
+      // types
+      GeneratedEventExecutor executor =
+          this.injectorFactory.generate(targetMethod, GeneratedEventExecutor.class);
+      eventExecutor = executor::invoke;
+    }
 
     return eventExecutor;
   }
@@ -0,0 +1,37 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.method.handler;
+
+/**
+ * Internal counterpart of the {@link net.flintmc.framework.eventbus.event.EventDetails}, it will
+ * automatically be added to the same classes and gives the event bus access to the dispatch plan
+ * of the event without exposing it through the public API.
+ */
+public interface EventDispatchDetails {
+
+  /**
+   * Retrieves the list with the methods that are subscribed to this event, which is used by the
+   * event bus to dispatch this event.
+   *
+   * @return The non-null list of subscribed methods
+   */
+  SubscribeMethodList getSubscribeMethodList();
+
+}
@@ -19,14 +19,12 @@
 
 package net.flintmc.framework.eventbus.internal.method.handler;
 
-import java.util.List;
 import java.util.function.BiConsumer;
-import net.flintmc.framework.eventbus.method.SubscribeMethod;
 
 public interface EventMethodHandler {
 
-  List<SubscribeMethod> getMethods(String eventClass);
+  SubscribeMethodList getMethods(String eventClass);
 
-  void forEachEvent(BiConsumer<String, List<SubscribeMethod>> consumer);
+  void forEachEvent(BiConsumer<String, SubscribeMethodList> consumer);
 
 }
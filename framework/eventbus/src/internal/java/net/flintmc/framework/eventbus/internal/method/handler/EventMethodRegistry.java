@@ -21,22 +21,56 @@ package net.flintmc.framework.eventbus.internal.method.handler;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.bytecode.ClassFile;
 import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.internal.metrics.DefaultRegistrationStatistics;
 import net.flintmc.framework.eventbus.method.SubscribeMethod;
+import net.flintmc.framework.eventbus.metrics.RegistrationStatistics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Registry for the methods that are subscribed to the events which are known by the generated
+ * {@link EventMethodHandler}s.
+ *
+ * <p>Every event class is indexed by the names of all of its superclasses and interfaces as soon as
+ * its handler is registered, so registering a method only touches the lists of the events that it
+ * can actually receive. The hierarchy is read from the Javassist class pool, because the handlers
+ * are registered while the event classes are still being transformed and therefore cannot be
+ * loaded yet. Every method remembers the lists it has been added to, so unregistering it doesn't
+ * visit any other event.
+ */
 @Singleton
 public class EventMethodRegistry {
 
   private final Logger logger;
-  private final Collection<EventMethodHandler> handlers;
+  private final ClassPool pool;
+
+  private final Map<String, SubscribeMethodList> methodLists;
+  private final Map<String, List<SubscribeMethodList>> supertypeIndex;
+  private final Map<String, Set<SubscribeMethod>> methodsByEvent;
+  private final Map<SubscribeMethod, List<SubscribeMethodList>> registrations;
+
+  private int indexedEvents;
+  private long indexNanos;
+  private int registeredMethods;
+  private long registrationNanos;
+  private int unregisteredMethods;
+  private long unregistrationNanos;
 
   @Inject
   private EventMethodRegistry() {
@@ -44,45 +78,162 @@ public class EventMethodRegistry {
     // are bound to their interfaces
 
     this.logger = LogManager.getLogger(super.getClass());
-    this.handlers = new ArrayList<>();
+    this.pool = ClassPool.getDefault();
+
+    this.methodLists = new HashMap<>();
+    this.supertypeIndex = new HashMap<>();
+    this.methodsByEvent = new HashMap<>();
+    this.registrations = new HashMap<>();
   }
 
-  public List<SubscribeMethod> getSubscribeMethods(Class<? extends Event> eventClass) {
-    for (EventMethodHandler handler : this.handlers) {
-      List<SubscribeMethod> methods = handler.getMethods(eventClass.getName());
-      if (methods != null) {
-        return methods;
-      }
+  public synchronized SubscribeMethodList getSubscribeMethods(Class<? extends Event> eventClass) {
+    return this.methodLists.get(eventClass.getName());
+  }
+
+  public synchronized void registerHandler(EventMethodHandler handler) {
+    long start = System.nanoTime();
+    int previousEvents = this.indexedEvents;
+
+    handler.forEachEvent(this::indexEvent);
+
+    this.indexNanos += System.nanoTime() - start;
+    this.logger.debug(
+        "Indexed {} new event classes ({} in total) in {} µs",
+        this.indexedEvents - previousEvents, this.indexedEvents,
+        TimeUnit.NANOSECONDS.toMicros(this.indexNanos));
+  }
+
+  public synchronized void forEachEvent(BiConsumer<String, SubscribeMethodList> consumer) {
+    this.methodLists.forEach(consumer);
+  }
+
+  public synchronized void registerForEvents(SubscribeMethod method) {
+    if (this.registrations.containsKey(method)) {
+      return;
+    }
+
+    long start = System.nanoTime();
+
+    String eventClass = method.getEventClass().getName();
+    List<SubscribeMethodList> lists =
+        new ArrayList<>(this.supertypeIndex.getOrDefault(eventClass, Collections.emptyList()));
+    for (SubscribeMethodList list : lists) {
+      list.register(method);
     }
 
-    return Collections.emptyList();
+    this.registrations.put(method, lists);
+    this.methodsByEvent.computeIfAbsent(eventClass, key -> new LinkedHashSet<>()).add(method);
+
+    this.registeredMethods++;
+    this.registrationNanos += System.nanoTime() - start;
   }
 
-  public void registerHandler(EventMethodHandler handler) {
-    this.handlers.add(handler);
+  public synchronized void unregisterFromEvents(SubscribeMethod method) {
+    List<SubscribeMethodList> lists = this.registrations.remove(method);
+    if (lists == null) {
+      return;
+    }
+
+    long start = System.nanoTime();
+
+    for (SubscribeMethodList list : lists) {
+      list.unregister(method);
+    }
+
+    Set<SubscribeMethod> methods = this.methodsByEvent.get(method.getEventClass().getName());
+    if (methods != null) {
+      methods.remove(method);
+    }
+
+    this.unregisteredMethods++;
+    this.unregistrationNanos += System.nanoTime() - start;
   }
 
-  public void forEachEvent(BiConsumer<String, List<SubscribeMethod>> consumer) {
-    for (EventMethodHandler handler : this.handlers) {
-      handler.forEachEvent(consumer);
+  /**
+   * Removes all methods from the list of the given event. Methods that are subscribed to exactly
+   * this event are unregistered completely, methods that are subscribed to one of its supertypes
+   * are only removed from the list of the given event.
+   *
+   * @param eventClass The non-null event to remove all methods from
+   */
+  public synchronized void unregisterFromEvents(Class<? extends Event> eventClass) {
+    SubscribeMethodList list = this.methodLists.get(eventClass.getName());
+    if (list == null) {
+      return;
+    }
+
+    for (SubscribeMethod method : list.toArray(new SubscribeMethod[0])) {
+      if (method.getEventClass() == eventClass) {
+        this.unregisterFromEvents(method);
+        continue;
+      }
+
+      List<SubscribeMethodList> lists = this.registrations.get(method);
+      if (lists != null) {
+        lists.remove(list);
+      }
     }
+
+    list.unregisterAll();
+  }
+
+  /**
+   * Retrieves the time that has been spent on indexing events and (un-)registering methods.
+   *
+   * @return The new non-null snapshot of the statistics
+   */
+  public synchronized RegistrationStatistics getStatistics() {
+    return new DefaultRegistrationStatistics(
+        this.indexedEvents, this.indexNanos,
+        this.registeredMethods, this.registrationNanos,
+        this.unregisteredMethods, this.unregistrationNanos);
   }
 
-  public void registerForEvents(SubscribeMethod method) {
-    this.forEachEvent((eventClass, methods) -> {
-      try {
-        if (method.getEventClass().isAssignableFrom(Class.forName(eventClass))) {
-          methods.add(method);
-
-          methods.sort(
-              Collections.reverseOrder(Comparator.comparingInt(SubscribeMethod::getPriority)));
-        }
-      } catch (ClassNotFoundException exception) {
-        this.logger
-            .error("Class {} not found while registering a subscribe method for {}", eventClass,
-                method.getEventClass().getName());
+  private void indexEvent(String eventClass, SubscribeMethodList methods) {
+    if (this.methodLists.putIfAbsent(eventClass, methods) != null) {
+      // already indexed, the methods of this event have already been registered
+      return;
+    }
+
+    for (String supertype : this.collectSupertypes(eventClass)) {
+      this.supertypeIndex.computeIfAbsent(supertype, key -> new ArrayList<>()).add(methods);
+
+      // methods that have been registered before this event was known
+      for (SubscribeMethod method : this.methodsByEvent.getOrDefault(
+          supertype, Collections.emptySet())) {
+        methods.register(method);
+        this.registrations.get(method).add(methods);
       }
-    });
+    }
+
+    this.indexedEvents++;
   }
 
+  private Set<String> collectSupertypes(String eventClass) {
+    Set<String> supertypes = new HashSet<>();
+    Deque<String> pending = new ArrayDeque<>();
+    pending.add(eventClass);
+
+    while (!pending.isEmpty()) {
+      String type = pending.poll();
+      if (!supertypes.add(type)) {
+        continue;
+      }
+
+      CtClass ctClass = this.pool.getOrNull(type);
+      if (ctClass == null) {
+        this.logger.error(
+            "Class {} not found while indexing the supertypes of {}", type, eventClass);
+        continue;
+      }
+
+      ClassFile classFile = ctClass.getClassFile2();
+      if (classFile.getSuperclass() != null) {
+        pending.add(classFile.getSuperclass());
+      }
+      Collections.addAll(pending, classFile.getInterfaces());
+    }
+
+    return supertypes;
+  }
 }
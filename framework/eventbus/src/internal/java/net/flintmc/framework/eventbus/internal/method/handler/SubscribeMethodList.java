@@ -0,0 +1,212 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.method.handler;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.RandomAccess;
+import java.util.Set;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+
+/**
+ * Immutable view on the methods that are subscribed to a specific event. The methods are kept in a
+ * {@link DispatchPlan} which is already split into the phases in which they will be invoked, so
+ * that firing an event never needs to lock, allocate or filter the methods by their phase. The plan
+ * is rebuilt whenever a method is registered or unregistered and published as a whole.
+ */
+public final class SubscribeMethodList extends AbstractList<SubscribeMethod>
+    implements RandomAccess {
+
+  private static final SubscribeMethod[] EMPTY = new SubscribeMethod[0];
+  private static final DispatchPlan EMPTY_PLAN = new DispatchPlan(EMPTY);
+
+  private final Set<SubscribeMethod> members;
+  private volatile DispatchPlan plan;
+
+  public SubscribeMethodList() {
+    this.members = new HashSet<>();
+    this.plan = EMPTY_PLAN;
+  }
+
+  /**
+   * Retrieves all methods that need to be invoked synchronously when the event is fired in the
+   * given phase, sorted by their priority. The returned array must not be modified.
+   *
+   * @param phase The non-null phase in which the event is fired
+   * @return The non-null array of methods to be invoked
+   */
+  public SubscribeMethod[] getMethods(Phase phase) {
+    DispatchPlan plan = this.plan;
+    switch (phase) {
+      case PRE:
+        return plan.pre;
+      case POST:
+        return plan.post;
+      default:
+        return plan.all;
+    }
+  }
+
+  /**
+   * Retrieves all methods that need to be invoked asynchronously when the event is fired in the
+   * given phase, sorted by their priority. The returned array must not be modified.
+   *
+   * @param phase The non-null phase in which the event is fired
+   * @return The non-null array of methods to be invoked
+   * @see SubscribeMethod#isAsync()
+   */
+  public SubscribeMethod[] getAsyncMethods(Phase phase) {
+    DispatchPlan plan = this.plan;
+    switch (phase) {
+      case PRE:
+        return plan.asyncPre;
+      case POST:
+        return plan.asyncPost;
+      default:
+        return plan.asyncAll;
+    }
+  }
+
+  /**
+   * Adds the given method to this list, methods with a higher priority will be placed before the
+   * ones with a lower priority. Methods with the same priority are kept in the order in which they
+   * have been registered. A method that is already in this list won't be added again.
+   *
+   * @param method The non-null method to be added
+   */
+  synchronized void register(SubscribeMethod method) {
+    if (!this.members.add(method)) {
+      return;
+    }
+
+    SubscribeMethod[] current = this.plan.methods;
+
+    int index = current.length;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i].getPriority() < method.getPriority()) {
+        index = i;
+        break;
+      }
+    }
+
+    SubscribeMethod[] methods = new SubscribeMethod[current.length + 1];
+    System.arraycopy(current, 0, methods, 0, index);
+    methods[index] = method;
+    System.arraycopy(current, index, methods, index + 1, current.length - index);
+
+    this.plan = new DispatchPlan(methods);
+  }
+
+  /**
+   * Removes the given method from this list, if it is not registered, nothing will happen.
+   *
+   * @param method The non-null method to be removed
+   * @return {@code true} if the method has been removed, {@code false} otherwise
+   */
+  synchronized boolean unregister(SubscribeMethod method) {
+    if (!this.members.remove(method)) {
+      return false;
+    }
+
+    SubscribeMethod[] current = this.plan.methods;
+    SubscribeMethod[] methods = new SubscribeMethod[current.length - 1];
+    int size = 0;
+    for (SubscribeMethod registered : current) {
+      if (!registered.equals(method)) {
+        methods[size++] = registered;
+      }
+    }
+
+    this.plan = new DispatchPlan(methods);
+    return true;
+  }
+
+  /**
+   * Removes all methods from this list.
+   */
+  synchronized void unregisterAll() {
+    this.members.clear();
+    this.plan = EMPTY_PLAN;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SubscribeMethod get(int index) {
+    return this.plan.methods[index];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int size() {
+    return this.plan.methods.length;
+  }
+
+  /**
+   * Snapshot of the subscribed methods, pre-split into the phases in which they will be invoked.
+   */
+  private static final class DispatchPlan {
+
+    private final SubscribeMethod[] methods;
+
+    private final SubscribeMethod[] all;
+    private final SubscribeMethod[] pre;
+    private final SubscribeMethod[] post;
+
+    private final SubscribeMethod[] asyncAll;
+    private final SubscribeMethod[] asyncPre;
+    private final SubscribeMethod[] asyncPost;
+
+    private DispatchPlan(SubscribeMethod[] methods) {
+      this.methods = methods;
+
+      this.all = filter(methods, Phase.ANY, false);
+      this.pre = filter(methods, Phase.PRE, false);
+      this.post = filter(methods, Phase.POST, false);
+
+      this.asyncAll = filter(methods, Phase.ANY, true);
+      this.asyncPre = filter(methods, Phase.PRE, true);
+      this.asyncPost = filter(methods, Phase.POST, true);
+    }
+
+    private static SubscribeMethod[] filter(
+        SubscribeMethod[] methods, Phase phase, boolean async) {
+      SubscribeMethod[] filtered = new SubscribeMethod[methods.length];
+      int size = 0;
+
+      for (SubscribeMethod method : methods) {
+        if (method.isAsync() != async) {
+          continue;
+        }
+
+        if (phase == Phase.ANY || method.getPhase() == Phase.ANY || method.getPhase() == phase) {
+          filtered[size++] = method;
+        }
+      }
+
+      return size == filtered.length ? filtered : Arrays.copyOf(filtered, size);
+    }
+  }
+}
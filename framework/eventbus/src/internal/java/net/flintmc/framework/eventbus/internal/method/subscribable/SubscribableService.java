@@ -28,14 +28,15 @@ import javassist.CtField;
 import javassist.CtMethod;
 import javassist.CtNewMethod;
 import javassist.NotFoundException;
-import javassist.bytecode.ClassFile;
 import net.flintmc.framework.eventbus.event.Event;
 import net.flintmc.framework.eventbus.event.EventDetails;
 import net.flintmc.framework.eventbus.event.subscribe.Subscribable;
 import net.flintmc.framework.eventbus.event.subscribe.Subscribe;
 import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.internal.method.handler.EventDispatchDetails;
 import net.flintmc.framework.eventbus.internal.method.handler.EventMethodHandler;
 import net.flintmc.framework.eventbus.internal.method.handler.EventMethodRegistry;
+import net.flintmc.framework.eventbus.internal.method.handler.SubscribeMethodList;
 import net.flintmc.framework.stereotype.service.CtResolver;
 import net.flintmc.framework.stereotype.service.Service;
 import net.flintmc.framework.stereotype.service.Service.State;
@@ -45,9 +46,8 @@ import net.flintmc.launcher.classloading.common.CommonClassLoader;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.launcher.classloading.ClassTransformException;
 import net.flintmc.transform.launchplugin.LateInjectedTransformer;
+import net.flintmc.transform.launchplugin.TransformedClass;
 import net.flintmc.transform.minecraft.MinecraftTransformer;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -72,6 +72,7 @@ public class SubscribableService implements LateInjectedTransformer, ServiceHand
 
   private final CtClass eventClass;
   private final CtClass eventDetailsClass;
+  private final CtClass eventDispatchDetailsClass;
 
   private final Map<String, EventTransform> pendingTransforms;
   private final Map<String, Phase[]> missingFields;
@@ -85,6 +86,7 @@ public class SubscribableService implements LateInjectedTransformer, ServiceHand
     this.pool = ClassPool.getDefault();
     this.eventClass = this.pool.get(Event.class.getName());
     this.eventDetailsClass = this.pool.get(EventDetails.class.getName());
+    this.eventDispatchDetailsClass = this.pool.get(EventDispatchDetails.class.getName());
 
     this.idCounter = new AtomicInteger();
     this.pendingTransforms = new ConcurrentHashMap<>();
@@ -110,32 +112,20 @@ public class SubscribableService implements LateInjectedTransformer, ServiceHand
   }
 
   @Override
-  public byte[] transform(String className, CommonClassLoader classLoader, byte[] bytes) throws ClassTransformException {
+  public void transform(String className, CommonClassLoader classLoader,
+      TransformedClass transformed) throws ClassTransformException {
     if (!this.shouldGenerateFields(className) && !this.shouldTransformEventClass(className)) {
-      return bytes;
+      return;
     }
 
-    CtClass ctClass;
+    // the generated event methods are registered in the EventMethodRegistry
+    transformed.disableCaching();
+    CtClass ctClass = transformed.getCtClass();
 
     try {
-      ctClass =
-          this.pool.makeClass(
-              new ClassFile(new DataInputStream(new ByteArrayInputStream(bytes))), false);
-
       this.generateFields(ctClass);
       this.transformEventClass(ctClass);
-
     } catch (IOException | CannotCompileException | ReflectiveOperationException | NotFoundException exception) {
-      throw new ClassTransformException("unable to read class", exception);
-    }
-
-    try {
-      return ctClass.toBytecode();
-    } catch (IOException exception) {
-      // Basically unreachable.
-      throw new ClassTransformException(
-          "Unable to write class bytecode to byte array: " + className, exception);
-    } catch (CannotCompileException exception) {
       throw new ClassTransformException("Unable to transform class: " + className, exception);
     }
   }
@@ -183,7 +173,8 @@ public class SubscribableService implements LateInjectedTransformer, ServiceHand
   private void generateHandlerMethods(CtClass generating,
       Map<String, EventTransform> transformsByEvent) throws CannotCompileException {
     StringBuilder builder = new StringBuilder();
-    builder.append("public java.util.List getMethods(String eventClass) {");
+    builder.append("public ").append(SubscribeMethodList.class.getName())
+        .append(" getMethods(String eventClass) {");
     builder.append("int hash = eventClass.hashCode();");
 
     transformsByEvent.forEach((eventClass, transform) -> {
@@ -232,8 +223,8 @@ public class SubscribableService implements LateInjectedTransformer, ServiceHand
     String suffix = eventClass.replace(".", "_").replace("$", "_");
 
     CtField methodsField = CtField.make(String.format(
-        "public static final java.util.List subscribeMethods_%s"
-            + "= new java.util.concurrent.CopyOnWriteArrayList();", suffix),
+        "public static final %1$s subscribeMethods_%2$s = new %1$s();",
+        SubscribeMethodList.class.getName(), suffix),
         generating);
     generating.addField(methodsField);
 
@@ -278,10 +269,16 @@ public class SubscribableService implements LateInjectedTransformer, ServiceHand
     }
 
     transforming.addInterface(this.eventDetailsClass);
-    transforming.addMethod(
-        this.makeGetter("getMethods", transforming, transform.getUnmodifiableMethodsField()));
-    transforming.addMethod(
-        this.makeGetter("getSupportedPhases", transforming, transform.getPhasesField()));
+    transforming.addInterface(this.eventDispatchDetailsClass);
+    // the getters need to match the return types of the interfaces exactly, Javassist doesn't
+    // generate bridge methods for covariant return types
+    transforming.addMethod(this.makeGetter(
+        "getMethods", "java.util.List", transforming, transform.getUnmodifiableMethodsField()));
+    transforming.addMethod(this.makeGetter(
+        "getSubscribeMethodList", SubscribeMethodList.class.getName(), transforming,
+        transform.getMethodsField()));
+    transforming.addMethod(this.makeGetter(
+        "getSupportedPhases", "java.util.Collection", transforming, transform.getPhasesField()));
 
     CtMethod eventClassGetter =
         new CtMethod(this.pool.get("java.lang.Class"), "getEventClass", null, transforming);
@@ -289,10 +286,10 @@ public class SubscribableService implements LateInjectedTransformer, ServiceHand
     transforming.addMethod(eventClassGetter);
   }
 
-  private CtMethod makeGetter(String name, CtClass declaring, CtField target)
-      throws NotFoundException, CannotCompileException {
+  private CtMethod makeGetter(String name, String returnType, CtClass declaring, CtField target)
+      throws CannotCompileException {
     return CtNewMethod.make(String.format(
-        "public %s %s() { return %s.%s; }", target.getType().getName(), name,
+        "public %s %s() { return %s.%s; }", returnType, name,
         target.getDeclaringClass().getName(), target.getName()
     ), declaring);
   }
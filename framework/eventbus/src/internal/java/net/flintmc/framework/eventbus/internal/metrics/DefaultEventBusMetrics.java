@@ -0,0 +1,351 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.internal.method.handler.EventMethodRegistry;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+import net.flintmc.framework.eventbus.metrics.EventBusMetrics;
+import net.flintmc.framework.eventbus.metrics.LatencySnapshot;
+import net.flintmc.framework.eventbus.metrics.RegistrationStatistics;
+import net.flintmc.framework.inject.implement.Implement;
+import net.flintmc.framework.inject.logging.InjectLogger;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * {@inheritDoc}
+ *
+ * <p>Every thread that invokes subscribe methods gets its own {@link Recorder} with one {@link
+ * LatencyHistogram} per method, so recording never contends with other threads. Reading the
+ * metrics merges the histograms of all recorders. Recorders of threads that have died are merged
+ * into a single retired recorder whenever the metrics are read or a new thread starts recording.
+ */
+@Singleton
+@Implement(EventBusMetrics.class)
+public class DefaultEventBusMetrics implements EventBusMetrics {
+
+  private final Logger logger;
+  private final EventMethodRegistry registry;
+  private final Map<Class<? extends Event>, LongAdder> fireCounts;
+  private final ThreadLocal<Recorder> recorder;
+
+  private volatile Recorders recorders;
+  private volatile Thread renderThread;
+  private volatile boolean enabled;
+  private volatile long slowHandlerBudget;
+
+  @Inject
+  private DefaultEventBusMetrics(@InjectLogger Logger logger, EventMethodRegistry registry) {
+    this.logger = logger;
+    this.registry = registry;
+    this.fireCounts = new ConcurrentHashMap<>();
+    this.recorder = new ThreadLocal<>();
+    this.recorders = new Recorders();
+
+    this.enabled = Boolean.getBoolean("net.flintmc.eventbus.metrics");
+    this.slowHandlerBudget = TimeUnit.MILLISECONDS.toNanos(2);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getSlowHandlerBudget(TimeUnit unit) {
+    return unit.convert(this.slowHandlerBudget, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setSlowHandlerBudget(long budget, TimeUnit unit) {
+    this.slowHandlerBudget = unit.toNanos(budget);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setRenderThread(Thread renderThread) {
+    this.renderThread = renderThread;
+  }
+
+  /**
+   * Counts that the given event has been fired, should only be called if the metrics are enabled.
+   *
+   * @param eventClass The non-null class of the fired event
+   */
+  public void recordFire(Class<? extends Event> eventClass) {
+    LongAdder count = this.fireCounts.get(eventClass);
+    if (count == null) {
+      count = this.fireCounts.computeIfAbsent(eventClass, key -> new LongAdder());
+    }
+
+    count.increment();
+  }
+
+  /**
+   * Records the time the given method took to handle an event on the current thread, should only
+   * be called if the metrics are enabled.
+   *
+   * @param eventClass The non-null class of the handled event
+   * @param method     The non-null method that has handled the event
+   * @param nanos      The time the method took in nanoseconds
+   */
+  public void recordInvocation(Class<? extends Event> eventClass, SubscribeMethod method,
+      long nanos) {
+    Recorders recorders = this.recorders;
+    Recorder recorder = this.recorder.get();
+    if (recorder == null || recorder.owner != recorders) {
+      // reset() has been called in the meantime or this thread hasn't recorded anything yet
+      recorder = new Recorder(recorders, Thread.currentThread());
+      this.prune(recorders);
+      recorders.active.add(recorder);
+      this.recorder.set(recorder);
+    }
+
+    LatencyHistogram histogram = recorder.histograms.get(method);
+    if (histogram == null) {
+      histogram = new LatencyHistogram();
+      // other threads only access the map while holding the lock, this thread only writes with it
+      synchronized (recorder) {
+        recorder.histograms.put(method, histogram);
+      }
+    }
+    histogram.record(nanos);
+
+    long budget = this.slowHandlerBudget;
+    if (budget > 0 && nanos > budget && Thread.currentThread() == this.renderThread) {
+      this.logger.warn(
+          "{} took {} ms to handle {} on the render thread, the budget is {} ms",
+          method, nanos / 1_000_000D, eventClass.getName(), budget / 1_000_000D);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getFireCount(Class<? extends Event> eventClass) {
+    LongAdder count = this.fireCounts.get(eventClass);
+    return count != null ? count.sum() : 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Map<Class<? extends Event>, Long> getFireCounts() {
+    ImmutableMap.Builder<Class<? extends Event>, Long> counts = ImmutableMap.builder();
+    this.fireCounts.forEach((eventClass, count) -> counts.put(eventClass, count.sum()));
+    return counts.build();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public LatencySnapshot getLatency(SubscribeMethod method) {
+    long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+    long[] totals = new long[3];
+
+    Recorders recorders = this.recorders;
+    this.prune(recorders);
+    for (Recorder recorder : recorders) {
+      LatencyHistogram histogram;
+      synchronized (recorder) {
+        histogram = recorder.histograms.get(method);
+      }
+
+      if (histogram != null) {
+        histogram.addTo(buckets, totals);
+      }
+    }
+
+    return new DefaultLatencySnapshot(buckets, totals[0], totals[1], totals[2]);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Map<SubscribeMethod, LatencySnapshot> getLatencies() {
+    Map<SubscribeMethod, LatencyHistogram[]> histograms = new HashMap<>();
+    Recorders recorders = this.recorders;
+    this.prune(recorders);
+    for (Recorder recorder : recorders) {
+      synchronized (recorder) {
+        recorder.histograms.forEach((method, histogram) -> {
+          LatencyHistogram[] merged = histograms.get(method);
+          if (merged == null) {
+            histograms.put(method, new LatencyHistogram[]{histogram});
+          } else {
+            LatencyHistogram[] extended = new LatencyHistogram[merged.length + 1];
+            System.arraycopy(merged, 0, extended, 0, merged.length);
+            extended[merged.length] = histogram;
+            histograms.put(method, extended);
+          }
+        });
+      }
+    }
+
+    ImmutableMap.Builder<SubscribeMethod, LatencySnapshot> snapshots = ImmutableMap.builder();
+    histograms.forEach((method, merged) -> {
+      long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+      long[] totals = new long[3];
+      for (LatencyHistogram histogram : merged) {
+        histogram.addTo(buckets, totals);
+      }
+
+      snapshots.put(method, new DefaultLatencySnapshot(buckets, totals[0], totals[1], totals[2]));
+    });
+    return snapshots.build();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public RegistrationStatistics getRegistrationStatistics() {
+    return this.registry.getStatistics();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void reset() {
+    this.fireCounts.clear();
+    // every thread creates a new recorder the next time it records anything
+    this.recorders = new Recorders();
+  }
+
+  /**
+   * Merges the recorders of all threads that have died into the retired recorder of the given
+   * generation, nothing will be recorded into them anymore.
+   *
+   * @param recorders The non-null generation of recorders to prune
+   */
+  private void prune(Recorders recorders) {
+    Recorder retired = recorders.retired;
+    for (Recorder recorder : recorders.active) {
+      if (recorder.isAlive()) {
+        continue;
+      }
+
+      synchronized (retired) {
+        // another thread might prune the same recorder at the same time
+        if (!recorders.active.remove(recorder)) {
+          continue;
+        }
+
+        synchronized (recorder) {
+          recorder.histograms.forEach((method, histogram) -> retired.histograms
+              .computeIfAbsent(method, key -> new LatencyHistogram())
+              .addAll(histogram));
+        }
+      }
+    }
+  }
+
+  /**
+   * All recorders between two calls of {@link #reset()}.
+   */
+  private static final class Recorders implements Iterable<Recorder> {
+
+    private final Queue<Recorder> active;
+    // only accessed while holding its lock
+    private final Recorder retired;
+
+    private Recorders() {
+      this.active = new ConcurrentLinkedQueue<>();
+      this.retired = new Recorder(this, null);
+    }
+
+    /**
+     * Iterates over the recorders of all living threads followed by the retired recorder.
+     */
+    @Override
+    public Iterator<Recorder> iterator() {
+      return Iterators.concat(this.active.iterator(), Iterators.singletonIterator(this.retired));
+    }
+  }
+
+  /**
+   * The histograms of a single thread.
+   */
+  private static final class Recorder {
+
+    private final Recorders owner;
+    private final WeakReference<Thread> thread;
+    private final Map<SubscribeMethod, LatencyHistogram> histograms;
+
+    private Recorder(Recorders owner, Thread thread) {
+      this.owner = owner;
+      this.thread = thread != null ? new WeakReference<>(thread) : null;
+      this.histograms = new IdentityHashMap<>();
+    }
+
+    /**
+     * Retrieves whether the thread of this recorder might still record anything.
+     *
+     * @return {@code true} if the thread is still alive or this is a retired recorder, {@code
+     * false} otherwise
+     */
+    private boolean isAlive() {
+      if (this.thread == null) {
+        return true;
+      }
+
+      Thread thread = this.thread.get();
+      return thread != null && thread.isAlive();
+    }
+  }
+}
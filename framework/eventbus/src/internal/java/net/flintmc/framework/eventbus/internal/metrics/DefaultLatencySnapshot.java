@@ -0,0 +1,97 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.metrics;
+
+import net.flintmc.framework.eventbus.metrics.LatencySnapshot;
+
+/**
+ * {@inheritDoc}
+ */
+public class DefaultLatencySnapshot implements LatencySnapshot {
+
+  private final long[] buckets;
+  private final long count;
+  private final long sum;
+  private final long max;
+
+  public DefaultLatencySnapshot(long[] buckets, long count, long sum, long max) {
+    this.buckets = buckets;
+    this.count = count;
+    this.sum = sum;
+    this.max = max;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMax() {
+    return this.max;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public double getMean() {
+    return this.count == 0 ? 0 : (double) this.sum / this.count;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getValueAtPercentile(double percentile) {
+    if (this.count == 0) {
+      return 0;
+    }
+
+    long target = (long) Math.ceil(this.count * Math.max(0, Math.min(100, percentile)) / 100D);
+    long seen = 0;
+
+    for (int i = 0; i < this.buckets.length; i++) {
+      seen += this.buckets[i];
+      if (seen >= Math.max(1, target)) {
+        return Math.min(LatencyHistogram.bucketUpperBound(i), this.max);
+      }
+    }
+
+    return this.max;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format(
+        "LatencySnapshot{count=%d, mean=%.0fns, p50=%dns, p99=%dns, max=%dns}",
+        this.count, this.getMean(), this.getValueAtPercentile(50), this.getValueAtPercentile(99),
+        this.max);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.metrics;
+
+import java.util.concurrent.TimeUnit;
+import net.flintmc.framework.eventbus.metrics.RegistrationStatistics;
+
+/**
+ * {@inheritDoc}
+ */
+public class DefaultRegistrationStatistics implements RegistrationStatistics {
+
+  private final int indexedEvents;
+  private final long indexNanos;
+  private final int registeredMethods;
+  private final long registrationNanos;
+  private final int unregisteredMethods;
+  private final long unregistrationNanos;
+
+  public DefaultRegistrationStatistics(
+      int indexedEvents, long indexNanos,
+      int registeredMethods, long registrationNanos,
+      int unregisteredMethods, long unregistrationNanos) {
+    this.indexedEvents = indexedEvents;
+    this.indexNanos = indexNanos;
+    this.registeredMethods = registeredMethods;
+    this.registrationNanos = registrationNanos;
+    this.unregisteredMethods = unregisteredMethods;
+    this.unregistrationNanos = unregistrationNanos;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getIndexedEvents() {
+    return this.indexedEvents;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getIndexTime(TimeUnit unit) {
+    return unit.convert(this.indexNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getRegisteredMethods() {
+    return this.registeredMethods;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getRegistrationTime(TimeUnit unit) {
+    return unit.convert(this.registrationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getUnregisteredMethods() {
+    return this.unregisteredMethods;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getUnregistrationTime(TimeUnit unit) {
+    return unit.convert(this.unregistrationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format(
+        "RegistrationStatistics{indexedEvents=%d, index=%dµs, registeredMethods=%d, "
+            + "registration=%dµs, unregisteredMethods=%d, unregistration=%dµs}",
+        this.indexedEvents, TimeUnit.NANOSECONDS.toMicros(this.indexNanos),
+        this.registeredMethods, TimeUnit.NANOSECONDS.toMicros(this.registrationNanos),
+        this.unregisteredMethods, TimeUnit.NANOSECONDS.toMicros(this.unregistrationNanos));
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds. Every power of two is split into {@link
+ * #SUB_BUCKETS} linear buckets, values above {@link #MAX_VALUE} are counted as {@link #MAX_VALUE}.
+ *
+ * <p>A histogram may only be written by a single thread, but read by any thread at the same time.
+ * This is why the counters are only updated with {@link AtomicLongArray#lazySet(int, long)} and
+ * never need a lock or a CAS loop.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_BIT = 40;
+
+  /**
+   * The highest value that can be recorded, about 18 minutes.
+   */
+  public static final long MAX_VALUE = (1L << MAX_BIT) - 1;
+
+  /**
+   * The amount of buckets in every histogram.
+   */
+  public static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+  private static final int COUNT = BUCKET_COUNT;
+  private static final int SUM = BUCKET_COUNT + 1;
+  private static final int MAX = BUCKET_COUNT + 2;
+
+  // buckets followed by the total count, sum and maximum
+  private final AtomicLongArray values;
+
+  public LatencyHistogram() {
+    this.values = new AtomicLongArray(BUCKET_COUNT + 3);
+  }
+
+  /**
+   * Retrieves the index of the bucket for the given value.
+   *
+   * @param value The non-negative value, at most {@link #MAX_VALUE}
+   * @return The index of the bucket
+   */
+  public static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  /**
+   * Retrieves the highest value that is counted into the bucket with the given index.
+   *
+   * @param index The index of the bucket
+   * @return The highest value in the bucket
+   */
+  public static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    int shift = index / SUB_BUCKETS - 1;
+    long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+
+  /**
+   * Records the given value, may only be called by the thread owning this histogram.
+   *
+   * @param value The latency in nanoseconds
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    } else if (value > MAX_VALUE) {
+      value = MAX_VALUE;
+    }
+
+    int index = bucketIndex(value);
+    this.values.lazySet(index, this.values.get(index) + 1);
+    this.values.lazySet(SUM, this.values.get(SUM) + value);
+    if (value > this.values.get(MAX)) {
+      this.values.lazySet(MAX, value);
+    }
+    this.values.lazySet(COUNT, this.values.get(COUNT) + 1);
+  }
+
+  /**
+   * Adds all values of the given histogram to this histogram, may only be called by the thread
+   * owning this histogram and only if nothing is recorded into the given histogram anymore.
+   *
+   * @param other The non-null histogram to add the values of
+   */
+  public void addAll(LatencyHistogram other) {
+    for (int i = 0; i < SUM + 1; i++) {
+      this.values.lazySet(i, this.values.get(i) + other.values.get(i));
+    }
+
+    long max = other.values.get(MAX);
+    if (max > this.values.get(MAX)) {
+      this.values.lazySet(MAX, max);
+    }
+  }
+
+  /**
+   * Adds all values of this histogram to the given arrays, may be called by any thread.
+   *
+   * @param buckets The non-null array with {@link #BUCKET_COUNT} elements to add the buckets to
+   * @param totals  The non-null array to add the count (index 0) and sum (index 1) to and to store
+   *                the maximum (index 2) in
+   */
+  public void addTo(long[] buckets, long[] totals) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] += this.values.get(i);
+    }
+
+    totals[0] += this.values.get(COUNT);
+    totals[1] += this.values.get(SUM);
+    totals[2] = Math.max(totals[2], this.values.get(MAX));
+  }
+}
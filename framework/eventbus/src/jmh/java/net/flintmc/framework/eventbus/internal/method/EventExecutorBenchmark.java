@@ -0,0 +1,140 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.method;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.method.EventExecutor;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+import net.flintmc.framework.inject.internal.method.MethodInjectorFactory;
+import net.flintmc.framework.inject.method.MethodInjector;
+import net.flintmc.framework.stereotype.service.CtResolver;
+import net.flintmc.util.unittesting.StandaloneClassSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares firing an event to subscribers whose executors have been generated by the {@link
+ * MethodInjector} with subscribers whose executors have been generated by the {@link
+ * DirectEventExecutorGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventExecutorBenchmark {
+
+  private static int subscriberCounter;
+
+  @Param({"1", "10", "100"})
+  private int subscribers;
+
+  @Param({"false", "true"})
+  private boolean directExecutors;
+
+  private SubscribeMethod[] methods;
+  private BenchmarkEvent event;
+
+  @Setup
+  public void setup() throws Exception {
+    StandaloneClassSource.install();
+    System.setProperty(
+        "net.flintmc.eventbus.direct-executors", String.valueOf(this.directExecutors));
+
+    ClassPool pool = ClassPool.getDefault();
+    InjectingExecutorFactory executorFactory = newInstance(
+        InjectingExecutorFactory.class,
+        new Class<?>[]{MethodInjector.Factory.class, DirectEventExecutorGenerator.class},
+        newInstance(
+            MethodInjectorFactory.class,
+            new Class<?>[]{Logger.class},
+            LogManager.getLogger(MethodInjectorFactory.class)),
+        newInstance(
+            DirectEventExecutorGenerator.class, new Class<?>[]{ClassPool.class}, pool));
+
+    this.methods = new SubscribeMethod[this.subscribers];
+    for (int i = 0; i < this.methods.length; i++) {
+      CtMethod targetMethod = this.generateSubscriber(pool);
+
+      this.methods[i] = newInstance(
+          DefaultSubscribeMethod.class,
+          new Class<?>[]{Class.class, byte.class, Phase.class, boolean.class, EventExecutor.class},
+          BenchmarkEvent.class, (byte) 0, Phase.PRE, false, executorFactory.create(targetMethod));
+    }
+
+    this.event = new BenchmarkEvent();
+  }
+
+  @Benchmark
+  public int fire() throws Throwable {
+    // same loop as in the DefaultEventBus
+    for (SubscribeMethod method : this.methods) {
+      method.invoke(this.event, Phase.PRE);
+    }
+    return this.event.handled;
+  }
+
+  private CtMethod generateSubscriber(ClassPool pool) throws Exception {
+    // every subscriber needs its own method, the executors are cached per method
+    CtClass subscriber = pool.makeClass(
+        EventExecutorBenchmark.class.getName() + "_Subscriber_" + ++subscriberCounter);
+    subscriber.addConstructor(CtNewConstructor.defaultConstructor(subscriber));
+
+    CtMethod targetMethod = CtNewMethod.make(String.format(
+        "public void onEvent(%s event) { event.handled++; }", BenchmarkEvent.class.getName()),
+        subscriber);
+    subscriber.addMethod(targetMethod);
+
+    CtResolver.defineClass(subscriber);
+    return targetMethod;
+  }
+
+  private static <T> T newInstance(Class<T> type, Class<?>[] parameters, Object... arguments)
+      throws ReflectiveOperationException {
+    Constructor<T> constructor = type.getDeclaredConstructor(parameters);
+    constructor.setAccessible(true);
+    return constructor.newInstance(arguments);
+  }
+
+  public static class BenchmarkEvent implements Event {
+
+    public int handled;
+  }
+}
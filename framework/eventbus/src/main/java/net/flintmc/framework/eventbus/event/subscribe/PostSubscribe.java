@@ -44,4 +44,12 @@ public @interface PostSubscribe {
    * @see Subscribe#priority()
    */
   byte priority() default EventPriority.NORMAL;
+
+  /**
+   * Retrieves whether the subscribed method should be invoked asynchronously.
+   *
+   * @return {@code true} if the method should be invoked asynchronously, {@code false} otherwise
+   * @see Subscribe#async()
+   */
+  boolean async() default false;
 }
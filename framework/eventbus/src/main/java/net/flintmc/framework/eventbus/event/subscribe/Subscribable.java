@@ -51,4 +51,42 @@ public @interface Subscribable {
    */
   Subscribe.Phase[] value();
 
+  /**
+   * Retrieves the policy that is applied when the queue for methods that are subscribed {@link
+   * Subscribe#async() asynchronously} to this event is full.
+   *
+   * @return The non-null policy for asynchronous subscribers
+   */
+  AsyncPolicy asyncPolicy() default AsyncPolicy.DROP;
+
+  /**
+   * Retrieves the maximum amount of events that can be queued for methods that are subscribed
+   * {@link Subscribe#async() asynchronously} to this event, will be rounded up to the next power of
+   * two.
+   *
+   * @return The capacity of the queue for asynchronous subscribers
+   */
+  int asyncQueueSize() default 1024;
+
+  /**
+   * An enumeration representing all policies that can be applied when an event is fired while the
+   * queue for asynchronous subscribers is full.
+   */
+  enum AsyncPolicy {
+
+    /**
+     * The fired event won't be passed to the asynchronous subscribers.
+     */
+    DROP,
+    /**
+     * The thread that fires the event waits until there is space in the queue again.
+     */
+    BLOCK,
+    /**
+     * Only the latest fired event is kept, every event that hasn't been handled yet will be
+     * replaced by it.
+     */
+    COALESCE_LATEST
+  }
+
 }
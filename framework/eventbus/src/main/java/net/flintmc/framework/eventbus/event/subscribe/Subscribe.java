@@ -21,6 +21,7 @@ package net.flintmc.framework.eventbus.event.subscribe;
 
 import com.google.inject.Singleton;
 import net.flintmc.framework.eventbus.EventBus;
+import net.flintmc.framework.eventbus.event.Cancellable;
 import net.flintmc.framework.eventbus.event.Event;
 import net.flintmc.framework.eventbus.event.EventPriority;
 import net.flintmc.framework.eventbus.method.SubscribeMethod;
@@ -57,6 +58,18 @@ public @interface Subscribe {
    */
   byte priority() default EventPriority.NORMAL;
 
+  /**
+   * Retrieves whether the subscribed method should be invoked asynchronously. If enabled, the event
+   * bus queues the fired events and invokes this method in batches on a worker thread instead of
+   * the thread that has fired the event, the method therefore needs to be thread-safe. How events
+   * are handled when the queue is full is defined by {@link Subscribable#asyncPolicy()}.
+   *
+   * <p>This is only supported for events that are not {@link Cancellable}.
+   *
+   * @return {@code true} if the method should be invoked asynchronously, {@code false} otherwise
+   */
+  boolean async() default false;
+
   /**
    * Retrieves the phase of the subscribed method.
    *
@@ -56,6 +56,16 @@ public interface SubscribeMethod {
    */
   Subscribe.Phase getPhase();
 
+  /**
+   * Retrieves whether this method is invoked asynchronously by the event bus.
+   *
+   * @return {@code true} if this method is invoked asynchronously, {@code false} otherwise
+   * @see Subscribe#async()
+   */
+  default boolean isAsync() {
+    return false;
+  }
+
   /**
    * Invokes this event subscriber. Called by the bus when a new event is fired to this subscriber.
    *
@@ -83,5 +93,22 @@ public interface SubscribeMethod {
         @Assisted byte priority,
         @Assisted Subscribe.Phase phase,
         @Assisted EventExecutor<?> executor);
+
+    /**
+     * Creates a new {@link SubscribeMethod} with the given parameters.
+     *
+     * @param eventClass The non-null class of the event to which this method is subscribed
+     * @param priority The priority of the subscribed method.
+     * @param phase The phase of the subscribed method.
+     * @param async Whether the subscribed method should be invoked asynchronously.
+     * @param executor The non-null supplier for the event executor.
+     * @return A created subscribed method.
+     */
+    SubscribeMethod create(
+        @Assisted Class<? extends Event> eventClass,
+        @Assisted byte priority,
+        @Assisted Subscribe.Phase phase,
+        @Assisted boolean async,
+        @Assisted EventExecutor<?> executor);
   }
 }
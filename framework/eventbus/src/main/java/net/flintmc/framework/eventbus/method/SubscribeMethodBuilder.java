@@ -54,6 +54,17 @@ public interface SubscribeMethodBuilder<E extends Event> {
    */
   SubscribeMethodBuilder<E> priority(byte priority);
 
+  /**
+   * Sets whether the built method will be invoked asynchronously by the event bus, defaults to
+   * {@code false}.
+   *
+   * @param async {@code true} if the method should be invoked asynchronously, {@code false}
+   *              otherwise
+   * @return this builder for chaining
+   * @see Subscribe#async()
+   */
+  SubscribeMethodBuilder<E> async(boolean async);
+
   /**
    * Sets the executor that will be invoked when the event is fired. This overrides any other 'to'
    * method in this builder when called.
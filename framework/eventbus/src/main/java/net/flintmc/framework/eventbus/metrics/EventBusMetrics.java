@@ -0,0 +1,126 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.flintmc.framework.eventbus.EventBus;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+
+/**
+ * Optional instrumentation of the {@link EventBus}. If enabled, the bus counts how often every
+ * event has been fired and records how long every {@link SubscribeMethod} took to handle an event.
+ * When disabled (which is the default unless the system property {@code
+ * net.flintmc.eventbus.metrics} is set to {@code true}), the bus doesn't take any timestamps.
+ *
+ * <p>Methods that take longer than the {@link #getSlowHandlerBudget(TimeUnit) budget} on the
+ * render thread will be logged as a warning.
+ */
+public interface EventBusMetrics {
+
+  /**
+   * Retrieves whether the event bus is currently recording metrics.
+   *
+   * @return {@code true} if metrics are recorded, {@code false} otherwise
+   */
+  boolean isEnabled();
+
+  /**
+   * Enables or disables the recording of metrics, already recorded values are kept.
+   *
+   * @param enabled {@code true} if metrics should be recorded, {@code false} otherwise
+   */
+  void setEnabled(boolean enabled);
+
+  /**
+   * Retrieves the maximum time a subscribe method may take on the render thread before a warning
+   * is logged.
+   *
+   * @param unit The non-null unit of the returned budget
+   * @return The budget in the given unit or {@code 0} if no warnings will be logged
+   */
+  long getSlowHandlerBudget(TimeUnit unit);
+
+  /**
+   * Sets the maximum time a subscribe method may take on the render thread before a warning is
+   * logged.
+   *
+   * @param budget The new budget or {@code 0} to disable the warnings
+   * @param unit   The non-null unit of the given budget
+   */
+  void setSlowHandlerBudget(long budget, TimeUnit unit);
+
+  /**
+   * Sets the thread on which slow subscribe methods will be logged, this is called by the game once
+   * its render thread is known.
+   *
+   * @param renderThread The render thread or {@code null} if no warnings should be logged
+   * @see #getSlowHandlerBudget(TimeUnit)
+   */
+  void setRenderThread(Thread renderThread);
+
+  /**
+   * Retrieves how often the given event has been fired while the metrics were enabled.
+   *
+   * @param eventClass The non-null class annotated with {@link
+   *                   net.flintmc.framework.eventbus.event.subscribe.Subscribable}
+   * @return The amount of fired events, one for every phase in which it has been fired
+   */
+  long getFireCount(Class<? extends Event> eventClass);
+
+  /**
+   * Retrieves how often every event has been fired while the metrics were enabled.
+   *
+   * @return The non-null immutable map of the amount of fired events by their class
+   * @see #getFireCount(Class)
+   */
+  Map<Class<? extends Event>, Long> getFireCounts();
+
+  /**
+   * Retrieves the latencies of the given method that have been recorded on all threads.
+   *
+   * @param method The non-null method to get the latencies for
+   * @return The new non-null snapshot, empty if nothing has been recorded for the given method
+   */
+  LatencySnapshot getLatency(SubscribeMethod method);
+
+  /**
+   * Retrieves the latencies of every method that have been recorded on all threads.
+   *
+   * @return The non-null immutable map of snapshots by their method
+   * @see #getLatency(SubscribeMethod)
+   */
+  Map<SubscribeMethod, LatencySnapshot> getLatencies();
+
+  /**
+   * Retrieves the time the event bus has spent on indexing events and (un-)registering subscribe
+   * methods, this is recorded even if the metrics are disabled and is not affected by {@link
+   * #reset()}.
+   *
+   * @return The new non-null snapshot of the statistics
+   */
+  RegistrationStatistics getRegistrationStatistics();
+
+  /**
+   * Discards all metrics that have been recorded so far.
+   */
+  void reset();
+}
@@ -0,0 +1,59 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.metrics;
+
+/**
+ * Immutable histogram of the latencies recorded for a single subscribe method. Values are grouped
+ * into logarithmic buckets, so every value retrieved from this snapshot may differ from the exact
+ * recorded value by at most 1/8.
+ *
+ * @see EventBusMetrics#getLatency(net.flintmc.framework.eventbus.method.SubscribeMethod)
+ */
+public interface LatencySnapshot {
+
+  /**
+   * Retrieves the amount of recorded invocations.
+   *
+   * @return The amount of recorded invocations
+   */
+  long getCount();
+
+  /**
+   * Retrieves the highest recorded latency.
+   *
+   * @return The highest latency in nanoseconds or {@code 0} if nothing has been recorded
+   */
+  long getMax();
+
+  /**
+   * Retrieves the average of all recorded latencies.
+   *
+   * @return The average latency in nanoseconds or {@code 0} if nothing has been recorded
+   */
+  double getMean();
+
+  /**
+   * Retrieves the latency below which the given percentage of all recorded latencies are.
+   *
+   * @param percentile The percentile between {@code 0} and {@code 100}
+   * @return The latency in nanoseconds or {@code 0} if nothing has been recorded
+   */
+  long getValueAtPercentile(double percentile);
+}
@@ -0,0 +1,77 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable statistics about the time the event bus has spent on indexing events and on
+ * registering and unregistering subscribe methods. They are always recorded, regardless of whether
+ * the {@link EventBusMetrics} are enabled.
+ *
+ * @see EventBusMetrics#getRegistrationStatistics()
+ */
+public interface RegistrationStatistics {
+
+  /**
+   * Retrieves the amount of event classes that have been indexed by their supertypes.
+   *
+   * @return The amount of indexed event classes
+   */
+  int getIndexedEvents();
+
+  /**
+   * Retrieves the total time that has been spent on indexing event classes.
+   *
+   * @param unit The non-null unit of the returned time
+   * @return The total time in the given unit
+   */
+  long getIndexTime(TimeUnit unit);
+
+  /**
+   * Retrieves the amount of subscribe methods that have been registered.
+   *
+   * @return The amount of registered methods
+   */
+  int getRegisteredMethods();
+
+  /**
+   * Retrieves the total time that has been spent on registering subscribe methods.
+   *
+   * @param unit The non-null unit of the returned time
+   * @return The total time in the given unit
+   */
+  long getRegistrationTime(TimeUnit unit);
+
+  /**
+   * Retrieves the amount of subscribe methods that have been unregistered.
+   *
+   * @return The amount of unregistered methods
+   */
+  int getUnregisteredMethods();
+
+  /**
+   * Retrieves the total time that has been spent on unregistering subscribe methods.
+   *
+   * @param unit The non-null unit of the returned time
+   * @return The total time in the given unit
+   */
+  long getUnregistrationTime(TimeUnit unit);
+}
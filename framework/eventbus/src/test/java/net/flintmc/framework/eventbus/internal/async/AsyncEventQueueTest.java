@@ -0,0 +1,310 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribable;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribable.AsyncPolicy;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.internal.method.handler.EventDispatchDetails;
+import net.flintmc.framework.eventbus.internal.method.handler.SubscribeMethodList;
+import net.flintmc.framework.eventbus.internal.method.handler.SubscribeMethodLists;
+import net.flintmc.framework.eventbus.internal.metrics.DefaultEventBusMetrics;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+public class AsyncEventQueueTest {
+
+  private final Logger logger = LogManager.getLogger(AsyncEventQueueTest.class);
+  private final DefaultEventBusMetrics metrics = mock(DefaultEventBusMetrics.class);
+
+  @Test
+  public void testEventsAreHandledInFireAndPriorityOrder() throws InterruptedException {
+    int events = 10_000;
+    List<String> handled = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch latch = new CountDownLatch(events);
+
+    SubscribeMethodList methods = SubscribeMethodLists.of(
+        new RecordingMethod((byte) 0, "late", handled, latch),
+        new RecordingMethod((byte) 1, "early", handled, null));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      // the queue is way smaller than the amount of events, the producer needs to wait a lot
+      AsyncEventQueue queue = this.newQueue(executor, BlockingEvent.class);
+      for (int i = 0; i < events; i++) {
+        queue.enqueue(new BlockingEvent(methods, i), Phase.POST);
+      }
+
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < events; i++) {
+      expected.add("early " + i);
+      expected.add("late " + i);
+    }
+    assertEquals(expected, handled);
+  }
+
+  @Test
+  public void testConcurrentProducersKeepTheirOrder() throws InterruptedException {
+    int producers = 4;
+    int eventsPerProducer = 2_500;
+    List<String> handled = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch latch = new CountDownLatch(producers * eventsPerProducer);
+
+    SubscribeMethodList methods =
+        SubscribeMethodLists.of(new RecordingMethod((byte) 0, "", handled, latch));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      AsyncEventQueue queue = this.newQueue(executor, BlockingEvent.class);
+
+      Thread[] threads = new Thread[producers];
+      for (int producer = 0; producer < producers; producer++) {
+        int offset = producer * eventsPerProducer;
+        threads[producer] = new Thread(() -> {
+          for (int i = 0; i < eventsPerProducer; i++) {
+            queue.enqueue(new BlockingEvent(methods, offset + i), Phase.POST);
+          }
+        });
+        threads[producer].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(producers * eventsPerProducer, handled.size());
+
+    int[] last = new int[producers];
+    Arrays.fill(last, -1);
+    for (String entry : handled) {
+      int id = Integer.parseInt(entry.trim());
+      int producer = id / eventsPerProducer;
+      assertTrue(id > last[producer], "Events of producer " + producer + " are out of order");
+      last[producer] = id;
+    }
+  }
+
+  @Test
+  public void testFullQueueDropsEvents() {
+    List<String> handled = new ArrayList<>();
+    SubscribeMethodList methods =
+        SubscribeMethodLists.of(new RecordingMethod((byte) 0, "", handled, null));
+
+    List<Runnable> tasks = new ArrayList<>();
+    AsyncEventQueue queue = this.newQueue(tasks::add, DroppingEvent.class);
+    for (int i = 0; i < 10; i++) {
+      queue.enqueue(new DroppingEvent(methods, i), Phase.POST);
+    }
+
+    // only one worker may drain the queue at a time
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+
+    assertEquals(Arrays.asList(" 0", " 1", " 2", " 3"), handled);
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void testCoalescingKeepsOnlyTheLatestEvent() {
+    List<String> handled = new ArrayList<>();
+    SubscribeMethodList methods =
+        SubscribeMethodLists.of(new RecordingMethod((byte) 0, "", handled, null));
+
+    List<Runnable> tasks = new ArrayList<>();
+    AsyncEventQueue queue = this.newQueue(tasks::add, CoalescingEvent.class);
+    for (int i = 0; i < 10; i++) {
+      queue.enqueue(new CoalescingEvent(methods, i), Phase.POST);
+    }
+
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+
+    assertEquals(Collections.singletonList(" 9"), handled);
+  }
+
+  @Test
+  public void testEventsQueuedWhileDrainingAreHandled() {
+    List<String> handled = new ArrayList<>();
+    List<Runnable> tasks = new ArrayList<>();
+
+    AsyncEventQueue queue = this.newQueue(tasks::add, DroppingEvent.class);
+    SubscribeMethodList methods = SubscribeMethodLists.of(
+        new RecordingMethod((byte) 0, "", handled, null) {
+          @Override
+          public void invoke(Event event, Phase phase) {
+            super.invoke(event, phase);
+            if (((TestEvent) event).id == 0) {
+              queue.enqueue(new DroppingEvent(((TestEvent) event).methods, 1), Phase.POST);
+            }
+          }
+        });
+
+    queue.enqueue(new DroppingEvent(methods, 0), Phase.POST);
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+
+    // the running drain picks up the new event, no second worker is needed
+    assertEquals(Arrays.asList(" 0", " 1"), handled);
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void testEventsMissedByTheDrainAreScheduledAgain() {
+    List<String> handled = new ArrayList<>();
+    List<Runnable> tasks = new ArrayList<>();
+
+    AsyncEventQueue queue = this.newQueue(tasks::add, CoalescingEvent.class);
+    SubscribeMethodList methods = SubscribeMethodLists.of(
+        new RecordingMethod((byte) 0, "", handled, null) {
+          @Override
+          public void invoke(Event event, Phase phase) {
+            super.invoke(event, phase);
+            if (((TestEvent) event).id == 0) {
+              // the phase has already been drained, this must not be lost when the drain ends
+              queue.enqueue(new CoalescingEvent(((TestEvent) event).methods, 1), Phase.POST);
+            }
+          }
+        });
+
+    queue.enqueue(new CoalescingEvent(methods, 0), Phase.POST);
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+
+    assertEquals(Collections.singletonList(" 0"), handled);
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+
+    assertEquals(Arrays.asList(" 0", " 1"), handled);
+    assertTrue(tasks.isEmpty());
+  }
+
+  private AsyncEventQueue newQueue(Executor executor, Class<? extends Event> eventClass) {
+    return new AsyncEventQueue(this.logger, this.metrics, executor, eventClass);
+  }
+
+  public static class TestEvent implements Event, EventDispatchDetails {
+
+    private final SubscribeMethodList methods;
+    private final int id;
+
+    public TestEvent(SubscribeMethodList methods, int id) {
+      this.methods = methods;
+      this.id = id;
+    }
+
+    @Override
+    public SubscribeMethodList getSubscribeMethodList() {
+      return this.methods;
+    }
+  }
+
+  @Subscribable(value = Phase.POST, asyncPolicy = AsyncPolicy.BLOCK, asyncQueueSize = 16)
+  public static class BlockingEvent extends TestEvent {
+
+    public BlockingEvent(SubscribeMethodList methods, int id) {
+      super(methods, id);
+    }
+  }
+
+  @Subscribable(value = Phase.POST, asyncPolicy = AsyncPolicy.DROP, asyncQueueSize = 4)
+  public static class DroppingEvent extends TestEvent {
+
+    public DroppingEvent(SubscribeMethodList methods, int id) {
+      super(methods, id);
+    }
+  }
+
+  @Subscribable(value = Phase.POST, asyncPolicy = AsyncPolicy.COALESCE_LATEST)
+  public static class CoalescingEvent extends TestEvent {
+
+    public CoalescingEvent(SubscribeMethodList methods, int id) {
+      super(methods, id);
+    }
+  }
+
+  private static class RecordingMethod implements SubscribeMethod {
+
+    private final byte priority;
+    private final String name;
+    private final List<String> handled;
+    private final CountDownLatch latch;
+
+    private RecordingMethod(byte priority, String name, List<String> handled,
+        CountDownLatch latch) {
+      this.priority = priority;
+      this.name = name;
+      this.handled = handled;
+      this.latch = latch;
+    }
+
+    @Override
+    public Class<? extends Event> getEventClass() {
+      return TestEvent.class;
+    }
+
+    @Override
+    public byte getPriority() {
+      return this.priority;
+    }
+
+    @Override
+    public Phase getPhase() {
+      return Phase.POST;
+    }
+
+    @Override
+    public boolean isAsync() {
+      return true;
+    }
+
+    @Override
+    public void invoke(Event event, Phase phase) {
+      this.handled.add(this.name + " " + ((TestEvent) event).id);
+      if (this.latch != null) {
+        this.latch.countDown();
+      }
+    }
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.method.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.event.subscribe.Subscribe.Phase;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+import net.flintmc.util.unittesting.FlintTest;
+import org.junit.jupiter.api.Test;
+
+@FlintTest
+public class EventMethodRegistryTest extends AbstractModule {
+
+  @Inject
+  private EventMethodRegistry registry;
+
+  @Test
+  public void testMethodsAreAddedToTheListsOfAllSubtypes() {
+    SubscribeMethodList parentMethods = new SubscribeMethodList();
+    SubscribeMethodList childMethods = new SubscribeMethodList();
+    this.registry.registerHandler(new TestHandler()
+        .with(ParentEvent.class, parentMethods)
+        .with(ChildEvent.class, childMethods));
+
+    SubscribeMethod parentMethod = new TestMethod(ParentEvent.class, 0);
+    SubscribeMethod childMethod = new TestMethod(ChildEvent.class, 0);
+    this.registry.registerForEvents(parentMethod);
+    this.registry.registerForEvents(childMethod);
+
+    assertEquals(Collections.singletonList(parentMethod), parentMethods);
+    assertEquals(Arrays.asList(parentMethod, childMethod), childMethods);
+  }
+
+  @Test
+  public void testEventsAreIndexedWhenTheirHandlerIsRegistered() {
+    SubscribeMethod method = new TestMethod(MarkerEvent.class, 0);
+    this.registry.registerForEvents(method);
+
+    // no method is registered after the handler, the list needs to be complete nonetheless
+    SubscribeMethodList childMethods = new SubscribeMethodList();
+    this.registry.registerHandler(new TestHandler().with(ChildEvent.class, childMethods));
+
+    assertEquals(Collections.singletonList(method), childMethods);
+  }
+
+  @Test
+  public void testUnregisteredMethodsAreNotIndexedAgain() {
+    SubscribeMethodList parentMethods = new SubscribeMethodList();
+    this.registry.registerHandler(new TestHandler().with(ParentEvent.class, parentMethods));
+
+    SubscribeMethod method = new TestMethod(ParentEvent.class, 0);
+    this.registry.registerForEvents(method);
+    this.registry.unregisterFromEvents(method);
+
+    SubscribeMethodList childMethods = new SubscribeMethodList();
+    this.registry.registerHandler(new TestHandler().with(ChildEvent.class, childMethods));
+
+    assertTrue(parentMethods.isEmpty());
+    assertTrue(childMethods.isEmpty());
+  }
+
+  @Test
+  public void testUnregisteringAnEventKeepsMethodsOfSupertypes() {
+    SubscribeMethodList parentMethods = new SubscribeMethodList();
+    SubscribeMethodList childMethods = new SubscribeMethodList();
+    this.registry.registerHandler(new TestHandler()
+        .with(ParentEvent.class, parentMethods)
+        .with(ChildEvent.class, childMethods));
+
+    SubscribeMethod parentMethod = new TestMethod(ParentEvent.class, 0);
+    SubscribeMethod childMethod = new TestMethod(ChildEvent.class, 0);
+    this.registry.registerForEvents(parentMethod);
+    this.registry.registerForEvents(childMethod);
+
+    this.registry.unregisterFromEvents(ChildEvent.class);
+
+    assertTrue(childMethods.isEmpty());
+    assertEquals(Collections.singletonList(parentMethod), parentMethods);
+
+    // the child method has been unregistered completely and won't be added to new subtypes
+    SubscribeMethodList grandChildMethods = new SubscribeMethodList();
+    this.registry.registerHandler(
+        new TestHandler().with(GrandChildEvent.class, grandChildMethods));
+    assertEquals(Collections.singletonList(parentMethod), grandChildMethods);
+    assertEquals(2, this.registry.getStatistics().getRegisteredMethods());
+    assertEquals(1, this.registry.getStatistics().getUnregisteredMethods());
+  }
+
+  @Test
+  public void testEventsAreOnlyIndexedOnce() {
+    SubscribeMethodList parentMethods = new SubscribeMethodList();
+    TestHandler handler = new TestHandler().with(ParentEvent.class, parentMethods);
+    this.registry.registerHandler(handler);
+    this.registry.registerHandler(handler);
+
+    SubscribeMethod method = new TestMethod(ParentEvent.class, 0);
+    this.registry.registerForEvents(method);
+    this.registry.unregisterFromEvents(method);
+    this.registry.registerForEvents(new TestMethod(ParentEvent.class, 0));
+
+    assertEquals(1, parentMethods.size());
+    assertEquals(1, this.registry.getStatistics().getIndexedEvents());
+  }
+
+  @Test
+  public void testListIsSortedByPriorityAndRebuiltAfterUnregistering() {
+    SubscribeMethodList methods = new SubscribeMethodList();
+    SubscribeMethod low = new TestMethod(ParentEvent.class, 0);
+    SubscribeMethod high = new TestMethod(ParentEvent.class, 10);
+    SubscribeMethod post = new TestMethod(ParentEvent.class, 5, Phase.POST);
+
+    methods.register(low);
+    methods.register(high);
+    methods.register(post);
+    methods.register(low);
+
+    assertEquals(Arrays.asList(high, post, low), methods);
+    assertEquals(Arrays.asList(high, low), Arrays.asList(methods.getMethods(Phase.PRE)));
+    assertEquals(Arrays.asList(high, post, low), Arrays.asList(methods.getMethods(Phase.POST)));
+
+    assertTrue(methods.unregister(high));
+    assertEquals(Collections.singletonList(low), Arrays.asList(methods.getMethods(Phase.PRE)));
+
+    methods.register(high);
+    assertEquals(Arrays.asList(high, post, low), methods);
+  }
+
+  public interface MarkerEvent extends Event {
+
+  }
+
+  public static class ParentEvent implements MarkerEvent {
+
+  }
+
+  public static class ChildEvent extends ParentEvent {
+
+  }
+
+  public static class GrandChildEvent extends ChildEvent {
+
+  }
+
+  private static class TestHandler implements EventMethodHandler {
+
+    private final Map<String, SubscribeMethodList> lists = new LinkedHashMap<>();
+
+    private TestHandler with(Class<? extends Event> eventClass, SubscribeMethodList list) {
+      this.lists.put(eventClass.getName(), list);
+      return this;
+    }
+
+    @Override
+    public SubscribeMethodList getMethods(String eventClass) {
+      return this.lists.get(eventClass);
+    }
+
+    @Override
+    public void forEachEvent(BiConsumer<String, SubscribeMethodList> consumer) {
+      this.lists.forEach(consumer);
+    }
+  }
+
+  private static class TestMethod implements SubscribeMethod {
+
+    private final Class<? extends Event> eventClass;
+    private final byte priority;
+    private final Phase phase;
+
+    private TestMethod(Class<? extends Event> eventClass, int priority) {
+      this(eventClass, priority, Phase.ANY);
+    }
+
+    private TestMethod(Class<? extends Event> eventClass, int priority, Phase phase) {
+      this.eventClass = eventClass;
+      this.priority = (byte) priority;
+      this.phase = phase;
+    }
+
+    @Override
+    public Class<? extends Event> getEventClass() {
+      return this.eventClass;
+    }
+
+    @Override
+    public byte getPriority() {
+      return this.priority;
+    }
+
+    @Override
+    public Phase getPhase() {
+      return this.phase;
+    }
+
+    @Override
+    public void invoke(Event event, Phase phase) {
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.eventbus.internal.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Provides;
+import java.util.Map;
+import net.flintmc.framework.eventbus.event.Event;
+import net.flintmc.framework.eventbus.internal.method.handler.EventMethodRegistry;
+import net.flintmc.framework.eventbus.method.SubscribeMethod;
+import net.flintmc.framework.eventbus.metrics.LatencySnapshot;
+import net.flintmc.framework.inject.logging.InjectLogger;
+import net.flintmc.util.unittesting.FlintTest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+@FlintTest
+public class DefaultEventBusMetricsTest extends AbstractModule {
+
+  private final SubscribeMethod method = mock(SubscribeMethod.class);
+
+  @Inject
+  private DefaultEventBusMetrics metrics;
+
+  @Test
+  public void testLatenciesOfDeadThreadsAreKept() throws InterruptedException {
+    for (int i = 0; i < 4; i++) {
+      long nanos = (i + 1) * 1000L;
+      this.recordOnNewThread(nanos);
+
+      // every snapshot retires the recorder of the thread that has just died
+      LatencySnapshot snapshot = this.metrics.getLatency(this.method);
+      assertEquals(i + 1, snapshot.getCount());
+      assertEquals(nanos, snapshot.getMax());
+    }
+
+    this.metrics.recordInvocation(Event.class, this.method, 500);
+
+    Map<SubscribeMethod, LatencySnapshot> latencies = this.metrics.getLatencies();
+    assertEquals(1, latencies.size());
+    assertEquals(5, latencies.get(this.method).getCount());
+    assertEquals(2100, latencies.get(this.method).getMean());
+  }
+
+  @Test
+  public void testResetDiscardsRetiredLatencies() throws InterruptedException {
+    this.recordOnNewThread(1000);
+    assertEquals(1, this.metrics.getLatency(this.method).getCount());
+
+    this.metrics.reset();
+    assertEquals(0, this.metrics.getLatency(this.method).getCount());
+
+    this.recordOnNewThread(2000);
+    LatencySnapshot snapshot = this.metrics.getLatency(this.method);
+    assertEquals(1, snapshot.getCount());
+    assertEquals(2000, snapshot.getMax());
+  }
+
+  private void recordOnNewThread(long nanos) throws InterruptedException {
+    Thread thread = new Thread(
+        () -> this.metrics.recordInvocation(Event.class, this.method, nanos));
+    thread.start();
+    thread.join();
+  }
+
+  @Override
+  protected void configure() {
+    this.bind(Logger.class)
+        .annotatedWith(InjectLogger.class)
+        .toInstance(LogManager.getLogger(DefaultEventBusMetricsTest.class));
+  }
+
+  @Provides
+  public EventMethodRegistry provideEventMethodRegistry() {
+    return mock(EventMethodRegistry.class);
+  }
+}
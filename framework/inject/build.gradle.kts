@@ -19,6 +19,7 @@
 
 plugins {
     id("java-library")
+    id("me.champeau.jmh")
 }
 
 group = "net.flintmc"
@@ -29,4 +30,10 @@ dependencies {
 
     api(project(":framework:framework-inject-primitive"))
     api(project(":framework:framework-stereotype"))
+
+    jmhImplementation(project(":util:util-unit-testing"))
+}
+
+jmh {
+    jmhVersion.set("1.27")
 }
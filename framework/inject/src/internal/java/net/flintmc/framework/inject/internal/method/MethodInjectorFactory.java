@@ -41,16 +41,17 @@ import net.flintmc.framework.inject.method.MethodInjector;
 import net.flintmc.framework.inject.method.MethodInjectorGenerationException;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
 import net.flintmc.framework.stereotype.DefaultValues;
+import net.flintmc.framework.stereotype.service.CtMemberKey;
 import net.flintmc.framework.stereotype.service.CtResolver;
 import org.apache.logging.log4j.Logger;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -63,14 +64,19 @@ public class MethodInjectorFactory implements MethodInjector.Factory {
   private final Logger logger;
   private final ClassPool pool;
   private final AtomicInteger idCounter;
-  private final Map<Integer, MethodInjector> injectorCache;
+  private final ClassValue<Map<CtMemberKey, MethodInjector>> injectorCache;
 
   @Inject
   private MethodInjectorFactory(@InjectLogger Logger logger) {
     this.logger = logger;
     this.pool = ClassPool.getDefault();
     this.idCounter = new AtomicInteger();
-    this.injectorCache = new HashMap<>();
+    this.injectorCache = new ClassValue<Map<CtMemberKey, MethodInjector>>() {
+      @Override
+      protected Map<CtMemberKey, MethodInjector> computeValue(Class<?> type) {
+        return new ConcurrentHashMap<>();
+      }
+    };
   }
 
   /**
@@ -93,15 +99,10 @@ public class MethodInjectorFactory implements MethodInjector.Factory {
 
   @SuppressWarnings("unchecked")
   private <T> T generateAndCache(CtMethod targetMethod, Class<T> ifc) {
-    int hash = CtResolver.hash(targetMethod);
-    if (this.injectorCache.containsKey(hash)) {
-      return (T) this.injectorCache.get(hash);
-    }
-
-    MethodInjector injector = this.generateInternal(targetMethod, ifc);
-
-    this.injectorCache.put(hash, injector);
-    return (T) injector;
+    // injectors are cached per interface, the same method may be injected into multiple interfaces
+    return (T) this.injectorCache.get(ifc)
+        .computeIfAbsent(CtResolver.key(targetMethod),
+            key -> this.generateInternal(targetMethod, ifc));
   }
 
   private MethodInjector generateInternal(CtMethod targetMethod, Class<?> ifc) {
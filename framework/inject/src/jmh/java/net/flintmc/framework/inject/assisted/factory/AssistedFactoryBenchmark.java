@@ -0,0 +1,186 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.inject.assisted.factory;
+
+import com.google.inject.Inject;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+import com.google.inject.TypeLiteral;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import net.flintmc.framework.inject.assisted.Assisted;
+import net.flintmc.framework.inject.assisted.AssistedInject;
+import net.flintmc.framework.inject.assisted.binding.BindingCollector;
+import net.flintmc.util.unittesting.StandaloneClassSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares assisted factories generated by the {@link AssistedFactoryGenerator} with the {@link
+ * Proxy} based factory of the {@link AssistedFactoryProvider}. The allocations per call can be
+ * measured by running the benchmark with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssistedFactoryBenchmark {
+
+  /**
+   * The implementation created by the factory: {@code public} has a public constructor, {@code
+   * private} a private constructor and {@code fallback} an injected field, which is why the
+   * generated factory delegates it to the proxy.
+   */
+  @Param({"public", "private", "fallback"})
+  public String implementation;
+
+  private ValueFactory generatedFactory;
+  private ValueFactory proxyFactory;
+  private int counter;
+
+  @Setup
+  public void setup() {
+    StandaloneClassSource.install();
+    Class<? extends Value> implementationClass;
+    switch (this.implementation) {
+      case "public":
+        implementationClass = PublicValue.class;
+        break;
+      case "private":
+        implementationClass = PrivateValue.class;
+        break;
+      case "fallback":
+        implementationClass = FieldInjectedValue.class;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown implementation: " + this.implementation);
+    }
+
+    AssistedFactoryProvider<ValueFactory> provider = new AssistedFactoryProvider<>(
+        Key.get(ValueFactory.class),
+        new BindingCollector()
+            .addBinding(Key.get(Value.class), TypeLiteral.get(implementationClass)));
+
+    this.generatedFactory = provider.get();
+    if (Proxy.isProxyClass(this.generatedFactory.getClass())) {
+      throw new IllegalStateException("No factory has been generated");
+    }
+
+    // the factory that has been used for every call before the generator has been added
+    this.proxyFactory = (ValueFactory) Proxy.newProxyInstance(
+        ValueFactory.class.getClassLoader(), new Class[]{ValueFactory.class}, provider);
+  }
+
+  @Benchmark
+  public Value generated() {
+    return this.generatedFactory.create(this.counter++, "generated");
+  }
+
+  @Benchmark
+  public Value proxy() {
+    return this.proxyFactory.create(this.counter++, "proxy");
+  }
+
+  public interface ValueFactory {
+
+    Value create(@Assisted("id") int id, @Assisted("name") String name);
+  }
+
+  public interface Value {
+
+    int getId();
+  }
+
+  @Singleton
+  public static class Dependency {
+
+  }
+
+  public static class PublicValue implements Value {
+
+    private final Dependency dependency;
+    private final int id;
+    private final String name;
+
+    @AssistedInject
+    public PublicValue(Dependency dependency, @Assisted("id") int id,
+        @Assisted("name") String name) {
+      this.dependency = dependency;
+      this.id = id;
+      this.name = name;
+    }
+
+    @Override
+    public int getId() {
+      return this.id;
+    }
+  }
+
+  public static class PrivateValue implements Value {
+
+    private final Dependency dependency;
+    private final int id;
+    private final String name;
+
+    @AssistedInject
+    private PrivateValue(Dependency dependency, @Assisted("id") int id,
+        @Assisted("name") String name) {
+      this.dependency = dependency;
+      this.id = id;
+      this.name = name;
+    }
+
+    @Override
+    public int getId() {
+      return this.id;
+    }
+  }
+
+  public static class FieldInjectedValue implements Value {
+
+    private final int id;
+    private final String name;
+
+    @Inject
+    private Dependency dependency;
+
+    @AssistedInject
+    private FieldInjectedValue(@Assisted("id") int id, @Assisted("name") String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    @Override
+    public int getId() {
+      return this.id;
+    }
+  }
+}
@@ -0,0 +1,356 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.inject.assisted.factory;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.ProvisionException;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.InjectionPoint;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import net.flintmc.framework.inject.assisted.Assisted;
+import net.flintmc.framework.inject.assisted.AssistedFactory;
+import net.flintmc.framework.inject.assisted.data.AssistData;
+import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.inject.util.ContextAwareProvisionListener;
+import net.flintmc.framework.stereotype.service.CtResolver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Generates one class per {@link AssistedFactory} interface which invokes the constructors of the
+ * implementations directly instead of going through a {@link java.lang.reflect.Proxy} and a child
+ * injector. Assisted parameters are passed on as they are and every other parameter is retrieved
+ * from a {@link Provider} that has been resolved when the factory was generated.
+ *
+ * <p>Methods whose implementation has injected fields or methods, needs the {@link Injector}, a
+ * {@link Provider} for an assisted value or a context aware dependency like the logger are still
+ * delegated to the {@link AssistedFactoryProvider}. The same applies to calls with {@code null}
+ * for an assisted parameter that is not nullable, so that Guice can report the error. Exceptions
+ * thrown by a constructor are not wrapped into a {@link ProvisionException}.
+ *
+ * <p>Instances created by a generated method are not provisioned by Guice. Method interceptors
+ * bound with {@link com.google.inject.Binder#bindInterceptor} are not applied to them and {@link
+ * com.google.inject.spi.ProvisionListener}s are not notified about them. Only the methods that
+ * are delegated to the {@link AssistedFactoryProvider} are still provisioned by Guice, so
+ * implementations relying on interceptors or provision listeners need the generation to be
+ * disabled.
+ *
+ * <p>If a factory cannot be generated, the failure is logged and the {@link
+ * AssistedFactoryProvider} handles every method of the factory.
+ *
+ * <p>The generation can be disabled by setting the system property {@code
+ * net.flintmc.inject.generated-factories} to {@code false}.
+ */
+public final class AssistedFactoryGenerator {
+
+  private static final boolean ENABLED =
+      Boolean.parseBoolean(System.getProperty("net.flintmc.inject.generated-factories", "true"));
+  private static final AtomicInteger ID_COUNTER = new AtomicInteger();
+  private static final Logger LOGGER = LogManager.getLogger(AssistedFactoryGenerator.class);
+
+  private final ClassPool pool;
+  private final Injector injector;
+  private final List<Method> methods;
+  private final List<Provider<?>> providers;
+  private final List<Constructor<?>> constructors;
+
+  private AssistedFactoryGenerator() {
+    this.pool = ClassPool.getDefault();
+    this.injector = InjectionHolder.getInstance().getInjector();
+    this.methods = new ArrayList<>();
+    this.providers = new ArrayList<>();
+    this.constructors = new ArrayList<>();
+  }
+
+  /**
+   * Generates a new implementation of the given factory.
+   *
+   * @param provider   The provider that handles every method that cannot be generated
+   * @param factory    The non-null factory interface to be implemented
+   * @param assistData The data of every method in the factory, including the default methods
+   * @param <F>        The type of the factory
+   * @return The new factory or {@code null} if no class could be generated for the factory
+   */
+  static <F> F generate(
+      AssistedFactoryProvider<F> provider, Class<F> factory, Map<Method, AssistData> assistData) {
+    if (!ENABLED || !Modifier.isPublic(factory.getModifiers())) {
+      return null;
+    }
+
+    try {
+      return factory.cast(new AssistedFactoryGenerator().generate0(provider, factory, assistData));
+    } catch (Exception exception) {
+      LOGGER.warn(
+          "Failed to generate an implementation of the assisted factory {}, its methods will be"
+              + " invoked through the assisted factory provider instead",
+          factory.getName(), exception);
+      return null;
+    }
+  }
+
+  private Object generate0(
+      AssistedFactoryProvider<?> provider, Class<?> factory, Map<Method, AssistData> assistData)
+      throws Exception {
+    CtClass generating = this.pool.makeClass(
+        "GeneratedAssistedFactory_" + ID_COUNTER.incrementAndGet() + "_"
+            + UUID.randomUUID().toString().replace("-", ""));
+    generating.addInterface(this.pool.get(factory.getName()));
+
+    generating.addField(CtField.make(String.format(
+        "private final %s provider;", AssistedFactoryProvider.class.getName()), generating));
+    generating.addField(CtField.make(String.format(
+        "private final %s[] methods;", Method.class.getName()), generating));
+    generating.addField(CtField.make(String.format(
+        "private final %s[] providers;", Provider.class.getName()), generating));
+    generating.addField(CtField.make(String.format(
+        "private final %s[] constructors;", Constructor.class.getName()), generating));
+    generating.addConstructor(CtNewConstructor.make(String.format(
+        "public %s(%s provider, %s[] methods, %s[] providers, %s[] constructors) {"
+            + "this.provider = provider;"
+            + "this.methods = methods;"
+            + "this.providers = providers;"
+            + "this.constructors = constructors;"
+            + "}",
+        generating.getSimpleName(), AssistedFactoryProvider.class.getName(),
+        Method.class.getName(), Provider.class.getName(), Constructor.class.getName()),
+        generating));
+
+    Set<String> signatures = new HashSet<>();
+    for (Map.Entry<Method, AssistData> entry : assistData.entrySet()) {
+      Method method = entry.getKey();
+      if (!Modifier.isAbstract(method.getModifiers())
+          || !signatures.add(method.getName() + this.buildParameterList(method))) {
+        // default methods are inherited from the interface
+        continue;
+      }
+
+      generating.addMethod(CtNewMethod.make(String.format(
+          "public %s %s(%s) { %s }",
+          this.buildTypeName(method.getReturnType()),
+          method.getName(),
+          this.buildParameterList(method),
+          this.buildBody(method, entry.getValue())), generating));
+    }
+
+    return CtResolver.defineClass(generating)
+        .getDeclaredConstructors()[0]
+        .newInstance(
+            provider,
+            this.methods.toArray(new Method[0]),
+            this.providers.toArray(new Provider[0]),
+            this.constructors.toArray(new Constructor[0]));
+  }
+
+  private String buildBody(Method method, AssistData data) {
+    int methodIndex = this.methods.size();
+    this.methods.add(method);
+    String fallback = String.format(
+        "return ($r) this.provider.invoke(this, this.methods[%d], $args);", methodIndex);
+
+    Constructor<?> constructor = data.getConstructor();
+    List<Dependency<?>> dependencies = this.getConstructorDependencies(data);
+    if (dependencies == null) {
+      return fallback;
+    }
+
+    boolean direct = this.isAccessible(constructor.getDeclaringClass())
+        && Modifier.isPublic(constructor.getModifiers());
+    Class<?>[] factoryParameters = method.getParameterTypes();
+    Class<?>[] constructorParameters = constructor.getParameterTypes();
+
+    StringBuilder nullChecks = new StringBuilder();
+    List<String> arguments = new ArrayList<>();
+
+    for (int i = 0; i < dependencies.size(); i++) {
+      Dependency<?> dependency = dependencies.get(i);
+      Key<?> key = dependency.getKey();
+      Class<?> type = constructorParameters[i];
+
+      if (key.getAnnotationType() == Assisted.class) {
+        int index = data.getParameterTypes().indexOf(key);
+        if (index == -1) {
+          return fallback;
+        }
+
+        // + 1 - Javassist uses 0 for this and the parameters begin at 1
+        String argument = "$" + (index + 1);
+        if (!factoryParameters[index].isPrimitive() && !dependency.isNullable()) {
+          nullChecks.append("if (").append(argument).append(" == null) { ")
+              .append(fallback).append(" }");
+        }
+
+        direct &= factoryParameters[index] == type;
+        arguments.add(argument);
+        continue;
+      }
+
+      Key<?> providedKey = this.getProvidedKey(key);
+      if (ContextAwareProvisionListener.isContextAware(key)
+          || (providedKey != null && ContextAwareProvisionListener.isContextAware(providedKey))) {
+        return fallback;
+      }
+
+      direct &= !type.isPrimitive() && this.isAccessible(type);
+      arguments.add("this.providers[" + this.providers.size() + "].get()");
+      this.providers.add(this.injector.getProvider(key));
+    }
+
+    StringBuilder body = new StringBuilder(nullChecks);
+    if (direct) {
+      body.append("return new ").append(this.buildTypeName(constructor.getDeclaringClass()))
+          .append('(');
+      for (int i = 0; i < arguments.size(); i++) {
+        if (i != 0) {
+          body.append(',');
+        }
+        String argument = arguments.get(i);
+        if (argument.startsWith("this.")) {
+          body.append('(').append(this.buildTypeName(constructorParameters[i])).append(')');
+        }
+        body.append(argument);
+      }
+      body.append(");");
+    } else {
+      constructor.setAccessible(true);
+      body.append(String.format(
+          "return ($r) %s.newInstance(this.constructors[%d], new Object[] {",
+          AssistedFactoryGenerator.class.getName(), this.constructors.size()));
+      for (int i = 0; i < arguments.size(); i++) {
+        if (i != 0) {
+          body.append(',');
+        }
+        body.append("($w) ").append(arguments.get(i));
+      }
+      body.append("});");
+      this.constructors.add(constructor);
+    }
+
+    return body.toString();
+  }
+
+  /**
+   * Retrieves the dependencies of the constructor of the given method in the order of the
+   * parameters of the constructor.
+   *
+   * @return The dependencies or {@code null} if the implementation cannot be constructed directly
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private List<Dependency<?>> getConstructorDependencies(AssistData data) {
+    TypeLiteral<?> implementation = data.getImplementationType();
+    Constructor<?> constructor = data.getConstructor();
+    if (!data.isOptimized()
+        || constructor == null
+        || Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())
+        || !InjectionPoint.forInstanceMethodsAndFields(implementation).isEmpty()) {
+      return null;
+    }
+
+    List<Dependency<?>> dependencies =
+        InjectionPoint.forConstructor((Constructor) constructor, implementation).getDependencies();
+    return dependencies.size() == constructor.getParameterCount() ? dependencies : null;
+  }
+
+  /**
+   * Retrieves the key of the values provided by the given key if it is a {@link Provider}.
+   *
+   * @return The provided key or {@code null} if the given key is no provider
+   */
+  private Key<?> getProvidedKey(Key<?> key) {
+    Class<?> rawType = key.getTypeLiteral().getRawType();
+    Type type = key.getTypeLiteral().getType();
+    if ((rawType != Provider.class && rawType != javax.inject.Provider.class)
+        || !(type instanceof ParameterizedType)) {
+      return null;
+    }
+
+    return key.ofType(((ParameterizedType) type).getActualTypeArguments()[0]);
+  }
+
+  private boolean isAccessible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+  }
+
+  private String buildParameterList(Method method) {
+    StringBuilder parameters = new StringBuilder();
+    int i = 0;
+    for (Class<?> parameter : method.getParameterTypes()) {
+      if (i != 0) {
+        parameters.append(", ");
+      }
+      parameters.append(this.buildTypeName(parameter)).append(" arg").append(i++);
+    }
+
+    return parameters.toString();
+  }
+
+  private String buildTypeName(Class<?> type) {
+    StringBuilder suffix = new StringBuilder();
+    while (type.isArray()) {
+      suffix.append("[]");
+      type = type.getComponentType();
+    }
+
+    return type.getName() + suffix;
+  }
+
+  /**
+   * Called from generated code, see above.
+   */
+  public static Object newInstance(Constructor<?> constructor, Object[] arguments) {
+    try {
+      return constructor.newInstance(arguments);
+    } catch (InvocationTargetException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ProvisionException("Failed to construct " + constructor.getDeclaringClass(), cause);
+    } catch (ReflectiveOperationException exception) {
+      throw new ProvisionException(
+          "Failed to construct " + constructor.getDeclaringClass(), exception);
+    }
+  }
+}
@@ -293,6 +293,11 @@ public class AssistedFactoryProvider<F>
       this.assistData = assistDataBuilder.build();
       this.methodHandles = methodHandleBuilder.build();
 
+      F generatedFactory = AssistedFactoryGenerator.generate(this, factoryRawType, this.assistData);
+      if (generatedFactory != null) {
+        this.factory = generatedFactory;
+      }
+
       for (Map.Entry<Method, AssistData> entry : this.assistData.entrySet()) {
         Method method = entry.getKey();
         AssistData data = entry.getValue();
@@ -29,6 +29,8 @@ import com.google.inject.spi.DependencyAndSource;
 import com.google.inject.spi.InjectionPoint;
 import com.google.inject.spi.ProvisionListener;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 /**
@@ -37,6 +39,9 @@ import java.util.function.BiFunction;
  * @param <T> The type that should be injected
  */
 public class ContextAwareProvisionListener<T> implements ProvisionListener, Provider<T> {
+
+  private static final Set<Key<?>> CONTEXT_AWARE_KEYS = ConcurrentHashMap.newKeySet();
+
   private final Key<T> key;
   private final BiFunction<InjectionPoint, Key<T>, T> provider;
   private final ThreadLocal<T> current = new ThreadLocal<>();
@@ -86,6 +91,19 @@ public class ContextAwareProvisionListener<T> implements ProvisionListener, Prov
     ContextAwareProvisionListener<T> impl = new ContextAwareProvisionListener<>(provider, key);
     binder.bind(key).toProvider(impl);
     binder.bindListener(matcher, impl);
+    CONTEXT_AWARE_KEYS.add(key);
+  }
+
+  /**
+   * Checks whether the given key has been bound to a context aware provider. Instances of such keys
+   * can only be provided while Guice is injecting them into a specific injection point.
+   *
+   * @param key The key to check
+   * @return {@code true} if the key has been bound via {@link #bindContextAwareProvider(Binder,
+   *     Key, BiFunction)}, {@code false} otherwise
+   */
+  public static boolean isContextAware(Key<?> key) {
+    return CONTEXT_AWARE_KEYS.contains(key);
   }
 
   /** {@inheritDoc} */
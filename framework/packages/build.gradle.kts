@@ -30,14 +30,14 @@ dependencies {
     internalAnnotationProcessor(project(":annotation-processing:annotation-processing-autoload"))
 
     api(project(":framework:framework-inject"))
+    api(project(":framework:framework-service"))
     api(project(":framework:framework-stereotype"))
     api(project(":util:util-commons"))
+    api(project(":util:util-mapping"))
     api("com.google.code.gson", "gson", "2.8.6")
     api("net.flintmc.installer", "logic", "1.1.12")
     api("net.flintmc.installer", "logic-implementation", "1.1.12")
 
     internalImplementation(project(":framework:framework-inject", "internal"))
-    internalImplementation(project(":framework:framework-service"))
     internalImplementation(project(":framework:framework-stereotype", "internal"))
-    internalImplementation(project(":util:util-mapping"))
 }
@@ -27,30 +27,23 @@ import net.flintmc.framework.inject.assisted.AssistedInject;
 import net.flintmc.framework.inject.implement.Implement;
 import net.flintmc.framework.inject.logging.InjectLogger;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.packages.AnnotationMetaIndex;
 import net.flintmc.framework.packages.Package;
 import net.flintmc.framework.packages.PackageClassLoader;
 import net.flintmc.framework.packages.PackageManifest;
 import net.flintmc.framework.packages.PackageManifestLoader;
 import net.flintmc.framework.packages.PackageState;
 import net.flintmc.framework.packages.localization.PackageLocalizationLoader;
-import net.flintmc.framework.service.ExtendedServiceLoader;
 import net.flintmc.framework.stereotype.service.Service;
 import net.flintmc.framework.stereotype.service.Service.State;
 import net.flintmc.framework.stereotype.service.ServiceRepository;
 import net.flintmc.framework.stereotype.service.Services;
-import net.flintmc.launcher.LaunchController;
 import net.flintmc.metaprogramming.AnnotationMeta;
-import net.flintmc.metaprogramming.DetectableAnnotationProvider;
-import net.flintmc.metaprogramming.ElementKind;
 import net.flintmc.metaprogramming.identifier.ClassIdentifier;
-import net.flintmc.metaprogramming.identifier.MethodIdentifier;
-import net.flintmc.util.mappings.utils.RemappingMethodLocationResolver;
 import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.jar.JarFile;
 
 /**
@@ -60,6 +53,7 @@ import java.util.jar.JarFile;
 public class DefaultPackage implements Package {
 
   private final ServiceRepository serviceRepository;
+  private final AnnotationMetaIndex annotationMetaIndex;
   private final PackageClassLoader.Factory classLoaderFactory;
   private final Logger logger;
   private final File jarFile;
@@ -75,17 +69,19 @@ public class DefaultPackage implements Package {
   /**
    * Creates a new Flint package with the given description loader and the given files.
    *
-   * @param serviceRepository The singleton instance of the {@link ServiceRepository}
-   * @param manifestLoader    The loader to use for reading the manifest
-   * @param jarFile           The java IO file this package should be loaded from, or null if loaded
-   *                          from the classpath
-   * @param jar               The java IO jar file this package should be loaded from, must point to
-   *                          the same file as the `file` parameter, or must be null if the package
-   *                          has been loaded from the classpath
+   * @param serviceRepository   The singleton instance of the {@link ServiceRepository}
+   * @param annotationMetaIndex The singleton instance of the {@link AnnotationMetaIndex}
+   * @param manifestLoader      The loader to use for reading the manifest
+   * @param jarFile             The java IO file this package should be loaded from, or null if
+   *                            loaded from the classpath
+   * @param jar                 The java IO jar file this package should be loaded from, must point
+   *                            to the same file as the `file` parameter, or must be null if the
+   *                            package has been loaded from the classpath
    */
   @AssistedInject
   private DefaultPackage(
       ServiceRepository serviceRepository,
+      AnnotationMetaIndex annotationMetaIndex,
       PackageLocalizationLoader localizationLoader,
       PackageManifestLoader manifestLoader,
       PackageClassLoader.Factory classLoaderFactory,
@@ -93,6 +89,7 @@ public class DefaultPackage implements Package {
       @Assisted("jarFile") File jarFile,
       @Assisted("jar") JarFile jar) {
     this.serviceRepository = serviceRepository;
+    this.annotationMetaIndex = annotationMetaIndex;
     this.classLoaderFactory = classLoaderFactory;
     this.logger = logger;
     this.jarFile = jarFile;
@@ -139,10 +136,12 @@ public class DefaultPackage implements Package {
   @AssistedInject
   private DefaultPackage(
       ServiceRepository serviceRepository,
+      AnnotationMetaIndex annotationMetaIndex,
       PackageClassLoader.Factory classLoaderFactory,
       @InjectLogger Logger logger,
       @Assisted("manifest") PackageManifest manifest) {
     this.serviceRepository = serviceRepository;
+    this.annotationMetaIndex = annotationMetaIndex;
     this.classLoaderFactory = classLoaderFactory;
     this.logger = logger;
     this.jarFile = null;
@@ -322,7 +321,7 @@ public class DefaultPackage implements Package {
   private void prepareServices() throws NotFoundException {
     // Find all autoload providers within the package
     @SuppressWarnings("rawtypes")
-    List<AnnotationMeta> annotations = getAnnotationMeta();
+    List<AnnotationMeta> annotations = this.annotationMetaIndex.discover();
     // Iterate over all annotations
     for (AnnotationMeta<?> annotationMeta : annotations) {
       if (annotationMeta.getAnnotation().annotationType()
@@ -364,32 +363,6 @@ public class DefaultPackage implements Package {
     }
   }
 
-  /**
-   * @return all saved annotation meta that was written to the {@link DetectableAnnotationProvider}
-   * on compile time
-   */
-  @SuppressWarnings("rawtypes")
-  private List<AnnotationMeta> getAnnotationMeta() {
-    List<AnnotationMeta> annotationMetas = new ArrayList<>();
-
-    Set<DetectableAnnotationProvider> discover =
-        ExtendedServiceLoader.get(DetectableAnnotationProvider.class)
-            .discover(LaunchController.getInstance().getRootLoader());
-
-    discover.forEach(provider -> provider.register(annotationMetas));
-    RemappingMethodLocationResolver remappingMethodLocationResolver
-        = new RemappingMethodLocationResolver();
-    for (AnnotationMeta annotationMeta : annotationMetas) {
-      if (annotationMeta.getElementKind() == ElementKind.METHOD) {
-        MethodIdentifier id = annotationMeta.getMethodIdentifier();
-        id.setMethodResolver(() -> remappingMethodLocationResolver
-            .getLocation(id.getOwner(), id.getName(), id.getParameters()));
-      }
-    }
-
-    return annotationMetas;
-  }
-
   /**
    * {@inheritDoc}
    */
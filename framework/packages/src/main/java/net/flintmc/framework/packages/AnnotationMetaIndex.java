@@ -0,0 +1,82 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.packages;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import net.flintmc.framework.service.ExtendedServiceLoader;
+import net.flintmc.framework.stereotype.service.ServiceRepository;
+import net.flintmc.launcher.LaunchController;
+import net.flintmc.metaprogramming.AnnotationMeta;
+import net.flintmc.metaprogramming.DetectableAnnotationProvider;
+import net.flintmc.metaprogramming.ElementKind;
+import net.flintmc.metaprogramming.identifier.MethodIdentifier;
+import net.flintmc.util.mappings.utils.RemappingMethodLocationResolver;
+
+/**
+ * Discovers the {@link AnnotationMeta}s that have been written to the {@link
+ * DetectableAnnotationProvider}s on compile time for the framework and all packages. Every provider
+ * is only discovered and registered once, no matter how many packages have been loaded. The
+ * discovered meta is indexed by the {@link ServiceRepository} it is passed to.
+ *
+ * <p>The generated providers are the compile-time manifest of every jar, the annotation processor
+ * doesn't write a separate binary manifest because its annotations would have to be deserialized
+ * reflectively at runtime.
+ */
+@Singleton
+@SuppressWarnings("rawtypes")
+public class AnnotationMetaIndex {
+
+  private final RemappingMethodLocationResolver methodLocationResolver;
+
+  @Inject
+  private AnnotationMetaIndex() {
+    this.methodLocationResolver = new RemappingMethodLocationResolver();
+  }
+
+  /**
+   * Discovers all {@link DetectableAnnotationProvider}s that have become available in the root
+   * class loader since the last call of this method.
+   *
+   * @return all newly discovered annotation meta in the order in which they have been registered
+   * by the providers
+   */
+  public synchronized List<AnnotationMeta> discover() {
+    List<AnnotationMeta> discovered = new ArrayList<>();
+
+    for (DetectableAnnotationProvider provider : ExtendedServiceLoader
+        .get(DetectableAnnotationProvider.class)
+        .discover(LaunchController.getInstance().getRootLoader())) {
+      provider.register(discovered);
+    }
+
+    for (AnnotationMeta annotationMeta : discovered) {
+      if (annotationMeta.getElementKind() == ElementKind.METHOD) {
+        MethodIdentifier id = annotationMeta.getMethodIdentifier();
+        id.setMethodResolver(() -> this.methodLocationResolver
+            .getLocation(id.getOwner(), id.getName(), id.getParameters()));
+      }
+    }
+
+    return discovered;
+  }
+}
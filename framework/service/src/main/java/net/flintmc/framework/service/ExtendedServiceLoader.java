@@ -60,11 +60,13 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ExtendedServiceLoader<T> {
   private static final Map<Class<?>, ExtendedServiceLoader<?>> loaders = new ConcurrentHashMap<>();
   private final Class<T> targetClass;
-  private final List<String> alreadyDiscovered;
+  private final Set<String> alreadyDiscovered;
+  private final Set<String> alreadyParsedFiles;
 
   private ExtendedServiceLoader(Class<T> targetClass) {
     this.targetClass = targetClass;
-    this.alreadyDiscovered = new ArrayList<>();
+    this.alreadyDiscovered = new HashSet<>();
+    this.alreadyParsedFiles = new HashSet<>();
   }
 
   /**
@@ -87,10 +89,11 @@ public class ExtendedServiceLoader<T> {
   }
 
   /**
-   * Finds all service files, interpretes them and instantiates the found classes
+   * Finds all service files, interpretes them and instantiates the found classes. Service files and
+   * classes that have already been discovered by a previous call are skipped.
    *
-   * @param loader
-   * @return
+   * @param loader the class loader to search for service files and to load the classes with
+   * @return the instances of all newly discovered classes
    */
   public Set<T> discover(ClassLoader loader) {
     Enumeration<URL> serviceFiles;
@@ -105,7 +108,13 @@ public class ExtendedServiceLoader<T> {
 
     while (serviceFiles.hasMoreElements()) {
       URL serviceFile = serviceFiles.nextElement();
+      if (this.alreadyParsedFiles.contains(serviceFile.toExternalForm())) {
+        // every class in this file has already been discovered
+        continue;
+      }
+
       collectedServiceClasses.addAll(parseAndLoadServiceFile(serviceFile, loader));
+      this.alreadyParsedFiles.add(serviceFile.toExternalForm());
     }
 
     Set<T> instances = new HashSet<>();
@@ -40,4 +40,5 @@ dependencies {
     api("org.codehaus.groovy", "groovy-all", "3.0.2")
     api("org.javassist", "javassist", "3.27.0-GA")
 
+    testImplementation(project(":util:util-unit-testing"))
 }
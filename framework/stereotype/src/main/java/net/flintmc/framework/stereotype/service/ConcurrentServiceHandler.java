@@ -0,0 +1,39 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.stereotype.service;
+
+import java.lang.annotation.Annotation;
+import net.flintmc.metaprogramming.AnnotationMeta;
+
+/**
+ * Marks a {@link ServiceHandler} whose {@link #discover(AnnotationMeta)} may run concurrently with
+ * the discovery of other service handlers with the same {@link Service#priority()}. The discover
+ * calls of a single handler are never executed concurrently with each other, and {@link #flush()}
+ * is only called after every handler with the same state has finished discovering.
+ *
+ * <p>Handlers should only implement this if their discovery doesn't touch state that is shared
+ * with other service handlers and doesn't register services or annotations in the {@link
+ * ServiceRepository}.
+ *
+ * @param <T> the type of the annotation handled by this service
+ */
+public interface ConcurrentServiceHandler<T extends Annotation> extends ServiceHandler<T> {
+
+}
@@ -0,0 +1,111 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.stereotype.service;
+
+import javassist.CtBehavior;
+
+/**
+ * Structural key of a method or constructor consisting of the name of the declaring class, the
+ * name of the member and its JVM descriptor. Unlike {@link Object#hashCode()} based keys, two
+ * different members never share the same key, and the same member resolved from different {@link
+ * javassist.ClassPool}s always results in equal keys.
+ */
+public final class CtMemberKey {
+
+  private final String owner;
+  private final String name;
+  private final String descriptor;
+  private final int hash;
+
+  private CtMemberKey(String owner, String name, String descriptor) {
+    this.owner = owner;
+    this.name = name;
+    this.descriptor = descriptor;
+    this.hash = 31 * (31 * owner.hashCode() + name.hashCode()) + descriptor.hashCode();
+  }
+
+  /**
+   * Creates a new key for the given method or constructor.
+   *
+   * @param behavior the non-null method or constructor to create the key for
+   * @return the new non-null key
+   */
+  public static CtMemberKey of(CtBehavior behavior) {
+    return new CtMemberKey(
+        behavior.getDeclaringClass().getName(),
+        behavior.getMethodInfo2().getName(),
+        behavior.getSignature());
+  }
+
+  /**
+   * Retrieves the fully qualified name of the class declaring the member.
+   *
+   * @return the non-null name of the declaring class
+   */
+  public String getOwner() {
+    return this.owner;
+  }
+
+  /**
+   * Retrieves the name of the member, {@code <init>} for constructors.
+   *
+   * @return the non-null name of the member
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Retrieves the JVM descriptor of the member, for example {@code (ILjava/lang/String;)V}.
+   *
+   * @return the non-null descriptor of the member
+   */
+  public String getDescriptor() {
+    return this.descriptor;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CtMemberKey)) {
+      return false;
+    }
+    CtMemberKey that = (CtMemberKey) o;
+    return this.hash == that.hash
+        && this.owner.equals(that.owner)
+        && this.name.equals(that.name)
+        && this.descriptor.equals(that.descriptor);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode() {
+    return this.hash;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return this.owner + '.' + this.name + this.descriptor;
+  }
+}
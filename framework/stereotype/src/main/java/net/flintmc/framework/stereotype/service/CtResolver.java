@@ -32,31 +32,41 @@ import net.flintmc.launcher.LaunchController;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Resolves Javassist classes, methods and constructors to their reflect representation. All
+ * results are cached, classes by their name and methods and constructors by their {@link
+ * CtMemberKey} in a map attached to the resolved declaring class, so that lookups are lock-free and
+ * can be done concurrently from multiple threads.
+ */
 public class CtResolver {
 
-  private static final Map<CtClass, Class<?>> classes = new HashMap<>();
-  private static final Map<Integer, Method> methods = new HashMap<>();
-  private static final Map<Integer, Constructor<?>> constructors = new HashMap<>();
+  private static final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+  private static final ClassValue<Map<CtMemberKey, Executable>> members =
+      new ClassValue<Map<CtMemberKey, Executable>>() {
+        @Override
+        protected Map<CtMemberKey, Executable> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+  private static final AtomicLong definedClasses = new AtomicLong();
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+
+  private static volatile ClassSource classSource;
 
+  /**
+   * @param ctConstructor the {@link CtConstructor} to find the reflect representation from
+   * @return the reflect representation of ctConstructor
+   */
   public static Constructor<?> get(CtConstructor ctConstructor) {
-    int hash = Objects.hash(ctConstructor, ctConstructor.getDeclaringClass());
-    if (!constructors.containsKey(hash)) {
-      try {
-        Constructor<?> declaredConstructor =
-            get(ctConstructor.getDeclaringClass())
-                .getDeclaredConstructor(getParameters(ctConstructor));
-        declaredConstructor.setAccessible(true);
-        constructors.put(hash, declaredConstructor);
-      } catch (NoSuchMethodException | NotFoundException e) {
-        e.printStackTrace();
-      }
-    }
-    return constructors.get(hash);
+    return (Constructor<?>) resolve(ctConstructor);
   }
 
   /**
@@ -64,19 +74,36 @@ public class CtResolver {
    * @return the reflect representation of ctMethod
    */
   public static Method get(CtMethod ctMethod) {
-    int hash = hash(ctMethod);
-    if (!methods.containsKey(hash)) {
-      try {
-        Method declaredMethod =
-            get(ctMethod.getDeclaringClass())
-                .getDeclaredMethod(ctMethod.getName(), getParameters(ctMethod));
-        declaredMethod.setAccessible(true);
-        methods.put(hash, declaredMethod);
-      } catch (NoSuchMethodException | NotFoundException e) {
-        e.printStackTrace();
-      }
+    return (Method) resolve(ctMethod);
+  }
+
+  private static Executable resolve(CtBehavior behavior) {
+    Class<?> owner = get(behavior.getDeclaringClass());
+    if (owner == null) {
+      return null;
+    }
+
+    Map<CtMemberKey, Executable> cache = members.get(owner);
+    CtMemberKey key = CtMemberKey.of(behavior);
+    Executable executable = cache.get(key);
+    if (executable != null) {
+      hits.increment();
+      return executable;
+    }
+
+    misses.increment();
+    try {
+      executable = behavior instanceof CtConstructor
+          ? owner.getDeclaredConstructor(getParameters(behavior))
+          : owner.getDeclaredMethod(behavior.getName(), getParameters(behavior));
+      executable.setAccessible(true);
+    } catch (NoSuchMethodException | NotFoundException e) {
+      e.printStackTrace();
+      return null;
     }
-    return methods.get(hash);
+
+    Executable previous = cache.putIfAbsent(key, executable);
+    return previous != null ? previous : executable;
   }
 
   private static Class<?>[] getParameters(CtBehavior behavior) throws NotFoundException {
@@ -88,27 +115,46 @@ public class CtResolver {
     return parameters;
   }
 
+  /**
+   * Retrieves the structural key of the given method which can be used to cache values per method.
+   *
+   * @param ctMethod the non-null method to get the key for
+   * @return the non-null key of the given method
+   * @see CtMemberKey#of(CtBehavior)
+   */
+  public static CtMemberKey key(CtMethod ctMethod) {
+    return CtMemberKey.of(ctMethod);
+  }
+
+  /**
+   * @deprecated Different methods may have the same hash, use {@link #key(CtMethod)} instead
+   */
+  @Deprecated
   public static int hash(CtMethod ctMethod) {
-    return Objects.hash(ctMethod, ctMethod.getDeclaringClass());
+    return key(ctMethod).hashCode();
   }
 
   /**
    * @param ctClass the {@link CtClass} to find the reflect representation from
    * @return the reflect representation of ctClass
    */
+  @SuppressWarnings("unchecked")
   public static <T> Class<T> get(CtClass ctClass) {
-    if (classes.containsKey(ctClass)) {
-      return (Class<T>) classes.get(ctClass);
+    String name = ctClass.getName();
+    Class<?> cached = classes.get(name);
+    if (cached != null) {
+      hits.increment();
+      return (Class<T>) cached;
     }
 
-    if (ctClass instanceof CtPrimitiveType){
-      Class<T> clazz = (Class<T>) PrimitiveTypeLoader.getPrimitiveClass(ctClass.getName());
-      classes.put(ctClass, clazz);
+    misses.increment();
+    if (ctClass instanceof CtPrimitiveType) {
+      Class<T> clazz = (Class<T>) PrimitiveTypeLoader.getPrimitiveClass(name);
+      classes.putIfAbsent(name, clazz);
       return clazz;
     }
 
     try {
-      CtClass baseClass = ctClass;
       int dimensions = 0;
 
       while (ctClass.isArray()) {
@@ -116,15 +162,17 @@ public class CtResolver {
         ++dimensions;
       }
 
-      Class<?> clazz = LaunchController.getInstance().getRootLoader().loadClass(ctClass.getName());
-      classes.put(ctClass, clazz);
+      Class<?> clazz = ctClass instanceof CtPrimitiveType
+          ? PrimitiveTypeLoader.getPrimitiveClass(ctClass.getName())
+          : loadClass(ctClass.getName());
+      classes.putIfAbsent(ctClass.getName(), clazz);
 
       if (dimensions != 0) {
         for (int i = 0; i < dimensions; i++) {
           clazz = Array.newInstance(clazz, 0).getClass();
         }
 
-        classes.put(baseClass, clazz);
+        classes.putIfAbsent(name, clazz);
       }
 
       return (Class<T>) clazz;
@@ -135,8 +183,100 @@ public class CtResolver {
   }
 
   public static Class<?> defineClass(CtClass generated) throws IOException, CannotCompileException {
+    definedClasses.incrementAndGet();
     byte[] bytes = generated.toBytecode();
-    return LaunchController.getInstance().getRootLoader()
+
+    ClassSource source = classSource;
+    if (source != null) {
+      return source.defineClass(generated.getName(), bytes);
+    }
+
+    return getLaunchController().getRootLoader()
         .commonDefineClass(generated.getName(), bytes, 0, bytes.length, null);
   }
+
+  private static Class<?> loadClass(String name) throws ClassNotFoundException {
+    ClassSource source = classSource;
+    return source != null
+        ? source.loadClass(name)
+        : getLaunchController().getRootLoader().loadClass(name);
+  }
+
+  private static LaunchController getLaunchController() {
+    LaunchController controller = LaunchController.getInstance();
+    if (controller == null) {
+      throw new IllegalStateException(
+          "Flint hasn't been started through the launcher and no ClassSource has been set");
+    }
+    return controller;
+  }
+
+  /**
+   * Retrieves the number of classes that have been defined via {@link #defineClass(CtClass)} until
+   * now. This can be used to find out whether something generated new classes.
+   *
+   * @return the number of classes that have been defined
+   */
+  public static long getDefinedClassCount() {
+    return definedClasses.get();
+  }
+
+  /**
+   * Retrieves the number of lookups in {@link #get(CtClass)}, {@link #get(CtMethod)} and {@link
+   * #get(CtConstructor)} that have been answered from the cache.
+   *
+   * @return the number of cache hits until now
+   */
+  public static long getCacheHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Retrieves the number of lookups in {@link #get(CtClass)}, {@link #get(CtMethod)} and {@link
+   * #get(CtConstructor)} that had to be resolved via reflection.
+   *
+   * @return the number of cache misses until now
+   */
+  public static long getCacheMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Replaces the source of the classes that are loaded and defined by this resolver. By default,
+   * the root loader of the {@link LaunchController} is used, a custom source is only necessary if
+   * Flint hasn't been started through the launcher, for example in unit tests and benchmarks.
+   *
+   * @param classSource the source to be used or {@code null} to use the root loader of the
+   *                    launcher
+   */
+  public static void setClassSource(ClassSource classSource) {
+    CtResolver.classSource = classSource;
+    classes.clear();
+  }
+
+  /**
+   * Source of the classes that are loaded and defined by the {@link CtResolver}.
+   *
+   * @see #setClassSource(ClassSource)
+   */
+  public interface ClassSource {
+
+    /**
+     * Loads the class with the given name.
+     *
+     * @param name the binary name of the class
+     * @return the non-null loaded class
+     * @throws ClassNotFoundException if the class cannot be found
+     */
+    Class<?> loadClass(String name) throws ClassNotFoundException;
+
+    /**
+     * Defines a new class with the given bytecode.
+     *
+     * @param name  the binary name of the class
+     * @param bytes the bytecode of the class
+     * @return the non-null defined class
+     */
+    Class<?> defineClass(String name, byte[] bytes);
+  }
 }
@@ -19,8 +19,14 @@
 
 package net.flintmc.framework.stereotype.service;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import javassist.CtClass;
@@ -28,20 +34,30 @@ import net.flintmc.framework.inject.primitive.InjectionHolder;
 import net.flintmc.framework.stereotype.ServiceHandlerMeta;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.metaprogramming.DetectableAnnotation;
-import net.flintmc.util.commons.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.inject.Named;
 import java.lang.annotation.Annotation;
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Singleton
 public class ServiceRepository {
 
-  private final Multimap<Class<? extends Annotation>, ServiceHandlerMeta> serviceHandlers;
-  private final Multimap<Class<? extends Annotation>, AnnotationMeta<?>> annotations;
+  private final Logger logger;
+  private final SetMultimap<Class<? extends Annotation>, ServiceHandlerMeta> serviceHandlers;
+  private final ListMultimap<Class<? extends Annotation>, AnnotationMeta<?>> annotations;
+  private final Set<AnnotationMeta<?>> registeredAnnotations;
+  private final Map<Service.State, List<RegisteredServiceHandler>> serviceHandlersByState;
   private final Map<CtClass, ServiceHandler> serviceHandlerInstances = new HashMap<>();
-  private final Collection<Pair<AnnotationMeta<?>, CtClass>> discoveredMeta = new HashSet<>();
+  private ExecutorService discoveryExecutor;
 
   private final String minecraftVersion;
 
@@ -49,8 +65,14 @@ public class ServiceRepository {
   private ServiceRepository(
       @Named("launchArguments") Map launchArguments
   ) {
+    this.logger = LogManager.getLogger(ServiceRepository.class);
     this.serviceHandlers = HashMultimap.create();
-    this.annotations = HashMultimap.create();
+    this.annotations = ArrayListMultimap.create();
+    this.registeredAnnotations = new HashSet<>();
+    this.serviceHandlersByState = new EnumMap<>(Service.State.class);
+    for (Service.State state : Service.State.values()) {
+      this.serviceHandlersByState.put(state, new ArrayList<>());
+    }
     this.minecraftVersion = (String) launchArguments.get("--game-version");
   }
 
@@ -62,6 +84,7 @@ public class ServiceRepository {
    * @param state               the initialization state of the service. see also {@link
    *                            Service.State} for usage
    * @param serviceHandlerClass the service handler class to handle {@link DetectableAnnotation}s
+   * @see #registerService(Class, int, Service.State, CtClass)
    */
   public void registerService(
       Class<? extends Annotation>[] annotationTypes,
@@ -74,7 +97,10 @@ public class ServiceRepository {
   }
 
   /**
-   * Registers a service handler that can pickup {@link DetectableAnnotation}s.
+   * Registers a service handler that can pickup {@link DetectableAnnotation}s. Registering the same
+   * handler class for the same annotation type again has no effect, because every annotation is
+   * only discovered once by every handler. If the priority or state differs from the first
+   * registration, a warning is logged and the first registration is kept.
    *
    * @param annotationType      the annotation type the service should handle
    * @param priority            the service priority. Lower priority is called first
@@ -87,83 +113,240 @@ public class ServiceRepository {
       int priority,
       Service.State state,
       CtClass serviceHandlerClass) {
-    this.serviceHandlers.put(
-        annotationType,
-        ServiceHandlerMeta.create(annotationType, priority, state, serviceHandlerClass));
+    for (ServiceHandlerMeta registered : this.serviceHandlers.get(annotationType)) {
+      if (!registered.getServiceHandlerClass().equals(serviceHandlerClass)) {
+        continue;
+      }
+
+      if (registered.getPriority() != priority || registered.getState() != state) {
+        this.logger.warn(
+            "Ignoring registration of service handler {} for {} with priority {} in state {}, it"
+                + " is already registered with priority {} in state {}",
+            serviceHandlerClass.getName(), annotationType.getName(), priority, state,
+            registered.getPriority(), registered.getState());
+      }
+
+      // every annotation is only discovered once by every service handler
+      return;
+    }
+
+    ServiceHandlerMeta serviceHandlerMeta =
+        ServiceHandlerMeta.create(annotationType, priority, state, serviceHandlerClass);
+    this.serviceHandlers.put(annotationType, serviceHandlerMeta);
+
+    // keep the handlers sorted by their priority, handlers with the same priority are called in
+    // the order in which they have been registered
+    List<RegisteredServiceHandler> handlers = this.serviceHandlersByState.get(state);
+    int index = handlers.size();
+    while (index > 0 && handlers.get(index - 1).meta.getPriority() > priority) {
+      index--;
+    }
+    handlers.add(index, new RegisteredServiceHandler(serviceHandlerMeta));
   }
 
   /**
-   * Registers a {@link DetectableAnnotation} and provides ot to the service handlers.
+   * Registers a {@link DetectableAnnotation} and provides ot to the service handlers. Registering
+   * the same annotation meta again has no effect.
    *
    * @param annotationMeta the annotation meta of the {@link DetectableAnnotation} to register.
    */
   public void registerAnnotation(AnnotationMeta<?> annotationMeta) {
+    if (!this.registeredAnnotations.add(annotationMeta)) {
+      return;
+    }
+
     this.annotations.put(annotationMeta.getAnnotation().annotationType(), annotationMeta);
   }
 
+  /**
+   * Provides every annotation that has been registered since the last flush to the service
+   * handlers of the given state and flushes those handlers afterwards. Handlers with a lower
+   * priority are always finished before handlers with a higher priority are called, {@link
+   * ConcurrentServiceHandler}s with the same priority discover their annotations in parallel. The
+   * annotations are always provided to every handler in the order in which they have been
+   * registered.
+   *
+   * @param state the state of the service handlers to flush
+   */
   public void flushServices(Service.State state) {
-    List<ServiceHandlerMeta> services = new ArrayList<>();
-    for (ServiceHandlerMeta value : this.getServiceHandlers().values()) {
-      if (!value.getState().equals(state)) {
-        continue;
+    List<RegisteredServiceHandler> handlers = this.serviceHandlersByState.get(state);
+
+    int start = 0;
+    while (start < handlers.size()) {
+      int priority = handlers.get(start).meta.getPriority();
+      int end = start + 1;
+      while (end < handlers.size() && handlers.get(end).meta.getPriority() == priority) {
+        end++;
       }
-      services.add(value);
-    }
-
-    services.sort(Comparator.comparingInt(ServiceHandlerMeta::getPriority));
-
-    for (ServiceHandlerMeta serviceHandlerMeta : services) {
-      CtClass serviceHandlerClass = serviceHandlerMeta.getServiceHandlerClass();
-      for (Class<? extends Annotation> annotationType : serviceHandlerMeta.getAnnotationTypes()) {
-        for (AnnotationMeta<?> annotationMeta : this.getAnnotations().get(annotationType)) {
-          try {
-            Pair<AnnotationMeta<?>, CtClass> serviceMetaPair =
-                new Pair<>(annotationMeta, serviceHandlerClass);
-            if (discoveredMeta.contains(serviceMetaPair)) {
-              continue;
-            }
-            discoveredMeta.add(serviceMetaPair);
-            if (!serviceHandlerInstances.containsKey(serviceHandlerClass)) {
-              serviceHandlerInstances.put(
-                  serviceHandlerClass,
-                  InjectionHolder.getInjectedInstance(CtResolver.get(serviceHandlerClass)));
-            }
-
-            if(annotationMeta.isApplicableForVersion(minecraftVersion)) {
-              serviceHandlerInstances.get(serviceHandlerClass).discover(annotationMeta);
-            }
-
-          } catch (Exception e) {
-            e.printStackTrace();
-          }
+
+      this.discoverLevel(new ArrayList<>(handlers.subList(start, end)));
+      start = end;
+    }
+
+    Set<CtClass> flushed = new HashSet<>();
+    for (RegisteredServiceHandler handler : handlers) {
+      CtClass serviceHandlerClass = handler.meta.getServiceHandlerClass();
+      if (flushed.add(serviceHandlerClass)) {
+        this.getInstance(serviceHandlerClass).flush();
+      }
+    }
+  }
+
+  private void discoverLevel(List<RegisteredServiceHandler> handlers) {
+    // the same handler instance may be registered for multiple annotation types, but its discover
+    // calls should never run concurrently
+    Map<ServiceHandler, List<AnnotationMeta<?>>> pending = new IdentityHashMap<>();
+
+    for (RegisteredServiceHandler handler : handlers) {
+      ServiceHandler instance = null;
+
+      Class<? extends Annotation>[] annotationTypes = handler.meta.getAnnotationTypes();
+      for (int i = 0; i < annotationTypes.length; i++) {
+        List<AnnotationMeta<?>> annotationMetas = this.annotations.get(annotationTypes[i]);
+        if (handler.cursors[i] >= annotationMetas.size()) {
+          continue;
         }
+
+        if (instance == null) {
+          instance = this.getInstance(handler.meta.getServiceHandlerClass());
+        }
+
+        if (instance instanceof ConcurrentServiceHandler) {
+          // discovered in parallel after the other handlers of this priority
+          pending.computeIfAbsent(instance, key -> new ArrayList<>())
+              .addAll(annotationMetas.subList(handler.cursors[i], annotationMetas.size()));
+          handler.cursors[i] = annotationMetas.size();
+          continue;
+        }
+
+        // the handler may register new annotations while discovering
+        while (handler.cursors[i] < annotationMetas.size()) {
+          this.discover(instance, annotationMetas.get(handler.cursors[i]++));
+        }
+      }
+    }
+
+    if (pending.size() == 1) {
+      Map.Entry<ServiceHandler, List<AnnotationMeta<?>>> entry =
+          pending.entrySet().iterator().next();
+      for (AnnotationMeta<?> annotationMeta : entry.getValue()) {
+        this.discover(entry.getKey(), annotationMeta);
       }
+      return;
     }
 
-    for (Entry<Class<? extends Annotation>, ServiceHandlerMeta> entry : serviceHandlers.entries()) {
-      if (entry.getValue().getState() == state) {
-        if (!serviceHandlerInstances.containsKey(entry.getValue().getServiceHandlerClass())) {
-          serviceHandlerInstances.put(
-              entry.getValue().getServiceHandlerClass(),
-              InjectionHolder
-                  .getInjectedInstance(CtResolver.get(entry.getValue().getServiceHandlerClass())));
+    // concurrent handlers resolve their classes through the CtResolver, which caches them in
+    // concurrent maps and can therefore be used from the discovery threads
+    List<Future<?>> tasks = new ArrayList<>();
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    ExecutorService executor = this.getDiscoveryExecutor();
+
+    for (Map.Entry<ServiceHandler, List<AnnotationMeta<?>>> entry : pending.entrySet()) {
+      tasks.add(executor.submit(() -> {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(contextClassLoader);
+        try {
+          for (AnnotationMeta<?> annotationMeta : entry.getValue()) {
+            this.discover(entry.getKey(), annotationMeta);
+          }
+        } finally {
+          thread.setContextClassLoader(previous);
         }
-        serviceHandlerInstances.get(entry.getValue().getServiceHandlerClass()).flush();
+      }));
+    }
+
+    // wait for every handler before rethrowing, the next priority may never run concurrently with
+    // this one
+    Throwable failure = null;
+    for (Future<?> task : tasks) {
+      try {
+        Uninterruptibles.getUninterruptibly(task);
+      } catch (ExecutionException exception) {
+        if (failure == null) {
+          failure = exception.getCause();
+        } else {
+          failure.addSuppressed(exception.getCause());
+        }
+      }
+    }
+
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw (RuntimeException) failure;
+    }
+  }
+
+  private ExecutorService getDiscoveryExecutor() {
+    if (this.discoveryExecutor == null) {
+      AtomicInteger threadCount = new AtomicInteger();
+      int threads = Runtime.getRuntime().availableProcessors();
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(
+          threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+          runnable -> {
+            Thread thread =
+                new Thread(runnable, "Service Discovery #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          });
+      // discovery only happens while the client is starting, idle threads don't need to be kept
+      executor.allowCoreThreadTimeOut(true);
+      this.discoveryExecutor = executor;
+    }
+
+    return this.discoveryExecutor;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void discover(ServiceHandler instance, AnnotationMeta annotationMeta) {
+    try {
+      if (annotationMeta.isApplicableForVersion(minecraftVersion)) {
+        instance.discover(annotationMeta);
       }
+    } catch (Exception exception) {
+      this.logger.error(
+          "Failed to discover {} with service handler {}",
+          annotationMeta.getIdentifier(), instance.getClass().getName(), exception);
     }
   }
 
+  private ServiceHandler getInstance(CtClass serviceHandlerClass) {
+    ServiceHandler instance = this.serviceHandlerInstances.get(serviceHandlerClass);
+    if (instance == null) {
+      instance = InjectionHolder.getInjectedInstance(CtResolver.get(serviceHandlerClass));
+      this.serviceHandlerInstances.put(serviceHandlerClass, instance);
+    }
+    return instance;
+  }
+
   /**
-   * @return all registered annotations
+   * @return an immutable snapshot of all registered annotations
    */
   public Multimap<Class<? extends Annotation>, AnnotationMeta<?>> getAnnotations() {
-    return HashMultimap.create(annotations);
+    return ImmutableListMultimap.copyOf(this.annotations);
   }
 
   /**
-   * @return all registered service handlers
+   * @return an immutable snapshot of all registered service handlers
    */
   public Multimap<Class<? extends Annotation>, ServiceHandlerMeta> getServiceHandlers() {
-    return HashMultimap.create(serviceHandlers);
+    return ImmutableSetMultimap.copyOf(this.serviceHandlers);
+  }
+
+  private static class RegisteredServiceHandler {
+
+    private final ServiceHandlerMeta meta;
+    /**
+     * The number of annotations of every annotation type of the handler that have already been
+     * provided to the handler.
+     */
+    private final int[] cursors;
+
+    private RegisteredServiceHandler(ServiceHandlerMeta meta) {
+      this.meta = meta;
+      this.cursors = new int[meta.getAnnotationTypes().length];
+    }
   }
 }
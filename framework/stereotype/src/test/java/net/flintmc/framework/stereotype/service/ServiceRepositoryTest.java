@@ -0,0 +1,249 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.framework.stereotype.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.NotFoundException;
+import javax.inject.Named;
+import net.flintmc.metaprogramming.AnnotationMeta;
+import net.flintmc.util.unittesting.FlintTest;
+import net.flintmc.util.unittesting.StandaloneClassSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@FlintTest
+public class ServiceRepositoryTest extends AbstractModule {
+
+  private static final int ROUNDS = 10;
+  private static final int ANNOTATIONS_PER_ROUND = 50;
+
+  @Inject
+  private ServiceRepository repository;
+  @Inject
+  private OrderedHandler orderedHandler;
+  @Inject
+  private FirstConcurrentHandler firstHandler;
+  @Inject
+  private SecondConcurrentHandler secondHandler;
+  @Inject
+  private ThirdConcurrentHandler thirdHandler;
+
+  @BeforeEach
+  public void setUp() {
+    StandaloneClassSource.install();
+  }
+
+  @Test
+  public void testDiscoveryIsDeterministic() throws NotFoundException {
+    this.register(OrderedHandler.class, 0);
+    this.register(FirstConcurrentHandler.class, 1);
+    this.register(SecondConcurrentHandler.class, 1);
+    this.register(ThirdConcurrentHandler.class, 1);
+
+    List<AnnotationMeta<?>> expected = new ArrayList<>();
+    for (int round = 0; round < ROUNDS; round++) {
+      List<AnnotationMeta<?>> first = new ArrayList<>();
+      List<AnnotationMeta<?>> second = new ArrayList<>();
+
+      for (int i = 0; i < ANNOTATIONS_PER_ROUND; i++) {
+        // register both annotation types interleaved, handlers discover them type by type
+        boolean useFirst = i % 2 == 0;
+        AnnotationMeta<?> meta =
+            createMeta(useFirst ? FirstAnnotation.class : SecondAnnotation.class);
+        (useFirst ? first : second).add(meta);
+        this.repository.registerAnnotation(meta);
+      }
+
+      expected.addAll(first);
+      expected.addAll(second);
+
+      this.repository.flushServices(Service.State.PRE_INIT);
+
+      assertEquals(expected, this.orderedHandler.discovered);
+      for (RecordingHandler handler : this.concurrentHandlers()) {
+        assertEquals(expected, handler.discovered);
+        assertEquals(round + 1, handler.flushes);
+      }
+
+      // handlers with a lower priority are always finished first
+      for (RecordingHandler handler : this.concurrentHandlers()) {
+        List<Integer> sizes = ((RecordingConcurrentHandler) handler).orderedHandlerSizes;
+        for (int size : sizes.subList(sizes.size() - ANNOTATIONS_PER_ROUND, sizes.size())) {
+          assertEquals(expected.size(), size);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentFailuresAreRethrown() throws NotFoundException {
+    this.register(FirstConcurrentHandler.class, 0);
+    this.register(FailingConcurrentHandler.class, 0);
+
+    AnnotationMeta<?> meta = createMeta(FirstAnnotation.class);
+    this.repository.registerAnnotation(meta);
+
+    assertSame(
+        FailingConcurrentHandler.FAILURE,
+        assertThrows(
+            AssertionError.class, () -> this.repository.flushServices(Service.State.PRE_INIT)));
+    // the other handlers of the same priority are always finished
+    assertEquals(Collections.singletonList(meta), this.firstHandler.discovered);
+  }
+
+  @Test
+  public void testConflictingRegistrationIsIgnored() throws NotFoundException {
+    this.register(OrderedHandler.class, 0);
+    this.repository.registerService(
+        FirstAnnotation.class, 5, Service.State.POST_INIT, getCtClass(OrderedHandler.class));
+
+    assertEquals(1, this.repository.getServiceHandlers().get(FirstAnnotation.class).size());
+    assertEquals(
+        0,
+        this.repository.getServiceHandlers().get(FirstAnnotation.class).iterator().next()
+            .getPriority());
+  }
+
+  private List<RecordingHandler> concurrentHandlers() {
+    List<RecordingHandler> handlers = new ArrayList<>();
+    handlers.add(this.firstHandler);
+    handlers.add(this.secondHandler);
+    handlers.add(this.thirdHandler);
+    return handlers;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void register(Class<? extends ServiceHandler> handlerClass, int priority)
+      throws NotFoundException {
+    this.repository.registerService(
+        new Class[]{FirstAnnotation.class, SecondAnnotation.class},
+        priority,
+        Service.State.PRE_INIT,
+        getCtClass(handlerClass));
+  }
+
+  private static CtClass getCtClass(Class<?> clazz) throws NotFoundException {
+    return ClassPool.getDefault().get(clazz.getName());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static AnnotationMeta<?> createMeta(Class<? extends Annotation> annotationType) {
+    Annotation annotation = mock(annotationType);
+    when(annotation.annotationType()).thenReturn((Class) annotationType);
+    return new AnnotationMeta<>(null, null, annotation, null, null, 0);
+  }
+
+  @Provides
+  @Named("launchArguments")
+  @SuppressWarnings("rawtypes")
+  private Map provideLaunchArguments() {
+    return Collections.singletonMap("--game-version", "1.16.5");
+  }
+
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface FirstAnnotation {
+
+  }
+
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface SecondAnnotation {
+
+  }
+
+  public abstract static class RecordingHandler implements ServiceHandler<Annotation> {
+
+    protected final List<AnnotationMeta<?>> discovered = new ArrayList<>();
+    protected int flushes;
+
+    @Override
+    public void discover(AnnotationMeta<Annotation> annotationMeta) {
+      this.discovered.add(annotationMeta);
+    }
+
+    @Override
+    public void flush() {
+      this.flushes++;
+    }
+  }
+
+  @Singleton
+  public static class OrderedHandler extends RecordingHandler {
+
+  }
+
+  public abstract static class RecordingConcurrentHandler extends RecordingHandler
+      implements ConcurrentServiceHandler<Annotation> {
+
+    protected final List<Integer> orderedHandlerSizes = new ArrayList<>();
+
+    @Inject
+    private OrderedHandler orderedHandler;
+
+    @Override
+    public void discover(AnnotationMeta<Annotation> annotationMeta) {
+      this.orderedHandlerSizes.add(this.orderedHandler.discovered.size());
+      super.discover(annotationMeta);
+    }
+  }
+
+  @Singleton
+  public static class FirstConcurrentHandler extends RecordingConcurrentHandler {
+
+  }
+
+  @Singleton
+  public static class SecondConcurrentHandler extends RecordingConcurrentHandler {
+
+  }
+
+  @Singleton
+  public static class ThirdConcurrentHandler extends RecordingConcurrentHandler {
+
+  }
+
+  @Singleton
+  public static class FailingConcurrentHandler extends RecordingConcurrentHandler {
+
+    private static final AssertionError FAILURE = new AssertionError("discovery failed");
+
+    @Override
+    public void discover(AnnotationMeta<Annotation> annotationMeta) {
+      throw FAILURE;
+    }
+  }
+}
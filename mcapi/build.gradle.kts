@@ -19,6 +19,7 @@
 
 plugins {
     id("java-library")
+    id("me.champeau.jmh")
 }
 
 group = "net.flintmc"
@@ -50,4 +51,13 @@ dependencies {
     api(project(":util:util-math"))
 
     api("com.google.code.gson", "gson", "2.8.6")
+
+    testImplementation(project(":util:util-unit-testing"))
+    testImplementation(project(":mcapi", "internal"))
+
+    jmhImplementation(project(":mcapi", "internal"))
+}
+
+jmh {
+    jmhVersion.set("1.27")
 }
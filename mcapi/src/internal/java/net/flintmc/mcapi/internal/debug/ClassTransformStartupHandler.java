@@ -0,0 +1,48 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.internal.debug;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import net.flintmc.framework.eventbus.event.subscribe.PostSubscribe;
+import net.flintmc.mcapi.event.MinecraftInitializeEvent;
+import net.flintmc.transform.launchplugin.FlintLauncherPlugin;
+import net.flintmc.util.classcache.ClassCacheIndex;
+
+/**
+ * Logs how many classes have been skipped or transformed by the class transformers while Minecraft
+ * has been started and writes the classes that have been cached during the startup to the disk.
+ */
+@Singleton
+public class ClassTransformStartupHandler {
+
+  private final ClassCacheIndex classCacheIndex;
+
+  @Inject
+  private ClassTransformStartupHandler(ClassCacheIndex classCacheIndex) {
+    this.classCacheIndex = classCacheIndex;
+  }
+
+  @PostSubscribe
+  public void handleStartup(MinecraftInitializeEvent event) {
+    FlintLauncherPlugin.getInstance().logTransformSummary();
+    this.classCacheIndex.write();
+  }
+}
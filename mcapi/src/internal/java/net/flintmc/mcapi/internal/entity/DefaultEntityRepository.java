@@ -19,25 +19,38 @@
 
 package net.flintmc.mcapi.internal.entity;
 
-import com.google.common.collect.Maps;
+import com.google.common.collect.MapMaker;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import net.flintmc.framework.inject.implement.Implement;
-import net.flintmc.mcapi.entity.Entity;
-import net.flintmc.mcapi.entity.EntityRepository;
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
+import net.flintmc.framework.eventbus.event.subscribe.PostSubscribe;
+import net.flintmc.framework.eventbus.event.subscribe.PreSubscribe;
+import net.flintmc.framework.inject.implement.Implement;
 import net.flintmc.mcapi.entity.Entity;
+import net.flintmc.mcapi.entity.EntityNotLoadedException;
+import net.flintmc.mcapi.entity.EntityRepository;
+import net.flintmc.mcapi.entity.event.EntityDespawnEvent;
+import net.flintmc.mcapi.world.event.WorldUnloadEvent;
 
 /**
  * This cache is used to store all entities ported from Minecraft to Flint to save resources.
  *
- * <p>This cache is cleared when the player leaves the world or server.
+ * <p>Entities are removed from this cache when they are despawned, the whole cache is cleared when
+ * the world is unloaded.
  *
  * <p>To cache an entity {@link #putIfAbsent(UUID, Supplier)} is used, this will cache the given
- * entity and its unique identifier.
+ * entity and its unique identifier. Entities cached with {@link #putIfAbsent(Object, UUID,
+ * Supplier)} are additionally associated with their Minecraft entity and bucketed by the chunk
+ * they are in. The associations with the Minecraft entities are kept in concurrent maps that compare
+ * their keys by identity, so that looking entities up by their Minecraft entity never has to lock,
+ * which happens far more often than entities are spawned or despawned.
  */
 @Singleton
 @Implement(EntityRepository.class)
@@ -45,9 +58,20 @@ public class DefaultEntityRepository implements EntityRepository {
 
   private final Map<UUID, Entity> entities;
 
+  private final Object indexLock;
+  private final Map<Long, List<IndexedEntity>> chunks;
+  // only modified with the index lock, weak keys are compared by identity
+  private final Map<Object, IndexedEntity> entitiesByHandle;
+  private final Map<Entity, IndexedEntity> indexedEntities;
+
   @Inject
   private DefaultEntityRepository() {
-    this.entities = Maps.newHashMap();
+    this.entities = new ConcurrentHashMap<>();
+
+    this.indexLock = new Object();
+    this.chunks = new HashMap<>();
+    this.entitiesByHandle = new MapMaker().weakKeys().makeMap();
+    this.indexedEntities = new MapMaker().weakKeys().makeMap();
   }
 
   /**
@@ -61,6 +85,24 @@ public class DefaultEntityRepository implements EntityRepository {
     return this.entities.get(uniqueId);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Entity getEntityByHandle(Object handle) {
+    IndexedEntity indexed = this.entitiesByHandle.get(handle);
+    return indexed != null ? indexed.entity : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object getHandle(Entity entity) {
+    IndexedEntity indexed = this.indexedEntities.get(entity);
+    return indexed != null ? indexed.handle : null;
+  }
+
   /**
    * If the given unique identifier is already associated with an entity, the associated entity is
    * returned. If the specified unique identifier is not associated with an entity associates the
@@ -73,20 +115,170 @@ public class DefaultEntityRepository implements EntityRepository {
    */
   @Override
   public Entity putIfAbsent(UUID uniqueId, Supplier<Entity> supplier) {
-    if (this.entities.containsKey(uniqueId)) {
-      return this.getEntity(uniqueId);
+    Entity entity = this.entities.get(uniqueId);
+    if (entity != null) {
+      return entity;
+    }
+
+    synchronized (this.indexLock) {
+      entity = this.entities.get(uniqueId);
+      if (entity == null) {
+        entity = supplier.get();
+        this.entities.put(uniqueId, entity);
+      }
+      return entity;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Entity putIfAbsent(Object handle, UUID uniqueId, Supplier<Entity> supplier) {
+    IndexedEntity indexed = this.entitiesByHandle.get(handle);
+    if (indexed != null && indexed.uniqueId.equals(uniqueId)) {
+      return indexed.entity;
+    }
+
+    synchronized (this.indexLock) {
+      indexed = this.entitiesByHandle.get(handle);
+      if (indexed != null && indexed.uniqueId.equals(uniqueId)) {
+        return indexed.entity;
+      }
+
+      Entity entity = this.entities.get(uniqueId);
+      if (entity == null) {
+        entity = supplier.get();
+        this.entities.put(uniqueId, entity);
+      }
+
+      indexed = this.indexedEntities.get(entity);
+      if (indexed == null) {
+        indexed = new IndexedEntity(entity, uniqueId);
+        this.indexedEntities.put(entity, indexed);
+      }
+
+      if (indexed.handle != handle) {
+        if (indexed.handle != null) {
+          this.entitiesByHandle.remove(indexed.handle);
+        }
+        indexed.handle = handle;
+        this.entitiesByHandle.put(handle, indexed);
+
+        try {
+          this.move(indexed, entity.getPosX(), entity.getPosY(), entity.getPosZ());
+        } catch (EntityNotLoadedException ignored) {
+          // will be indexed with the next position update
+        }
+      }
+
+      return entity;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Entity remove(UUID uniqueId) {
+    synchronized (this.indexLock) {
+      Entity entity = this.entities.remove(uniqueId);
+      if (entity != null) {
+        this.removeFromIndex(entity);
+      }
+      return entity;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean remove(Entity entity) {
+    synchronized (this.indexLock) {
+      IndexedEntity indexed = this.removeFromIndex(entity);
+      if (indexed != null) {
+        return this.entities.remove(indexed.uniqueId, entity);
+      }
+
+      return this.entities.values().remove(entity);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void updatePosition(Object handle, double x, double y, double z) {
+    IndexedEntity indexed = this.entitiesByHandle.get(handle);
+    if (indexed == null) {
+      return;
+    }
+
+    synchronized (this.indexLock) {
+      // the entity might have been removed since it has been looked up
+      if (this.entitiesByHandle.get(handle) == indexed) {
+        this.move(indexed, x, y, z);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T extends Entity> List<T> getEntitiesInRadius(
+      Class<T> type, double x, double y, double z, double radius) {
+    List<T> result = new ArrayList<>();
+    double radiusSquared = radius * radius;
+
+    synchronized (this.indexLock) {
+      this.collect(
+          x - radius, z - radius, x + radius, z + radius,
+          indexed -> {
+            double distanceX = indexed.x - x;
+            double distanceY = indexed.y - y;
+            double distanceZ = indexed.z - z;
+            return distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ
+                <= radiusSquared;
+          },
+          type, result);
     }
-    Entity suppliedEntity = supplier.get();
-    this.entities.put(uniqueId, suppliedEntity);
-    return suppliedEntity;
+
+    return result;
   }
 
+  /**
+   * {@inheritDoc}
+   */
   @Override
+  public <T extends Entity> List<T> getEntitiesInBox(
+      Class<T> type, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+    List<T> result = new ArrayList<>();
+
+    synchronized (this.indexLock) {
+      this.collect(
+          minX, minZ, maxX, maxZ,
+          indexed -> indexed.x >= minX && indexed.x <= maxX
+              && indexed.y >= minY && indexed.y <= maxY
+              && indexed.z >= minZ && indexed.z <= maxZ,
+          type, result);
+    }
+
+    return result;
+  }
+
   /**
    * Clears the cache.
    */
+  @Override
   public void clear() {
-    this.entities.clear();
+    synchronized (this.indexLock) {
+      this.entities.clear();
+      this.entitiesByHandle.clear();
+      this.indexedEntities.clear();
+      this.chunks.clear();
+    }
   }
 
   /**
@@ -99,8 +291,146 @@ public class DefaultEntityRepository implements EntityRepository {
     return this.entities.size();
   }
 
+  /**
+   * {@inheritDoc}
+   */
   @Override
   public Map<UUID, Entity> getEntities() {
-    return entities;
+    return Collections.unmodifiableMap(this.entities);
+  }
+
+  @PreSubscribe
+  public void entityDespawn(EntityDespawnEvent event) {
+    this.remove(event.getEntity());
+  }
+
+  @PostSubscribe
+  public void worldUnload(WorldUnloadEvent event) {
+    this.clear();
+  }
+
+  private <T extends Entity> void collect(
+      double minX,
+      double minZ,
+      double maxX,
+      double maxZ,
+      IndexedEntityFilter filter,
+      Class<T> type,
+      List<T> result) {
+    int minChunkX = toChunk(minX);
+    int minChunkZ = toChunk(minZ);
+    int maxChunkX = toChunk(maxX);
+    int maxChunkZ = toChunk(maxZ);
+
+    long chunkCount = ((long) maxChunkX - minChunkX + 1) * ((long) maxChunkZ - minChunkZ + 1);
+    if (chunkCount > this.chunks.size()) {
+      // the area covers more chunks than there are chunks with entities
+      for (List<IndexedEntity> bucket : this.chunks.values()) {
+        this.collect(bucket, filter, type, result);
+      }
+      return;
+    }
+
+    for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+      for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+        List<IndexedEntity> bucket = this.chunks.get(toChunkKey(chunkX, chunkZ));
+        if (bucket != null) {
+          this.collect(bucket, filter, type, result);
+        }
+      }
+    }
+  }
+
+  private <T extends Entity> void collect(
+      List<IndexedEntity> bucket,
+      IndexedEntityFilter filter,
+      Class<T> type,
+      List<T> result) {
+    for (int i = 0; i < bucket.size(); i++) {
+      IndexedEntity indexed = bucket.get(i);
+      if (type.isInstance(indexed.entity) && filter.test(indexed)) {
+        result.add(type.cast(indexed.entity));
+      }
+    }
+  }
+
+  private void move(IndexedEntity indexed, double x, double y, double z) {
+    indexed.x = x;
+    indexed.y = y;
+    indexed.z = z;
+
+    long chunkKey = toChunkKey(toChunk(x), toChunk(z));
+    if (indexed.positioned && indexed.chunkKey == chunkKey) {
+      return;
+    }
+
+    if (indexed.positioned) {
+      this.removeFromBucket(indexed);
+    }
+    indexed.positioned = true;
+    indexed.chunkKey = chunkKey;
+    this.chunks.computeIfAbsent(chunkKey, key -> new ArrayList<>()).add(indexed);
+  }
+
+  private IndexedEntity removeFromIndex(Entity entity) {
+    IndexedEntity indexed = this.indexedEntities.get(entity);
+    if (indexed == null) {
+      return null;
+    }
+
+    this.indexedEntities.remove(entity);
+    if (indexed.handle != null) {
+      this.entitiesByHandle.remove(indexed.handle);
+    }
+    if (indexed.positioned) {
+      this.removeFromBucket(indexed);
+    }
+    return indexed;
+  }
+
+  private void removeFromBucket(IndexedEntity indexed) {
+    List<IndexedEntity> bucket = this.chunks.get(indexed.chunkKey);
+    if (bucket == null) {
+      return;
+    }
+
+    bucket.remove(indexed);
+    if (bucket.isEmpty()) {
+      this.chunks.remove(indexed.chunkKey);
+    }
+  }
+
+  private static int toChunk(double coordinate) {
+    return (int) Math.floor(coordinate) >> 4;
+  }
+
+  private static long toChunkKey(int chunkX, int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  private interface IndexedEntityFilter {
+
+    boolean test(IndexedEntity indexed);
+  }
+
+  /**
+   * An entity together with its Minecraft entity and its last known position.
+   */
+  private static class IndexedEntity {
+
+    private final Entity entity;
+    private final UUID uniqueId;
+    private volatile Object handle;
+
+    private boolean positioned;
+    private long chunkKey;
+    private double x;
+    private double y;
+    private double z;
+
+    private IndexedEntity(Entity entity, UUID uniqueId) {
+      this.entity = entity;
+      this.uniqueId = uniqueId;
+    }
   }
 }
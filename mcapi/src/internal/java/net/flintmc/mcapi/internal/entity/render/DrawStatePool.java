@@ -0,0 +1,105 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.internal.entity.render;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Recycles the empty draw states that are used to schedule the custom model rendering, so that they
+ * don't have to be created reflectively for every model part in every frame. Creating and resetting
+ * the draw states is left to the versioned implementations.
+ *
+ * @param <F> the type of the vertex formats of the draw states
+ * @param <S> the type of the draw states
+ */
+public abstract class DrawStatePool<F, S> {
+
+  private static final int MAX_POOLED_STATES = 256;
+
+  private final Map<F, Deque<S>> pools;
+
+  protected DrawStatePool() {
+    this.pools = new IdentityHashMap<>();
+  }
+
+  /**
+   * Retrieves an empty draw state without any vertices for the given format, either a recycled
+   * one or a new one if none is available.
+   *
+   * @param vertexFormat the format of the buffer the draw state will be added to
+   * @return the draw state or {@code null} if it couldn't be created
+   */
+  public S obtain(F vertexFormat) {
+    synchronized (this.pools) {
+      Deque<S> pool = this.pools.get(vertexFormat);
+      if (pool != null && !pool.isEmpty()) {
+        return pool.pop();
+      }
+    }
+
+    return this.createDrawState(vertexFormat);
+  }
+
+  /**
+   * Returns a draw state that has been drawn to the pool, does nothing if the draw state hasn't
+   * been retrieved by {@link #obtain(Object)}.
+   *
+   * @param drawState the draw state that won't be used anymore
+   */
+  public void recycle(S drawState) {
+    if (!this.reset(drawState)) {
+      return;
+    }
+
+    synchronized (this.pools) {
+      Deque<S> pool = this.pools.computeIfAbsent(
+          this.getVertexFormat(drawState), format -> new ArrayDeque<>());
+      if (pool.size() < MAX_POOLED_STATES) {
+        pool.push(drawState);
+      }
+    }
+  }
+
+  /**
+   * Creates a new empty draw state without any vertices.
+   *
+   * @param vertexFormat the format of the buffer the draw state will be added to
+   * @return the new draw state or {@code null} if it couldn't be created
+   */
+  protected abstract S createDrawState(F vertexFormat);
+
+  /**
+   * Removes the model data from a draw state that has been drawn, so that it can be obtained again.
+   *
+   * @param drawState the draw state to be reset
+   * @return {@code true} if the draw state has been reset, {@code false} if it hasn't been created
+   *     by this pool and must not be recycled
+   */
+  protected abstract boolean reset(S drawState);
+
+  /**
+   * @param drawState the draw state to get the format of
+   * @return the vertex format of the given draw state
+   */
+  protected abstract F getVertexFormat(S drawState);
+}
@@ -0,0 +1,175 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.internal.entity.render;
+
+/**
+ * The world and normal matrix of a model part stored as plain floats to transform the vertices and
+ * normals of the part without allocating a vector for every single vertex. Instances are mutable
+ * and meant to be reused on the render thread for every model part.
+ */
+public class ModelPartTransform {
+
+  private float m00, m01, m02, m03;
+  private float m10, m11, m12, m13;
+  private float m20, m21, m22, m23;
+
+  private float n00, n01, n02;
+  private float n10, n11, n12;
+  private float n20, n21, n22;
+
+  /**
+   * Sets the upper three rows of the world matrix, the last row is always expected to be {@code 0,
+   * 0, 0, 1} for model parts. The parameters are named {@code m<row><column>}.
+   *
+   * @param m00 the first column of the first row
+   * @param m01 the second column of the first row
+   * @param m02 the third column of the first row
+   * @param m03 the translation on the x axis
+   * @param m10 the first column of the second row
+   * @param m11 the second column of the second row
+   * @param m12 the third column of the second row
+   * @param m13 the translation on the y axis
+   * @param m20 the first column of the third row
+   * @param m21 the second column of the third row
+   * @param m22 the third column of the third row
+   * @param m23 the translation on the z axis
+   * @return this transform
+   */
+  public ModelPartTransform setWorld(
+      float m00, float m01, float m02, float m03,
+      float m10, float m11, float m12, float m13,
+      float m20, float m21, float m22, float m23) {
+    this.m00 = m00;
+    this.m01 = m01;
+    this.m02 = m02;
+    this.m03 = m03;
+    this.m10 = m10;
+    this.m11 = m11;
+    this.m12 = m12;
+    this.m13 = m13;
+    this.m20 = m20;
+    this.m21 = m21;
+    this.m22 = m22;
+    this.m23 = m23;
+    return this;
+  }
+
+  /**
+   * Sets the normal matrix. The parameters are named {@code n<row><column>}.
+   *
+   * @param n00 the first column of the first row
+   * @param n01 the second column of the first row
+   * @param n02 the third column of the first row
+   * @param n10 the first column of the second row
+   * @param n11 the second column of the second row
+   * @param n12 the third column of the second row
+   * @param n20 the first column of the third row
+   * @param n21 the second column of the third row
+   * @param n22 the third column of the third row
+   * @return this transform
+   */
+  public ModelPartTransform setNormal(
+      float n00, float n01, float n02,
+      float n10, float n11, float n12,
+      float n20, float n21, float n22) {
+    this.n00 = n00;
+    this.n01 = n01;
+    this.n02 = n02;
+    this.n10 = n10;
+    this.n11 = n11;
+    this.n12 = n12;
+    this.n20 = n20;
+    this.n21 = n21;
+    this.n22 = n22;
+    return this;
+  }
+
+  /**
+   * Transforms the given position with the world matrix.
+   *
+   * @param x the x coordinate of the position
+   * @param y the y coordinate of the position
+   * @param z the z coordinate of the position
+   * @return the transformed x coordinate
+   */
+  public float transformX(float x, float y, float z) {
+    return this.m00 * x + this.m01 * y + this.m02 * z + this.m03;
+  }
+
+  /**
+   * Transforms the given position with the world matrix.
+   *
+   * @param x the x coordinate of the position
+   * @param y the y coordinate of the position
+   * @param z the z coordinate of the position
+   * @return the transformed y coordinate
+   */
+  public float transformY(float x, float y, float z) {
+    return this.m10 * x + this.m11 * y + this.m12 * z + this.m13;
+  }
+
+  /**
+   * Transforms the given position with the world matrix.
+   *
+   * @param x the x coordinate of the position
+   * @param y the y coordinate of the position
+   * @param z the z coordinate of the position
+   * @return the transformed z coordinate
+   */
+  public float transformZ(float x, float y, float z) {
+    return this.m20 * x + this.m21 * y + this.m22 * z + this.m23;
+  }
+
+  /**
+   * Transforms the given normal with the normal matrix.
+   *
+   * @param x the x coordinate of the normal
+   * @param y the y coordinate of the normal
+   * @param z the z coordinate of the normal
+   * @return the transformed x coordinate
+   */
+  public float transformNormalX(float x, float y, float z) {
+    return this.n00 * x + this.n01 * y + this.n02 * z;
+  }
+
+  /**
+   * Transforms the given normal with the normal matrix.
+   *
+   * @param x the x coordinate of the normal
+   * @param y the y coordinate of the normal
+   * @param z the z coordinate of the normal
+   * @return the transformed y coordinate
+   */
+  public float transformNormalY(float x, float y, float z) {
+    return this.n10 * x + this.n11 * y + this.n12 * z;
+  }
+
+  /**
+   * Transforms the given normal with the normal matrix.
+   *
+   * @param x the x coordinate of the normal
+   * @param y the y coordinate of the normal
+   * @param z the z coordinate of the normal
+   * @return the transformed z coordinate
+   */
+  public float transformNormalZ(float x, float y, float z) {
+    return this.n20 * x + this.n21 * y + this.n22 * z;
+  }
+}
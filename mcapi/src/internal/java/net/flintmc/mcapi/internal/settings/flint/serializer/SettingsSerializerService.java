@@ -23,9 +23,9 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import javassist.CtClass;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.stereotype.service.ConcurrentServiceHandler;
 import net.flintmc.framework.stereotype.service.CtResolver;
 import net.flintmc.framework.stereotype.service.Service;
-import net.flintmc.framework.stereotype.service.ServiceHandler;
 import net.flintmc.framework.stereotype.service.ServiceNotFoundException;
 import net.flintmc.mcapi.settings.flint.serializer.JsonSettingsSerializer;
 import net.flintmc.mcapi.settings.flint.serializer.SettingsSerializationHandler;
@@ -35,7 +35,7 @@ import net.flintmc.metaprogramming.identifier.Identifier;
 
 @Singleton
 @Service(SettingsSerializer.class)
-public class SettingsSerializerService implements ServiceHandler<SettingsSerializer> {
+public class SettingsSerializerService implements ConcurrentServiceHandler<SettingsSerializer> {
 
   private final JsonSettingsSerializer serializer;
 
@@ -0,0 +1,241 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.internal.tileentity;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import net.flintmc.mcapi.tileentity.TileEntity;
+import net.flintmc.mcapi.world.math.BlockPosition;
+
+/**
+ * Storage for the loaded tile entities of a world. Tile entities are stored by their packed block
+ * position and additionally bucketed by their chunk, so that lookups and removals by position are
+ * constant time and all tile entities of a chunk can be dropped at once when it is unloaded. The
+ * position of a tile entity is only read once when it is added, removing it doesn't depend on its
+ * current position.
+ */
+public class TileEntityStorage {
+
+  private final Map<Long, StoredTileEntity> tileEntities;
+  private final Map<TileEntity, StoredTileEntity> storedTileEntities;
+  private final Map<Long, List<StoredTileEntity>> chunks;
+  private final List<StoredTileEntity> loadedTileEntities;
+  private final List<TileEntity> loadedTileEntitiesView;
+
+  public TileEntityStorage() {
+    this.tileEntities = new HashMap<>();
+    this.storedTileEntities = new IdentityHashMap<>();
+    this.chunks = new HashMap<>();
+    this.loadedTileEntities = new ArrayList<>();
+    this.loadedTileEntitiesView =
+        new AbstractList<TileEntity>() {
+          @Override
+          public TileEntity get(int index) {
+            synchronized (TileEntityStorage.this) {
+              return loadedTileEntities.get(index).tileEntity;
+            }
+          }
+
+          @Override
+          public int size() {
+            synchronized (TileEntityStorage.this) {
+              return loadedTileEntities.size();
+            }
+          }
+
+          @Override
+          public Object[] toArray() {
+            synchronized (TileEntityStorage.this) {
+              return super.toArray();
+            }
+          }
+
+          @Override
+          public <T> T[] toArray(T[] array) {
+            synchronized (TileEntityStorage.this) {
+              return super.toArray(array);
+            }
+          }
+        };
+  }
+
+  /**
+   * Retrieves the tile entity at the given block position.
+   *
+   * @param x The x coordinate of the block
+   * @param y The y coordinate of the block
+   * @param z The z coordinate of the block
+   * @return The tile entity at the given position or {@code null}, if there is none
+   */
+  public synchronized TileEntity get(int x, int y, int z) {
+    StoredTileEntity stored = this.tileEntities.get(packPosition(x, y, z));
+    return stored != null ? stored.tileEntity : null;
+  }
+
+  /**
+   * Adds the given tile entity to this storage, a tile entity that has been stored at the same
+   * position will be replaced.
+   *
+   * @param tileEntity The non-null tile entity to add
+   */
+  public synchronized void add(TileEntity tileEntity) {
+    BlockPosition position = tileEntity.getPosition();
+    long packedPosition = packPosition(position.getX(), position.getY(), position.getZ());
+
+    StoredTileEntity previous = this.tileEntities.get(packedPosition);
+    if (previous != null) {
+      this.remove(previous);
+    }
+    previous = this.storedTileEntities.get(tileEntity);
+    if (previous != null) {
+      // the same tile entity has been added at a different position before
+      this.remove(previous);
+    }
+
+    StoredTileEntity stored =
+        new StoredTileEntity(
+            tileEntity,
+            packedPosition,
+            packChunk(position.getX() >> 4, position.getZ() >> 4),
+            this.loadedTileEntities.size());
+    this.tileEntities.put(packedPosition, stored);
+    this.storedTileEntities.put(tileEntity, stored);
+    this.chunks.computeIfAbsent(stored.packedChunk, chunk -> new ArrayList<>()).add(stored);
+    this.loadedTileEntities.add(stored);
+  }
+
+  /**
+   * Removes the given tile entity from this storage. The tile entity is removed from the position it
+   * had when it has been added, even if its position has changed since then.
+   *
+   * @param tileEntity The tile entity to remove
+   * @return {@code true} if the tile entity has been removed, {@code false} if it wasn't stored
+   */
+  public synchronized boolean remove(TileEntity tileEntity) {
+    if (tileEntity == null) {
+      return false;
+    }
+
+    StoredTileEntity stored = this.storedTileEntities.get(tileEntity);
+    if (stored == null) {
+      return false;
+    }
+
+    this.remove(stored);
+    return true;
+  }
+
+  /**
+   * Removes all tile entities in the given chunk from this storage.
+   *
+   * @param chunkX The x coordinate of the chunk
+   * @param chunkZ The z coordinate of the chunk
+   */
+  public synchronized void removeChunk(int chunkX, int chunkZ) {
+    List<StoredTileEntity> chunk = this.chunks.remove(packChunk(chunkX, chunkZ));
+    if (chunk == null) {
+      return;
+    }
+
+    for (StoredTileEntity stored : chunk) {
+      this.tileEntities.remove(stored.packedPosition);
+      this.storedTileEntities.remove(stored.tileEntity);
+      this.removeFromLoaded(stored);
+    }
+  }
+
+  /**
+   * Removes all tile entities from this storage.
+   */
+  public synchronized void clear() {
+    this.tileEntities.clear();
+    this.storedTileEntities.clear();
+    this.chunks.clear();
+    this.loadedTileEntities.clear();
+  }
+
+  /**
+   * Retrieves an unmodifiable view of all tile entities in this storage, the order of the tile
+   * entities is not guaranteed to be stable. Single accesses and copies of the view (e.g. {@code
+   * new ArrayList<>(view)}) hold the lock of this storage, but iterating over it doesn't and is
+   * therefore only safe on the thread that modifies this storage.
+   *
+   * @return The non-null view of all tile entities
+   */
+  public List<TileEntity> getLoadedTileEntities() {
+    return this.loadedTileEntitiesView;
+  }
+
+  private void remove(StoredTileEntity stored) {
+    this.tileEntities.remove(stored.packedPosition);
+    this.storedTileEntities.remove(stored.tileEntity);
+
+    List<StoredTileEntity> chunk = this.chunks.get(stored.packedChunk);
+    if (chunk != null) {
+      chunk.remove(stored);
+      if (chunk.isEmpty()) {
+        this.chunks.remove(stored.packedChunk);
+      }
+    }
+
+    this.removeFromLoaded(stored);
+  }
+
+  private void removeFromLoaded(StoredTileEntity stored) {
+    // the last tile entity is moved into the gap, so that removing doesn't shift the whole list
+    int lastIndex = this.loadedTileEntities.size() - 1;
+    StoredTileEntity last = this.loadedTileEntities.remove(lastIndex);
+    if (last != stored) {
+      this.loadedTileEntities.set(stored.index, last);
+      last.index = stored.index;
+    }
+  }
+
+  /**
+   * Packs the given block position into a single long in the same layout as Minecraft does.
+   */
+  private static long packPosition(int x, int y, int z) {
+    return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
+  }
+
+  private static long packChunk(int chunkX, int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  private static class StoredTileEntity {
+
+    private final TileEntity tileEntity;
+    private final long packedPosition;
+    private final long packedChunk;
+    private int index;
+
+    private StoredTileEntity(
+        TileEntity tileEntity, long packedPosition, long packedChunk, int index) {
+      this.tileEntity = tileEntity;
+      this.packedPosition = packedPosition;
+      this.packedChunk = packedChunk;
+      this.index = index;
+    }
+  }
+}
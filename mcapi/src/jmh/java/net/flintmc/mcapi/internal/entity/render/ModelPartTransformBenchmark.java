@@ -0,0 +1,225 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.internal.entity.render;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures transforming a synthetic model part with 1k quads into a vertex buffer. The {@code
+ * allocating} mode copies the normal of every quad and every vertex position into a new vector and
+ * transforms it with the matrix like the model renderer of Minecraft does, the {@code primitive}
+ * mode uses a reused {@link ModelPartTransform} like the custom model part rendering of Flint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelPartTransformBenchmark {
+
+  private static final int VERTEX_SIZE = 3 + 2 + 3;
+
+  @Param({"allocating", "primitive"})
+  public String mode;
+
+  @Param("1000")
+  public int quads;
+
+  private float[][] positions;
+  private float[][] textures;
+  private float[][] normals;
+  private float[] world;
+  private float[] normal;
+  private float[] buffer;
+  private ModelPartTransform transform;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0);
+
+    this.positions = new float[this.quads][4 * 3];
+    this.textures = new float[this.quads][4 * 2];
+    this.normals = new float[this.quads][3];
+    for (int quad = 0; quad < this.quads; quad++) {
+      fill(random, this.positions[quad], 16F);
+      fill(random, this.textures[quad], 1F);
+      fill(random, this.normals[quad], 1F);
+    }
+
+    this.world = new float[16];
+    fill(random, this.world, 1F);
+    this.world[12] = 0F;
+    this.world[13] = 0F;
+    this.world[14] = 0F;
+    this.world[15] = 1F;
+    this.normal = new float[9];
+    fill(random, this.normal, 1F);
+
+    this.buffer = new float[this.quads * 4 * VERTEX_SIZE];
+    this.transform = new ModelPartTransform();
+  }
+
+  private static void fill(Random random, float[] values, float scale) {
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextFloat() * scale;
+    }
+  }
+
+  @Benchmark
+  public float[] render() {
+    return this.mode.equals("allocating") ? this.renderAllocating() : this.renderPrimitive();
+  }
+
+  private float[] renderAllocating() {
+    int index = 0;
+    for (int quad = 0; quad < this.quads; quad++) {
+      float[] quadNormal = this.normals[quad];
+      Vector normal = new Vector(quadNormal[0], quadNormal[1], quadNormal[2], 0F);
+      normal.transformNormal(this.normal);
+
+      float[] quadPositions = this.positions[quad];
+      float[] quadTextures = this.textures[quad];
+      for (int vertex = 0; vertex < 4; vertex++) {
+        Vector position = new Vector(
+            quadPositions[vertex * 3] / 16.0F,
+            quadPositions[vertex * 3 + 1] / 16.0F,
+            quadPositions[vertex * 3 + 2] / 16.0F,
+            1F);
+        position.transform(this.world);
+
+        index = this.addVertex(
+            index,
+            position.x, position.y, position.z,
+            quadTextures[vertex * 2], quadTextures[vertex * 2 + 1],
+            normal.x, normal.y, normal.z);
+      }
+    }
+    return this.buffer;
+  }
+
+  private float[] renderPrimitive() {
+    float[] w = this.world;
+    float[] n = this.normal;
+    ModelPartTransform transform = this.transform
+        .setWorld(
+            w[0], w[1], w[2], w[3],
+            w[4], w[5], w[6], w[7],
+            w[8], w[9], w[10], w[11])
+        .setNormal(
+            n[0], n[1], n[2],
+            n[3], n[4], n[5],
+            n[6], n[7], n[8]);
+
+    int index = 0;
+    for (int quad = 0; quad < this.quads; quad++) {
+      float[] quadNormal = this.normals[quad];
+      float normalX = quadNormal[0];
+      float normalY = quadNormal[1];
+      float normalZ = quadNormal[2];
+      float transformedNormalX = transform.transformNormalX(normalX, normalY, normalZ);
+      float transformedNormalY = transform.transformNormalY(normalX, normalY, normalZ);
+      float transformedNormalZ = transform.transformNormalZ(normalX, normalY, normalZ);
+
+      float[] quadPositions = this.positions[quad];
+      float[] quadTextures = this.textures[quad];
+      for (int vertex = 0; vertex < 4; vertex++) {
+        float x = quadPositions[vertex * 3] / 16.0F;
+        float y = quadPositions[vertex * 3 + 1] / 16.0F;
+        float z = quadPositions[vertex * 3 + 2] / 16.0F;
+
+        index = this.addVertex(
+            index,
+            transform.transformX(x, y, z),
+            transform.transformY(x, y, z),
+            transform.transformZ(x, y, z),
+            quadTextures[vertex * 2], quadTextures[vertex * 2 + 1],
+            transformedNormalX, transformedNormalY, transformedNormalZ);
+      }
+    }
+    return this.buffer;
+  }
+
+  private int addVertex(
+      int index, float x, float y, float z, float u, float v,
+      float normalX, float normalY, float normalZ) {
+    float[] buffer = this.buffer;
+    buffer[index++] = x;
+    buffer[index++] = y;
+    buffer[index++] = z;
+    buffer[index++] = u;
+    buffer[index++] = v;
+    buffer[index++] = normalX;
+    buffer[index++] = normalY;
+    buffer[index++] = normalZ;
+    return index;
+  }
+
+  /**
+   * A mutable vector that is transformed in place like the vectors of Minecraft.
+   */
+  private static class Vector {
+
+    private float x;
+    private float y;
+    private float z;
+    private float w;
+
+    private Vector(float x, float y, float z, float w) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+      this.w = w;
+    }
+
+    private void transform(float[] matrix) {
+      float x = this.x;
+      float y = this.y;
+      float z = this.z;
+      float w = this.w;
+      this.x = matrix[0] * x + matrix[1] * y + matrix[2] * z + matrix[3] * w;
+      this.y = matrix[4] * x + matrix[5] * y + matrix[6] * z + matrix[7] * w;
+      this.z = matrix[8] * x + matrix[9] * y + matrix[10] * z + matrix[11] * w;
+      this.w = matrix[12] * x + matrix[13] * y + matrix[14] * z + matrix[15] * w;
+    }
+
+    private void transformNormal(float[] matrix) {
+      float x = this.x;
+      float y = this.y;
+      float z = this.z;
+      this.x = matrix[0] * x + matrix[1] * y + matrix[2] * z;
+      this.y = matrix[3] * x + matrix[4] * y + matrix[5] * z;
+      this.z = matrix[6] * x + matrix[7] * y + matrix[8] * z;
+    }
+  }
+}
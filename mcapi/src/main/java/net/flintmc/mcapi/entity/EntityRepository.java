@@ -19,19 +19,122 @@
 
 package net.flintmc.mcapi.entity;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Supplier;
 
+/**
+ * Cache for all entities that have been mapped from Minecraft to Flint. Entities are removed when
+ * they are despawned or when the world is unloaded.
+ *
+ * <p>Entities that have been registered with their Minecraft entity are also indexed by the chunk
+ * they are in, which allows queries like "all living entities within 32 blocks" without iterating
+ * over every entity in the world.
+ */
 public interface EntityRepository {
 
   Entity getEntity(UUID uniqueId);
 
+  /**
+   * Retrieves the entity that has been registered for the given Minecraft entity.
+   *
+   * @param handle The non-null Minecraft entity
+   * @return The cached entity or {@code null}, if no entity has been registered for the handle
+   * @see #putIfAbsent(Object, UUID, Supplier)
+   */
+  Entity getEntityByHandle(Object handle);
+
+  /**
+   * Retrieves the Minecraft entity that has been registered for the given entity.
+   *
+   * @param entity The non-null entity
+   * @return The Minecraft entity or {@code null}, if no handle has been registered for the entity
+   * @see #putIfAbsent(Object, UUID, Supplier)
+   */
+  Object getHandle(Entity entity);
+
   Entity putIfAbsent(UUID uniqueId, Supplier<Entity> supplier);
 
+  /**
+   * Works like {@link #putIfAbsent(UUID, Supplier)}, but also associates the resulting entity with
+   * the given Minecraft entity and adds it to the spatial index. If the entity is already
+   * associated with another handle (e.g. after the player has respawned), the association will be
+   * replaced.
+   *
+   * @param handle   The non-null Minecraft entity
+   * @param uniqueId The unique identifier of the entity
+   * @param supplier The supplier for the entity if none is associated with the unique identifier
+   * @return The cached or the supplied entity
+   */
+  Entity putIfAbsent(Object handle, UUID uniqueId, Supplier<Entity> supplier);
+
+  /**
+   * Removes the entity with the given unique identifier from this repository.
+   *
+   * @param uniqueId The unique identifier of the entity to remove
+   * @return The removed entity or {@code null}, if no entity was cached with the unique identifier
+   */
+  Entity remove(UUID uniqueId);
+
+  /**
+   * Removes the given entity from this repository.
+   *
+   * @param entity The non-null entity to remove
+   * @return {@code true} if the entity has been removed, {@code false} if it wasn't cached
+   */
+  boolean remove(Entity entity);
+
+  /**
+   * Updates the position of the entity that has been registered for the given Minecraft entity in
+   * the spatial index. Does nothing if no entity has been registered for the handle.
+   *
+   * @param handle The non-null Minecraft entity that has been moved
+   * @param x      The new x coordinate of the entity
+   * @param y      The new y coordinate of the entity
+   * @param z      The new z coordinate of the entity
+   */
+  void updatePosition(Object handle, double x, double y, double z);
+
+  /**
+   * Retrieves all indexed entities of the given type whose position is within the given radius
+   * around the given position.
+   *
+   * @param type   The type of the entities to retrieve, e.g. {@link LivingEntity}
+   * @param x      The x coordinate of the center
+   * @param y      The y coordinate of the center
+   * @param z      The z coordinate of the center
+   * @param radius The radius in blocks around the center
+   * @param <T>    The type of the entities
+   * @return A new non-null list with all matching entities
+   */
+  <T extends Entity> List<T> getEntitiesInRadius(
+      Class<T> type, double x, double y, double z, double radius);
+
+  /**
+   * Retrieves all indexed entities of the given type whose position is within the given box.
+   *
+   * @param type The type of the entities to retrieve, e.g. {@link LivingEntity}
+   * @param minX The minimum x coordinate of the box
+   * @param minY The minimum y coordinate of the box
+   * @param minZ The minimum z coordinate of the box
+   * @param maxX The maximum x coordinate of the box
+   * @param maxY The maximum y coordinate of the box
+   * @param maxZ The maximum z coordinate of the box
+   * @param <T>  The type of the entities
+   * @return A new non-null list with all matching entities
+   */
+  <T extends Entity> List<T> getEntitiesInBox(
+      Class<T> type, double minX, double minY, double minZ, double maxX, double maxY, double maxZ);
+
   void clear();
 
   int size();
 
+  /**
+   * Retrieves all cached entities with their unique identifiers.
+   *
+   * @return A non-null unmodifiable view of all cached entities
+   */
   Map<UUID, Entity> getEntities();
 }
@@ -241,7 +241,8 @@ public interface World {
   TileEntity getTileEntity(BlockPosition blockPosition);
 
   /**
-   * Adds a tile entity to the {@link #getLoadedTileEntities()} collection.
+   * Adds a tile entity to the {@link #getLoadedTileEntities()} collection. A tile entity that has
+   * been added at the same block position before will be replaced.
    *
    * @param tileEntity The tile entity to be added.
    */
@@ -255,7 +256,10 @@ public interface World {
   void removeTileEntity(TileEntity tileEntity);
 
   /**
-   * Retrieves a collection with all loaded tile entities.
+   * Retrieves a collection with all loaded tile entities. The collection is an unmodifiable view
+   * which will reflect later changes, tile entities of unloaded chunks are removed automatically.
+   * The view may only be iterated on the client thread, other threads need to copy it first, e.g.
+   * with {@code new ArrayList<>(world.getLoadedTileEntities())}.
    *
    * @return A collection with all loaded tile entities.
    */
@@ -0,0 +1,186 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.internal.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import net.flintmc.mcapi.entity.Entity;
+import net.flintmc.mcapi.entity.LivingEntity;
+import net.flintmc.util.unittesting.FlintTest;
+import org.junit.jupiter.api.Test;
+
+@FlintTest
+public class DefaultEntityRepositoryTest extends AbstractModule {
+
+  @Inject
+  private DefaultEntityRepository repository;
+
+  @Test
+  public void testRadiusIncludesEntitiesOnTheSphere() {
+    Entity center = this.spawn(Entity.class, new Object(), 0.5, 64, 0.5);
+    Entity border = this.spawn(Entity.class, new Object(), 10.5, 64, 0.5);
+    Entity above = this.spawn(Entity.class, new Object(), 0.5, 74.5, 0.5);
+    this.spawn(Entity.class, new Object(), 7.5, 71.5, 0.5);
+    this.spawn(Entity.class, new Object(), -12, 64, 0.5);
+
+    assertEntities(
+        this.repository.getEntitiesInRadius(Entity.class, 0.5, 64, 0.5, 10),
+        center, border);
+    assertEntities(
+        this.repository.getEntitiesInRadius(Entity.class, 0.5, 69, 0.5, 5.5),
+        center, above);
+  }
+
+  @Test
+  public void testRadiusSpansNegativeChunks() {
+    Entity first = this.spawn(Entity.class, new Object(), -0.5, 10, -0.5);
+    Entity second = this.spawn(Entity.class, new Object(), 0.5, 10, 0.5);
+    Entity third = this.spawn(Entity.class, new Object(), -17, 10, 15.9);
+    this.spawn(Entity.class, new Object(), -40, 10, 0);
+
+    assertEntities(
+        this.repository.getEntitiesInRadius(Entity.class, 0, 10, 0, 2), first, second);
+    assertEntities(
+        this.repository.getEntitiesInRadius(Entity.class, -8, 10, 8, 12), first, second, third);
+  }
+
+  @Test
+  public void testBoxBoundsAreInclusive() {
+    Entity corner = this.spawn(Entity.class, new Object(), 0, 0, 0);
+    Entity inside = this.spawn(Entity.class, new Object(), 20, 5, 31.5);
+    Entity oppositeCorner = this.spawn(Entity.class, new Object(), 32, 10, 32);
+    this.spawn(Entity.class, new Object(), 20, 10.5, 20);
+    this.spawn(Entity.class, new Object(), 32.01, 5, 5);
+    this.spawn(Entity.class, new Object(), 5, 5, -0.01);
+
+    assertEntities(
+        this.repository.getEntitiesInBox(Entity.class, 0, 0, 0, 32, 10, 32),
+        corner, inside, oppositeCorner);
+  }
+
+  @Test
+  public void testQueriesFilterByType() {
+    LivingEntity living = this.spawn(LivingEntity.class, new Object(), 1, 1, 1);
+    Entity entity = this.spawn(Entity.class, new Object(), 2, 1, 1);
+
+    assertEntities(
+        this.repository.getEntitiesInRadius(LivingEntity.class, 0, 1, 0, 5), living);
+    assertEntities(
+        this.repository.getEntitiesInBox(LivingEntity.class, 0, 0, 0, 5, 5, 5), living);
+    assertEntities(
+        this.repository.getEntitiesInBox(Entity.class, 0, 0, 0, 5, 5, 5), living, entity);
+  }
+
+  @Test
+  public void testQueriesCoveringMoreChunksThanIndexed() {
+    Entity near = this.spawn(Entity.class, new Object(), 100, 64, 100);
+    Entity far = this.spawn(Entity.class, new Object(), -5000, 64, 3000);
+    this.spawn(Entity.class, new Object(), 9000, 64, 9000);
+
+    assertEntities(
+        this.repository.getEntitiesInBox(Entity.class, -8000, 0, -8000, 8000, 256, 8000),
+        near, far);
+    assertEntities(
+        this.repository.getEntitiesInRadius(Entity.class, 0, 64, 0, 6000), near, far);
+  }
+
+  @Test
+  public void testPositionUpdatesMoveEntitiesBetweenChunks() {
+    Object handle = new Object();
+    Entity entity = this.spawn(Entity.class, handle, 1, 64, 1);
+
+    this.repository.updatePosition(handle, 100, 64, -100);
+
+    assertEntities(this.repository.getEntitiesInRadius(Entity.class, 1, 64, 1, 10));
+    assertEntities(
+        this.repository.getEntitiesInRadius(Entity.class, 100, 64, -100, 1), entity);
+    assertEntities(
+        this.repository.getEntitiesInBox(Entity.class, 96, 0, -112, 111, 256, -97), entity);
+
+    // unknown handles are ignored
+    this.repository.updatePosition(new Object(), 1, 64, 1);
+    assertEntities(this.repository.getEntitiesInRadius(Entity.class, 1, 64, 1, 10));
+  }
+
+  @Test
+  public void testRemovedEntitiesAreNotFound() {
+    Object handle = new Object();
+    Entity removed = this.spawn(Entity.class, handle, 1, 64, 1);
+    Entity kept = this.spawn(Entity.class, new Object(), 2, 64, 2);
+
+    assertTrue(this.repository.remove(removed));
+    this.repository.updatePosition(handle, 2, 64, 2);
+
+    assertNull(this.repository.getEntityByHandle(handle));
+    assertNull(this.repository.getHandle(removed));
+    assertEntities(this.repository.getEntitiesInRadius(Entity.class, 1, 64, 1, 10), kept);
+    assertEntities(this.repository.getEntitiesInBox(Entity.class, 0, 0, 0, 16, 256, 16), kept);
+
+    this.repository.clear();
+    assertEntities(this.repository.getEntitiesInBox(Entity.class, 0, 0, 0, 16, 256, 16));
+  }
+
+  @Test
+  public void testHandlesAreResolvedBothWays() {
+    Object handle = new Object();
+    UUID uniqueId = UUID.randomUUID();
+    Entity entity = mock(Entity.class);
+
+    assertSame(entity, this.repository.putIfAbsent(handle, uniqueId, () -> entity));
+    assertSame(entity, this.repository.putIfAbsent(handle, uniqueId, () -> mock(Entity.class)));
+    assertSame(entity, this.repository.getEntityByHandle(handle));
+    assertSame(handle, this.repository.getHandle(entity));
+    assertSame(entity, this.repository.getEntity(uniqueId));
+
+    // the same entity is associated with a new Minecraft entity after it has been respawned
+    Object newHandle = new Object();
+    assertSame(entity, this.repository.putIfAbsent(newHandle, uniqueId, () -> entity));
+    assertNull(this.repository.getEntityByHandle(handle));
+    assertSame(entity, this.repository.getEntityByHandle(newHandle));
+    assertSame(newHandle, this.repository.getHandle(entity));
+  }
+
+  private <T extends Entity> T spawn(Class<T> type, Object handle, double x, double y, double z) {
+    T entity = mock(type);
+    when(entity.getPosX()).thenReturn(x);
+    when(entity.getPosY()).thenReturn(y);
+    when(entity.getPosZ()).thenReturn(z);
+    this.repository.putIfAbsent(handle, UUID.randomUUID(), () -> entity);
+    return entity;
+  }
+
+  private static void assertEntities(List<? extends Entity> actual, Entity... expected) {
+    Set<Entity> actualSet = new HashSet<>(actual);
+    assertEquals(actual.size(), actualSet.size(), "Entities must only be found once");
+    assertEquals(new HashSet<>(Arrays.asList(expected)), actualSet);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.internal.tileentity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.flintmc.mcapi.tileentity.TileEntity;
+import net.flintmc.mcapi.world.math.BlockPosition;
+import org.junit.jupiter.api.Test;
+
+public class TileEntityStorageTest {
+
+  private final TileEntityStorage storage = new TileEntityStorage();
+
+  @Test
+  public void testAddedTileEntitiesAreFoundByPosition() {
+    TileEntity first = this.add(1, 64, 1);
+    TileEntity second = this.add(-1, 0, -300);
+
+    assertSame(first, this.storage.get(1, 64, 1));
+    assertSame(second, this.storage.get(-1, 0, -300));
+    assertNull(this.storage.get(1, 65, 1));
+    assertTileEntities(first, second);
+  }
+
+  @Test
+  public void testAddingAtTheSamePositionReplaces() {
+    TileEntity replaced = this.add(5, 70, 5);
+    TileEntity replacement = this.add(5, 70, 5);
+
+    assertSame(replacement, this.storage.get(5, 70, 5));
+    assertTileEntities(replacement);
+    assertFalse(this.storage.remove(replaced));
+    assertSame(replacement, this.storage.get(5, 70, 5));
+  }
+
+  @Test
+  public void testRemoveUsesThePositionOfTheInsertion() {
+    TileEntity tileEntity = this.add(1, 64, 1);
+    TileEntity kept = this.add(100, 64, 100);
+
+    // the tile entity now reports the position of another stored tile entity
+    this.setPosition(tileEntity, 100, 64, 100);
+
+    assertTrue(this.storage.remove(tileEntity));
+    assertFalse(this.storage.remove(tileEntity));
+    assertNull(this.storage.get(1, 64, 1));
+    assertSame(kept, this.storage.get(100, 64, 100));
+    assertTileEntities(kept);
+  }
+
+  @Test
+  public void testRemoveChunkOnlyRemovesItsTileEntities() {
+    this.add(0, 10, 0);
+    this.add(15, 200, 15);
+    TileEntity nextChunk = this.add(16, 10, 0);
+    TileEntity negativeChunk = this.add(-1, 10, -1);
+
+    this.storage.removeChunk(0, 0);
+
+    assertNull(this.storage.get(0, 10, 0));
+    assertNull(this.storage.get(15, 200, 15));
+    assertTileEntities(nextChunk, negativeChunk);
+
+    this.storage.removeChunk(-1, -1);
+    assertNull(this.storage.get(-1, 10, -1));
+    assertFalse(this.storage.remove(negativeChunk));
+    assertTileEntities(nextChunk);
+
+    // removing a chunk without tile entities does nothing
+    this.storage.removeChunk(42, 42);
+    assertTileEntities(nextChunk);
+  }
+
+  @Test
+  public void testSwapRemoveKeepsIndices() {
+    TileEntity first = this.add(0, 0, 0);
+    TileEntity second = this.add(1, 0, 0);
+    TileEntity third = this.add(2, 0, 0);
+    TileEntity fourth = this.add(3, 0, 0);
+    TileEntity otherChunk = this.add(32, 0, 0);
+
+    // the last tile entity is moved into the gap of the removed one
+    assertTrue(this.storage.remove(second));
+    assertTileEntities(first, third, fourth, otherChunk);
+
+    // the moved tile entity has to be removed at its new index
+    assertTrue(this.storage.remove(otherChunk));
+    assertTileEntities(first, third, fourth);
+
+    this.storage.removeChunk(0, 0);
+    assertTileEntities();
+
+    TileEntity added = this.add(4, 0, 0);
+    assertTileEntities(added);
+    assertTrue(this.storage.remove(added));
+    assertTileEntities();
+  }
+
+  @Test
+  public void testLoadedTileEntitiesAreUnmodifiable() {
+    TileEntity tileEntity = this.add(0, 0, 0);
+    List<TileEntity> loaded = this.storage.getLoadedTileEntities();
+
+    assertThrows(UnsupportedOperationException.class, () -> loaded.add(tileEntity));
+    assertThrows(UnsupportedOperationException.class, () -> loaded.remove(0));
+
+    this.storage.clear();
+    assertTrue(loaded.isEmpty());
+    assertNull(this.storage.get(0, 0, 0));
+    assertFalse(this.storage.remove(tileEntity));
+  }
+
+  private TileEntity add(int x, int y, int z) {
+    TileEntity tileEntity = mock(TileEntity.class);
+    this.setPosition(tileEntity, x, y, z);
+    this.storage.add(tileEntity);
+    return tileEntity;
+  }
+
+  private void setPosition(TileEntity tileEntity, int x, int y, int z) {
+    BlockPosition position = mock(BlockPosition.class);
+    when(position.getX()).thenReturn(x);
+    when(position.getY()).thenReturn(y);
+    when(position.getZ()).thenReturn(z);
+    when(tileEntity.getPosition()).thenReturn(position);
+  }
+
+  private void assertTileEntities(TileEntity... expected) {
+    List<TileEntity> loaded = this.storage.getLoadedTileEntities();
+    Set<TileEntity> loadedSet = new HashSet<>(loaded);
+    assertEquals(loaded.size(), loadedSet.size(), "Tile entities must only be loaded once");
+    assertEquals(new HashSet<>(Arrays.asList(expected)), loadedSet);
+  }
+}
@@ -25,6 +25,7 @@ import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.datafixers.util.Pair;
 import javassist.*;
+import net.flintmc.framework.inject.primitive.InjectionHolder;
 import net.flintmc.render.model.ModelBoxHolder;
 import net.flintmc.transform.javassist.ClassTransform;
 import net.flintmc.transform.javassist.ClassTransformContext;
@@ -68,6 +69,9 @@ public class WorldVertexBufferUploaderInterceptor {
 
   public static class Handler {
 
+    private static final VersionedDrawStatePool DRAW_STATE_POOL =
+        InjectionHolder.getInjectedInstance(VersionedDrawStatePool.class);
+
     public static void draw(Object instance) {
       BufferBuilder bufferBuilderIn = (BufferBuilder) instance;
       if (!RenderSystem.isOnRenderThread()) {
@@ -114,13 +118,13 @@ public class WorldVertexBufferUploaderInterceptor {
         return;
       }
       ModelBoxHolder modelBoxHolder = drawStateAccessor.getModelBoxHolder();
-      if (modelBoxHolder.getContext().getRenderer() == null) {
-        return;
+      if (modelBoxHolder.getContext().getRenderer() != null) {
+        modelBoxHolder
+            .getContext()
+            .getRenderer()
+            .render(modelBoxHolder, drawStateAccessor.getRenderData());
       }
-      modelBoxHolder
-          .getContext()
-          .getRenderer()
-          .render(modelBoxHolder, drawStateAccessor.getRenderData());
+      DRAW_STATE_POOL.recycle(pair.getFirst());
     }
   }
 }
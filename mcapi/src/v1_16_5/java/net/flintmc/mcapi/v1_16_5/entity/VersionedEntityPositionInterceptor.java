@@ -0,0 +1,69 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.v1_16_5.entity;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import net.flintmc.framework.stereotype.type.Type;
+import net.flintmc.mcapi.entity.EntityRepository;
+import net.flintmc.transform.hook.Hook;
+import net.flintmc.transform.hook.Hook.ExecutionTime;
+import net.flintmc.transform.hook.HookArgument;
+import net.minecraft.entity.Entity;
+import net.minecraft.world.World;
+
+/**
+ * Keeps the spatial index of the {@link EntityRepository} up to date whenever Minecraft moves an
+ * entity of the client world. Entities of the integrated server are never indexed and are ignored
+ * before the repository is accessed.
+ */
+@Singleton
+public class VersionedEntityPositionInterceptor {
+
+  private final EntityRepository entityRepository;
+
+  @Inject
+  private VersionedEntityPositionInterceptor(EntityRepository entityRepository) {
+    this.entityRepository = entityRepository;
+  }
+
+  @Hook(
+      className = "net.minecraft.entity.Entity",
+      methodName = "setRawPosition",
+      parameters = {
+          @Type(reference = double.class),
+          @Type(reference = double.class),
+          @Type(reference = double.class)
+      },
+      executionTime = ExecutionTime.AFTER)
+  public void updatePosition(
+      @Named("instance") Object instance,
+      @HookArgument(0) double x,
+      @HookArgument(1) double y,
+      @HookArgument(2) double z) {
+    World world = ((Entity) instance).world;
+    if (world == null || !world.isRemote) {
+      return;
+    }
+
+    this.entityRepository.updatePosition(instance, x, y, z);
+  }
+}
@@ -57,7 +57,7 @@ public class VersionedItemEntityMapper implements ItemEntityMapper {
 
     return (ItemEntity)
         this.entityRepository.putIfAbsent(
-            itemEntity.getUniqueID(), () -> this.itemEntityFactory.create(itemEntity));
+            itemEntity, itemEntity.getUniqueID(), () -> this.itemEntityFactory.create(itemEntity));
   }
 
   /**
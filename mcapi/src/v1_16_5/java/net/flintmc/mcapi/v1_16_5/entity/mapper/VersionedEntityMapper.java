@@ -115,19 +115,21 @@ public class VersionedEntityMapper implements EntityMapper {
     if (minecraftEntity instanceof ItemEntity) {
 
       return this.entityCache.putIfAbsent(
-          uniqueId, () -> this.itemEntityMapper.fromMinecraftItemEntity(minecraftEntity));
+          minecraftEntity, uniqueId,
+          () -> this.itemEntityMapper.fromMinecraftItemEntity(minecraftEntity));
     } else if (minecraftEntity instanceof PigEntity) {
 
       return this.entityCache.putIfAbsent(
-          uniqueId, () -> this.passiveEntityMapper.fromMinecraftPigEntity(minecraftEntity));
+          minecraftEntity, uniqueId,
+          () -> this.passiveEntityMapper.fromMinecraftPigEntity(minecraftEntity));
     } else if (minecraftEntity instanceof RemoteClientPlayerEntity) {
 
       return this.entityCache.putIfAbsent(
-          uniqueId, () -> this.remoteClientPlayerProvider.get(minecraftEntity));
+          minecraftEntity, uniqueId, () -> this.remoteClientPlayerProvider.get(minecraftEntity));
     } else {
 
       return this.entityCache.putIfAbsent(
-          uniqueId,
+          minecraftEntity, uniqueId,
           () ->
               this.entityFactory.create(
                   minecraftEntity,
@@ -140,6 +142,11 @@ public class VersionedEntityMapper implements EntityMapper {
    */
   @Override
   public Object toMinecraftEntity(Entity entity) {
+    Object handle = this.entityCache.getHandle(entity);
+    if (handle != null) {
+      return handle;
+    }
+
     for (net.minecraft.entity.Entity allEntity : Minecraft.getInstance().world.getAllEntities()) {
       if (allEntity.getUniqueID().equals(entity.getUniqueId())) {
         return allEntity;
@@ -166,7 +173,8 @@ public class VersionedEntityMapper implements EntityMapper {
 
     return (PlayerEntity)
         this.entityCache.putIfAbsent(
-            playerEntity.getUniqueID(), () -> this.playerEntityProvider.get(playerEntity));
+            playerEntity, playerEntity.getUniqueID(),
+            () -> this.playerEntityProvider.get(playerEntity));
   }
 
   /**
@@ -174,6 +182,10 @@ public class VersionedEntityMapper implements EntityMapper {
    */
   @Override
   public Object toMinecraftPlayerEntity(PlayerEntity entity) {
+    Object handle = this.entityCache.getHandle(entity);
+    if (handle instanceof net.minecraft.entity.player.PlayerEntity) {
+      return handle;
+    }
 
     for (AbstractClientPlayerEntity player : Minecraft.getInstance().world.getPlayers()) {
       if (player.getGameProfile().getId().equals(entity.getGameProfile().getUniqueId())) {
@@ -200,7 +212,8 @@ public class VersionedEntityMapper implements EntityMapper {
 
     return (LivingEntity)
         this.entityCache.putIfAbsent(
-            livingEntity.getUniqueID(), () -> this.livingEntityProvider.get(livingEntity));
+            livingEntity, livingEntity.getUniqueID(),
+            () -> this.livingEntityProvider.get(livingEntity));
   }
 
   /**
@@ -208,6 +221,10 @@ public class VersionedEntityMapper implements EntityMapper {
    */
   @Override
   public Object toMinecraftLivingEntity(LivingEntity entity) {
+    Object handle = this.entityCache.getHandle(entity);
+    if (handle instanceof net.minecraft.entity.LivingEntity) {
+      return handle;
+    }
 
     for (net.minecraft.entity.Entity allEntity : Minecraft.getInstance().world.getAllEntities()) {
       if (allEntity instanceof net.minecraft.entity.LivingEntity
@@ -235,7 +252,7 @@ public class VersionedEntityMapper implements EntityMapper {
 
     return (MobEntity)
         this.entityCache.putIfAbsent(
-            mobEntity.getUniqueID(), () -> this.mobEntityProvider.get(mobEntity));
+            mobEntity, mobEntity.getUniqueID(), () -> this.mobEntityProvider.get(mobEntity));
   }
 
   /**
@@ -243,6 +260,10 @@ public class VersionedEntityMapper implements EntityMapper {
    */
   @Override
   public Object toMinecraftMobEntity(MobEntity entity) {
+    Object handle = this.entityCache.getHandle(entity);
+    if (handle instanceof net.minecraft.entity.MobEntity) {
+      return handle;
+    }
 
     for (net.minecraft.entity.Entity allEntity : Minecraft.getInstance().world.getAllEntities()) {
       if (allEntity instanceof net.minecraft.entity.MobEntity
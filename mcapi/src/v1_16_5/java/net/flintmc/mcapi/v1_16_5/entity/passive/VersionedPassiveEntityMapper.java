@@ -67,7 +67,8 @@ public class VersionedPassiveEntityMapper implements PassiveEntityMapper {
 
     return (AmbientEntity)
         this.entityRepository.putIfAbsent(
-            ambientEntity.getUniqueID(), () -> this.ambientEntityProvider.get(ambientEntity));
+            ambientEntity, ambientEntity.getUniqueID(),
+            () -> this.ambientEntityProvider.get(ambientEntity));
   }
 
   /**
@@ -102,7 +103,8 @@ public class VersionedPassiveEntityMapper implements PassiveEntityMapper {
 
     return (AnimalEntity)
         this.entityRepository.putIfAbsent(
-            animalEntity.getUniqueID(), () -> this.animalEntityProvider.get(animalEntity));
+            animalEntity, animalEntity.getUniqueID(),
+            () -> this.animalEntityProvider.get(animalEntity));
   }
 
   /**
@@ -137,7 +139,7 @@ public class VersionedPassiveEntityMapper implements PassiveEntityMapper {
 
     return (PigEntity)
         this.entityRepository.putIfAbsent(
-            pigEntity.getUniqueID(), () -> this.pigEntityFactory.create(pigEntity));
+            pigEntity, pigEntity.getUniqueID(), () -> this.pigEntityFactory.create(pigEntity));
   }
 
   /**
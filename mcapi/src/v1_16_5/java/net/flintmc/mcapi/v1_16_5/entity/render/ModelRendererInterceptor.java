@@ -24,31 +24,29 @@ import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.mojang.blaze3d.matrix.MatrixStack;
 import com.mojang.blaze3d.vertex.IVertexBuilder;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import net.flintmc.framework.stereotype.type.Type;
 import net.flintmc.mcapi.entity.Entity;
 import net.flintmc.mcapi.entity.render.EntityRenderContext;
 import net.flintmc.mcapi.internal.entity.DefaultEntityRepository;
+import net.flintmc.mcapi.internal.entity.render.ModelPartTransform;
 import net.flintmc.mcapi.player.ClientPlayer;
 import net.flintmc.mcapi.render.MinecraftRenderMeta;
 import net.flintmc.render.model.ModelBoxHolder;
 import net.flintmc.render.model.Renderer;
 import net.flintmc.transform.hook.Hook;
+import net.flintmc.transform.hook.HookArgument;
 import net.flintmc.transform.hook.HookFilter;
 import net.flintmc.transform.hook.HookFilters;
 import net.flintmc.transform.hook.HookResult;
 import net.flintmc.util.mappings.ClassMappingProvider;
+import net.flintmc.util.property.Property;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BufferBuilder;
-import net.minecraft.client.renderer.BufferBuilder.DrawState;
 import net.minecraft.client.renderer.model.ModelRenderer;
-import net.minecraft.client.renderer.vertex.VertexFormat;
-import net.minecraft.util.math.vector.Matrix3f;
-import net.minecraft.util.math.vector.Matrix4f;
 import net.minecraft.util.math.vector.Vector3f;
-import net.minecraft.util.math.vector.Vector4f;
 
 @Singleton
 public class ModelRendererInterceptor {
@@ -57,31 +55,22 @@ public class ModelRendererInterceptor {
   private final DefaultEntityRepository entityRepository;
   private final ClientPlayer clientPlayer;
   private final MinecraftRenderMeta alternatingMinecraftRenderMeta;
+  private final VersionedDrawStatePool drawStatePool;
+  private final ModelPartTransform modelPartTransform = new ModelPartTransform();
   private Entity lastRenderedEntity;
 
-  private static Constructor<BufferBuilder.DrawState> drawStateConstructor;
-
-  static {
-    try {
-      drawStateConstructor =
-          BufferBuilder.DrawState.class.getDeclaredConstructor(
-              VertexFormat.class, int.class, int.class);
-      drawStateConstructor.setAccessible(true);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-    }
-  }
-
   @Inject
   private ModelRendererInterceptor(
       ClassMappingProvider classMappingProvider,
       DefaultEntityRepository entityRepository,
       ClientPlayer clientPlayer,
-      MinecraftRenderMeta.Factory minecraftRenderMetaFactory) {
+      MinecraftRenderMeta.Factory minecraftRenderMetaFactory,
+      VersionedDrawStatePool drawStatePool) {
     this.classMappingProvider = classMappingProvider;
     this.entityRepository = entityRepository;
     this.clientPlayer = clientPlayer;
     this.alternatingMinecraftRenderMeta = minecraftRenderMetaFactory.create();
+    this.drawStatePool = drawStatePool;
   }
 
   @Hook(
@@ -99,16 +88,16 @@ public class ModelRendererInterceptor {
       }
   )
   public HookResult hookModelRender(
-      @Named("instance") Object rawInstance, @Named("args") Object[] args) {
+      @Named("instance") Object rawInstance,
+      @HookArgument(0) MatrixStack.Entry matrixEntryIn,
+      @HookArgument(1) IVertexBuilder bufferIn,
+      @HookArgument(2) int packedLightIn,
+      @HookArgument(3) int packedOverlayIn,
+      @HookArgument(4) float red,
+      @HookArgument(5) float green,
+      @HookArgument(6) float blue,
+      @HookArgument(7) float alpha) {
     ModelRenderer instance = (ModelRenderer) rawInstance;
-    MatrixStack.Entry matrixEntryIn = (MatrixStack.Entry) args[0];
-    IVertexBuilder bufferIn = (IVertexBuilder) args[1];
-    int packedLightIn = (int) args[2];
-    int packedOverlayIn = (int) args[3];
-    float red = (float) args[4];
-    float green = (float) args[5];
-    float blue = (float) args[6];
-    float alpha = (float) args[7];
 
     if (this.lastRenderedEntity == null) {
       return this.shouldCancelRender(instance, matrixEntryIn, packedLightIn);
@@ -176,9 +165,9 @@ public class ModelRendererInterceptor {
           .shouldExecuteNextStage(modelBoxHolder, this.alternatingMinecraftRenderMeta);
 
       ModelRendererAccessor modelRendererAccessor = (ModelRendererAccessor) instance;
-      modelRendererAccessor
-          .getProperties()
-          .putAll(modelBoxHolder.getPropertyContext().getProperties());
+      updateProperties(
+          modelRendererAccessor.getProperties(),
+          modelBoxHolder.getPropertyContext().getProperties());
 
       this.doRender(
           instance,
@@ -284,67 +273,70 @@ public class ModelRendererInterceptor {
       MinecraftRenderMeta renderMeta) {
 
     if (renderer != null) {
-      List<DrawState> drawStates = ((BufferBuilderAccessor) buffer).getDrawStates();
-      try {
-        BufferBuilder.DrawState drawState;
-
-        drawState =
-            drawStateConstructor.newInstance(
-                ((BufferBuilderAccessor) buffer).getVertexFormat(), 0, 0);
+      BufferBuilderAccessor bufferAccessor = (BufferBuilderAccessor) buffer;
+      BufferBuilder.DrawState drawState =
+          this.drawStatePool.obtain(bufferAccessor.getVertexFormat());
+      if (drawState != null) {
         DrawStateAccessor drawStateAccessor = (DrawStateAccessor) (Object) drawState;
 
         drawStateAccessor.setModelRenderData(renderMeta);
         drawStateAccessor.setModelBoxHolder(modelBoxHolder);
-        drawStates.add(drawState);
-
-      } catch (IllegalAccessException
-          | InstantiationException
-          | InvocationTargetException e) {
-        e.printStackTrace();
+        bufferAccessor.getDrawStates().add(drawState);
       }
       if (!renderer.shouldExecuteNextStage(modelBoxHolder, renderMeta)) {
         return;
       }
     }
 
-    Matrix4f matrix4f = matrixStackEntry.getMatrix();
-    Matrix3f matrix3f = matrixStackEntry.getNormal();
-
-    ModelRendererAccessor modelRendererAccessor = (ModelRendererAccessor) modelRenderer;
-
-    for (ModelRenderer.ModelBox modelBox : modelRendererAccessor.getModelBoxes()) {
-      ModelBoxAccessor modelBoxAccessor = (ModelBoxAccessor) modelBox;
+    // the matrices are read once per model part, the vertices are transformed with plain floats
+    // instead of copying them into new vectors for every single vertex
+    Matrix4fAccessor matrix = (Matrix4fAccessor) (Object) matrixStackEntry.getMatrix();
+    Matrix3fAccessor normalMatrix = (Matrix3fAccessor) (Object) matrixStackEntry.getNormal();
+    ModelPartTransform transform = this.modelPartTransform
+        .setWorld(
+            matrix.getM00(), matrix.getM01(), matrix.getM02(), matrix.getM03(),
+            matrix.getM10(), matrix.getM11(), matrix.getM12(), matrix.getM13(),
+            matrix.getM20(), matrix.getM21(), matrix.getM22(), matrix.getM23())
+        .setNormal(
+            normalMatrix.getM00(), normalMatrix.getM01(), normalMatrix.getM02(),
+            normalMatrix.getM10(), normalMatrix.getM11(), normalMatrix.getM12(),
+            normalMatrix.getM20(), normalMatrix.getM21(), normalMatrix.getM22());
+
+    List<ModelRenderer.ModelBox> modelBoxes =
+        ((ModelRendererAccessor) modelRenderer).getModelBoxes();
+
+    for (int boxIndex = 0; boxIndex < modelBoxes.size(); boxIndex++) {
+      ModelBoxAccessor modelBoxAccessor = (ModelBoxAccessor) modelBoxes.get(boxIndex);
       for (TexturedQuadAccessor quad : modelBoxAccessor.getQuads()) {
-        Vector3f vector3f = quad.getNormal().copy();
-        vector3f.transform(matrix3f);
-        float f = vector3f.getX();
-        float f1 = vector3f.getY();
-        float f2 = vector3f.getZ();
-
-        for (int i = 0; i < 4; ++i) {
-          PositionTextureVertexAccessor modelrenderer$positiontexturevertex =
-              quad.getVertexPositions()[i];
-          float f3 = modelrenderer$positiontexturevertex.getPosition().getX() / 16.0F;
-          float f4 = modelrenderer$positiontexturevertex.getPosition().getY() / 16.0F;
-          float f5 = modelrenderer$positiontexturevertex.getPosition().getZ() / 16.0F;
-          Vector4f vector4f = new Vector4f(f3, f4, f5, 1.0F);
-          vector4f.transform(matrix4f);
+        Vector3f normal = quad.getNormal();
+        float normalX = normal.getX();
+        float normalY = normal.getY();
+        float normalZ = normal.getZ();
+        float transformedNormalX = transform.transformNormalX(normalX, normalY, normalZ);
+        float transformedNormalY = transform.transformNormalY(normalX, normalY, normalZ);
+        float transformedNormalZ = transform.transformNormalZ(normalX, normalY, normalZ);
+
+        for (PositionTextureVertexAccessor vertex : quad.getVertexPositions()) {
+          Vector3f position = vertex.getPosition();
+          float x = position.getX() / 16.0F;
+          float y = position.getY() / 16.0F;
+          float z = position.getZ() / 16.0F;
 
           buffer.addVertex(
-              vector4f.getX(),
-              vector4f.getY(),
-              vector4f.getZ(),
+              transform.transformX(x, y, z),
+              transform.transformY(x, y, z),
+              transform.transformZ(x, y, z),
               red,
               green,
               blue,
               alpha,
-              modelrenderer$positiontexturevertex.getTextureU(),
-              modelrenderer$positiontexturevertex.getTextureV(),
+              vertex.getTextureU(),
+              vertex.getTextureV(),
               packedOverlay,
               packedLight,
-              f,
-              f1,
-              f2);
+              transformedNormalX,
+              transformedNormalY,
+              transformedNormalZ);
         }
       }
     }
@@ -365,9 +357,8 @@ public class ModelRendererInterceptor {
           @Type(reference = float.class)
       }
   )
-  public void interceptRotationAnglesUpdate(@Named("args") Object[] args) {
-    net.minecraft.entity.Entity entity = (net.minecraft.entity.Entity) args[0];
-
+  public void interceptRotationAnglesUpdate(
+      @HookArgument(0) net.minecraft.entity.Entity entity) {
     Entity flintEntity = this.entityRepository.getEntity(entity.getUniqueID());
 
     if (flintEntity == null && this.clientPlayer.getUniqueId().equals(entity.getUniqueID())) {
@@ -382,4 +373,18 @@ public class ModelRendererInterceptor {
     }
     this.lastRenderedEntity = flintEntity;
   }
+
+  /**
+   * Copies the properties of the rendered part into the properties of the model renderer. The model
+   * renderer keeps its properties between frames, so only the values that have changed since the
+   * last time the part has been rendered need to be written.
+   */
+  private static void updateProperties(
+      Map<Property<?, ?>, Object> target, Map<Property<?, ?>, Object> source) {
+    for (Map.Entry<Property<?, ?>, Object> entry : source.entrySet()) {
+      if (!Objects.equals(target.get(entry.getKey()), entry.getValue())) {
+        target.put(entry.getKey(), entry.getValue());
+      }
+    }
+  }
 }
@@ -0,0 +1,100 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.mcapi.v1_16_5.entity.render;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.reflect.Constructor;
+import net.flintmc.framework.inject.logging.InjectLogger;
+import net.flintmc.mcapi.internal.entity.render.DrawStatePool;
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * {@inheritDoc}
+ */
+@Singleton
+public class VersionedDrawStatePool extends DrawStatePool<VertexFormat, BufferBuilder.DrawState> {
+
+  private final Logger logger;
+  private final Constructor<BufferBuilder.DrawState> drawStateConstructor;
+
+  @Inject
+  private VersionedDrawStatePool(@InjectLogger Logger logger) {
+    this.logger = logger;
+    this.drawStateConstructor = this.findDrawStateConstructor();
+  }
+
+  private Constructor<BufferBuilder.DrawState> findDrawStateConstructor() {
+    try {
+      Constructor<BufferBuilder.DrawState> constructor =
+          BufferBuilder.DrawState.class.getDeclaredConstructor(
+              VertexFormat.class, int.class, int.class);
+      constructor.setAccessible(true);
+      return constructor;
+    } catch (ReflectiveOperationException | SecurityException exception) {
+      this.logger.error("Failed to find the constructor of the draw states, custom model"
+          + " rendering is disabled", exception);
+      return null;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected BufferBuilder.DrawState createDrawState(VertexFormat vertexFormat) {
+    if (this.drawStateConstructor == null) {
+      return null;
+    }
+
+    try {
+      return this.drawStateConstructor.newInstance(vertexFormat, 0, 0);
+    } catch (ReflectiveOperationException exception) {
+      this.logger.error("Failed to create a draw state", exception);
+      return null;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected boolean reset(BufferBuilder.DrawState drawState) {
+    DrawStateAccessor drawStateAccessor = (DrawStateAccessor) (Object) drawState;
+    if (drawStateAccessor.getModelBoxHolder() == null || drawState.getVertexCount() != 0) {
+      return false;
+    }
+
+    drawStateAccessor.setModelBoxHolder(null);
+    drawStateAccessor.setModelRenderData(null);
+    drawStateAccessor.getRenderCallbacks().clear();
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected VertexFormat getVertexFormat(BufferBuilder.DrawState drawState) {
+    return drawState.getFormat();
+  }
+}
@@ -31,6 +31,7 @@ import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtMethod;
 import javassist.NotFoundException;
+import net.flintmc.framework.inject.primitive.InjectionHolder;
 import net.flintmc.render.model.ModelBoxHolder;
 import net.flintmc.transform.javassist.ClassTransform;
 import net.flintmc.transform.javassist.ClassTransformContext;
@@ -72,6 +73,9 @@ public class WorldVertexBufferUploaderInterceptor {
 
   public static class Handler {
 
+    private static final VersionedDrawStatePool DRAW_STATE_POOL =
+        InjectionHolder.getInjectedInstance(VersionedDrawStatePool.class);
+
     public static void draw(Object instance) {
       BufferBuilder bufferBuilderIn = (BufferBuilder) instance;
       if (!RenderSystem.isOnRenderThread()) {
@@ -118,13 +122,13 @@ public class WorldVertexBufferUploaderInterceptor {
         return;
       }
       ModelBoxHolder modelBoxHolder = drawStateAccessor.getModelBoxHolder();
-      if (modelBoxHolder.getContext().getRenderer() == null) {
-        return;
+      if (modelBoxHolder.getContext().getRenderer() != null) {
+        modelBoxHolder
+            .getContext()
+            .getRenderer()
+            .render(modelBoxHolder, drawStateAccessor.getRenderData());
       }
-      modelBoxHolder
-          .getContext()
-          .getRenderer()
-          .render(modelBoxHolder, drawStateAccessor.getRenderData());
+      DRAW_STATE_POOL.recycle(pair.getFirst());
     }
   }
 }
@@ -22,6 +22,7 @@ package net.flintmc.mcapi.v1_16_5.event;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import net.flintmc.framework.eventbus.EventBus;
+import net.flintmc.framework.eventbus.metrics.EventBusMetrics;
 import net.flintmc.framework.stereotype.type.Type;
 import net.flintmc.mcapi.event.MinecraftInitializeEvent;
 import net.flintmc.transform.hook.Hook;
@@ -31,12 +32,14 @@ import net.minecraft.client.GameConfiguration;
 public class VersionedMinecraftInitializeEventInjector {
 
   private final EventBus eventBus;
+  private final EventBusMetrics metrics;
 
   private final MinecraftInitializeEvent event;
 
   @Inject
-  public VersionedMinecraftInitializeEventInjector(EventBus eventBus) {
+  public VersionedMinecraftInitializeEventInjector(EventBus eventBus, EventBusMetrics metrics) {
     this.eventBus = eventBus;
+    this.metrics = metrics;
     this.event = new MinecraftInitializeEvent() {
     };
   }
@@ -47,6 +50,11 @@ public class VersionedMinecraftInitializeEventInjector {
       parameters = {@Type(reference = GameConfiguration.class)},
       executionTime = {Hook.ExecutionTime.BEFORE, Hook.ExecutionTime.AFTER})
   public void minecraftInitialize(Hook.ExecutionTime executionTime) {
+    if (executionTime == Hook.ExecutionTime.BEFORE) {
+      // the game is constructed on the thread that will render it
+      this.metrics.setRenderThread(Thread.currentThread());
+    }
+
     this.eventBus.fireEvent(this.event, executionTime);
   }
 }
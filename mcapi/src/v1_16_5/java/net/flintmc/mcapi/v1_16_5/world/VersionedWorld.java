@@ -19,19 +19,22 @@
 
 package net.flintmc.mcapi.v1_16_5.world;
 
-import com.beust.jcommander.internal.Lists;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import net.flintmc.framework.eventbus.event.subscribe.PostSubscribe;
 import net.flintmc.framework.inject.implement.Implement;
+import net.flintmc.mcapi.internal.tileentity.TileEntityStorage;
 import net.flintmc.mcapi.tileentity.TileEntity;
 import net.flintmc.mcapi.world.World;
 import net.flintmc.mcapi.world.block.Block;
 import net.flintmc.mcapi.world.block.BlockState;
 import net.flintmc.mcapi.world.border.WorldBorder;
+import net.flintmc.mcapi.world.event.ChunkUnloadEvent;
+import net.flintmc.mcapi.world.event.WorldUnloadEvent;
 import net.flintmc.mcapi.world.math.BlockPosition;
 import net.flintmc.mcapi.world.scoreboad.Scoreboard;
 import net.flintmc.mcapi.world.type.Dimension;
@@ -59,7 +62,7 @@ public class VersionedWorld implements World {
   private final WorldBorder worldBorder;
   private final Scoreboard scoreboard;
 
-  private final List<TileEntity> loadedTileEntities;
+  private final TileEntityStorage tileEntityStorage;
 
   private final Map<net.minecraft.block.BlockState, BlockState> cachedStates;
 
@@ -78,7 +81,7 @@ public class VersionedWorld implements World {
     this.worldBorder = worldBorder;
     this.scoreboard = scoreboard;
 
-    this.loadedTileEntities = Lists.newArrayList();
+    this.tileEntityStorage = new TileEntityStorage();
 
     this.cachedStates = new HashMap<>();
   }
@@ -325,12 +328,8 @@ public class VersionedWorld implements World {
    */
   @Override
   public TileEntity getTileEntity(BlockPosition blockPosition) {
-    for (TileEntity loadedTileEntity : this.loadedTileEntities) {
-      if (loadedTileEntity.getPosition().equals(blockPosition)) {
-        return loadedTileEntity;
-      }
-    }
-    return null;
+    return this.tileEntityStorage.get(
+        blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
   }
 
   /**
@@ -339,8 +338,7 @@ public class VersionedWorld implements World {
   @Override
   public void addTileEntity(TileEntity tileEntity) {
     if (tileEntity != null) {
-
-      this.loadedTileEntities.add(tileEntity);
+      this.tileEntityStorage.add(tileEntity);
     }
   }
 
@@ -349,7 +347,7 @@ public class VersionedWorld implements World {
    */
   @Override
   public void removeTileEntity(TileEntity tileEntity) {
-    this.loadedTileEntities.remove(tileEntity);
+    this.tileEntityStorage.remove(tileEntity);
   }
 
   /**
@@ -357,7 +355,17 @@ public class VersionedWorld implements World {
    */
   @Override
   public List<TileEntity> getLoadedTileEntities() {
-    return this.loadedTileEntities;
+    return this.tileEntityStorage.getLoadedTileEntities();
+  }
+
+  @PostSubscribe
+  public void unloadChunk(ChunkUnloadEvent event) {
+    this.tileEntityStorage.removeChunk(event.getX(), event.getZ());
+  }
+
+  @PostSubscribe
+  public void unloadWorld(WorldUnloadEvent event) {
+    this.tileEntityStorage.clear();
   }
 
   /**
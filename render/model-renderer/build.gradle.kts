@@ -19,6 +19,7 @@
 
 plugins {
     id("java-library")
+    id("me.champeau.jmh")
 }
 
 group = "net.flintmc"
@@ -34,4 +35,10 @@ dependencies {
     api(project(":framework:framework-inject"))
     api(project(":render:render-vbo-rendering"))
     api(project(":util:util-property"))
+
+    jmhImplementation(project(":render:render-model-renderer", "internal"))
+}
+
+jmh {
+    jmhVersion.set("1.27")
 }
\ No newline at end of file
@@ -24,8 +24,11 @@ import net.flintmc.framework.inject.implement.Implement;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
 import net.flintmc.render.model.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 @Singleton
@@ -36,7 +39,11 @@ public class DefaultRendererRepository implements RendererRepository {
       classDefinedRenderers = new HashMap<>();
   private final Map<Predicate<RenderContext<?, ?, ?, ?, ?>>, Renderer<?, ?, ?>> predicates =
       new HashMap<>();
+
   private Renderer<?, ?, ?> defaultRenderer;
+  // everything that is needed to resolve renderers, replaced as a whole on every modification so
+  // that resolving never sees a partially modified repository and doesn't need a lock
+  private volatile Snapshot snapshot = new Snapshot(this);
 
   /**
    * {@inheritDoc}
@@ -69,48 +76,59 @@ public class DefaultRendererRepository implements RendererRepository {
   public <T_RenderContextAware extends RenderContextAware<T_RenderContext>, T_RenderContext extends RenderContext<T_RenderContextAware, T_RenderContext, T_Renderable, T_RenderMeta, T_RenderTarget>, T_Renderable extends Renderable<T_RenderContextAware, T_RenderContext, T_Renderable, T_RenderTarget>, T_RenderMeta, T_RenderTarget> Renderer<T_Renderable, T_RenderContext, T_RenderMeta> getRenderer(
       T_RenderContext renderContext) {
 
-    Renderer<T_Renderable, T_RenderContext, T_RenderMeta> renderer = null;
-    for (Map.Entry<Predicate<RenderContext<?, ?, ?, ?, ?>>, Renderer<?, ?, ?>> entry :
-        this.predicates.entrySet()) {
-      Predicate<RenderContext<?, ?, ?, ?, ?>> predicate = entry.getKey();
-      if (predicate.test(renderContext)) {
+    Class<?> ownerClass = renderContext.getOwner().getClass();
+    Snapshot snapshot = this.snapshot;
+
+    Renderer<?, ?, ?> renderer = null;
+    Predicate<RenderContext<?, ?, ?, ?, ?>>[] contextPredicates = snapshot.contextPredicates;
+    for (int i = 0; i < contextPredicates.length; i++) {
+      if (contextPredicates[i].test(renderContext)) {
         if (renderer != null) {
-          throw new IllegalStateException(
-              String.format(
-                  "Multiple default renderers for render context aware of type %s found.",
-                  renderContext.getOwner().getClass()));
+          throw this.multipleRenderers(ownerClass);
         }
-        renderer = (Renderer<T_Renderable, T_RenderContext, T_RenderMeta>) entry.getValue();
+        renderer = snapshot.contextPredicateRenderers[i];
       }
     }
-    if (renderer != null) {
-      return renderer;
-    }
 
-    if (this.classDefinedRenderers.containsKey(renderContext.getOwner().getClass())) {
-      return (Renderer<T_Renderable, T_RenderContext, T_RenderMeta>)
-          this.classDefinedRenderers.get(renderContext.getOwner().getClass());
+    ClassResolution resolution = snapshot.resolutions.get(ownerClass);
+    if (resolution == null) {
+      resolution = snapshot.resolve(ownerClass);
+      snapshot.resolutions.put(ownerClass, resolution);
     }
 
-    for (Map.Entry<Class<? extends RenderContextAware<?>>, Renderer<?, ?, ?>> classRendererEntry :
-        this.classDefinedRenderers.entrySet()) {
-      if (classRendererEntry.getKey().isInstance(renderContext.getOwner())) {
-        if (renderer != null) {
-          throw new IllegalStateException(
-              String.format(
-                  "Multiple default renderers for render context aware of type %s found.",
-                  renderContext.getOwner().getClass()));
-        }
-        renderer =
-            (Renderer<T_Renderable, T_RenderContext, T_RenderMeta>) classRendererEntry.getValue();
-      }
+    if (resolution.multiplePredicates
+        || (renderer != null && resolution.predicateRenderer != null)) {
+      throw this.multipleRenderers(ownerClass);
+    }
+    if (renderer == null) {
+      renderer = resolution.predicateRenderer;
     }
-
     if (renderer != null) {
-      return renderer;
+      return (Renderer<T_Renderable, T_RenderContext, T_RenderMeta>) renderer;
+    }
+
+    if (resolution.multipleClasses) {
+      throw this.multipleRenderers(ownerClass);
     }
+    if (resolution.classRenderer != null) {
+      return (Renderer<T_Renderable, T_RenderContext, T_RenderMeta>) resolution.classRenderer;
+    }
+
+    return (Renderer<T_Renderable, T_RenderContext, T_RenderMeta>) snapshot.defaultRenderer;
+  }
 
-    return (Renderer<T_Renderable, T_RenderContext, T_RenderMeta>) this.defaultRenderer;
+  private IllegalStateException multipleRenderers(Class<?> ownerClass) {
+    return new IllegalStateException(
+        String.format(
+            "Multiple default renderers for render context aware of type %s found.", ownerClass));
+  }
+
+  /**
+   * Publishes a new snapshot of the renderers without any cached resolution. Needs to be called
+   * with the lock of this repository whenever a {@link Renderer} is set or replaced.
+   */
+  private void invalidate() {
+    this.snapshot = new Snapshot(this);
   }
 
   /**
@@ -157,15 +175,18 @@ public class DefaultRendererRepository implements RendererRepository {
   RendererRepository setRenderer(
       Class<? extends T_RenderContextAware> renderContextAwareClass,
       Renderer<T_Renderable, T_RenderContext, T_RenderMeta> renderer) {
-    if (this.classDefinedRenderers.containsKey(renderContextAwareClass)) {
-      throw new IllegalStateException(
-          "Renderer for render context aware "
-              + renderContextAwareClass.getName()
-              + " was already defined as "
-              + this.classDefinedRenderers.get(renderContextAwareClass).getClass().getName());
-    }
+    synchronized (this) {
+      if (this.classDefinedRenderers.containsKey(renderContextAwareClass)) {
+        throw new IllegalStateException(
+            "Renderer for render context aware "
+                + renderContextAwareClass.getName()
+                + " was already defined as "
+                + this.classDefinedRenderers.get(renderContextAwareClass).getClass().getName());
+      }
 
-    this.classDefinedRenderers.put(renderContextAwareClass, renderer);
+      this.classDefinedRenderers.put(renderContextAwareClass, renderer);
+      this.invalidate();
+    }
     return this;
   }
 
@@ -212,7 +233,10 @@ public class DefaultRendererRepository implements RendererRepository {
   RendererRepository setRenderer(
       Predicate<RenderContext<?, ?, ?, ?, ?>> renderablePredicate,
       Renderer<T_Renderable, T_RenderContext, T_RenderMeta> renderer) {
-    this.predicates.put(renderablePredicate, renderer);
+    synchronized (this) {
+      this.predicates.put(renderablePredicate, renderer);
+      this.invalidate();
+    }
     return this;
   }
 
@@ -248,22 +272,27 @@ public class DefaultRendererRepository implements RendererRepository {
       }
     };
 
-    for (Map.Entry<Class<? extends RenderContextAware<?>>, Renderer<?, ?, ?>> classRendererEntry :
-        this.classDefinedRenderers.entrySet()) {
-      if (classRendererEntry.getValue().equals(target)) {
-        this.classDefinedRenderers.put(classRendererEntry.getKey(), appendedRenderer);
+    synchronized (this) {
+      for (Map.Entry<Class<? extends RenderContextAware<?>>, Renderer<?, ?, ?>>
+          classRendererEntry : this.classDefinedRenderers.entrySet()) {
+        if (classRendererEntry.getValue().equals(target)) {
+          classRendererEntry.setValue(appendedRenderer);
+        }
       }
-    }
 
-    if (target.equals(this.defaultRenderer)) {
-      this.defaultRenderer = appendedRenderer;
-    }
+      if (target.equals(this.defaultRenderer)) {
+        this.defaultRenderer = appendedRenderer;
+      }
 
-    for (Map.Entry<Predicate<RenderContext<?, ?, ?, ?, ?>>, Renderer<?, ?, ?>>
-        predicateRendererEntry : this.predicates.entrySet()) {
-      this.predicates.put(predicateRendererEntry.getKey(), appendedRenderer);
-    }
+      for (Map.Entry<Predicate<RenderContext<?, ?, ?, ?, ?>>, Renderer<?, ?, ?>>
+          predicateRendererEntry : this.predicates.entrySet()) {
+        if (predicateRendererEntry.getValue().equals(target)) {
+          predicateRendererEntry.setValue(appendedRenderer);
+        }
+      }
 
+      this.invalidate();
+    }
     return this;
   }
 
@@ -272,15 +301,98 @@ public class DefaultRendererRepository implements RendererRepository {
    */
   @Override
   public Renderer<?, ?, ?> getDefaultRenderer() {
-    return defaultRenderer;
+    return this.snapshot.defaultRenderer;
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public DefaultRendererRepository setDefaultRenderer(Renderer<?, ?, ?> defaultRenderer) {
+  public synchronized DefaultRendererRepository setDefaultRenderer(
+      Renderer<?, ?, ?> defaultRenderer) {
     this.defaultRenderer = defaultRenderer;
+    this.invalidate();
     return this;
   }
+
+  /**
+   * An immutable copy of the renderers of the repository and the resolutions that have been cached
+   * for it.
+   */
+  private static class Snapshot {
+
+    private final Predicate<RenderContext<?, ?, ?, ?, ?>>[] contextPredicates;
+    private final Renderer<?, ?, ?>[] contextPredicateRenderers;
+    private final OwnerClassPredicate[] ownerClassPredicates;
+    private final Renderer<?, ?, ?>[] ownerClassPredicateRenderers;
+    private final Map<Class<? extends RenderContextAware<?>>, Renderer<?, ?, ?>>
+        classDefinedRenderers;
+    private final Renderer<?, ?, ?> defaultRenderer;
+    private final Map<Class<?>, ClassResolution> resolutions;
+
+    @SuppressWarnings("unchecked")
+    private Snapshot(DefaultRendererRepository repository) {
+      List<Predicate<RenderContext<?, ?, ?, ?, ?>>> contextPredicates = new ArrayList<>();
+      List<Renderer<?, ?, ?>> contextPredicateRenderers = new ArrayList<>();
+      List<OwnerClassPredicate> ownerClassPredicates = new ArrayList<>();
+      List<Renderer<?, ?, ?>> ownerClassPredicateRenderers = new ArrayList<>();
+      for (Map.Entry<Predicate<RenderContext<?, ?, ?, ?, ?>>, Renderer<?, ?, ?>> entry :
+          repository.predicates.entrySet()) {
+        if (entry.getKey() instanceof OwnerClassPredicate) {
+          ownerClassPredicates.add((OwnerClassPredicate) entry.getKey());
+          ownerClassPredicateRenderers.add(entry.getValue());
+        } else {
+          contextPredicates.add(entry.getKey());
+          contextPredicateRenderers.add(entry.getValue());
+        }
+      }
+
+      this.contextPredicates = contextPredicates.toArray(new Predicate[0]);
+      this.contextPredicateRenderers = contextPredicateRenderers.toArray(new Renderer[0]);
+      this.ownerClassPredicates = ownerClassPredicates.toArray(new OwnerClassPredicate[0]);
+      this.ownerClassPredicateRenderers = ownerClassPredicateRenderers.toArray(new Renderer[0]);
+      this.classDefinedRenderers = new HashMap<>(repository.classDefinedRenderers);
+      this.defaultRenderer = repository.defaultRenderer;
+      this.resolutions = new ConcurrentHashMap<>();
+    }
+
+    private ClassResolution resolve(Class<?> ownerClass) {
+      ClassResolution resolution = new ClassResolution();
+
+      for (int i = 0; i < this.ownerClassPredicates.length; i++) {
+        if (this.ownerClassPredicates[i].testOwnerClass(ownerClass)) {
+          resolution.multiplePredicates |= resolution.predicateRenderer != null;
+          resolution.predicateRenderer = this.ownerClassPredicateRenderers[i];
+        }
+      }
+
+      Renderer<?, ?, ?> classRenderer = this.classDefinedRenderers.get(ownerClass);
+      if (classRenderer != null) {
+        resolution.classRenderer = classRenderer;
+        return resolution;
+      }
+
+      for (Map.Entry<Class<? extends RenderContextAware<?>>, Renderer<?, ?, ?>>
+          classRendererEntry : this.classDefinedRenderers.entrySet()) {
+        if (classRendererEntry.getKey().isAssignableFrom(ownerClass)) {
+          resolution.multipleClasses |= resolution.classRenderer != null;
+          resolution.classRenderer = classRendererEntry.getValue();
+        }
+      }
+
+      return resolution;
+    }
+  }
+
+  /**
+   * Everything that can be resolved for a {@link RenderContext} by only knowing the class of its
+   * owner.
+   */
+  private static class ClassResolution {
+
+    private Renderer<?, ?, ?> predicateRenderer;
+    private boolean multiplePredicates;
+    private Renderer<?, ?, ?> classRenderer;
+    private boolean multipleClasses;
+  }
 }
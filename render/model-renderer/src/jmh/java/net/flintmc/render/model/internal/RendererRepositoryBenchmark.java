@@ -0,0 +1,219 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.model.internal;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import net.flintmc.render.model.OwnerClassPredicate;
+import net.flintmc.render.model.RenderContext;
+import net.flintmc.render.model.RenderContextAware;
+import net.flintmc.render.model.Renderable;
+import net.flintmc.render.model.Renderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures resolving the renderer of 500 render contexts with 50 predicates registered, ten of
+ * them matching one owner class each. The {@code baseline} mode tests every predicate of a map
+ * against every context like the repository did before resolutions were cached, the {@code
+ * context} mode registers plain predicates in the {@link DefaultRendererRepository} which still
+ * have to be tested for every context and the {@code ownerClass} mode registers {@link
+ * OwnerClassPredicate}s which are only resolved once per owner class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RendererRepositoryBenchmark {
+
+  private static final Class<?>[] OWNER_TYPES = {
+      Owner0.class, Owner1.class, Owner2.class, Owner3.class, Owner4.class,
+      Owner5.class, Owner6.class, Owner7.class, Owner8.class, Owner9.class
+  };
+
+  @Param({"baseline", "context", "ownerClass"})
+  public String mode;
+
+  @Param("50")
+  public int predicates;
+
+  @Param("500")
+  public int contexts;
+
+  private final Map<Predicate<RenderContext<?, ?, ?, ?, ?>>, Renderer<?, ?, ?>> baseline =
+      new HashMap<>();
+  private DefaultRendererRepository repository;
+  private Context[] renderContexts;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    this.repository = new DefaultRendererRepository();
+
+    for (int i = 0; i < this.predicates; i++) {
+      // predicates after the owner types match an unused type to keep exactly one match per owner
+      Class<?> type = i < OWNER_TYPES.length ? OWNER_TYPES[i] : Owner.class;
+      Renderer<Model, Context, Object> renderer = new NoOpRenderer();
+
+      if (this.mode.equals("ownerClass")) {
+        OwnerClassPredicate predicate = ownerClass -> ownerClass == type;
+        this.repository.setRenderer(predicate, renderer);
+      } else {
+        Predicate<RenderContext<?, ?, ?, ?, ?>> predicate =
+            context -> context.getOwner().getClass() == type;
+        this.repository.setRenderer(predicate, renderer);
+        this.baseline.put(predicate, renderer);
+      }
+    }
+
+    this.renderContexts = new Context[this.contexts];
+    for (int i = 0; i < this.contexts; i++) {
+      Object owner = OWNER_TYPES[i % OWNER_TYPES.length].getDeclaredConstructor().newInstance();
+      this.renderContexts[i] = (Context) Proxy.newProxyInstance(
+          Context.class.getClassLoader(),
+          new Class[]{Context.class},
+          (proxy, method, args) -> {
+            if (method.getName().equals("getOwner")) {
+              return owner;
+            }
+            throw new UnsupportedOperationException(method.getName());
+          });
+    }
+  }
+
+  @Benchmark
+  public void resolve(Blackhole blackhole) {
+    if (this.mode.equals("baseline")) {
+      for (Context context : this.renderContexts) {
+        blackhole.consume(this.resolveBaseline(context));
+      }
+      return;
+    }
+
+    for (Context context : this.renderContexts) {
+      blackhole.consume(this.repository.getRenderer(context));
+    }
+  }
+
+  private Renderer<?, ?, ?> resolveBaseline(RenderContext<?, ?, ?, ?, ?> context) {
+    Renderer<?, ?, ?> renderer = null;
+    for (Map.Entry<Predicate<RenderContext<?, ?, ?, ?, ?>>, Renderer<?, ?, ?>> entry :
+        this.baseline.entrySet()) {
+      if (entry.getKey().test(context)) {
+        if (renderer != null) {
+          throw new IllegalStateException("Multiple renderers for " + context.getOwner());
+        }
+        renderer = entry.getValue();
+      }
+    }
+    return renderer;
+  }
+
+  private interface Owner extends RenderContextAware<Context> {
+
+  }
+
+  private interface Context extends RenderContext<Owner, Context, Model, Object, Object> {
+
+  }
+
+  private interface Model extends Renderable<Owner, Context, Model, Object> {
+
+  }
+
+  private abstract static class AbstractOwner implements Owner {
+
+    @Override
+    public Context getRenderContext() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void updateRenderables() {
+    }
+  }
+
+  public static class Owner0 extends AbstractOwner {
+
+  }
+
+  public static class Owner1 extends AbstractOwner {
+
+  }
+
+  public static class Owner2 extends AbstractOwner {
+
+  }
+
+  public static class Owner3 extends AbstractOwner {
+
+  }
+
+  public static class Owner4 extends AbstractOwner {
+
+  }
+
+  public static class Owner5 extends AbstractOwner {
+
+  }
+
+  public static class Owner6 extends AbstractOwner {
+
+  }
+
+  public static class Owner7 extends AbstractOwner {
+
+  }
+
+  public static class Owner8 extends AbstractOwner {
+
+  }
+
+  public static class Owner9 extends AbstractOwner {
+
+  }
+
+  private static class NoOpRenderer implements Renderer<Model, Context, Object> {
+
+    @Override
+    public void render(Model renderable, Object renderMeta) {
+    }
+
+    @Override
+    public boolean shouldExecuteNextStage(Model renderable, Object renderMeta) {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.model;
+
+import java.util.function.Predicate;
+
+/**
+ * A {@link Predicate} for {@link RenderContext}s whose result only depends on the class of {@link
+ * RenderContext#getOwner()}. Renderers registered with such a predicate in the {@link
+ * RendererRepository} will be resolved once per owner class and cached until the repository is
+ * modified, while plain {@link Predicate}s have to be tested against every single {@link
+ * RenderContext}.
+ */
+@FunctionalInterface
+public interface OwnerClassPredicate extends Predicate<RenderContext<?, ?, ?, ?, ?>> {
+
+  /**
+   * Creates a new {@link OwnerClassPredicate} that matches every {@link RenderContext} whose owner
+   * is an instance of the given type.
+   *
+   * @param ownerType the type of the {@link RenderContextAware} to match
+   * @return the new non-null {@link OwnerClassPredicate}
+   */
+  static OwnerClassPredicate isInstance(Class<?> ownerType) {
+    return ownerType::isAssignableFrom;
+  }
+
+  /**
+   * Tests whether the given owner class matches this predicate. The result must not depend on
+   * anything else than the given class, otherwise cached results may be outdated.
+   *
+   * @param ownerClass the non-null class of the {@link RenderContext#getOwner()}
+   * @return {@code true} if renderers registered with this predicate should be used for owners of
+   * the given class, {@code false} otherwise
+   */
+  boolean testOwnerClass(Class<?> ownerClass);
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  default boolean test(RenderContext<?, ?, ?, ?, ?> renderContext) {
+    return this.testOwnerClass(renderContext.getOwner().getClass());
+  }
+}
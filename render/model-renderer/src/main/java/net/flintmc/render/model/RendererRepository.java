@@ -27,7 +27,9 @@ public interface RendererRepository {
    * Gets an instance of the {@link Renderer} defined for a specific {@link RenderContextAware}. If
    * no {@link Renderable} was defined the default renderer will be returned. Otherwise if multiple
    * {@link Renderer}s would match the {@link Renderer}s defined with a {@link Predicate} will be
-   * prioritized over all {@link Renderer}s defined with class reference.
+   * prioritized over all {@link Renderer}s defined with class reference. Everything except for
+   * plain (non {@link OwnerClassPredicate}) predicates is resolved once per owner class and cached
+   * until a {@link Renderer} is set or appended.
    *
    * @param renderContextAware     the {@link RenderContextAware} to search the {@link Renderer} by.
    * @param <T_RenderContextAware> the type of renderContextAware. Just used for generic locking
@@ -157,7 +159,8 @@ public interface RendererRepository {
    * Sets the {@link Renderer} for all {@link RenderContext}s matching {@link
    * Predicate#test(Object)} for renderablePredicate. In order for this action to take effect on
    * {@link RenderContext} that already have discovered a {@link Renderer} it is required to call
-   * {@link RenderContext#updateRenderer()}.
+   * {@link RenderContext#updateRenderer()}. Predicates that only depend on the class of the owner
+   * should implement {@link OwnerClassPredicate}, they will then only be tested once per class.
    *
    * @param renderablePredicate    the {@link Predicate} for {@link RenderContext} to search the {@link
    *                               Renderer} by.
@@ -194,7 +197,8 @@ public interface RendererRepository {
    * Sets the {@link Renderer} for all {@link RenderContext}s matching {@link
    * Predicate#test(Object)} for renderablePredicate. In order for this action to take effect on
    * {@link RenderContext} that already have discovered a {@link Renderer} it is required to call
-   * {@link RenderContext#updateRenderer()}.
+   * {@link RenderContext#updateRenderer()}. Predicates that only depend on the class of the owner
+   * should implement {@link OwnerClassPredicate}, they will then only be tested once per class.
    *
    * @param renderablePredicate    the {@link Predicate} for {@link RenderContext} to search the {@link
    *                               Renderer} by.
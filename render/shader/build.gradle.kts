@@ -32,4 +32,5 @@ dependencies {
 
     api(project(":framework:framework-stereotype"))
     api(project(":framework:framework-inject"))
+    api(project(":render:render-vbo-rendering"))
 }
@@ -34,7 +34,6 @@ import static org.lwjgl.opengl.GL20.glGetShaderInfoLog;
 import static org.lwjgl.opengl.GL20.glGetShaderi;
 import static org.lwjgl.opengl.GL20.glLinkProgram;
 import static org.lwjgl.opengl.GL20.glShaderSource;
-import static org.lwjgl.opengl.GL20.glUseProgram;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,6 +45,8 @@ import net.flintmc.framework.inject.implement.Implement;
 import net.flintmc.render.shader.ShaderException;
 import net.flintmc.render.shader.ShaderProgram;
 import net.flintmc.render.shader.ShaderUniform;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
 import org.apache.commons.io.IOUtils;
 
 /**
@@ -55,14 +56,16 @@ import org.apache.commons.io.IOUtils;
 public class VersionedShaderProgram implements ShaderProgram {
 
   private final List<ShaderUniform> providedShaderUniforms;
+  private final GlStateTracker stateTracker;
   private int shaderProgram;
   private int vertexShader;
   private int fragmentShader;
   private boolean linked;
 
   @AssistedInject
-  private VersionedShaderProgram() {
+  private VersionedShaderProgram(GlStateTracker stateTracker) {
     this.providedShaderUniforms = new ArrayList<>();
+    this.stateTracker = stateTracker;
     this.shaderProgram = 0;
     this.vertexShader = 0;
     this.fragmentShader = 0;
@@ -165,7 +168,7 @@ public class VersionedShaderProgram implements ShaderProgram {
     if (this.shaderProgram <= 0) {
       throw new IllegalStateException("Shader program has not been successfully linked yet.");
     }
-    glUseProgram(shaderProgram);
+    this.stateTracker.bind(GlBindingTarget.PROGRAM, this.shaderProgram);
     this.updateProvidedUniforms();
   }
 
@@ -174,7 +177,7 @@ public class VersionedShaderProgram implements ShaderProgram {
    */
   @Override
   public void stopShader() {
-    glUseProgram(0);
+    this.stateTracker.bind(GlBindingTarget.PROGRAM, 0);
   }
 
   /**
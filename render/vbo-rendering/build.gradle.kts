@@ -19,6 +19,7 @@
 
 plugins {
     id("java-library")
+    id("me.champeau.jmh")
 }
 
 group = "net.flintmc"
@@ -31,4 +32,14 @@ dependencies {
     internalAnnotationProcessor(project(":annotation-processing:annotation-processing-autoload"))
 
     api(project(":framework:framework-inject"))
+    api(project(":transform:transform-hook"))
+
+    testImplementation(project(":util:util-unit-testing"))
+    testImplementation(project(":render:render-vbo-rendering", "internal"))
+
+    jmhImplementation(project(":render:render-vbo-rendering", "internal"))
+}
+
+jmh {
+    jmhVersion.set("1.27")
 }
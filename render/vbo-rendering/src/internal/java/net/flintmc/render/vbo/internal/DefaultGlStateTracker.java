@@ -0,0 +1,299 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.internal;
+
+import java.util.Arrays;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
+
+/**
+ * Base implementation of the {@link GlStateTracker} that caches the bindings. The OpenGL calls and
+ * the hooks into the render loop of Minecraft are left to the versioned implementations.
+ *
+ * <p>The element array buffer binding is part of the state of the bound vertex array object. The
+ * tracker therefore remembers the element array buffer of every vertex array object that has been
+ * bound in the current scope and restores it when the vertex array object is bound again, instead
+ * of querying it from the driver.
+ */
+public abstract class DefaultGlStateTracker implements GlStateTracker {
+
+  private static final int ARRAY_BUFFER = GlBindingTarget.ARRAY_BUFFER.ordinal();
+  private static final int ELEMENT_ARRAY_BUFFER = GlBindingTarget.ELEMENT_ARRAY_BUFFER.ordinal();
+  private static final int VERTEX_ARRAY = GlBindingTarget.VERTEX_ARRAY.ordinal();
+  private static final int PROGRAM = GlBindingTarget.PROGRAM.ordinal();
+
+  /**
+   * Vertex array objects with a higher name don't get their element array buffer cached, names are
+   * handed out in ascending order by the drivers, so this is never reached in practice.
+   */
+  private static final int MAX_CACHED_VERTEX_ARRAY = 4096;
+  private static final int UNKNOWN = -1;
+
+  private final int[] bindings;
+  private final boolean[] known;
+
+  /** The element array buffer of every vertex array object by its name, -1 if it is unknown. */
+  private int[] elementArrayBuffers;
+
+  private int depth;
+  private boolean frameScope;
+  private long avoidedQueries;
+  private long avoidedBinds;
+
+  protected DefaultGlStateTracker() {
+    int targets = GlBindingTarget.values().length;
+    this.bindings = new int[targets];
+    this.known = new boolean[targets];
+    this.elementArrayBuffers = new int[16];
+    Arrays.fill(this.elementArrayBuffers, UNKNOWN);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getBinding(GlBindingTarget target) {
+    int index = target.ordinal();
+    if (this.known[index]) {
+      this.avoidedQueries++;
+      return this.bindings[index];
+    }
+
+    int id = this.queryBinding(target);
+    this.remember(index, id);
+    return id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void bind(GlBindingTarget target, int id) {
+    int index = target.ordinal();
+    if (this.known[index] && this.bindings[index] == id) {
+      this.avoidedBinds++;
+      return;
+    }
+
+    this.bindTarget(target, id);
+    this.remember(index, id);
+
+    if (index == VERTEX_ARRAY) {
+      // the element array buffer binding is stored in the vertex array object
+      int elementArrayBuffer = this.getElementArrayBuffer(id);
+      this.known[ELEMENT_ARRAY_BUFFER] = this.known[index] && elementArrayBuffer != UNKNOWN;
+      this.bindings[ELEMENT_ARRAY_BUFFER] = Math.max(elementArrayBuffer, 0);
+    }
+  }
+
+  private void remember(int index, int id) {
+    // outside of a scope, anything might change the binding before the next call
+    this.known[index] = this.depth > 0;
+    this.bindings[index] = id;
+
+    if (index == ELEMENT_ARRAY_BUFFER && this.known[index] && this.known[VERTEX_ARRAY]) {
+      this.setElementArrayBuffer(this.bindings[VERTEX_ARRAY], id);
+    }
+  }
+
+  private int getElementArrayBuffer(int vertexArray) {
+    return vertexArray < this.elementArrayBuffers.length
+        ? this.elementArrayBuffers[vertexArray]
+        : UNKNOWN;
+  }
+
+  private void setElementArrayBuffer(int vertexArray, int elementArrayBuffer) {
+    if (vertexArray >= this.elementArrayBuffers.length) {
+      if (vertexArray >= MAX_CACHED_VERTEX_ARRAY) {
+        return;
+      }
+
+      int length = this.elementArrayBuffers.length;
+      this.elementArrayBuffers = Arrays.copyOf(
+          this.elementArrayBuffers, Math.min(Math.max(length * 2, vertexArray + 1),
+              MAX_CACHED_VERTEX_ARRAY));
+      Arrays.fill(this.elementArrayBuffers, length, this.elementArrayBuffers.length, UNKNOWN);
+    }
+
+    this.elementArrayBuffers[vertexArray] = elementArrayBuffer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int push(GlBindingTarget target, int id) {
+    this.beginScope();
+    int previous = this.getBinding(target);
+    this.bind(target, id);
+    return previous;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void pop(GlBindingTarget target, int previous) {
+    if (this.depth == 0) {
+      throw new IllegalStateException("There is no scope to be closed");
+    }
+    this.bind(target, Math.max(previous, 0));
+    this.endScope();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void release(GlBindingTarget target, int id) {
+    int index = target.ordinal();
+    if (this.bindings[index] == id) {
+      this.bindings[index] = 0;
+    }
+
+    if (index == VERTEX_ARRAY) {
+      if (id < this.elementArrayBuffers.length) {
+        this.elementArrayBuffers[id] = UNKNOWN;
+      }
+    } else if (index == ELEMENT_ARRAY_BUFFER) {
+      // only the bound vertex array object is guaranteed to lose the deleted buffer
+      for (int i = 0; i < this.elementArrayBuffers.length; i++) {
+        if (this.elementArrayBuffers[i] == id) {
+          this.elementArrayBuffers[i] = UNKNOWN;
+        }
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void beginScope() {
+    this.depth++;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void endScope() {
+    if (this.depth == 0) {
+      throw new IllegalStateException("There is no scope to be closed");
+    }
+    if (--this.depth == 0) {
+      this.invalidate();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void invalidate() {
+    Arrays.fill(this.known, false);
+    Arrays.fill(this.elementArrayBuffers, UNKNOWN);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getAvoidedQueries() {
+    return this.avoidedQueries;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getAvoidedBinds() {
+    return this.avoidedBinds;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void resetStatistics() {
+    this.avoidedQueries = 0;
+    this.avoidedBinds = 0;
+  }
+
+  /**
+   * Opens the scope of a frame that is rendered by Minecraft, called before every frame.
+   */
+  protected void beginFrame() {
+    if (this.frameScope || this.depth != 0) {
+      // the previous frame has been aborted by an exception before its scopes were closed
+      this.depth = 0;
+      this.invalidate();
+    }
+
+    this.resetStatistics();
+    this.beginScope();
+    this.frameScope = true;
+  }
+
+  /**
+   * Closes the scope of the frame that is rendered by Minecraft, called after every frame.
+   */
+  protected void endFrame() {
+    if (this.frameScope) {
+      this.frameScope = false;
+      this.endScope();
+    }
+  }
+
+  /**
+   * Drops the cached buffer bindings, called whenever Minecraft binds a buffer without this
+   * tracker. The cache of the frame scope stays valid for every target that Minecraft didn't
+   * change.
+   */
+  protected void invalidateBuffers() {
+    this.known[ARRAY_BUFFER] = false;
+    this.known[ELEMENT_ARRAY_BUFFER] = false;
+    // the buffer may have been bound to any vertex array object
+    Arrays.fill(this.elementArrayBuffers, UNKNOWN);
+  }
+
+  /**
+   * Drops the cached shader program, called whenever Minecraft uses a program without this tracker.
+   */
+  protected void invalidateProgram() {
+    this.known[PROGRAM] = false;
+  }
+
+  /**
+   * Queries the OpenGL name that is currently bound to the given target from the driver.
+   *
+   * @param target the target to get the binding of
+   * @return the OpenGL name bound to the target, 0 if nothing is bound
+   */
+  protected abstract int queryBinding(GlBindingTarget target);
+
+  /**
+   * Binds the given OpenGL name to the target.
+   *
+   * @param target the target to bind the name to
+   * @param id     the OpenGL name to be bound, 0 to unbind
+   */
+  protected abstract void bindTarget(GlBindingTarget target, int id);
+}
@@ -0,0 +1,524 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
+import net.flintmc.render.vbo.VboBatchRenderer;
+import net.flintmc.render.vbo.VboDrawMode;
+import net.flintmc.render.vbo.VboUsage;
+import net.flintmc.render.vbo.VertexArrayObject;
+import net.flintmc.render.vbo.VertexBufferObject;
+import net.flintmc.render.vbo.VertexFormat;
+import net.flintmc.render.vbo.VertexIndexObject;
+
+/**
+ * Base implementation of the {@link VboBatchRenderer} that manages the shared buffers and decides
+ * which parts of them need to be uploaded. The OpenGL calls are left to the versioned
+ * implementations.
+ */
+public abstract class DefaultVboBatchRenderer implements VboBatchRenderer {
+
+  private static final int MODES = VboDrawMode.values().length;
+  // about 20 seconds at 60 frames per second
+  private static final int IDLE_FLUSHES = 1200;
+
+  private final GlStateTracker stateTracker;
+  private final Map<VertexFormat, Batch[]> batches;
+  private final List<Batch> activeBatches;
+
+  private int objectCount;
+  private int drawCallCount;
+  private long flushCount;
+  private boolean deleted;
+
+  protected DefaultVboBatchRenderer(GlStateTracker stateTracker) {
+    this.stateTracker = stateTracker;
+    this.batches = new HashMap<>();
+    this.activeBatches = new ArrayList<>();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void submit(VertexArrayObject vao, VertexIndexObject ebo) {
+    if (this.deleted) {
+      throw new IllegalStateException("The batch renderer was already deleted.");
+    }
+
+    VertexFormat format = vao.getFormat();
+    Batch[] formatBatches = this.batches.computeIfAbsent(format, key -> new Batch[MODES]);
+    int mode = ebo.getDrawMode().ordinal();
+    Batch batch = formatBatches[mode];
+    if (batch == null) {
+      batch = formatBatches[mode] = new Batch(format, ebo.getDrawMode());
+    }
+
+    if (batch.objects == 0) {
+      this.activeBatches.add(batch);
+    }
+    batch.add(vao.getVBO(), ebo);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void flush() {
+    this.objectCount = 0;
+    this.drawCallCount = 0;
+    this.flushCount++;
+    this.evictIdleBatches();
+    if (this.activeBatches.isEmpty()) {
+      return;
+    }
+
+    // nothing else touches the bindings until every batch is drawn
+    this.stateTracker.beginScope();
+    try {
+      for (Batch batch : this.activeBatches) {
+        this.objectCount += batch.objects;
+        this.drawCallCount++;
+        batch.lastFlush = this.flushCount;
+        batch.draw();
+      }
+    } finally {
+      for (Batch batch : this.activeBatches) {
+        batch.clear();
+      }
+      this.activeBatches.clear();
+      this.stateTracker.endScope();
+    }
+  }
+
+  /**
+   * Deletes the batches of formats and draw modes that haven't been drawn for a while, for example
+   * because the objects with this format are not rendered anymore.
+   */
+  private void evictIdleBatches() {
+    Iterator<Batch[]> iterator = this.batches.values().iterator();
+    while (iterator.hasNext()) {
+      Batch[] formatBatches = iterator.next();
+      boolean empty = true;
+      for (int mode = 0; mode < MODES; mode++) {
+        Batch batch = formatBatches[mode];
+        if (batch == null) {
+          continue;
+        }
+        if (batch.objects == 0 && this.flushCount - batch.lastFlush > IDLE_FLUSHES) {
+          batch.delete();
+          formatBatches[mode] = null;
+        } else {
+          empty = false;
+        }
+      }
+
+      if (empty) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getObjectCount() {
+    return this.objectCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getDrawCallCount() {
+    return this.drawCallCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void delete() {
+    if (this.deleted) {
+      throw new IllegalStateException("The batch renderer was already deleted.");
+    }
+    for (Batch[] formatBatches : this.batches.values()) {
+      for (Batch batch : formatBatches) {
+        if (batch != null) {
+          batch.delete();
+        }
+      }
+    }
+    this.batches.clear();
+    this.activeBatches.clear();
+    this.deleted = true;
+  }
+
+  /**
+   * Generates a new OpenGL buffer.
+   *
+   * @return the OpenGL name of the new buffer
+   */
+  protected abstract int generateBuffer();
+
+  /**
+   * Allocates the storage of the buffer that is bound to the given target for {@link
+   * VboUsage#DYNAMIC} usage, the previous contents of the buffer are discarded.
+   *
+   * @param target the target the buffer is bound to, either {@link GlBindingTarget#ARRAY_BUFFER}
+   *               or {@link GlBindingTarget#ELEMENT_ARRAY_BUFFER}
+   * @param bytes  the size of the new storage in bytes
+   */
+  protected abstract void allocate(GlBindingTarget target, long bytes);
+
+  /**
+   * Uploads vertices into the bound array buffer.
+   *
+   * @param byteOffset the offset in the buffer to upload the vertices to
+   * @param vertices   the vertices between the position and the limit of the buffer
+   */
+  protected abstract void uploadVertices(long byteOffset, FloatBuffer vertices);
+
+  /**
+   * Uploads indices into the bound element array buffer.
+   *
+   * @param byteOffset the offset in the buffer to upload the indices to
+   * @param indices    the indices between the position and the limit of the buffer
+   */
+  protected abstract void uploadIndices(long byteOffset, IntBuffer indices);
+
+  /**
+   * Draws the first indices of the bound element array buffer with one call.
+   *
+   * @param drawMode   the draw mode of the indices, either {@link VboDrawMode#TRIANGLES} or {@link
+   *                   VboDrawMode#QUADS}
+   * @param indexCount the number of indices to be drawn
+   */
+  protected abstract void drawElements(VboDrawMode drawMode, int indexCount);
+
+  /**
+   * Draws multiple polygons from the bound element array buffer with one call.
+   *
+   * @param counts      the number of indices of every polygon between the position and the limit
+   *                    of the buffer
+   * @param byteOffsets the offset of the first index of every polygon in the element array buffer,
+   *                    only the first entries for the remaining counts are used
+   */
+  protected abstract void drawPolygons(IntBuffer counts, long[] byteOffsets);
+
+  /**
+   * Deletes an OpenGL buffer that has been created with {@link #generateBuffer()}.
+   *
+   * @param id the OpenGL name of the buffer
+   */
+  protected abstract void deleteBuffer(int id);
+
+  /**
+   * Deletes an OpenGL vertex array object.
+   *
+   * @param id the OpenGL name of the vertex array object
+   */
+  protected abstract void deleteVertexArray(int id);
+
+  private static FloatBuffer allocateFloats(int floats) {
+    return ByteBuffer.allocateDirect(floats * Float.BYTES)
+        .order(ByteOrder.nativeOrder())
+        .asFloatBuffer();
+  }
+
+  private static IntBuffer allocateInts(int ints) {
+    return ByteBuffer.allocateDirect(ints * Integer.BYTES)
+        .order(ByteOrder.nativeOrder())
+        .asIntBuffer();
+  }
+
+  /**
+   * The shared buffers of all submitted objects with the same format and draw mode. The buffers and
+   * the objects in them are kept after a flush, objects that are submitted again unchanged at the
+   * same position are neither copied nor uploaded again.
+   */
+  private class Batch {
+
+    private final VertexFormat format;
+    private final VboDrawMode drawMode;
+    private final int vao;
+    private final int vbo;
+    private final int ebo;
+    private final List<Slot> slots;
+
+    private FloatBuffer vertices;
+    private IntBuffer indices;
+    private int vertexCount;
+    private int objects;
+    private boolean configured;
+    private long lastFlush;
+
+    // the ranges of the buffers that have been changed since they have been uploaded
+    private int dirtyVerticesStart;
+    private int dirtyVerticesEnd;
+    private int dirtyIndicesStart;
+    private int dirtyIndicesEnd;
+    private int gpuVertexCapacity;
+    private int gpuIndexCapacity;
+
+    // the index range of every object, only needed for polygons which can't be concatenated
+    private IntBuffer counts;
+    private long[] offsets;
+
+    private Batch(VertexFormat format, VboDrawMode drawMode) {
+      this.format = format;
+      this.drawMode = drawMode;
+      this.vao = format.createVAO();
+      this.vbo = generateBuffer();
+      this.ebo = generateBuffer();
+      this.slots = new ArrayList<>();
+      this.vertices = allocateFloats(64 * format.getVertexSize());
+      this.indices = allocateInts(256);
+      this.lastFlush = flushCount;
+      this.markClean();
+      if (drawMode == VboDrawMode.POLYGON) {
+        this.counts = allocateInts(16);
+        this.offsets = new long[16];
+      }
+    }
+
+    private void add(VertexBufferObject source, VertexIndexObject ebo) {
+      int floats = source.getVertexCount() * this.format.getVertexSize();
+      List<Integer> sourceIndices = ebo.getIndices();
+      int size = sourceIndices.size();
+
+      if (this.offsets != null) {
+        if (!this.counts.hasRemaining()) {
+          IntBuffer grownCounts = allocateInts(this.counts.capacity() * 2);
+          this.counts.flip();
+          grownCounts.put(this.counts);
+          this.counts = grownCounts;
+
+          this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+        }
+        this.offsets[this.counts.position()] = (long) this.indices.position() * Integer.BYTES;
+        this.counts.put(size);
+      }
+
+      // only vertex buffer objects that track their changes can be reused without copying them
+      int modificationCount =
+          source instanceof DefaultVertexBufferObject
+              ? ((DefaultVertexBufferObject) source).getModificationCount()
+              : -1;
+      Slot slot = this.objects < this.slots.size() ? this.slots.get(this.objects) : null;
+      if (modificationCount != -1
+          && slot != null
+          && slot.source == source
+          && slot.modificationCount == modificationCount
+          && slot.floats == floats
+          && slot.indexCount == size
+          && slot.vertexStart == this.vertices.position()
+          && slot.indexStart == this.indices.position()
+          && this.containsIndices(slot.indexStart, sourceIndices, this.vertexCount)) {
+        // the same object at the same position as in the previous flush, the buffers still
+        // contain its vertices and indices
+        this.vertices.position(this.vertices.position() + floats);
+        this.indices.position(this.indices.position() + size);
+        this.vertexCount += source.getVertexCount();
+        this.objects++;
+        return;
+      }
+
+      // the whole previous buffer is copied when growing, as the following objects may still be
+      // reused from the previous flush
+      if (this.vertices.remaining() < floats) {
+        int capacity = Math.max(this.vertices.capacity() * 2, this.vertices.position() + floats);
+        FloatBuffer grown = allocateFloats(capacity);
+        int position = this.vertices.position();
+        this.vertices.clear();
+        grown.put(this.vertices);
+        grown.position(position);
+        this.vertices = grown;
+      }
+
+      if (this.indices.remaining() < size) {
+        int capacity = Math.max(this.indices.capacity() * 2, this.indices.position() + size);
+        IntBuffer grown = allocateInts(capacity);
+        int position = this.indices.position();
+        this.indices.clear();
+        grown.put(this.indices);
+        grown.position(position);
+        this.indices = grown;
+      }
+
+      int vertexStart = this.vertices.position();
+      int indexStart = this.indices.position();
+
+      // the indices of every object start at its first vertex in the shared buffer
+      int baseVertex = this.vertexCount;
+      for (int i = 0; i < size; i++) {
+        this.indices.put(sourceIndices.get(i) + baseVertex);
+      }
+      source.writeVertices(this.vertices);
+
+      this.dirtyVerticesStart = Math.min(this.dirtyVerticesStart, vertexStart);
+      this.dirtyVerticesEnd = Math.max(this.dirtyVerticesEnd, vertexStart + floats);
+      this.dirtyIndicesStart = Math.min(this.dirtyIndicesStart, indexStart);
+      this.dirtyIndicesEnd = Math.max(this.dirtyIndicesEnd, indexStart + size);
+
+      if (slot == null) {
+        slot = new Slot();
+        this.slots.add(slot);
+      }
+      slot.source = source;
+      slot.modificationCount = modificationCount;
+      slot.vertexStart = vertexStart;
+      slot.floats = floats;
+      slot.indexStart = indexStart;
+      slot.indexCount = size;
+
+      this.vertexCount += source.getVertexCount();
+      this.objects++;
+    }
+
+    private void draw() {
+      int previousVao = stateTracker.push(GlBindingTarget.VERTEX_ARRAY, this.vao);
+      int previousVbo = stateTracker.push(GlBindingTarget.ARRAY_BUFFER, this.vbo);
+      // the element array buffer is part of the state of the vertex array object and doesn't need
+      // to be restored
+      stateTracker.bind(GlBindingTarget.ELEMENT_ARRAY_BUFFER, this.ebo);
+      try {
+        if (!this.configured) {
+          this.format.pushToGPU(this.vao);
+          this.configured = true;
+        }
+
+        this.updateVertices();
+        this.updateIndices();
+        this.markClean();
+
+        if (this.drawMode == VboDrawMode.POLYGON) {
+          this.counts.flip();
+          drawPolygons(this.counts, this.offsets);
+        } else {
+          drawElements(this.drawMode, this.indices.position());
+        }
+      } finally {
+        stateTracker.pop(GlBindingTarget.ARRAY_BUFFER, previousVbo);
+        stateTracker.pop(GlBindingTarget.VERTEX_ARRAY, previousVao);
+      }
+    }
+
+    private void updateVertices() {
+      FloatBuffer used = this.vertices.duplicate();
+      used.flip();
+      if (this.vertices.capacity() > this.gpuVertexCapacity) {
+        // the storage has grown, allocate it for the whole capacity of the shared buffer so that
+        // it doesn't need to be allocated again for every new object
+        allocate(GlBindingTarget.ARRAY_BUFFER, (long) this.vertices.capacity() * Float.BYTES);
+        uploadVertices(0, used);
+        this.gpuVertexCapacity = this.vertices.capacity();
+      } else if (this.dirtyVerticesStart < Math.min(this.dirtyVerticesEnd, used.limit())) {
+        used.limit(Math.min(this.dirtyVerticesEnd, used.limit()));
+        used.position(this.dirtyVerticesStart);
+        uploadVertices((long) this.dirtyVerticesStart * Float.BYTES, used);
+      }
+    }
+
+    private void updateIndices() {
+      IntBuffer used = this.indices.duplicate();
+      used.flip();
+      if (this.indices.capacity() > this.gpuIndexCapacity) {
+        allocate(
+            GlBindingTarget.ELEMENT_ARRAY_BUFFER, (long) this.indices.capacity() * Integer.BYTES);
+        uploadIndices(0, used);
+        this.gpuIndexCapacity = this.indices.capacity();
+      } else if (this.dirtyIndicesStart < Math.min(this.dirtyIndicesEnd, used.limit())) {
+        used.limit(Math.min(this.dirtyIndicesEnd, used.limit()));
+        used.position(this.dirtyIndicesStart);
+        uploadIndices((long) this.dirtyIndicesStart * Integer.BYTES, used);
+      }
+    }
+
+    /**
+     * Checks whether the indices of the shared buffer at the given position are the given indices
+     * of an object starting at the given vertex. The indices are compared instead of the index
+     * object, because the indices of an object may be changed until it has been pushed.
+     */
+    private boolean containsIndices(int indexStart, List<Integer> sourceIndices, int baseVertex) {
+      for (int i = 0; i < sourceIndices.size(); i++) {
+        if (this.indices.get(indexStart + i) != sourceIndices.get(i) + baseVertex) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void markClean() {
+      this.dirtyVerticesStart = Integer.MAX_VALUE;
+      this.dirtyVerticesEnd = 0;
+      this.dirtyIndicesStart = Integer.MAX_VALUE;
+      this.dirtyIndicesEnd = 0;
+    }
+
+    private void clear() {
+      // objects that haven't been submitted again don't need to be compared in the next flush
+      this.slots.subList(this.objects, this.slots.size()).clear();
+
+      this.vertices.clear();
+      this.indices.clear();
+      if (this.counts != null) {
+        this.counts.clear();
+      }
+      this.vertexCount = 0;
+      this.objects = 0;
+    }
+
+    private void delete() {
+      deleteBuffer(this.vbo);
+      deleteBuffer(this.ebo);
+      deleteVertexArray(this.vao);
+      stateTracker.release(GlBindingTarget.ARRAY_BUFFER, this.vbo);
+      stateTracker.release(GlBindingTarget.ELEMENT_ARRAY_BUFFER, this.ebo);
+      stateTracker.release(GlBindingTarget.VERTEX_ARRAY, this.vao);
+      this.slots.clear();
+    }
+  }
+
+  /**
+   * An object that has been copied into the shared buffers of a batch.
+   */
+  private static class Slot {
+
+    private VertexBufferObject source;
+    private int modificationCount;
+    private int vertexStart;
+    private int floats;
+    private int indexStart;
+    private int indexCount;
+  }
+}
@@ -0,0 +1,345 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.internal;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
+import net.flintmc.render.vbo.VboUsage;
+import net.flintmc.render.vbo.VertexBufferObject;
+import net.flintmc.render.vbo.VertexBuilder;
+import net.flintmc.render.vbo.VertexFormat;
+
+/**
+ * Base implementation of the {@link VertexBufferObject} that keeps track of the vertices and
+ * decides which of them need to be uploaded. The OpenGL calls are left to the versioned
+ * implementations.
+ */
+public abstract class DefaultVertexBufferObject implements VertexBufferObject {
+
+  private final VertexFormat vertexFormat;
+  private final VertexBuilder.Factory vertexBuilderFactory;
+  private final GlStateTracker stateTracker;
+  private final VboUsage usage;
+  private final int id;
+  private final PackedVertexBuilder packedBuilder;
+  private final float[] packedScratch;
+
+  private List<VertexBuilder> vertices;
+  private boolean isAvailable;
+  private boolean deleted;
+  private int previousVbo;
+  private long gpuCapacity;
+  private int modificationCount;
+
+  protected DefaultVertexBufferObject(
+      VertexFormat vertexFormat,
+      boolean packed,
+      VboUsage usage,
+      VertexBuilder.Factory vertexBuilderFactory,
+      GlStateTracker stateTracker) {
+    this.vertexFormat = vertexFormat;
+    this.vertexBuilderFactory = vertexBuilderFactory;
+    this.stateTracker = stateTracker;
+    this.usage = usage;
+    this.vertices = packed ? null : new ArrayList<>();
+    this.packedBuilder = packed ? new PackedVertexBuilder(this) : null;
+    this.packedScratch = packed ? new float[vertexFormat.getVertexSize()] : null;
+    this.id = this.generateBuffer();
+    this.isAvailable = false;
+    this.deleted = false;
+  }
+
+  /**
+   * Generates the OpenGL buffer of this vertex buffer object.
+   *
+   * @return the OpenGL name of the new buffer
+   */
+  protected abstract int generateBuffer();
+
+  /**
+   * Replaces the storage of the bound buffer with the given vertices using GL_STATIC_DRAW.
+   *
+   * @param vertices the vertices to be uploaded
+   */
+  protected abstract void uploadStatic(float[] vertices);
+
+  /**
+   * Replaces the storage of the bound buffer with the given vertices using GL_STATIC_DRAW.
+   *
+   * @param vertices the vertices to be uploaded from the position to the limit of the buffer
+   */
+  protected abstract void uploadStatic(FloatBuffer vertices);
+
+  /**
+   * Allocates new uninitialized storage for the bound buffer, the previous storage is orphaned.
+   *
+   * @param bytes the size of the new storage in bytes
+   * @param usage the usage of the new storage
+   */
+  protected abstract void allocate(long bytes, VboUsage usage);
+
+  /**
+   * Uploads vertices into a range of the storage of the bound buffer.
+   *
+   * @param byteOffset the offset in bytes of the range in the storage
+   * @param vertices   the vertices to be uploaded from the position to the limit of the buffer
+   */
+  protected abstract void uploadRange(long byteOffset, FloatBuffer vertices);
+
+  /**
+   * Deletes the OpenGL buffer of this vertex buffer object.
+   *
+   * @param id the OpenGL name of the buffer
+   */
+  protected abstract void deleteBuffer(int id);
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder addVertex() {
+    if (isAvailable && this.usage == VboUsage.STATIC) {
+      throw new IllegalStateException(
+          "This VBO is already pushed to the GPU, vertices can't be added anymore.");
+    }
+    this.modificationCount++;
+    if (this.packedBuilder != null) {
+      return this.packedBuilder.beginVertex();
+    }
+    VertexBuilder builder = this.vertexBuilderFactory.create(this);
+    this.vertices.add(builder);
+    return builder;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void addVertex(VertexBuilder vertexBuilder) {
+    if (isAvailable && this.usage == VboUsage.STATIC) {
+      throw new IllegalStateException(
+          "This VBO is already pushed to the GPU, vertices can't be added anymore.");
+    }
+    this.modificationCount++;
+    if (this.packedBuilder != null) {
+      vertexBuilder.write(this.packedScratch, 0);
+      this.packedBuilder.addVertex(this.packedScratch);
+      return;
+    }
+    this.vertices.add(vertexBuilder);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<VertexBuilder> getVertices() {
+    if (this.packedBuilder != null) {
+      throw new UnsupportedOperationException(
+          "The vertices of a VBO with packed vertex storage are not available as VertexBuilders.");
+    }
+    return Collections.unmodifiableList(this.vertices);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getVertexCount() {
+    if (this.packedBuilder != null) {
+      return this.packedBuilder.getVertexCount();
+    }
+    return this.vertices.size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void writeVertices(FloatBuffer buffer) {
+    if (this.packedBuilder != null) {
+      buffer.put(this.packedBuilder.finish());
+      return;
+    }
+
+    VertexBufferObject.super.writeVertices(buffer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder editVertex(int index) {
+    this.checkMutable();
+    VertexBuilder builder = this.packedBuilder.beginEdit(index);
+    this.modificationCount++;
+    return builder;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void clearVertices() {
+    this.checkMutable();
+    this.packedBuilder.clear();
+    this.modificationCount++;
+  }
+
+  /**
+   * Retrieves a counter that is changed whenever a vertex is added, rewritten or removed, so that
+   * copies of the vertices can be reused as long as the counter didn't change.
+   *
+   * @return the modification counter of the vertices
+   */
+  public int getModificationCount() {
+    return this.modificationCount;
+  }
+
+  private void checkMutable() {
+    if (this.usage == VboUsage.STATIC) {
+      throw new IllegalStateException(
+          "The vertices of a VBO with static usage can't be changed in place.");
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void pushToGPU() {
+    if (this.packedBuilder != null) {
+      this.pushPacked();
+      return;
+    }
+
+    int totalSize = vertices.size() * vertexFormat.getVertexSize();
+    float[] buffer = new float[totalSize];
+    int offset = 0;
+    for (VertexBuilder vertex : this.vertices) {
+      offset += vertex.write(buffer, offset);
+    }
+
+    this.uploadStatic(buffer);
+
+    this.isAvailable = true;
+  }
+
+  private void pushPacked() {
+    FloatBuffer vertices = this.packedBuilder.finish();
+
+    if (this.usage == VboUsage.STATIC) {
+      this.uploadStatic(vertices);
+    } else if (!this.isAvailable
+        || this.usage == VboUsage.STREAM
+        || (long) vertices.remaining() * Float.BYTES > this.gpuCapacity) {
+      // (re)allocate the storage for the whole packed buffer, so that adding vertices doesn't need
+      // a new allocation every time; for streaming this orphans the storage that may still be used
+      // by previous draw calls instead of waiting for them
+      this.gpuCapacity =
+          Math.max(this.gpuCapacity, (long) this.packedBuilder.getCapacity() * Float.BYTES);
+      this.allocate(this.gpuCapacity, this.usage);
+      this.uploadRange(0, vertices);
+    } else if (this.packedBuilder.isDirty()) {
+      this.uploadRange(
+          (long) this.packedBuilder.getDirtyStart() * Float.BYTES,
+          this.packedBuilder.finishDirty());
+    }
+
+    this.packedBuilder.markClean();
+    this.isAvailable = true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isDirty() {
+    if (this.packedBuilder != null && this.packedBuilder.isDirty()) {
+      return true;
+    }
+    return !this.isAvailable;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VboUsage getUsage() {
+    return this.usage;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getID() {
+    return this.id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void bind() {
+    this.previousVbo = this.stateTracker.push(GlBindingTarget.ARRAY_BUFFER, this.id);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void unbind() {
+    this.stateTracker.pop(GlBindingTarget.ARRAY_BUFFER, this.previousVbo);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isAvailable() {
+    return this.isAvailable;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexFormat getFormat() {
+    return this.vertexFormat;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void delete() {
+    if (this.deleted) {
+      throw new IllegalStateException("The VBO was already deleted.");
+    }
+    this.deleteBuffer(this.id);
+    this.stateTracker.release(GlBindingTarget.ARRAY_BUFFER, this.id);
+    this.deleted = true;
+  }
+}
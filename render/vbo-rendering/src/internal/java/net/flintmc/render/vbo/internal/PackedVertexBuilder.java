@@ -0,0 +1,566 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.List;
+import net.flintmc.render.vbo.VertexAttribute;
+import net.flintmc.render.vbo.VertexAttributes;
+import net.flintmc.render.vbo.VertexBufferObject;
+import net.flintmc.render.vbo.VertexBuilder;
+import net.flintmc.render.vbo.VertexFormat;
+
+/**
+ * {@link VertexBuilder} that writes every vertex of a {@link VertexBufferObject} directly into a
+ * single growable off-heap {@link FloatBuffer} laid out according to the {@link VertexFormat}. The
+ * same instance is reused for every vertex of the vertex buffer object, the offsets of the
+ * attributes in a vertex are computed once from the format, so adding vertices doesn't allocate
+ * anything except for growing the buffer. Vertices can also be rewritten in place, the range of
+ * floats that has been changed since {@link #markClean()} is tracked so that only this range needs
+ * to be uploaded again.
+ */
+public class PackedVertexBuilder implements VertexBuilder {
+
+  private static final int INITIAL_VERTEX_CAPACITY = 64;
+
+  private static final int POSITION3F = 0;
+  private static final int POSITION4F = 1;
+  private static final int NORMAL = 2;
+  private static final int COLOR_RGB = 3;
+  private static final int COLOR_RGBA = 4;
+  private static final int TEXTURE_UV = 5;
+  private static final int CUSTOM = 6;
+  private static final int KINDS = 7;
+
+  private final VertexBufferObject vbo;
+  private final int vertexSize;
+  private final int[][] offsets;
+  private final int[][] sizes;
+  private final int[] written;
+  private final int[] read;
+  private final PackedAttributeValueHandler[] handlers;
+
+  private FloatBuffer buffer;
+  private int vertexCount;
+  private int vertexStart;
+  private boolean editing;
+  private int dirtyStart;
+  private int dirtyEnd;
+
+  /**
+   * Creates a new packed vertex builder without any vertex.
+   *
+   * @param vbo the vertex buffer object the vertices belong to
+   */
+  public PackedVertexBuilder(VertexBufferObject vbo) {
+    this.vbo = vbo;
+
+    VertexFormat format = vbo.getFormat();
+    List<VertexAttribute> attributes = format.getAttributes();
+
+    int[] counts = new int[KINDS];
+    for (VertexAttribute attribute : attributes) {
+      counts[this.getKind(attribute)]++;
+    }
+
+    this.offsets = new int[KINDS][];
+    this.sizes = new int[KINDS][];
+    for (int kind = 0; kind < KINDS; kind++) {
+      this.offsets[kind] = new int[counts[kind]];
+      this.sizes[kind] = new int[counts[kind]];
+    }
+
+    int[] indices = new int[KINDS];
+    int offset = 0;
+    for (VertexAttribute attribute : attributes) {
+      int kind = this.getKind(attribute);
+      this.offsets[kind][indices[kind]] = offset;
+      this.sizes[kind][indices[kind]++] = attribute.getSize();
+      offset += attribute.getSize();
+    }
+    this.vertexSize = offset;
+
+    this.written = new int[KINDS];
+    this.read = new int[KINDS];
+    this.handlers = new PackedAttributeValueHandler[KINDS];
+    for (int kind = 0; kind < KINDS; kind++) {
+      this.handlers[kind] = new PackedAttributeValueHandler(kind);
+    }
+
+    this.buffer = this.allocate(INITIAL_VERTEX_CAPACITY * this.vertexSize);
+    this.markClean();
+  }
+
+  private int getKind(VertexAttribute attribute) {
+    if (attribute == VertexAttributes.POSITION3F) {
+      return POSITION3F;
+    } else if (attribute == VertexAttributes.POSITION4F) {
+      return POSITION4F;
+    } else if (attribute == VertexAttributes.NORMAL) {
+      return NORMAL;
+    } else if (attribute == VertexAttributes.COLOR_RGB) {
+      return COLOR_RGB;
+    } else if (attribute == VertexAttributes.COLOR_RGBA) {
+      return COLOR_RGBA;
+    } else if (attribute == VertexAttributes.TEXTURE_UV) {
+      return TEXTURE_UV;
+    }
+    return CUSTOM;
+  }
+
+  /**
+   * Completes the current vertex and starts a new one at the end of the buffer.
+   *
+   * @return this builder
+   * @throws IllegalStateException if the current vertex doesn't contain every attribute of the
+   *                               format
+   */
+  public VertexBuilder beginVertex() {
+    if (this.vertexCount != 0 && !this.editing) {
+      this.checkComplete();
+    }
+
+    this.ensureCapacity((this.vertexCount + 1) * this.vertexSize);
+    this.vertexStart = this.vertexCount * this.vertexSize;
+    this.vertexCount++;
+    this.editing = false;
+
+    this.resetVertex();
+    return this;
+  }
+
+  /**
+   * Completes the current vertex and starts to rewrite an existing vertex. Attributes that are not
+   * written keep their previous values.
+   *
+   * @param index the index of the vertex to be rewritten
+   * @return this builder
+   * @throws IndexOutOfBoundsException if there is no vertex with the given index
+   * @throws IllegalStateException     if the current vertex doesn't contain every attribute of the
+   *                                   format
+   */
+  public VertexBuilder beginEdit(int index) {
+    if (index < 0 || index >= this.vertexCount) {
+      throw new IndexOutOfBoundsException(
+          "Vertex " + index + " doesn't exist, there are " + this.vertexCount + " vertices");
+    }
+    if (!this.editing) {
+      this.checkComplete();
+    }
+
+    this.vertexStart = index * this.vertexSize;
+    this.editing = true;
+
+    this.resetVertex();
+    return this;
+  }
+
+  /**
+   * Removes every vertex from this builder, the buffer is kept for the vertices that are added
+   * afterwards.
+   */
+  public void clear() {
+    this.vertexCount = 0;
+    this.vertexStart = 0;
+    this.editing = false;
+    this.markClean();
+  }
+
+  private void resetVertex() {
+    for (int kind = 0; kind < KINDS; kind++) {
+      this.written[kind] = 0;
+      this.read[kind] = 0;
+    }
+
+    this.dirtyStart = Math.min(this.dirtyStart, this.vertexStart);
+    this.dirtyEnd = Math.max(this.dirtyEnd, this.vertexStart + this.vertexSize);
+  }
+
+  /**
+   * Adds a new vertex with every attribute of the format.
+   *
+   * @param values the values of the attributes in the order of the format, at least as many as the
+   *               size of the vertex
+   */
+  public void addVertex(float[] values) {
+    this.beginVertex();
+    for (int i = 0; i < this.vertexSize; i++) {
+      this.buffer.put(this.vertexStart + i, values[i]);
+    }
+    for (int kind = 0; kind < KINDS; kind++) {
+      this.written[kind] = this.offsets[kind].length;
+    }
+  }
+
+  /**
+   * Retrieves the number of floats in a vertex of the format of this builder.
+   *
+   * @return the size of a vertex
+   */
+  public int getVertexSize() {
+    return this.vertexSize;
+  }
+
+  /**
+   * Retrieves the number of vertices that have been added to this builder.
+   *
+   * @return the number of vertices
+   */
+  public int getVertexCount() {
+    return this.vertexCount;
+  }
+
+  /**
+   * Retrieves the number of floats that fit into the buffer of this builder without growing it.
+   *
+   * @return the capacity of the buffer
+   */
+  public int getCapacity() {
+    return this.buffer.capacity();
+  }
+
+  /**
+   * Retrieves whether vertices have been added or rewritten since {@link #markClean()}.
+   *
+   * @return {@code true} if there is a changed range, {@code false} otherwise
+   */
+  public boolean isDirty() {
+    return this.dirtyStart < Math.min(this.dirtyEnd, this.vertexCount * this.vertexSize);
+  }
+
+  /**
+   * Retrieves the index of the first float that has been changed since {@link #markClean()}.
+   *
+   * @return the start of the changed range
+   */
+  public int getDirtyStart() {
+    return this.dirtyStart;
+  }
+
+  /**
+   * Completes the current vertex and retrieves a view of the floats that have been changed since
+   * {@link #markClean()}, the view starts at {@link #getDirtyStart()}.
+   *
+   * @return a new buffer view of the changed range, it becomes invalid once a vertex is added
+   * @throws IllegalStateException if the current vertex doesn't contain every attribute of the
+   *                               format
+   */
+  public FloatBuffer finishDirty() {
+    FloatBuffer view = this.finish();
+    if (!this.isDirty()) {
+      view.limit(0);
+      return view;
+    }
+
+    view.limit(Math.min(this.dirtyEnd, view.limit()));
+    view.position(this.dirtyStart);
+    return view;
+  }
+
+  /**
+   * Marks every vertex as unchanged, usually after they have been uploaded.
+   */
+  public void markClean() {
+    this.dirtyStart = Integer.MAX_VALUE;
+    this.dirtyEnd = 0;
+  }
+
+  /**
+   * Completes the current vertex and retrieves a view of every vertex that has been added to this
+   * builder.
+   *
+   * @return a new buffer view from the first to the last float of the vertices, it becomes invalid
+   * once a vertex is added
+   * @throws IllegalStateException if the current vertex doesn't contain every attribute of the
+   *                               format
+   */
+  public FloatBuffer finish() {
+    if (this.vertexCount != 0 && !this.editing) {
+      this.checkComplete();
+    }
+
+    FloatBuffer view = this.buffer.duplicate();
+    view.position(0);
+    view.limit(this.vertexCount * this.vertexSize);
+    return view;
+  }
+
+  private void checkComplete() {
+    for (int kind = 0; kind < KINDS; kind++) {
+      if (this.written[kind] != this.offsets[kind].length) {
+        throw new IllegalStateException(
+            "Not enough attributes have been written to match the vertex format.");
+      }
+    }
+  }
+
+  private void ensureCapacity(int floats) {
+    if (this.buffer.capacity() >= floats) {
+      return;
+    }
+
+    FloatBuffer grown = this.allocate(Math.max(floats, this.buffer.capacity() * 2));
+    FloatBuffer used = this.buffer.duplicate();
+    used.position(0);
+    used.limit(this.vertexCount * this.vertexSize);
+    grown.put(used);
+    this.buffer = grown;
+  }
+
+  private FloatBuffer allocate(int floats) {
+    return ByteBuffer.allocateDirect(Math.max(floats, 1) * Float.BYTES)
+        .order(ByteOrder.nativeOrder())
+        .asFloatBuffer();
+  }
+
+  /**
+   * Retrieves the index in the buffer of the next attribute of the given kind in the current
+   * vertex.
+   */
+  private int next(int kind, int size) {
+    int index = this.written[kind];
+    if (index >= this.offsets[kind].length) {
+      throw new IllegalStateException(
+          "Can't write (another) attribute of this type as the vertex format doesn't match.");
+    }
+    if (this.sizes[kind][index] != size) {
+      throw new IllegalArgumentException(
+          "The number of provided floats doesn't match the size of the attribute.");
+    }
+
+    this.written[kind]++;
+    return this.vertexStart + this.offsets[kind][index];
+  }
+
+  private void put(int kind, float x, float y) {
+    int index = this.next(kind, 2);
+    this.buffer.put(index, x);
+    this.buffer.put(index + 1, y);
+  }
+
+  private void put(int kind, float x, float y, float z) {
+    int index = this.next(kind, 3);
+    this.buffer.put(index, x);
+    this.buffer.put(index + 1, y);
+    this.buffer.put(index + 2, z);
+  }
+
+  private void put(int kind, float x, float y, float z, float w) {
+    int index = this.next(kind, 4);
+    this.buffer.put(index, x);
+    this.buffer.put(index + 1, y);
+    this.buffer.put(index + 2, z);
+    this.buffer.put(index + 3, w);
+  }
+
+  private void put(int kind, float[] values) {
+    int index = this.next(kind, values.length);
+    for (int i = 0; i < values.length; i++) {
+      this.buffer.put(index + i, values[i]);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder position(float x, float y, float z) {
+    this.put(POSITION3F, x, y, z);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder position(float x, float y, float z, float w) {
+    this.put(POSITION4F, x, y, z, w);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder normal(float x, float y, float z) {
+    this.put(NORMAL, x, y, z);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder color(float r, float g, float b) {
+    this.put(COLOR_RGB, r, g, b);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder color(byte r, byte g, byte b) {
+    return this.color((float) r / 255.0f, (float) g / 255.0f, (float) b / 255.0f);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder color(byte r, byte g, byte b, byte a) {
+    return this.color(
+        (float) r / 255.0f, (float) g / 255.0f, (float) b / 255.0f, (float) a / 255.0f);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder color(float rgba) {
+    // same conversion as the DefaultVertexBuilder so that both produce the same vertices
+    int bits = Float.floatToIntBits(rgba);
+    return this.color(
+        (byte) (bits >> 24) & 0xff,
+        (byte) (bits >> 16) & 0xff,
+        (byte) (bits >> 8) & 0xff,
+        (byte) (bits & 0xff));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder color(float r, float g, float b, float a) {
+    this.put(COLOR_RGBA, r, g, b, a);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder texture(float u, float v) {
+    this.put(TEXTURE_UV, u, v);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder custom(float... values) {
+    this.put(CUSTOM, values);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public VertexBuilder next() {
+    return this.vbo.addVertex();
+  }
+
+  @Override
+  public AttributeValueHandler getPos3fHandler() {
+    return this.handlers[POSITION3F];
+  }
+
+  @Override
+  public AttributeValueHandler getPos4fHandler() {
+    return this.handlers[POSITION4F];
+  }
+
+  @Override
+  public AttributeValueHandler getNormalHandler() {
+    return this.handlers[NORMAL];
+  }
+
+  @Override
+  public AttributeValueHandler getRgbHandler() {
+    return this.handlers[COLOR_RGB];
+  }
+
+  @Override
+  public AttributeValueHandler getRgbaHandler() {
+    return this.handlers[COLOR_RGBA];
+  }
+
+  @Override
+  public AttributeValueHandler getTextureHandler() {
+    return this.handlers[TEXTURE_UV];
+  }
+
+  @Override
+  public AttributeValueHandler getCustomHandler() {
+    return this.handlers[CUSTOM];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int write(float[] buffer, int offset) {
+    this.checkComplete();
+    for (int i = 0; i < this.vertexSize; i++) {
+      buffer[offset + i] = this.buffer.get(this.vertexStart + i);
+    }
+    return this.vertexSize;
+  }
+
+  private class PackedAttributeValueHandler implements VertexBuilder.AttributeValueHandler {
+
+    private final int kind;
+
+    PackedAttributeValueHandler(int kind) {
+      this.kind = kind;
+    }
+
+    @Override
+    public void addFloats(float... floats) {
+      PackedVertexBuilder.this.put(this.kind, floats);
+    }
+
+    @Override
+    public void writeFloats(float[] buffer, int offset) {
+      PackedVertexBuilder builder = PackedVertexBuilder.this;
+      int index = builder.read[this.kind];
+      if (index >= builder.written[this.kind]) {
+        throw new IllegalStateException(
+            "Not enough attributes have been written to match the vertex format.");
+      }
+
+      int start = builder.vertexStart + builder.offsets[this.kind][index];
+      for (int i = 0; i < builder.sizes[this.kind][index]; i++) {
+        buffer[offset + i] = builder.buffer.get(start + i);
+      }
+      builder.read[this.kind]++;
+    }
+
+    @Override
+    public void clear() {
+      PackedVertexBuilder.this.written[this.kind] = 0;
+      PackedVertexBuilder.this.read[this.kind] = 0;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+
+package net.flintmc.render.vbo.internal;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.flintmc.render.vbo.VertexAttribute;
+import net.flintmc.render.vbo.VertexAttributes;
+import net.flintmc.render.vbo.VertexBufferObject;
+import net.flintmc.render.vbo.VertexBuilder;
+import net.flintmc.render.vbo.VertexFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building 10k vertices with a position, a color, a texture coordinate and a normal and
+ * writing them into the buffer that is uploaded to the GPU. The {@code unpacked} mode uses a
+ * {@link DefaultVertexBuilder} for every vertex like a vertex buffer object that hasn't been
+ * created as packed, the {@code packed} mode writes every vertex into a single {@link
+ * PackedVertexBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VertexBuilderBenchmark {
+
+  private static final List<VertexAttribute> ATTRIBUTES = Arrays.asList(
+      VertexAttributes.POSITION3F,
+      VertexAttributes.COLOR_RGBA,
+      VertexAttributes.TEXTURE_UV,
+      VertexAttributes.NORMAL);
+  private static final int VERTEX_SIZE = 3 + 4 + 2 + 3;
+
+  @Param({"unpacked", "packed"})
+  public String mode;
+
+  @Param("10000")
+  public int vertices;
+
+  private VertexBufferObject vbo;
+  private Constructor<DefaultVertexBuilder> constructor;
+  private float[] values;
+  private FloatBuffer target;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    VertexFormat format = (VertexFormat) Proxy.newProxyInstance(
+        VertexFormat.class.getClassLoader(),
+        new Class[]{VertexFormat.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getAttributes":
+              return ATTRIBUTES;
+            case "getVertexSize":
+              return VERTEX_SIZE;
+            case "getAttributeCount":
+              return ATTRIBUTES.size();
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+    this.vbo = (VertexBufferObject) Proxy.newProxyInstance(
+        VertexBufferObject.class.getClassLoader(),
+        new Class[]{VertexBufferObject.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("getFormat")) {
+            return format;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+
+    this.constructor = DefaultVertexBuilder.class.getDeclaredConstructor(VertexBufferObject.class);
+    this.constructor.setAccessible(true);
+
+    Random random = new Random(42);
+    this.values = new float[this.vertices * VERTEX_SIZE];
+    for (int i = 0; i < this.values.length; i++) {
+      this.values[i] = random.nextFloat();
+    }
+
+    this.target = ByteBuffer.allocateDirect(this.values.length * Float.BYTES)
+        .order(ByteOrder.nativeOrder())
+        .asFloatBuffer();
+  }
+
+  @Benchmark
+  public FloatBuffer build() throws ReflectiveOperationException {
+    this.target.clear();
+
+    if (this.mode.equals("packed")) {
+      PackedVertexBuilder builder = new PackedVertexBuilder(this.vbo);
+      for (int offset = 0; offset < this.values.length; offset += VERTEX_SIZE) {
+        this.writeVertex(builder.beginVertex(), offset);
+      }
+      this.target.put(builder.finish());
+      return this.target;
+    }
+
+    // the same steps as the VersionedVertexBufferObject without a packed builder
+    List<VertexBuilder> builders = new ArrayList<>();
+    for (int offset = 0; offset < this.values.length; offset += VERTEX_SIZE) {
+      DefaultVertexBuilder builder = this.constructor.newInstance(this.vbo);
+      this.writeVertex(builder, offset);
+      builders.add(builder);
+    }
+
+    float[] vertices = new float[this.values.length];
+    int offset = 0;
+    for (VertexBuilder builder : builders) {
+      offset += builder.write(vertices, offset);
+    }
+    this.target.put(vertices);
+    return this.target;
+  }
+
+  private void writeVertex(VertexBuilder builder, int offset) {
+    float[] values = this.values;
+    builder
+        .position(values[offset], values[offset + 1], values[offset + 2])
+        .color(values[offset + 3], values[offset + 4], values[offset + 5], values[offset + 6])
+        .texture(values[offset + 7], values[offset + 8])
+        .normal(values[offset + 9], values[offset + 10], values[offset + 11]);
+  }
+}
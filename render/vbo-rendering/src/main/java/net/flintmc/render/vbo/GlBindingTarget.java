@@ -0,0 +1,35 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo;
+
+/** Represents an OpenGL binding point whose current binding is tracked by {@link GlStateTracker}. */
+public enum GlBindingTarget {
+  /** The buffer bound to GL_ARRAY_BUFFER. */
+  ARRAY_BUFFER,
+  /**
+   * The buffer bound to GL_ELEMENT_ARRAY_BUFFER. This binding is part of the state of the bound
+   * vertex array object.
+   */
+  ELEMENT_ARRAY_BUFFER,
+  /** The bound vertex array object. */
+  VERTEX_ARRAY,
+  /** The shader program in use. */
+  PROGRAM
+}
@@ -0,0 +1,117 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo;
+
+/**
+ * Client-side cache of the OpenGL bindings of the render modules, so that binding and restoring
+ * buffers, vertex array objects and shader programs doesn't need to query the driver with glGet*
+ * every time, which forces the driver to synchronize.
+ *
+ * <p>As Minecraft and other mods change the bindings without this tracker, the cached bindings are
+ * only trusted while a scope is open, either explicitly via {@link #beginScope()} or implicitly
+ * between {@link #push(GlBindingTarget, int)} and {@link #pop(GlBindingTarget, int)}. Once the
+ * outermost scope is closed, every binding is queried again on its next use. A scope is opened for
+ * every frame that is rendered by Minecraft, bindings that Minecraft changes through its state
+ * manager within the frame are queried again on their next use. Other code that changes the
+ * tracked bindings while a scope is open has to call {@link #invalidate()} afterwards.
+ *
+ * <p>The counters of avoided calls are reset at the start of every frame.
+ *
+ * <p>The tracker may only be used on the render thread.
+ */
+public interface GlStateTracker {
+
+  /**
+   * Retrieves the current binding of the given target. The driver is only queried if the binding
+   * isn't known in the current scope.
+   *
+   * @param target the binding target to get the binding of
+   * @return the OpenGL name that is bound to the target, 0 if nothing is bound
+   */
+  int getBinding(GlBindingTarget target);
+
+  /**
+   * Binds the given OpenGL name to the target. The call to OpenGL is skipped if it is already
+   * known to be bound in the current scope.
+   *
+   * @param target the binding target to bind the name to
+   * @param id the OpenGL name to be bound, 0 to unbind
+   */
+  void bind(GlBindingTarget target, int id);
+
+  /**
+   * Opens a scope and binds the given OpenGL name to the target.
+   *
+   * @param target the binding target to bind the name to
+   * @param id the OpenGL name to be bound
+   * @return the OpenGL name that was bound before and should be passed to {@link
+   *     #pop(GlBindingTarget, int)}
+   */
+  int push(GlBindingTarget target, int id);
+
+  /**
+   * Restores the binding of the target that has been returned by {@link #push(GlBindingTarget,
+   * int)} and closes the scope that has been opened by it.
+   *
+   * @param target the binding target to restore the binding of
+   * @param previous the OpenGL name to be bound again
+   * @throws IllegalStateException if there is no open scope
+   */
+  void pop(GlBindingTarget target, int previous);
+
+  /**
+   * Notifies this tracker that an OpenGL name has been deleted. OpenGL unbinds deleted names from
+   * their targets in the current context.
+   *
+   * @param target the binding target the name belongs to
+   * @param id the deleted OpenGL name
+   */
+  void release(GlBindingTarget target, int id);
+
+  /**
+   * Opens a scope in which the cached bindings are trusted. Scopes can be nested, the caller
+   * guarantees that no code that doesn't use this tracker changes the bindings until the scope is
+   * closed with {@link #endScope()}.
+   */
+  void beginScope();
+
+  /**
+   * Closes the innermost scope. Once the outermost scope is closed, every cached binding is
+   * dropped.
+   *
+   * @throws IllegalStateException if there is no open scope
+   */
+  void endScope();
+
+  /** Drops every cached binding so that they are queried again on their next use. */
+  void invalidate();
+
+  /** @return the number of glGet* queries that have been avoided since the last reset. */
+  long getAvoidedQueries();
+
+  /** @return the number of redundant binds that have been avoided since the last reset. */
+  long getAvoidedBinds();
+
+  /**
+   * Resets the counters of avoided calls. This happens at the start of every frame, so that the
+   * counters contain the number of avoided calls per frame.
+   */
+  void resetStatistics();
+}
@@ -0,0 +1,74 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo;
+
+import net.flintmc.framework.inject.assisted.AssistedFactory;
+
+/**
+ * Draws many small vertex array objects with as few draw calls as possible. Submitted objects that
+ * share a {@link VertexFormat} and a {@link VboDrawMode} are copied into one shared buffer and
+ * drawn together on {@link #flush()}, instead of binding and drawing every object on its own.
+ *
+ * <p>The objects are drawn with the vertex attributes of their format and the shader program that
+ * is in use when flushing, so objects that need different shaders should be submitted to different
+ * batch renderers. The bind callback of a vertex array object is not part of the batch.
+ *
+ * <p>Objects that are submitted in the same order as in the previous flush and haven't been
+ * changed since then are neither copied nor uploaded again. The shared buffers of a format and draw
+ * mode that haven't been drawn for a while are deleted.
+ */
+public interface VboBatchRenderer {
+
+  /**
+   * Submits a vertex array object to be drawn on the next {@link #flush()}. The vertices and
+   * indices are copied immediately, changes to the objects after submitting them are not part of
+   * the batch.
+   *
+   * @param vao the vertex array object whose vertices should be drawn.
+   * @param ebo the Vertex Index Buffer that contains the indices of the vertices to draw.
+   */
+  void submit(VertexArrayObject vao, VertexIndexObject ebo);
+
+  /** Draws every object that has been submitted since the last flush and clears the batch. */
+  void flush();
+
+  /**
+   * @return the number of objects drawn by the last {@link #flush()}, which is the number of draw
+   *     calls that would have been needed without batching.
+   */
+  int getObjectCount();
+
+  /** @return the number of draw calls issued by the last {@link #flush()}. */
+  int getDrawCallCount();
+
+  /** Deletes the OpenGL objects of this batch renderer. */
+  void delete();
+
+  @AssistedFactory(VboBatchRenderer.class)
+  interface Factory {
+
+    /**
+     * Creates a new {@link VboBatchRenderer} without any submitted objects.
+     *
+     * @return the new {@link VboBatchRenderer}.
+     */
+    VboBatchRenderer create();
+  }
+}
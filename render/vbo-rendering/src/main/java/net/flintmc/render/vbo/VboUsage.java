@@ -0,0 +1,42 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo;
+
+/**
+ * Represents the corresponding OpenGL buffer usage in the VBO API and how the vertices of a {@link
+ * VertexBufferObject} may be changed once they have been pushed to the GPU.
+ */
+public enum VboUsage {
+  /**
+   * Upload using GL_STATIC_DRAW. The vertices are pushed once and can't be changed afterwards.
+   */
+  STATIC,
+  /**
+   * Upload using GL_DYNAMIC_DRAW. The vertices can be changed and added after they have been
+   * pushed, only the changed range is uploaded again into the same OpenGL buffer.
+   */
+  DYNAMIC,
+  /**
+   * Upload using GL_STREAM_DRAW. The vertices are usually rebuilt for every frame, the OpenGL
+   * buffer is orphaned and filled again on every push so that drawing doesn't have to wait for the
+   * previous contents.
+   */
+  STREAM
+}
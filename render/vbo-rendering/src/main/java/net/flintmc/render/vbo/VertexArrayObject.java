@@ -32,7 +32,8 @@ public interface VertexArrayObject {
 
   /**
    * Draws vertices of the Vertex Buffer Object associated with this VAO. The VAO will be bound and
-   * unbound automatically.
+   * unbound automatically and vertices of the VBO that have been changed since the last draw will
+   * be pushed to the GPU.
    *
    * @param ebo the Vertex Index Buffer that contains the indices of the vertices to draw.
    */
@@ -61,6 +62,25 @@ public interface VertexArrayObject {
    */
   VertexFormat getFormat();
 
+  /**
+   * Pushes the vertices of the associated Vertex Buffer Object that have been added or changed
+   * since they have been pushed for the last time to the GPU. The VBO keeps its OpenGL buffer, so
+   * the VAO doesn't need to be configured again.
+   */
+  default void update() {
+    VertexBufferObject vbo = this.getVBO();
+    if (!vbo.isDirty()) {
+      return;
+    }
+
+    vbo.bind();
+    try {
+      vbo.pushToGPU();
+    } finally {
+      vbo.unbind();
+    }
+  }
+
   /** @return the {@link VertexBufferObject} this VAO is associated with. */
   VertexBufferObject getVBO();
 
@@ -86,7 +106,8 @@ public interface VertexArrayObject {
      * Creates a new {@link VertexArrayObject}.
      *
      * @param vbo the {@link VertexBufferObject} the new VAO should be associated with. New vertices
-     *     can't be added to the VBO after the VAO is created.
+     *     can't be added to the VBO after the VAO is created unless the VBO has been created with
+     *     {@link VboUsage#DYNAMIC} or {@link VboUsage#STREAM}.
      * @return the new VAO.
      */
     VertexArrayObject create(@Assisted VertexBufferObject vbo);
@@ -95,7 +116,8 @@ public interface VertexArrayObject {
      * Creates a new {@link VertexArrayObject}.
      *
      * @param vbo the {@link VertexBufferObject} the new VAO should be associated with. New vertices
-     *     can't be added to the VBO after the VAO is created.
+     *     can't be added to the VBO after the VAO is created unless the VBO has been created with
+     *     {@link VboUsage#DYNAMIC} or {@link VboUsage#STREAM}.
      * @param bindCallback a callback that will be executed after this VAO and the associated VBO
      *     will be bound and pushed to the GPU but before they get unbound. The callback can be used
      *     to further configure or change the VAO.
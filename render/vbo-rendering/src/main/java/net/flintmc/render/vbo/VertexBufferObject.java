@@ -22,6 +22,7 @@ package net.flintmc.render.vbo;
 import net.flintmc.framework.inject.assisted.Assisted;
 import net.flintmc.framework.inject.assisted.AssistedFactory;
 
+import java.nio.FloatBuffer;
 import java.util.List;
 
 /** Represents an OpenGL vertex buffer object (VBO). */
@@ -41,17 +42,89 @@ public interface VertexBufferObject {
    */
   void addVertex(VertexBuilder vertexBuilder);
 
-  /** @return a list of currently added vertices. The list shall not be modified. */
+  /**
+   * @return a list of currently added vertices. The list shall not be modified.
+   * @throws UnsupportedOperationException if this vertex buffer object has been created with
+   *     packed vertex storage
+   */
   List<VertexBuilder> getVertices();
 
   /** @return the number of vertices contained in this vertex buffer object. */
   int getVertexCount();
 
+  /**
+   * Writes every vertex of this vertex buffer object in the layout of its format into the given
+   * buffer, starting at the position of the buffer.
+   *
+   * @param buffer the buffer to write the vertices to, needs to have at least {@link
+   *     #getVertexCount()} * {@link VertexFormat#getVertexSize()} floats remaining.
+   */
+  default void writeVertices(FloatBuffer buffer) {
+    List<VertexBuilder> vertices = this.getVertices();
+    float[] values = new float[vertices.size() * this.getFormat().getVertexSize()];
+    int offset = 0;
+    for (VertexBuilder vertex : vertices) {
+      offset += vertex.write(values, offset);
+    }
+    buffer.put(values);
+  }
+
+  /**
+   * Rewrites a vertex that has already been added in place. The attributes written to the returned
+   * builder replace the ones of the vertex in the order of the format, attributes that are not
+   * written keep their previous values. Only the changed vertices are uploaded again on the next
+   * {@link #pushToGPU()}.
+   *
+   * @param index the index of the vertex to be rewritten
+   * @return the builder that should be used to rewrite the vertex
+   * @throws IllegalStateException if this vertex buffer object has been created with {@link
+   *     VboUsage#STATIC}
+   * @throws IndexOutOfBoundsException if there is no vertex with the given index
+   * @throws UnsupportedOperationException if this implementation can't change vertices in place
+   */
+  default VertexBuilder editVertex(int index) {
+    throw new UnsupportedOperationException("This VBO can't change vertices in place.");
+  }
+
+  /**
+   * Removes every vertex from this vertex buffer object while keeping the memory and the OpenGL
+   * buffer for the vertices that are added afterwards.
+   *
+   * @throws IllegalStateException if this vertex buffer object has been created with {@link
+   *     VboUsage#STATIC}
+   * @throws UnsupportedOperationException if this implementation can't change vertices in place
+   */
+  default void clearVertices() {
+    throw new UnsupportedOperationException("This VBO can't change vertices in place.");
+  }
+
   /**
    * Pushes the vertices to the OpenGL vertex buffer object. Should usually not be called manually.
+   *
+   * <p>If the vertex buffer object is already available and has been created with {@link
+   * VboUsage#DYNAMIC} or {@link VboUsage#STREAM}, the same OpenGL buffer is reused and only the
+   * vertices that have been changed since the last push are uploaded. This vertex buffer object
+   * needs to be bound while pushing.
    */
   void pushToGPU();
 
+  /**
+   * @return true, if vertices have been added or changed since they have been pushed to the GPU
+   *     for the last time. Implementations that don't track changes are only dirty until they
+   *     have been pushed once.
+   */
+  default boolean isDirty() {
+    return !this.isAvailable();
+  }
+
+  /**
+   * @return the {@link VboUsage} the vertices of this vertex buffer object are uploaded with,
+   *     {@link VboUsage#STATIC} for implementations that don't support other usages.
+   */
+  default VboUsage getUsage() {
+    return VboUsage.STATIC;
+  }
+
   /** @return the OpenGL name of this vertex buffer object. */
   int getID();
 
@@ -88,5 +161,33 @@ public interface VertexBufferObject {
      * @return the new {@link VertexBufferObject}.
      */
     VertexBufferObject create(@Assisted VertexFormat vertexFormat);
+
+    /**
+     * Creates a new {@link VertexBufferObject}.
+     *
+     * <p>With packed vertex storage, the vertices are written directly into a single off-heap
+     * buffer in the layout of the format instead of being kept as separate {@link VertexBuilder}s.
+     * {@link #addVertex()} then always returns the same builder which moves on to the next vertex,
+     * and {@link #getVertices()} is not supported.
+     *
+     * @param vertexFormat the {@link VertexFormat} the vertices should be in.
+     * @param packed whether the vertices should be stored packed in a single buffer.
+     * @return the new {@link VertexBufferObject}.
+     */
+    VertexBufferObject create(
+        @Assisted VertexFormat vertexFormat, @Assisted("packed") boolean packed);
+
+    /**
+     * Creates a new {@link VertexBufferObject} with packed vertex storage that uploads its vertices
+     * with the given usage. Vertices of a vertex buffer object with {@link VboUsage#DYNAMIC} or
+     * {@link VboUsage#STREAM} can still be added, changed and cleared after they have been pushed
+     * to the GPU.
+     *
+     * @param vertexFormat the {@link VertexFormat} the vertices should be in.
+     * @param usage the {@link VboUsage} the vertices should be uploaded with.
+     * @return the new {@link VertexBufferObject}.
+     * @see #create(VertexFormat, boolean)
+     */
+    VertexBufferObject create(@Assisted VertexFormat vertexFormat, @Assisted VboUsage usage);
   }
 }
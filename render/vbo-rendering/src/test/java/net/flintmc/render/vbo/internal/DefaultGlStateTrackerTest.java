@@ -0,0 +1,166 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.flintmc.render.vbo.GlBindingTarget;
+import org.junit.jupiter.api.Test;
+
+public class DefaultGlStateTrackerTest {
+
+  @Test
+  public void testBatchDrawsDontQueryTheElementArrayBuffer() {
+    RecordingGlStateTracker tracker = new RecordingGlStateTracker();
+    tracker.beginFrame();
+
+    for (int i = 0; i < 3; i++) {
+      // the same sequence of bindings as a draw of the batch renderer
+      int previousVao = tracker.push(GlBindingTarget.VERTEX_ARRAY, 7);
+      int previousVbo = tracker.push(GlBindingTarget.ARRAY_BUFFER, 8);
+      tracker.bind(GlBindingTarget.ELEMENT_ARRAY_BUFFER, 9);
+      tracker.pop(GlBindingTarget.ARRAY_BUFFER, previousVbo);
+      tracker.pop(GlBindingTarget.VERTEX_ARRAY, previousVao);
+    }
+
+    tracker.endFrame();
+
+    // the bindings from before the batch are queried once, the element array buffer of the batch
+    // is restored together with its vertex array object
+    assertEquals(
+        Arrays.asList("query VERTEX_ARRAY", "bind VERTEX_ARRAY 7", "query ARRAY_BUFFER",
+            "bind ARRAY_BUFFER 8", "bind ELEMENT_ARRAY_BUFFER 9", "bind ARRAY_BUFFER 0", "bind VERTEX_ARRAY 0", "bind VERTEX_ARRAY 7",
+            "bind ARRAY_BUFFER 8", "bind ARRAY_BUFFER 0", "bind VERTEX_ARRAY 0",
+            "bind VERTEX_ARRAY 7", "bind ARRAY_BUFFER 8", "bind ARRAY_BUFFER 0",
+            "bind VERTEX_ARRAY 0"),
+        tracker.calls);
+    assertEquals(9, tracker.elementArrayBuffers.get(7).intValue());
+  }
+
+  @Test
+  public void testUnknownElementArrayBufferIsQueried() {
+    RecordingGlStateTracker tracker = new RecordingGlStateTracker();
+    tracker.elementArrayBuffers.put(3, 4);
+    tracker.beginScope();
+
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 3);
+    assertEquals(4, tracker.getBinding(GlBindingTarget.ELEMENT_ARRAY_BUFFER));
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 5);
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 3);
+    assertEquals(4, tracker.getBinding(GlBindingTarget.ELEMENT_ARRAY_BUFFER));
+
+    assertEquals(
+        Arrays.asList("bind VERTEX_ARRAY 3", "query ELEMENT_ARRAY_BUFFER", "bind VERTEX_ARRAY 5",
+            "bind VERTEX_ARRAY 3"),
+        tracker.calls);
+  }
+
+  @Test
+  public void testElementArrayBuffersAreDroppedWithTheScope() {
+    RecordingGlStateTracker tracker = new RecordingGlStateTracker();
+    tracker.beginScope();
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 3);
+    tracker.bind(GlBindingTarget.ELEMENT_ARRAY_BUFFER, 4);
+    tracker.endScope();
+
+    tracker.beginScope();
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 3);
+    assertEquals(4, tracker.getBinding(GlBindingTarget.ELEMENT_ARRAY_BUFFER));
+
+    assertEquals(
+        Arrays.asList("bind VERTEX_ARRAY 3", "bind ELEMENT_ARRAY_BUFFER 4", "bind VERTEX_ARRAY 3",
+            "query ELEMENT_ARRAY_BUFFER"),
+        tracker.calls);
+  }
+
+  @Test
+  public void testForeignBuffersDropTheElementArrayBuffers() {
+    RecordingGlStateTracker tracker = new RecordingGlStateTracker();
+    tracker.beginScope();
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 3);
+    tracker.bind(GlBindingTarget.ELEMENT_ARRAY_BUFFER, 4);
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 5);
+
+    // Minecraft binds a buffer through its state manager
+    tracker.elementArrayBuffers.put(5, 6);
+    tracker.invalidateBuffers();
+
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 3);
+    assertEquals(4, tracker.getBinding(GlBindingTarget.ELEMENT_ARRAY_BUFFER));
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 5);
+    assertEquals(6, tracker.getBinding(GlBindingTarget.ELEMENT_ARRAY_BUFFER));
+
+    assertEquals(
+        Arrays.asList("bind VERTEX_ARRAY 3", "bind ELEMENT_ARRAY_BUFFER 4", "bind VERTEX_ARRAY 5",
+            "bind VERTEX_ARRAY 3", "query ELEMENT_ARRAY_BUFFER", "bind VERTEX_ARRAY 5",
+            "query ELEMENT_ARRAY_BUFFER"),
+        tracker.calls);
+  }
+
+  @Test
+  public void testDeletedElementArrayBufferIsForgotten() {
+    RecordingGlStateTracker tracker = new RecordingGlStateTracker();
+    tracker.beginScope();
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 3);
+    tracker.bind(GlBindingTarget.ELEMENT_ARRAY_BUFFER, 4);
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 5);
+    tracker.release(GlBindingTarget.ELEMENT_ARRAY_BUFFER, 4);
+    tracker.elementArrayBuffers.put(3, 0);
+
+    tracker.bind(GlBindingTarget.VERTEX_ARRAY, 3);
+    assertEquals(0, tracker.getBinding(GlBindingTarget.ELEMENT_ARRAY_BUFFER));
+    assertEquals("query ELEMENT_ARRAY_BUFFER", tracker.calls.get(tracker.calls.size() - 1));
+  }
+
+  /**
+   * Emulates the bindings of OpenGL, including the element array buffer that is stored in the
+   * vertex array object.
+   */
+  private static class RecordingGlStateTracker extends DefaultGlStateTracker {
+
+    private final List<String> calls = new ArrayList<>();
+    private final Map<Integer, Integer> elementArrayBuffers = new HashMap<>();
+    private final int[] bindings = new int[GlBindingTarget.values().length];
+
+    @Override
+    protected int queryBinding(GlBindingTarget target) {
+      this.calls.add("query " + target);
+      if (target == GlBindingTarget.ELEMENT_ARRAY_BUFFER) {
+        return this.elementArrayBuffers.getOrDefault(
+            this.bindings[GlBindingTarget.VERTEX_ARRAY.ordinal()], 0);
+      }
+      return this.bindings[target.ordinal()];
+    }
+
+    @Override
+    protected void bindTarget(GlBindingTarget target, int id) {
+      this.calls.add("bind " + target + " " + id);
+      if (target == GlBindingTarget.ELEMENT_ARRAY_BUFFER) {
+        this.elementArrayBuffers.put(this.bindings[GlBindingTarget.VERTEX_ARRAY.ordinal()], id);
+      }
+      this.bindings[target.ordinal()] = id;
+    }
+  }
+}
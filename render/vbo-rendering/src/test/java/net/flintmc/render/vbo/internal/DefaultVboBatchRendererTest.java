@@ -0,0 +1,218 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
+import net.flintmc.render.vbo.VboDrawMode;
+import net.flintmc.render.vbo.VboUsage;
+import net.flintmc.render.vbo.VertexArrayObject;
+import net.flintmc.render.vbo.VertexAttributes;
+import net.flintmc.render.vbo.VertexBuilder;
+import net.flintmc.render.vbo.VertexFormat;
+import net.flintmc.render.vbo.VertexIndexObject;
+import org.junit.jupiter.api.Test;
+
+public class DefaultVboBatchRendererTest {
+
+  private static final VertexFormat FORMAT = createFormat();
+
+  @Test
+  public void testUnchangedObjectsAreNotUploadedAgain() {
+    RecordingBatchRenderer renderer = new RecordingBatchRenderer();
+    VertexArrayObject first = createVao(2);
+    VertexArrayObject second = createVao(3);
+    VertexIndexObject firstIndices = createEbo(VboDrawMode.TRIANGLES, 0, 1, 0);
+    VertexIndexObject secondIndices = createEbo(VboDrawMode.TRIANGLES, 0, 1, 2);
+
+    for (int i = 0; i < 2; i++) {
+      renderer.submit(first, firstIndices);
+      renderer.submit(second, secondIndices);
+      renderer.flush();
+    }
+
+    assertEquals(
+        Arrays.asList("allocate ARRAY_BUFFER " + 64 * 3 * Float.BYTES, "vertices 0+15",
+            "allocate ELEMENT_ARRAY_BUFFER " + 256 * Integer.BYTES, "indices 0 [0, 1, 0, 2, 3, 4]",
+            "draw TRIANGLES 6", "draw TRIANGLES 6"),
+        renderer.calls);
+    assertEquals(2, renderer.getObjectCount());
+    assertEquals(1, renderer.getDrawCallCount());
+  }
+
+  @Test
+  public void testChangedIndicesOfTheSameObjectAreUploaded() {
+    RecordingBatchRenderer renderer = new RecordingBatchRenderer();
+    VertexArrayObject vao = createVao(3);
+    VertexIndexObject ebo = mock(VertexIndexObject.class);
+    when(ebo.getDrawMode()).thenReturn(VboDrawMode.TRIANGLES);
+    when(ebo.getIndices()).thenReturn(Arrays.asList(0, 1, 2), Arrays.asList(2, 1, 0));
+
+    for (int i = 0; i < 2; i++) {
+      renderer.submit(vao, ebo);
+      renderer.flush();
+    }
+
+    // same index object with the same number of indices, but different indices
+    assertEquals("indices 0 [2, 1, 0]", renderer.calls.get(renderer.calls.size() - 2));
+  }
+
+  @Test
+  public void testPolygonsAreDrawnWithTheirOffsets() {
+    RecordingBatchRenderer renderer = new RecordingBatchRenderer();
+    renderer.submit(createVao(3), createEbo(VboDrawMode.POLYGON, 0, 1, 2));
+    renderer.submit(createVao(4), createEbo(VboDrawMode.POLYGON, 0, 1, 2, 3));
+    renderer.flush();
+
+    assertEquals("polygons [3, 4] [0, 12]", renderer.calls.get(renderer.calls.size() - 1));
+  }
+
+  private static VertexFormat createFormat() {
+    VertexFormat format = mock(VertexFormat.class);
+    when(format.getAttributes()).thenReturn(Collections.singletonList(VertexAttributes.POSITION3F));
+    when(format.getVertexSize()).thenReturn(3);
+    when(format.createVAO()).thenReturn(1);
+    return format;
+  }
+
+  private static VertexArrayObject createVao(int vertices) {
+    TrackedVertexBufferObject vbo = new TrackedVertexBufferObject();
+    for (int i = 0; i < vertices; i++) {
+      vbo.addVertex().position(i, i, i);
+    }
+
+    VertexArrayObject vao = mock(VertexArrayObject.class);
+    when(vao.getFormat()).thenReturn(FORMAT);
+    when(vao.getVBO()).thenReturn(vbo);
+    return vao;
+  }
+
+  private static VertexIndexObject createEbo(VboDrawMode drawMode, Integer... indices) {
+    VertexIndexObject ebo = mock(VertexIndexObject.class);
+    when(ebo.getDrawMode()).thenReturn(drawMode);
+    when(ebo.getIndices()).thenReturn(Arrays.asList(indices));
+    return ebo;
+  }
+
+  private static class TrackedVertexBufferObject extends DefaultVertexBufferObject {
+
+    private TrackedVertexBufferObject() {
+      super(FORMAT, true, VboUsage.DYNAMIC, mock(VertexBuilder.Factory.class),
+          mock(GlStateTracker.class));
+    }
+
+    @Override
+    protected int generateBuffer() {
+      return 0;
+    }
+
+    @Override
+    protected void uploadStatic(float[] vertices) {
+    }
+
+    @Override
+    protected void uploadStatic(FloatBuffer vertices) {
+    }
+
+    @Override
+    protected void allocate(long bytes, VboUsage usage) {
+    }
+
+    @Override
+    protected void uploadRange(long byteOffset, FloatBuffer vertices) {
+    }
+
+    @Override
+    protected void deleteBuffer(int id) {
+    }
+  }
+
+  private static class RecordingBatchRenderer extends DefaultVboBatchRenderer {
+
+    private final List<String> calls = new ArrayList<>();
+    private int buffers;
+
+    private RecordingBatchRenderer() {
+      super(mock(GlStateTracker.class));
+    }
+
+    @Override
+    protected int generateBuffer() {
+      return ++this.buffers;
+    }
+
+    @Override
+    protected void allocate(GlBindingTarget target, long bytes) {
+      this.calls.add("allocate " + target + " " + bytes);
+    }
+
+    @Override
+    protected void uploadVertices(long byteOffset, FloatBuffer vertices) {
+      this.calls.add("vertices " + byteOffset + "+" + vertices.remaining());
+    }
+
+    @Override
+    protected void uploadIndices(long byteOffset, IntBuffer indices) {
+      this.calls.add("indices " + byteOffset + " " + toList(indices, indices.remaining()));
+    }
+
+    @Override
+    protected void drawElements(VboDrawMode drawMode, int indexCount) {
+      this.calls.add("draw " + drawMode + " " + indexCount);
+    }
+
+    @Override
+    protected void drawPolygons(IntBuffer counts, long[] byteOffsets) {
+      List<Long> offsets = new ArrayList<>();
+      for (int i = 0; i < counts.remaining(); i++) {
+        offsets.add(byteOffsets[i]);
+      }
+      this.calls.add("polygons " + toList(counts, counts.remaining()) + " " + offsets);
+    }
+
+    @Override
+    protected void deleteBuffer(int id) {
+      this.calls.add("delete buffer " + id);
+    }
+
+    @Override
+    protected void deleteVertexArray(int id) {
+      this.calls.add("delete vertex array " + id);
+    }
+
+    private static List<Integer> toList(IntBuffer buffer, int length) {
+      List<Integer> values = new ArrayList<>();
+      for (int i = 0; i < length; i++) {
+        values.add(buffer.get(buffer.position() + i));
+      }
+      return values;
+    }
+  }
+}
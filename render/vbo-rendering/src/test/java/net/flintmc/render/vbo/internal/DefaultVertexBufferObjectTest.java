@@ -0,0 +1,212 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.flintmc.render.vbo.GlStateTracker;
+import net.flintmc.render.vbo.VboUsage;
+import net.flintmc.render.vbo.VertexAttributes;
+import net.flintmc.render.vbo.VertexBuilder;
+import net.flintmc.render.vbo.VertexFormat;
+import org.junit.jupiter.api.Test;
+
+public class DefaultVertexBufferObjectTest {
+
+  private static final int VERTEX_SIZE = 3 + 2;
+
+  @Test
+  public void testStaticVerticesCantBeChanged() {
+    RecordingVertexBufferObject vbo = new RecordingVertexBufferObject(true, VboUsage.STATIC);
+    addVertex(vbo, 1);
+    assertTrue(vbo.isDirty());
+
+    vbo.pushToGPU();
+
+    assertFalse(vbo.isDirty());
+    assertEquals(Arrays.asList("static 0+5"), vbo.calls);
+    assertThrows(IllegalStateException.class, vbo::addVertex);
+    assertThrows(IllegalStateException.class, () -> vbo.editVertex(0));
+    assertThrows(IllegalStateException.class, vbo::clearVertices);
+  }
+
+  @Test
+  public void testEditedVerticesAreUploadedAsRange() {
+    RecordingVertexBufferObject vbo = new RecordingVertexBufferObject(true, VboUsage.DYNAMIC);
+    for (int i = 0; i < 10; i++) {
+      addVertex(vbo, i);
+    }
+    vbo.pushToGPU();
+    assertFalse(vbo.isDirty());
+    vbo.pushToGPU();
+
+    vbo.editVertex(3).position(30, 31, 32).texture(33, 34);
+    vbo.editVertex(5).position(50, 51, 52).texture(53, 54);
+    assertTrue(vbo.isDirty());
+    vbo.pushToGPU();
+
+    // the whole storage on the first push, nothing while clean and vertices 3 to 5 after the edit
+    assertEquals(
+        Arrays.asList("allocate " + 64 * VERTEX_SIZE * Float.BYTES + " DYNAMIC",
+            "range 0+50", "range " + 3 * VERTEX_SIZE * Float.BYTES + "+15"),
+        vbo.calls);
+    assertArrayEquals(new float[]{30, 31, 32, 33, 34, 4, 4, 4, 4, 4, 50, 51, 52, 53, 54},
+        vbo.uploaded.get(2));
+    assertFalse(vbo.isDirty());
+  }
+
+  @Test
+  public void testAddedVerticesAreUploadedUntilTheStorageIsFull() {
+    RecordingVertexBufferObject vbo = new RecordingVertexBufferObject(true, VboUsage.DYNAMIC);
+    addVertex(vbo, 0);
+    vbo.pushToGPU();
+
+    // fits into the storage that has been allocated for the initial capacity of the builder
+    addVertex(vbo, 1);
+    vbo.pushToGPU();
+    for (int i = 2; i < 65; i++) {
+      addVertex(vbo, i);
+    }
+    vbo.pushToGPU();
+
+    assertEquals(
+        Arrays.asList("allocate " + 64 * VERTEX_SIZE * Float.BYTES + " DYNAMIC", "range 0+5",
+            "range " + VERTEX_SIZE * Float.BYTES + "+5",
+            "allocate " + 128 * VERTEX_SIZE * Float.BYTES + " DYNAMIC", "range 0+325"),
+        vbo.calls);
+    assertEquals(65, vbo.getVertexCount());
+  }
+
+  @Test
+  public void testClearedVerticesKeepTheStorage() {
+    RecordingVertexBufferObject vbo = new RecordingVertexBufferObject(true, VboUsage.DYNAMIC);
+    for (int i = 0; i < 4; i++) {
+      addVertex(vbo, i);
+    }
+    vbo.pushToGPU();
+
+    vbo.clearVertices();
+    assertEquals(0, vbo.getVertexCount());
+    assertFalse(vbo.isDirty());
+    assertThrows(IndexOutOfBoundsException.class, () -> vbo.editVertex(0));
+
+    addVertex(vbo, 7);
+    assertTrue(vbo.isDirty());
+    vbo.pushToGPU();
+
+    assertEquals(Arrays.asList("allocate " + 64 * VERTEX_SIZE * Float.BYTES + " DYNAMIC",
+        "range 0+20", "range 0+5"), vbo.calls);
+    assertArrayEquals(new float[]{7, 7, 7, 7, 7}, vbo.uploaded.get(2));
+  }
+
+  @Test
+  public void testStreamedVerticesOrphanTheStorage() {
+    RecordingVertexBufferObject vbo = new RecordingVertexBufferObject(true, VboUsage.STREAM);
+    addVertex(vbo, 0);
+    vbo.pushToGPU();
+    vbo.editVertex(0).position(1, 1, 1);
+    vbo.pushToGPU();
+
+    String allocate = "allocate " + 64 * VERTEX_SIZE * Float.BYTES + " STREAM";
+    assertEquals(Arrays.asList(allocate, "range 0+5", allocate, "range 0+5"), vbo.calls);
+  }
+
+  @Test
+  public void testDeleteReleasesTheBinding() {
+    RecordingVertexBufferObject vbo = new RecordingVertexBufferObject(false, VboUsage.STATIC);
+    vbo.delete();
+
+    assertEquals(Arrays.asList("delete 42"), vbo.calls);
+    assertThrows(IllegalStateException.class, vbo::delete);
+  }
+
+  private static void addVertex(RecordingVertexBufferObject vbo, float value) {
+    vbo.addVertex().position(value, value, value).texture(value, value);
+  }
+
+  private static class RecordingVertexBufferObject extends DefaultVertexBufferObject {
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<float[]> uploaded = new ArrayList<>();
+
+    private RecordingVertexBufferObject(boolean packed, VboUsage usage) {
+      super(createFormat(), packed, usage, mock(VertexBuilder.Factory.class),
+          mock(GlStateTracker.class));
+    }
+
+    private static VertexFormat createFormat() {
+      VertexFormat format = mock(VertexFormat.class);
+      when(format.getAttributes())
+          .thenReturn(Arrays.asList(VertexAttributes.POSITION3F, VertexAttributes.TEXTURE_UV));
+      when(format.getVertexSize()).thenReturn(VERTEX_SIZE);
+      return format;
+    }
+
+    @Override
+    protected int generateBuffer() {
+      return 42;
+    }
+
+    @Override
+    protected void uploadStatic(float[] vertices) {
+      this.calls.add("static 0+" + vertices.length);
+      this.uploaded.add(vertices);
+    }
+
+    @Override
+    protected void uploadStatic(FloatBuffer vertices) {
+      this.calls.add("static " + vertices.position() + "+" + vertices.remaining());
+      this.uploaded.add(toArray(vertices));
+    }
+
+    @Override
+    protected void allocate(long bytes, VboUsage usage) {
+      this.calls.add("allocate " + bytes + " " + usage);
+      this.uploaded.add(null);
+    }
+
+    @Override
+    protected void uploadRange(long byteOffset, FloatBuffer vertices) {
+      this.calls.add("range " + byteOffset + "+" + vertices.remaining());
+      this.uploaded.add(toArray(vertices));
+    }
+
+    @Override
+    protected void deleteBuffer(int id) {
+      this.calls.add("delete " + id);
+    }
+
+    private static float[] toArray(FloatBuffer buffer) {
+      float[] values = new float[buffer.remaining()];
+      buffer.get(values);
+      return values;
+    }
+  }
+}
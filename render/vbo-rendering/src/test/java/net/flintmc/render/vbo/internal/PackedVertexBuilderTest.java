@@ -0,0 +1,175 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import net.flintmc.framework.inject.assisted.factory.AssistedFactoryModuleBuilder;
+import net.flintmc.render.vbo.VertexAttributes;
+import net.flintmc.render.vbo.VertexBufferObject;
+import net.flintmc.render.vbo.VertexBuilder;
+import net.flintmc.render.vbo.VertexFormat;
+import net.flintmc.util.unittesting.FlintTest;
+import net.flintmc.util.unittesting.StandaloneClassSource;
+import org.junit.jupiter.api.Test;
+
+@FlintTest
+public class PackedVertexBuilderTest extends AbstractModule {
+
+  private static final int VERTEX_SIZE = 3 + 4 + 2 + 3;
+
+  @Inject
+  private VertexBuilder.Factory builderFactory;
+
+  @Test
+  public void testPackedVerticesMatchUnpackedVertices() {
+    VertexBufferObject vbo = createVbo();
+    PackedVertexBuilder packed = new PackedVertexBuilder(vbo);
+    float[] values = randomValues(new Random(42), 200);
+
+    float[] unpacked = new float[values.length];
+    for (int vertex = 0; vertex < values.length / VERTEX_SIZE; vertex++) {
+      int offset = vertex * VERTEX_SIZE;
+      writeVertex(packed.beginVertex(), values, offset);
+
+      VertexBuilder builder = this.builderFactory.create(vbo);
+      writeVertex(builder, values, offset);
+      assertEquals(VERTEX_SIZE, builder.write(unpacked, offset));
+    }
+
+    assertEquals(values.length / VERTEX_SIZE, packed.getVertexCount());
+    assertArrayEquals(unpacked, toArray(packed.finish()));
+    assertArrayEquals(values, unpacked);
+  }
+
+  @Test
+  public void testPackedColorsMatchUnpackedColors() {
+    VertexBufferObject vbo = createVbo();
+    PackedVertexBuilder packed = new PackedVertexBuilder(vbo);
+    VertexBuilder builder = this.builderFactory.create(vbo);
+
+    for (VertexBuilder target : new VertexBuilder[]{packed.beginVertex(), builder}) {
+      target
+          .position(1, 2, 3)
+          .color((byte) 12, (byte) 34, (byte) 56, (byte) 78)
+          .texture(0.25F, 0.75F)
+          .normal(0, 1, 0);
+    }
+
+    float[] unpacked = new float[VERTEX_SIZE];
+    builder.write(unpacked, 0);
+    assertArrayEquals(unpacked, toArray(packed.finish()));
+  }
+
+  @Test
+  public void testEditedVerticesMatchUnpackedVertices() {
+    VertexBufferObject vbo = createVbo();
+    PackedVertexBuilder packed = new PackedVertexBuilder(vbo);
+    Random random = new Random(7);
+    // more vertices than the initial capacity so that the buffer has to grow
+    float[] values = randomValues(random, 100);
+    for (int offset = 0; offset < values.length; offset += VERTEX_SIZE) {
+      packed.addVertex(Arrays.copyOfRange(values, offset, offset + VERTEX_SIZE));
+    }
+    packed.finish();
+    packed.markClean();
+    assertFalse(packed.isDirty());
+
+    float[] edited = randomValues(random, 1);
+    writeVertex(packed.beginEdit(42), edited, 0);
+    System.arraycopy(edited, 0, values, 42 * VERTEX_SIZE, VERTEX_SIZE);
+
+    VertexBuilder builder = this.builderFactory.create(vbo);
+    writeVertex(builder, edited, 0);
+    float[] unpacked = new float[VERTEX_SIZE];
+    builder.write(unpacked, 0);
+
+    assertTrue(packed.isDirty());
+    assertEquals(42 * VERTEX_SIZE, packed.getDirtyStart());
+    assertArrayEquals(unpacked, toArray(packed.finishDirty()));
+    assertArrayEquals(values, toArray(packed.finish()));
+  }
+
+  @Test
+  public void testIncompleteVerticesAreRejected() {
+    PackedVertexBuilder packed = new PackedVertexBuilder(createVbo());
+    packed.beginVertex().position(1, 2, 3).color(1, 1, 1, 1);
+
+    assertThrows(IllegalStateException.class, packed::finish);
+    assertThrows(IllegalStateException.class, () -> packed.position(4, 5, 6));
+    assertThrows(IllegalStateException.class, () -> packed.custom(1));
+    assertThrows(IllegalArgumentException.class, () -> packed.getTextureHandler().addFloats(1, 1, 1));
+  }
+
+  private static void writeVertex(VertexBuilder builder, float[] values, int offset) {
+    builder
+        .position(values[offset], values[offset + 1], values[offset + 2])
+        .color(values[offset + 3], values[offset + 4], values[offset + 5], values[offset + 6])
+        .texture(values[offset + 7], values[offset + 8])
+        .normal(values[offset + 9], values[offset + 10], values[offset + 11]);
+  }
+
+  private static float[] randomValues(Random random, int vertices) {
+    float[] values = new float[vertices * VERTEX_SIZE];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextFloat() * 2 - 1;
+    }
+    return values;
+  }
+
+  private static float[] toArray(FloatBuffer buffer) {
+    float[] values = new float[buffer.remaining()];
+    buffer.get(values);
+    return values;
+  }
+
+  private static VertexBufferObject createVbo() {
+    VertexFormat format = mock(VertexFormat.class);
+    when(format.getAttributes()).thenReturn(Arrays.asList(
+        VertexAttributes.POSITION3F,
+        VertexAttributes.COLOR_RGBA,
+        VertexAttributes.TEXTURE_UV,
+        VertexAttributes.NORMAL));
+    when(format.getVertexSize()).thenReturn(VERTEX_SIZE);
+
+    VertexBufferObject vbo = mock(VertexBufferObject.class);
+    when(vbo.getFormat()).thenReturn(format);
+    return vbo;
+  }
+
+  @Override
+  protected void configure() {
+    StandaloneClassSource.install();
+    this.install(new AssistedFactoryModuleBuilder()
+        .implement(VertexBuilder.class, DefaultVertexBuilder.class)
+        .build(VertexBuilder.Factory.class));
+  }
+}
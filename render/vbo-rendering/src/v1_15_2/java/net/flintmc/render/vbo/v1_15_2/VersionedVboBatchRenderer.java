@@ -0,0 +1,142 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.v1_15_2;
+
+import static org.lwjgl.opengl.GL11.GL_POLYGON;
+import static org.lwjgl.opengl.GL33.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL33.GL_DYNAMIC_DRAW;
+import static org.lwjgl.opengl.GL33.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL33.GL_QUADS;
+import static org.lwjgl.opengl.GL33.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL33.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL33.glBufferData;
+import static org.lwjgl.opengl.GL33.glBufferSubData;
+import static org.lwjgl.opengl.GL33.glDeleteBuffers;
+import static org.lwjgl.opengl.GL33.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL33.glDrawElements;
+import static org.lwjgl.opengl.GL33.glGenBuffers;
+import static org.lwjgl.opengl.GL33.glMultiDrawElements;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import net.flintmc.framework.inject.assisted.AssistedInject;
+import net.flintmc.framework.inject.implement.Implement;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
+import net.flintmc.render.vbo.VboBatchRenderer;
+import net.flintmc.render.vbo.VboDrawMode;
+import net.flintmc.render.vbo.internal.DefaultVboBatchRenderer;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.PointerBuffer;
+
+/**
+ * {@inheritDoc}
+ */
+@Implement(VboBatchRenderer.class)
+public class VersionedVboBatchRenderer extends DefaultVboBatchRenderer {
+
+  private PointerBuffer offsets;
+
+  @AssistedInject
+  private VersionedVboBatchRenderer(GlStateTracker stateTracker) {
+    super(stateTracker);
+    this.offsets = BufferUtils.createPointerBuffer(16);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected int generateBuffer() {
+    return glGenBuffers();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void allocate(GlBindingTarget target, long bytes) {
+    glBufferData(
+        target == GlBindingTarget.ARRAY_BUFFER ? GL_ARRAY_BUFFER : GL_ELEMENT_ARRAY_BUFFER,
+        bytes,
+        GL_DYNAMIC_DRAW);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void uploadVertices(long byteOffset, FloatBuffer vertices) {
+    glBufferSubData(GL_ARRAY_BUFFER, byteOffset, vertices);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void uploadIndices(long byteOffset, IntBuffer indices) {
+    glBufferSubData(GL_ELEMENT_ARRAY_BUFFER, byteOffset, indices);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void drawElements(VboDrawMode drawMode, int indexCount) {
+    glDrawElements(
+        drawMode == VboDrawMode.QUADS ? GL_QUADS : GL_TRIANGLES, indexCount, GL_UNSIGNED_INT, 0);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void drawPolygons(IntBuffer counts, long[] byteOffsets) {
+    int polygons = counts.remaining();
+    if (this.offsets.capacity() < polygons) {
+      this.offsets =
+          BufferUtils.createPointerBuffer(Math.max(this.offsets.capacity() * 2, polygons));
+    }
+
+    this.offsets.clear();
+    for (int i = 0; i < polygons; i++) {
+      this.offsets.put(byteOffsets[i]);
+    }
+    this.offsets.flip();
+
+    glMultiDrawElements(GL_POLYGON, counts, GL_UNSIGNED_INT, this.offsets);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void deleteBuffer(int id) {
+    glDeleteBuffers(id);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void deleteVertexArray(int id) {
+    glDeleteVertexArrays(id);
+  }
+}
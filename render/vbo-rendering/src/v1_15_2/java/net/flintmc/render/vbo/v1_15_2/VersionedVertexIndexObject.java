@@ -20,13 +20,10 @@
 package net.flintmc.render.vbo.v1_15_2;
 
 import static org.lwjgl.opengl.GL33.GL_ELEMENT_ARRAY_BUFFER;
-import static org.lwjgl.opengl.GL33.GL_ELEMENT_ARRAY_BUFFER_BINDING;
 import static org.lwjgl.opengl.GL33.GL_STATIC_DRAW;
-import static org.lwjgl.opengl.GL33.glBindBuffer;
 import static org.lwjgl.opengl.GL33.glBufferData;
 import static org.lwjgl.opengl.GL33.glDeleteBuffers;
 import static org.lwjgl.opengl.GL33.glGenBuffers;
-import static org.lwjgl.opengl.GL33.glGetInteger;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -34,6 +31,8 @@ import java.util.List;
 import net.flintmc.framework.inject.assisted.Assisted;
 import net.flintmc.framework.inject.assisted.AssistedInject;
 import net.flintmc.framework.inject.implement.Implement;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
 import net.flintmc.render.vbo.VboDrawMode;
 import net.flintmc.render.vbo.VertexIndexObject;
 
@@ -44,6 +43,7 @@ import net.flintmc.render.vbo.VertexIndexObject;
 public class VersionedVertexIndexObject implements VertexIndexObject {
 
   private final List<Integer> indices;
+  private final GlStateTracker stateTracker;
   private final int id;
   private final VboDrawMode drawMode;
 
@@ -52,13 +52,15 @@ public class VersionedVertexIndexObject implements VertexIndexObject {
   private int oldEbo;
 
   @AssistedInject
-  private VersionedVertexIndexObject() {
-    this(VboDrawMode.TRIANGLES);
+  private VersionedVertexIndexObject(GlStateTracker stateTracker) {
+    this(VboDrawMode.TRIANGLES, stateTracker);
   }
 
   @AssistedInject
-  private VersionedVertexIndexObject(@Assisted VboDrawMode drawMode) {
+  private VersionedVertexIndexObject(
+      @Assisted VboDrawMode drawMode, GlStateTracker stateTracker) {
     this.indices = new ArrayList<>();
+    this.stateTracker = stateTracker;
     this.id = glGenBuffers();
     this.isAvailable = false;
     this.deleted = false;
@@ -124,9 +126,7 @@ public class VersionedVertexIndexObject implements VertexIndexObject {
    */
   @Override
   public void bind() {
-    this.oldEbo = glGetInteger(GL_ELEMENT_ARRAY_BUFFER_BINDING);
-    glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
-    glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, this.id);
+    this.oldEbo = this.stateTracker.push(GlBindingTarget.ELEMENT_ARRAY_BUFFER, this.id);
   }
 
   /**
@@ -134,7 +134,7 @@ public class VersionedVertexIndexObject implements VertexIndexObject {
    */
   @Override
   public void unbind() {
-    glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, Math.max(this.oldEbo, 0));
+    this.stateTracker.pop(GlBindingTarget.ELEMENT_ARRAY_BUFFER, this.oldEbo);
   }
 
   /**
@@ -161,9 +161,8 @@ public class VersionedVertexIndexObject implements VertexIndexObject {
     if (this.deleted) {
       throw new IllegalStateException("The EBO was already deleted.");
     }
-    this.bind();
     glDeleteBuffers(this.id);
-    this.unbind();
+    this.stateTracker.release(GlBindingTarget.ELEMENT_ARRAY_BUFFER, this.id);
     this.deleted = true;
   }
 }
@@ -0,0 +1,124 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.render.vbo.v1_16_5;
+
+import static org.lwjgl.opengl.GL33.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL33.GL_ARRAY_BUFFER_BINDING;
+import static org.lwjgl.opengl.GL33.GL_CURRENT_PROGRAM;
+import static org.lwjgl.opengl.GL33.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL33.GL_ELEMENT_ARRAY_BUFFER_BINDING;
+import static org.lwjgl.opengl.GL33.GL_VERTEX_ARRAY_BINDING;
+import static org.lwjgl.opengl.GL33.glBindBuffer;
+import static org.lwjgl.opengl.GL33.glBindVertexArray;
+import static org.lwjgl.opengl.GL33.glGetInteger;
+import static org.lwjgl.opengl.GL33.glUseProgram;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.flintmc.framework.inject.implement.Implement;
+import net.flintmc.framework.stereotype.type.Type;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
+import net.flintmc.render.vbo.internal.DefaultGlStateTracker;
+import net.flintmc.transform.hook.Hook;
+import net.flintmc.transform.hook.Hook.ExecutionTime;
+
+/**
+ * {@inheritDoc}
+ */
+@Singleton
+@Implement(GlStateTracker.class)
+public class VersionedGlStateTracker extends DefaultGlStateTracker {
+
+  @Inject
+  private VersionedGlStateTracker() {
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected int queryBinding(GlBindingTarget target) {
+    switch (target) {
+      case ARRAY_BUFFER:
+        return glGetInteger(GL_ARRAY_BUFFER_BINDING);
+      case ELEMENT_ARRAY_BUFFER:
+        return glGetInteger(GL_ELEMENT_ARRAY_BUFFER_BINDING);
+      case VERTEX_ARRAY:
+        return glGetInteger(GL_VERTEX_ARRAY_BINDING);
+      default:
+        return glGetInteger(GL_CURRENT_PROGRAM);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void bindTarget(GlBindingTarget target, int id) {
+    switch (target) {
+      case ARRAY_BUFFER:
+        glBindBuffer(GL_ARRAY_BUFFER, id);
+        break;
+      case ELEMENT_ARRAY_BUFFER:
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, id);
+        break;
+      case VERTEX_ARRAY:
+        glBindVertexArray(id);
+        break;
+      default:
+        glUseProgram(id);
+        break;
+    }
+  }
+
+  @Hook(
+      className = "net.minecraft.client.renderer.GameRenderer",
+      methodName = "updateCameraAndRender",
+      parameters = {
+          @Type(reference = float.class),
+          @Type(reference = long.class),
+          @Type(reference = boolean.class)
+      },
+      executionTime = {ExecutionTime.BEFORE, ExecutionTime.AFTER})
+  public void renderFrame(ExecutionTime executionTime) {
+    if (executionTime == ExecutionTime.BEFORE) {
+      this.beginFrame();
+    } else {
+      this.endFrame();
+    }
+  }
+
+  @Hook(
+      className = "com.mojang.blaze3d.platform.GlStateManager",
+      methodName = "bindBuffer",
+      parameters = {@Type(reference = int.class), @Type(reference = int.class)})
+  public void bindForeignBuffer() {
+    this.invalidateBuffers();
+  }
+
+  @Hook(
+      className = "com.mojang.blaze3d.platform.GlStateManager",
+      methodName = "useProgram",
+      parameters = @Type(reference = int.class))
+  public void useForeignProgram() {
+    this.invalidateProgram();
+  }
+}
@@ -23,16 +23,15 @@ import static org.lwjgl.opengl.GL11.GL_POLYGON;
 import static org.lwjgl.opengl.GL33.GL_QUADS;
 import static org.lwjgl.opengl.GL33.GL_TRIANGLES;
 import static org.lwjgl.opengl.GL33.GL_UNSIGNED_INT;
-import static org.lwjgl.opengl.GL33.GL_VERTEX_ARRAY_BINDING;
-import static org.lwjgl.opengl.GL33.glBindVertexArray;
 import static org.lwjgl.opengl.GL33.glDeleteVertexArrays;
 import static org.lwjgl.opengl.GL33.glDrawElements;
-import static org.lwjgl.opengl.GL33.glGetInteger;
 
 import java.nio.IntBuffer;
 import net.flintmc.framework.inject.assisted.Assisted;
 import net.flintmc.framework.inject.assisted.AssistedInject;
 import net.flintmc.framework.inject.implement.Implement;
+import net.flintmc.render.vbo.GlBindingTarget;
+import net.flintmc.render.vbo.GlStateTracker;
 import net.flintmc.render.vbo.VboDrawMode;
 import net.flintmc.render.vbo.VertexArrayObject;
 import net.flintmc.render.vbo.VertexBufferObject;
@@ -47,22 +46,27 @@ public class VersionedVertexArrayObject implements VertexArrayObject {
 
   private final VertexFormat format;
   private final VertexBufferObject vbo;
+  private final GlStateTracker stateTracker;
 
   private final int id;
   private int oldId;
   private boolean deleted;
 
   @AssistedInject
-  private VersionedVertexArrayObject(@Assisted VertexBufferObject vbo) {
+  private VersionedVertexArrayObject(
+      @Assisted VertexBufferObject vbo, GlStateTracker stateTracker) {
     this(vbo, () -> {
-    });
+    }, stateTracker);
   }
 
   @AssistedInject
   private VersionedVertexArrayObject(
-      @Assisted VertexBufferObject vbo, @Assisted Runnable bindCallback) {
+      @Assisted VertexBufferObject vbo,
+      @Assisted Runnable bindCallback,
+      GlStateTracker stateTracker) {
     this.format = vbo.getFormat();
     this.vbo = vbo;
+    this.stateTracker = stateTracker;
 
     this.id = this.format.createVAO();
     this.deleted = false;
@@ -88,10 +92,16 @@ public class VersionedVertexArrayObject implements VertexArrayObject {
     this.bind();
     this.vbo.bind();
     ebo.bind();
-    this.drawWithoutBind(ebo);
-    this.unbind();
-    this.vbo.unbind();
-    ebo.unbind();
+    try {
+      if (this.vbo.isDirty()) {
+        this.vbo.pushToGPU();
+      }
+      this.drawWithoutBind(ebo);
+    } finally {
+      this.unbind();
+      this.vbo.unbind();
+      ebo.unbind();
+    }
   }
 
   /**
@@ -101,12 +111,20 @@ public class VersionedVertexArrayObject implements VertexArrayObject {
   public void draw(IntBuffer indices, VboDrawMode drawMode) {
     this.bind();
     this.vbo.bind();
-    if (drawMode == VboDrawMode.TRIANGLES) {
-      glDrawElements(GL_TRIANGLES, indices);
-    } else if (drawMode == VboDrawMode.QUADS) {
-      glDrawElements(GL_QUADS, indices);
-    } else if (drawMode == VboDrawMode.POLYGON) {
-      glDrawElements(GL_POLYGON, indices);
+    try {
+      if (this.vbo.isDirty()) {
+        this.vbo.pushToGPU();
+      }
+      if (drawMode == VboDrawMode.TRIANGLES) {
+        glDrawElements(GL_TRIANGLES, indices);
+      } else if (drawMode == VboDrawMode.QUADS) {
+        glDrawElements(GL_QUADS, indices);
+      } else if (drawMode == VboDrawMode.POLYGON) {
+        glDrawElements(GL_POLYGON, indices);
+      }
+    } finally {
+      this.unbind();
+      this.vbo.unbind();
     }
   }
 
@@ -152,8 +170,7 @@ public class VersionedVertexArrayObject implements VertexArrayObject {
    */
   @Override
   public void bind() {
-    this.oldId = glGetInteger(GL_VERTEX_ARRAY_BINDING);
-    glBindVertexArray(this.id);
+    this.oldId = this.stateTracker.push(GlBindingTarget.VERTEX_ARRAY, this.id);
   }
 
   /**
@@ -161,7 +178,7 @@ public class VersionedVertexArrayObject implements VertexArrayObject {
    */
   @Override
   public void unbind() {
-    glBindVertexArray(this.oldId);
+    this.stateTracker.pop(GlBindingTarget.VERTEX_ARRAY, this.oldId);
   }
 
   /**
@@ -181,9 +198,8 @@ public class VersionedVertexArrayObject implements VertexArrayObject {
       throw new IllegalStateException("The VAO was already deleted.");
     }
     this.vbo.delete();
-    this.bind();
     glDeleteVertexArrays(this.id);
-    this.unbind();
+    this.stateTracker.release(GlBindingTarget.VERTEX_ARRAY, this.id);
     this.deleted = true;
   }
 }
@@ -17,164 +17,110 @@
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 
+
 package net.flintmc.render.vbo.v1_16_5;
 
 import static org.lwjgl.opengl.GL33.GL_ARRAY_BUFFER;
-import static org.lwjgl.opengl.GL33.GL_ARRAY_BUFFER_BINDING;
+import static org.lwjgl.opengl.GL33.GL_DYNAMIC_DRAW;
 import static org.lwjgl.opengl.GL33.GL_STATIC_DRAW;
-import static org.lwjgl.opengl.GL33.glBindBuffer;
+import static org.lwjgl.opengl.GL33.GL_STREAM_DRAW;
 import static org.lwjgl.opengl.GL33.glBufferData;
+import static org.lwjgl.opengl.GL33.glBufferSubData;
 import static org.lwjgl.opengl.GL33.glDeleteBuffers;
 import static org.lwjgl.opengl.GL33.glGenBuffers;
-import static org.lwjgl.opengl.GL33.glGetInteger;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.nio.FloatBuffer;
 import net.flintmc.framework.inject.assisted.Assisted;
 import net.flintmc.framework.inject.assisted.AssistedInject;
 import net.flintmc.framework.inject.implement.Implement;
+import net.flintmc.render.vbo.GlStateTracker;
+import net.flintmc.render.vbo.VboUsage;
 import net.flintmc.render.vbo.VertexBufferObject;
 import net.flintmc.render.vbo.VertexBuilder;
 import net.flintmc.render.vbo.VertexFormat;
+import net.flintmc.render.vbo.internal.DefaultVertexBufferObject;
 
 /**
  * {@inheritDoc}
  */
 @Implement(VertexBufferObject.class)
-public class VersionedVertexBufferObject implements VertexBufferObject {
-
-  private final VertexFormat vertexFormat;
-  private final VertexBuilder.Factory vertexBuilderFactory;
-  private final int id;
-
-  private List<VertexBuilder> vertices;
-  private boolean isAvailable;
-  private boolean deleted;
-  private int previousVbo;
+public class VersionedVertexBufferObject extends DefaultVertexBufferObject {
 
   @AssistedInject
   private VersionedVertexBufferObject(
-      @Assisted VertexFormat vertexFormat, VertexBuilder.Factory vertexBuilderFactory) {
-    this.vertexFormat = vertexFormat;
-    this.vertexBuilderFactory = vertexBuilderFactory;
-    this.vertices = new ArrayList<>();
-    this.id = glGenBuffers();
-    this.isAvailable = false;
-    this.deleted = false;
-  }
-
-  /**
-   * {@inheritDoc}
-   */
-  @Override
-  public VertexBuilder addVertex() {
-    if (isAvailable) {
-      throw new IllegalStateException(
-          "This VBO is already pushed to the GPU, vertices can't be added anymore.");
-    }
-    VertexBuilder builder = this.vertexBuilderFactory.create(this);
-    this.vertices.add(builder);
-    return builder;
-  }
-
-  /**
-   * {@inheritDoc}
-   */
-  @Override
-  public void addVertex(VertexBuilder vertexBuilder) {
-    if (isAvailable) {
-      throw new IllegalStateException(
-          "This VBO is already pushed to the GPU, vertices can't be added anymore.");
-    }
-    this.vertices.add(vertexBuilder);
+      @Assisted VertexFormat vertexFormat,
+      VertexBuilder.Factory vertexBuilderFactory,
+      GlStateTracker stateTracker) {
+    this(vertexFormat, false, vertexBuilderFactory, stateTracker);
   }
 
-  /**
-   * {@inheritDoc}
-   */
-  @Override
-  public List<VertexBuilder> getVertices() {
-    return Collections.unmodifiableList(this.vertices);
-  }
-
-  public int getVertexCount() {
-    return this.vertices.size();
+  @AssistedInject
+  private VersionedVertexBufferObject(
+      @Assisted VertexFormat vertexFormat,
+      @Assisted("packed") boolean packed,
+      VertexBuilder.Factory vertexBuilderFactory,
+      GlStateTracker stateTracker) {
+    super(vertexFormat, packed, VboUsage.STATIC, vertexBuilderFactory, stateTracker);
   }
 
-  /**
-   * {@inheritDoc}
-   */
-  @Override
-  public void pushToGPU() {
-   /* if (isAvailable) {
-      throw new IllegalStateException("This VBO is already pushed to the GPU.");
-    }*/
-    int totalSize = vertices.size() * vertexFormat.getVertexSize();
-    float[] buffer = new float[totalSize];
-    int offset = 0;
-    for (VertexBuilder vertex : this.vertices) {
-      offset += vertex.write(buffer, offset);
-    }
-
-    glBufferData(GL_ARRAY_BUFFER, buffer, GL_STATIC_DRAW);
-
-    this.isAvailable = true;
+  @AssistedInject
+  private VersionedVertexBufferObject(
+      @Assisted VertexFormat vertexFormat,
+      @Assisted VboUsage usage,
+      VertexBuilder.Factory vertexBuilderFactory,
+      GlStateTracker stateTracker) {
+    super(vertexFormat, true, usage, vertexBuilderFactory, stateTracker);
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public int getID() {
-    return this.id;
+  protected int generateBuffer() {
+    return glGenBuffers();
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void bind() {
-    this.previousVbo = glGetInteger(GL_ARRAY_BUFFER_BINDING);
-    glBindBuffer(GL_ARRAY_BUFFER, 0);
-    glBindBuffer(GL_ARRAY_BUFFER, this.id);
+  protected void uploadStatic(float[] vertices) {
+    glBufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void unbind() {
-    glBindBuffer(GL_ARRAY_BUFFER, Math.max(this.previousVbo, 0));
+  protected void uploadStatic(FloatBuffer vertices) {
+    glBufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public boolean isAvailable() {
-    return this.isAvailable;
+  protected void allocate(long bytes, VboUsage usage) {
+    int glUsage =
+        usage == VboUsage.STREAM
+            ? GL_STREAM_DRAW
+            : usage == VboUsage.DYNAMIC ? GL_DYNAMIC_DRAW : GL_STATIC_DRAW;
+    glBufferData(GL_ARRAY_BUFFER, bytes, glUsage);
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public VertexFormat getFormat() {
-    return this.vertexFormat;
+  protected void uploadRange(long byteOffset, FloatBuffer vertices) {
+    glBufferSubData(GL_ARRAY_BUFFER, byteOffset, vertices);
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void delete() {
-    if (this.deleted) {
-      throw new IllegalStateException("The VBO was already deleted.");
-    }
-    this.bind();
-    glDeleteBuffers(this.id);
-    this.unbind();
-    this.deleted = true;
+  protected void deleteBuffer(int id) {
+    glDeleteBuffers(id);
   }
 }
@@ -27,6 +27,7 @@ fun defineModule(path: String) {
 pluginManagement {
     plugins {
         id("net.flintmc.flint-gradle") version "2.10.1"
+        id("me.champeau.jmh") version "0.6.5"
     }
 
     buildscript {
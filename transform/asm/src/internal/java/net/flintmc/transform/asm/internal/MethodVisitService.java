@@ -24,11 +24,13 @@ import com.google.inject.Singleton;
 import net.flintmc.framework.inject.method.MethodInjector;
 import net.flintmc.framework.stereotype.service.Service;
 import net.flintmc.framework.stereotype.service.ServiceHandler;
+import net.flintmc.launcher.classloading.ClassTransformException;
 import net.flintmc.launcher.classloading.common.CommonClassLoader;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.transform.asm.MethodVisit;
 import net.flintmc.transform.asm.MethodVisitorContext;
 import net.flintmc.transform.launchplugin.LateInjectedTransformer;
+import net.flintmc.transform.launchplugin.TransformedClass;
 import net.flintmc.transform.minecraft.MinecraftTransformer;
 import net.flintmc.util.mappings.ClassMapping;
 import net.flintmc.util.mappings.ClassMappingProvider;
@@ -63,6 +65,18 @@ public class MethodVisitService implements ServiceHandler<MethodVisit>, LateInje
     this.registeredContexts = new HashSet<>();
   }
 
+  @Override
+  public void transform(String className, CommonClassLoader classLoader,
+      TransformedClass transformed) throws ClassTransformException {
+    byte[] bytes = transformed.getBytes();
+    byte[] modified = this.transform(className, classLoader, bytes);
+    if (modified != bytes) {
+      // the method visitors are created at runtime and may depend on anything
+      transformed.disableCaching();
+      transformed.setBytes(modified);
+    }
+  }
+
   @Override
   public byte[] transform(String s, CommonClassLoader classLoader, byte[] bytes) {
     ClassMapping classMapping = this.classMappingProvider.get(s);
@@ -19,6 +19,7 @@
 
 plugins {
     id("java-library")
+    id("me.champeau.jmh")
 }
 
 group = "net.flintmc"
@@ -33,4 +34,12 @@ dependencies {
     api(project(":util:util-commons"))
     api(project(":util:util-mapping"))
     api(project(":transform:transform-javassist"))
+
+    jmhImplementation(project(":transform:transform-hook", "internal"))
+    jmhImplementation(project(":framework:framework-inject", "internal"))
+    jmhImplementation(project(":util:util-unit-testing"))
+}
+
+jmh {
+    jmhVersion.set("1.27")
 }
@@ -19,7 +19,9 @@
 
 package net.flintmc.transform.hook.internal;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
@@ -32,36 +34,55 @@ import javassist.CtClass;
 import javassist.CtMethod;
 import javassist.Modifier;
 import javassist.NotFoundException;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.ParameterAnnotationsAttribute;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.IntegerMemberValue;
+import javassist.bytecode.annotation.MemberValue;
+import javassist.bytecode.annotation.StringMemberValue;
 import net.flintmc.framework.inject.method.MethodInjectionUtils;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
 import net.flintmc.framework.stereotype.DefaultValues;
+import net.flintmc.framework.stereotype.service.ConcurrentServiceHandler;
+import net.flintmc.framework.stereotype.service.CtResolver;
 import net.flintmc.framework.stereotype.service.Service;
-import net.flintmc.framework.stereotype.service.ServiceHandler;
+import net.flintmc.framework.stereotype.service.ServiceNotFoundException;
 import net.flintmc.framework.stereotype.type.Type;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.transform.hook.Hook;
+import net.flintmc.transform.hook.HookArgument;
 import net.flintmc.transform.hook.HookFilter;
 import net.flintmc.transform.hook.HookResult;
+import net.flintmc.transform.javassist.ClassHeaderFilter;
 import net.flintmc.transform.javassist.ClassTransform;
 import net.flintmc.transform.javassist.ClassTransformContext;
+import net.flintmc.transform.launchplugin.ClassHeader;
 import net.flintmc.util.commons.resolve.AnnotationResolver;
 import net.flintmc.util.mappings.ClassMapping;
 import net.flintmc.util.mappings.ClassMappingProvider;
 import net.flintmc.util.mappings.MethodMapping;
 import net.flintmc.util.mappings.utils.line.MappingLineParser;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Singleton
 @Service(value = Hook.class, priority = -20000, state = Service.State.AFTER_IMPLEMENT)
-public class HookService implements ServiceHandler<Hook> {
+public class HookService implements ConcurrentServiceHandler<Hook>, ClassHeaderFilter {
 
   private final ClassPool pool;
   private final ClassMappingProvider mappingProvider;
   private final MappingLineParser lineParser;
   private final Provider<MethodInjectionUtils> methodInjectionUtils;
-  private final Collection<HookEntry> hooks;
+  private final Multimap<String, HookEntry> hooksByClass;
+  private final Collection<HookEntry> filteredHooks;
+  private final Map<String, Class<?>> typedInjectors;
 
   @Inject
   private HookService(
@@ -73,11 +94,13 @@ public class HookService implements ServiceHandler<Hook> {
     this.mappingProvider = mappingProvider;
     this.lineParser = lineParser;
     this.methodInjectionUtils = methodInjectionUtils;
-    this.hooks = Sets.newHashSet();
+    this.hooksByClass = HashMultimap.create();
+    this.filteredHooks = Sets.newHashSet();
+    this.typedInjectors = new ConcurrentHashMap<>();
   }
 
   @Override
-  public void discover(AnnotationMeta<Hook> meta) {
+  public void discover(AnnotationMeta<Hook> meta) throws ServiceNotFoundException {
     Map<AnnotationMeta<HookFilter>, AnnotationResolver<Type, String>> subProperties =
         Maps.newHashMap();
 
@@ -90,12 +113,77 @@ public class HookService implements ServiceHandler<Hook> {
 
     Hook annotation = meta.getAnnotation();
 
-    this.hooks.add(
-        new HookEntry(
-            meta,
-            subProperties,
-            InjectionHolder.getInjectedInstance(annotation.parameterTypeNameResolver()),
-            InjectionHolder.getInjectedInstance(annotation.methodNameResolver())));
+    CtMethod callback = meta.getMethodIdentifier().getLocation();
+    int[] arguments;
+    Class<?> injector;
+    try {
+      arguments = this.getConsumedArguments(callback);
+      // the injector is resolved before any class is transformed, so that transforming a class
+      // doesn't define new classes and the transformed class can be cached
+      injector =
+          this.acceptsArgumentArray(callback)
+              ? HookInjector.class
+              : arguments.length == 0
+                  ? SimpleHookInjector.class
+                  : this.getTypedInjector(callback, arguments);
+    } catch (NotFoundException | CannotCompileException exception) {
+      throw new ServiceNotFoundException(
+          "Failed to generate the injector for the hook "
+              + callback.getDeclaringClass().getName() + "." + callback.getName(),
+          exception);
+    }
+
+    HookEntry entry = new HookEntry(
+        meta,
+        subProperties,
+        InjectionHolder.getInjectedInstance(annotation.parameterTypeNameResolver()),
+        InjectionHolder.getInjectedInstance(annotation.methodNameResolver()),
+        injector,
+        arguments);
+
+    if (annotation.className().isEmpty()) {
+      this.filteredHooks.add(entry);
+      return;
+    }
+
+    // index the hook by the name of the class at runtime so that it doesn't need to be resolved
+    // for every class that is transformed
+    ClassMapping mapping = this.mappingProvider.get(annotation.className());
+    this.hooksByClass.put(
+        mapping != null ? mapping.getName() : annotation.className(), entry);
+  }
+
+  @Override
+  public boolean claims(ClassHeader header) {
+    if (this.hooksByClass.containsKey(header.getName())) {
+      return true;
+    }
+
+    // the class is claimed if any filter matches, transform decides which filters are applied
+    for (HookEntry entry : this.filteredHooks) {
+      for (Map.Entry<AnnotationMeta<HookFilter>, AnnotationResolver<Type, String>> subProperty :
+          entry.subProperties.entrySet()) {
+        HookFilter hookFilter = subProperty.getKey().getAnnotation();
+
+        try {
+          if (hookFilter
+              .value()
+              .test(
+                  this.pool,
+                  header,
+                  this.mappingProvider
+                      .get(subProperty.getValue().resolve(hookFilter.type()))
+                      .getName())) {
+            return true;
+          }
+        } catch (NotFoundException exception) {
+          // let the transformation handle the missing class
+          return true;
+        }
+      }
+    }
+
+    return false;
   }
 
   @ClassTransform
@@ -103,45 +191,49 @@ public class HookService implements ServiceHandler<Hook> {
       throws NotFoundException, CannotCompileException {
     CtClass ctClass = context.getCtClass();
 
-    for (HookEntry entry : hooks) {
+    for (HookEntry entry : this.hooksByClass.get(ctClass.getName())) {
+      this.modify(
+          entry, entry.hook.getAnnotation(), ctClass,
+          entry.hook.getMethodIdentifier().getLocation());
+    }
+
+    for (HookEntry entry : this.filteredHooks) {
       AnnotationMeta<Hook> identifier = entry.hook;
 
       Hook hook = identifier.getAnnotation();
-      if (!hook.className().isEmpty()) {
-        String className = this.mappingProvider.get(hook.className()).getName();
-        if (className != null && className.equals(ctClass.getName())) {
-          this.modify(entry, hook, ctClass, identifier.getMethodIdentifier().getLocation());
+      boolean cancel = false;
+      for (Map.Entry<AnnotationMeta<HookFilter>, AnnotationResolver<Type, String>> subProperty :
+          entry.subProperties.entrySet()) {
+        HookFilter hookFilter = subProperty.getKey().getAnnotation();
+
+        if (!hookFilter
+            .value()
+            .test(
+                ctClass,
+                this.mappingProvider
+                    .get(subProperty.getValue().resolve(hookFilter.type()))
+                    .getName())) {
+          cancel = true;
         }
-      } else {
-        boolean cancel = false;
-        for (Map.Entry<AnnotationMeta<HookFilter>, AnnotationResolver<Type, String>> subProperty :
-            entry.subProperties.entrySet()) {
-          HookFilter hookFilter = subProperty.getKey().getAnnotation();
-
-          if (!hookFilter
-              .value()
-              .test(
-                  ctClass,
-                  this.mappingProvider
-                      .get(subProperty.getValue().resolve(hookFilter.type()))
-                      .getName())) {
-            cancel = true;
-          }
-          if (!cancel) {
-            this.modify(entry, hook, ctClass, identifier.getMethodIdentifier().getLocation());
-          }
+        if (!cancel) {
+          this.modify(entry, hook, ctClass, identifier.getMethodIdentifier().getLocation());
         }
       }
     }
   }
 
   private void insert(
-      CtBehavior target, Hook hook, Hook.ExecutionTime executionTime, CtMethod hookMethod)
+      CtBehavior target,
+      Hook hook,
+      Hook.ExecutionTime executionTime,
+      CtMethod hookMethod,
+      Class<?> injector,
+      int[] typedArguments)
       throws CannotCompileException, NotFoundException {
     CtMethod getter =
         this.methodInjectionUtils
             .get()
-            .generateInjector(target.getDeclaringClass(), hookMethod, HookInjector.class);
+            .generateInjector(target.getDeclaringClass(), hookMethod, injector);
 
     String getterDeclaringName = getter.getDeclaringClass().equals(target.getDeclaringClass())
         ? ""
@@ -149,12 +241,22 @@ public class HookService implements ServiceHandler<Hook> {
     String getterSrc =
         (getterDeclaringName.isEmpty() ? "" : getterDeclaringName + ".") + getter.getName();
 
-    // getMethodInjector().notifyHook(instance, args, executionTime)
+    // getMethodInjector().notifyHook(instance, args, executionTime) or, for typed hooks,
+    // getMethodInjector().notifyHook(instance, <consumed arguments>, executionTime)
+    StringBuilder arguments = new StringBuilder();
+    if (injector == HookInjector.class) {
+      arguments.append("$args, ");
+    } else {
+      for (int index : typedArguments) {
+        arguments.append('$').append(index + 1).append(", ");
+      }
+    }
     String notify =
         String.format(
-            "%s().notifyHook(%s, $args, net.flintmc.transform.hook.Hook.ExecutionTime.%s);",
+            "%s().notifyHook(%s, %snet.flintmc.transform.hook.Hook.ExecutionTime.%s);",
             getterSrc,
             Modifier.isStatic(target.getModifiers()) ? "null" : "$0",
+            arguments,
             executionTime);
     String varName = "hookNotifyResult";
 
@@ -236,19 +338,188 @@ public class HookService implements ServiceHandler<Hook> {
                   methodName,
                   parameters);
 
-      if (target != null) {
+      if (target != null && hook.executionTime().length != 0) {
+        this.validateArguments(target, target.getParameterTypes(), callback);
         for (Hook.ExecutionTime executionTime : hook.executionTime()) {
-          this.insert(target, hook, executionTime, callback);
+          this.insert(
+              target, hook, executionTime, callback, hookEntry.injector, hookEntry.arguments);
         }
       }
     } catch (NotFoundException ignored) {
     }
   }
 
+  /**
+   * Checks whether the given hook method has a {@code @Named("args") Object[]} parameter and
+   * therefore needs the arguments of the hooked method in an array.
+   */
+  private boolean acceptsArgumentArray(CtMethod callback) {
+    for (Annotation[] annotations : this.getParameterAnnotations(callback)) {
+      for (Annotation annotation : annotations) {
+        if (this.isNamed(annotation, "args")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isNamed(Annotation annotation, String name) {
+    if (!annotation.getTypeName().equals(Named.class.getName())
+        && !annotation.getTypeName().equals(javax.inject.Named.class.getName())) {
+      return false;
+    }
+    MemberValue value = annotation.getMemberValue("value");
+    return value instanceof StringMemberValue
+        && ((StringMemberValue) value).getValue().equals(name);
+  }
+
+  private Annotation[][] getParameterAnnotations(CtMethod method) {
+    ParameterAnnotationsAttribute attribute =
+        (ParameterAnnotationsAttribute)
+            method.getMethodInfo2().getAttribute(ParameterAnnotationsAttribute.visibleTag);
+    return attribute != null ? attribute.getAnnotations() : new Annotation[0][];
+  }
+
+  /**
+   * Retrieves the indices of the arguments of the hooked method that are requested by the
+   * parameters of the given hook method with {@link HookArgument}, in the order of the parameters.
+   */
+  private int[] getConsumedArguments(CtMethod callback) {
+    List<Integer> arguments = new ArrayList<>();
+    for (Annotation[] annotations : this.getParameterAnnotations(callback)) {
+      for (Annotation annotation : annotations) {
+        if (annotation.getTypeName().equals(HookArgument.class.getName())) {
+          arguments.add(((IntegerMemberValue) annotation.getMemberValue("value")).getValue());
+        }
+      }
+    }
+    return arguments.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Retrieves the interface of the invoker for a hook method that requests arguments of the hooked
+   * method with {@link HookArgument}. Its only method takes the instance, the requested arguments
+   * with their real types and the execution time, so that the method injector can pass them
+   * directly to the parameters of the hook method. Hook methods that request the same arguments
+   * with the same types share one interface, its name only depends on these arguments so that
+   * cached transformed classes find it again in the next launch.
+   */
+  private Class<?> getTypedInjector(CtMethod callback, int[] arguments)
+      throws NotFoundException, CannotCompileException {
+    CtClass[] types = new CtClass[arguments.length];
+    CtClass[] callbackParameters = callback.getParameterTypes();
+    Annotation[][] annotations = this.getParameterAnnotations(callback);
+    StringBuilder signature = new StringBuilder();
+    int argument = 0;
+    for (int i = 0; i < annotations.length; i++) {
+      for (Annotation annotation : annotations[i]) {
+        if (annotation.getTypeName().equals(HookArgument.class.getName())) {
+          types[argument] = callbackParameters[i];
+          signature.append(arguments[argument]).append(':')
+              .append(callbackParameters[i].getName()).append(';');
+          argument++;
+        }
+      }
+    }
+
+    Class<?> injector = this.typedInjectors.get(signature.toString());
+    if (injector != null) {
+      return injector;
+    }
+
+    synchronized (this.typedInjectors) {
+      injector = this.typedInjectors.get(signature.toString());
+      if (injector == null) {
+        injector = this.generateTypedInjector(signature.toString(), types, arguments);
+        this.typedInjectors.put(signature.toString(), injector);
+      }
+      return injector;
+    }
+  }
+
+  private Class<?> generateTypedInjector(String signature, CtClass[] types, int[] arguments)
+      throws NotFoundException, CannotCompileException {
+    CtClass generated =
+        this.pool.makeInterface(
+            "GeneratedHookInjector_"
+                + UUID.nameUUIDFromBytes(signature.getBytes(StandardCharsets.UTF_8))
+                .toString()
+                .replace("-", ""));
+    ConstPool constPool = generated.getClassFile().getConstPool();
+
+    CtClass[] injectorParameters = new CtClass[types.length + 2];
+    Annotation[][] annotations = new Annotation[injectorParameters.length][];
+
+    injectorParameters[0] = this.pool.get(Object.class.getName());
+    Annotation instance = new Annotation(Named.class.getName(), constPool);
+    instance.addMemberValue("value", new StringMemberValue("instance", constPool));
+    annotations[0] = new Annotation[]{instance};
+
+    for (int i = 0; i < types.length; i++) {
+      injectorParameters[i + 1] = types[i];
+      Annotation argument = new Annotation(HookArgument.class.getName(), constPool);
+      argument.addMemberValue("value", new IntegerMemberValue(constPool, arguments[i]));
+      annotations[i + 1] = new Annotation[]{argument};
+    }
+
+    injectorParameters[types.length + 1] = this.pool.get(Hook.ExecutionTime.class.getName());
+    annotations[types.length + 1] = new Annotation[0];
+
+    CtMethod notify =
+        new CtMethod(
+            this.pool.get(Object.class.getName()), "notifyHook", injectorParameters, generated);
+    notify.setModifiers(Modifier.PUBLIC | Modifier.ABSTRACT);
+    ParameterAnnotationsAttribute attribute =
+        new ParameterAnnotationsAttribute(constPool, ParameterAnnotationsAttribute.visibleTag);
+    attribute.setAnnotations(annotations);
+    notify.getMethodInfo().addAttribute(attribute);
+    generated.addMethod(notify);
+
+    try {
+      return CtResolver.defineClass(generated);
+    } catch (IOException exception) {
+      throw new CannotCompileException(exception);
+    }
+  }
+
+  private void validateArguments(CtBehavior target, CtClass[] parameters, CtMethod callback)
+      throws NotFoundException {
+    Annotation[][] annotations = this.getParameterAnnotations(callback);
+    CtClass[] callbackParameters = callback.getParameterTypes();
+
+    for (int i = 0; i < annotations.length; i++) {
+      for (Annotation annotation : annotations[i]) {
+        if (!annotation.getTypeName().equals(HookArgument.class.getName())) {
+          continue;
+        }
+
+        int index = ((IntegerMemberValue) annotation.getMemberValue("value")).getValue();
+        if (index < 0 || index >= parameters.length) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "Hook %s.%s requests argument %d, but %s.%s only has %d parameters",
+                  callback.getDeclaringClass().getName(), callback.getName(), index,
+                  target.getDeclaringClass().getName(), target.getName(), parameters.length));
+        }
+        if (!parameters[index].getName().equals(callbackParameters[i].getName())) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "Hook %s.%s expects argument %d to be %s, but it is %s in %s.%s",
+                  callback.getDeclaringClass().getName(), callback.getName(), index,
+                  callbackParameters[i].getName(), parameters[index].getName(),
+                  target.getDeclaringClass().getName(), target.getName()));
+        }
+      }
+    }
+  }
+
   private static class HookEntry {
 
     private final AnnotationResolver<Type, String> parameterTypeNameResolver;
     private final AnnotationResolver<Hook, String> methodNameResolver;
+    private final Class<?> injector;
+    private final int[] arguments;
     AnnotationMeta<Hook> hook;
     Map<AnnotationMeta<HookFilter>, AnnotationResolver<Type, String>> subProperties;
 
@@ -256,11 +527,15 @@ public class HookService implements ServiceHandler<Hook> {
         AnnotationMeta<Hook> hook,
         Map<AnnotationMeta<HookFilter>, AnnotationResolver<Type, String>> subProperties,
         AnnotationResolver<Type, String> parameterTypeNameResolver,
-        AnnotationResolver<Hook, String> methodNameResolver) {
+        AnnotationResolver<Hook, String> methodNameResolver,
+        Class<?> injector,
+        int[] arguments) {
       this.hook = hook;
       this.subProperties = subProperties;
       this.parameterTypeNameResolver = parameterTypeNameResolver;
       this.methodNameResolver = methodNameResolver;
+      this.injector = injector;
+      this.arguments = arguments;
     }
   }
 }
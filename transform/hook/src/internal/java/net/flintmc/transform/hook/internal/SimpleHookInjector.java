@@ -0,0 +1,34 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+
+package net.flintmc.transform.hook.internal;
+
+import com.google.inject.name.Named;
+import net.flintmc.transform.hook.Hook;
+
+/**
+ * Injector for hook methods that neither need the arguments of the hooked method in an array nor
+ * any of them with {@link net.flintmc.transform.hook.HookArgument}, so that nothing has to be
+ * generated or allocated to invoke them.
+ */
+public interface SimpleHookInjector {
+
+  Object notifyHook(@Named("instance") Object instance, Hook.ExecutionTime executionTime);
+}
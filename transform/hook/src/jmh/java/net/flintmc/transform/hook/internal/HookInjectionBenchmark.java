@@ -0,0 +1,228 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+
+package net.flintmc.transform.hook.internal;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+import com.google.inject.name.Named;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+import javassist.CtMethod;
+import net.flintmc.framework.inject.InjectedFieldBuilder;
+import net.flintmc.framework.inject.InjectionUtils;
+import net.flintmc.framework.inject.method.MethodInjectionUtils;
+import net.flintmc.framework.inject.method.MethodInjector;
+import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.stereotype.service.CtResolver;
+import net.flintmc.transform.hook.Hook;
+import net.flintmc.transform.hook.HookArgument;
+import net.flintmc.util.unittesting.StandaloneClassSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a call of a method with eight parameters that has been hooked by the {@link
+ * HookService}. The hook method of the {@code args} mode receives the arguments in an array, the
+ * one of the {@code typed} mode a single argument via {@link HookArgument} and the one of the
+ * {@code none} mode no argument at all. The {@code unhooked} mode calls the method without a hook.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HookInjectionBenchmark {
+
+  private static boolean initialized;
+
+  @Param({"unhooked", "args", "typed", "none"})
+  public String mode;
+
+  private Renderer renderer;
+  private int value;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    StandaloneClassSource.install();
+    initializeInjection();
+
+    ClassPool pool = ClassPool.getDefault();
+    CtClass target =
+        pool.getAndRename(HookTarget.class.getName(), HookTarget.class.getName() + "_" + this.mode);
+
+    if (!this.mode.equals("unhooked")) {
+      Constructor<MethodInjectionUtils> utilsConstructor = getConstructor(
+          "net.flintmc.framework.inject.internal.method.DefaultMethodInjectionUtils",
+          InjectionUtils.class, InjectedFieldBuilder.Factory.class);
+      InjectionUtils injectionUtils = InjectionHolder.getInjectedInstance(InjectionUtils.class);
+      MethodInjectionUtils utils = utilsConstructor.newInstance(
+          injectionUtils, InjectionHolder.getInjectedInstance(InjectedFieldBuilder.Factory.class));
+
+      Constructor<HookService> serviceConstructor = HookService.class.getDeclaredConstructor(
+          ClassPool.class, net.flintmc.util.mappings.ClassMappingProvider.class,
+          net.flintmc.util.mappings.utils.line.MappingLineParser.class, Provider.class);
+      serviceConstructor.setAccessible(true);
+      HookService service = serviceConstructor
+          .newInstance(pool, null, null, (Provider<MethodInjectionUtils>) () -> utils);
+
+      // the same steps as discovering the hook and applying it to the target
+      CtMethod callback = pool.get(Callbacks.class.getName()).getDeclaredMethod(this.mode);
+      int[] arguments = (int[]) invoke(service, "getConsumedArguments", callback);
+      Class<?> injector =
+          (boolean) invoke(service, "acceptsArgumentArray", callback)
+              ? HookInjector.class
+              : arguments.length == 0
+                  ? SimpleHookInjector.class
+                  : (Class<?>) invoke(service, "getTypedInjector", callback, arguments);
+
+      Hook hook = null;
+      for (Method method : Callbacks.class.getDeclaredMethods()) {
+        if (method.getName().equals(this.mode)) {
+          hook = method.getAnnotation(Hook.class);
+        }
+      }
+      CtBehavior behavior = target.getDeclaredMethod("doRender");
+      invoke(service, "insert",
+          behavior, hook, Hook.ExecutionTime.BEFORE, callback, injector, arguments);
+    }
+
+    this.renderer =
+        (Renderer) CtResolver.defineClass(target).getDeclaredConstructor().newInstance();
+  }
+
+  @Benchmark
+  public int call() {
+    return this.renderer.doRender(null, "entity", this.value++, 1, 0.1F, 0.2F, 0.3F, 1.0F);
+  }
+
+  private static synchronized void initializeInjection() throws ReflectiveOperationException {
+    if (initialized) {
+      return;
+    }
+    initialized = true;
+
+    Logger logger = LogManager.getLogger(HookInjectionBenchmark.class);
+    Constructor<InjectionUtils> utilsConstructor = getConstructor(
+        "net.flintmc.framework.inject.internal.DefaultInjectionUtils", Logger.class);
+    InjectionUtils injectionUtils = utilsConstructor.newInstance(logger);
+    Constructor<InjectedFieldBuilder> fieldBuilderConstructor = getConstructor(
+        "net.flintmc.framework.inject.internal.DefaultInjectedFieldBuilder",
+        InjectionUtils.class);
+    InjectedFieldBuilder.Factory fieldBuilderFactory = () -> {
+      try {
+        return fieldBuilderConstructor.newInstance(injectionUtils);
+      } catch (ReflectiveOperationException exception) {
+        throw new IllegalStateException(exception);
+      }
+    };
+    Constructor<MethodInjector.Factory> injectorFactoryConstructor = getConstructor(
+        "net.flintmc.framework.inject.internal.method.MethodInjectorFactory", Logger.class);
+    MethodInjector.Factory injectorFactory = injectorFactoryConstructor.newInstance(logger);
+
+    InjectionHolder.getInstance().addModules(new AbstractModule() {
+      @Override
+      protected void configure() {
+        this.bind(InjectionUtils.class).toInstance(injectionUtils);
+        this.bind(InjectedFieldBuilder.Factory.class).toInstance(fieldBuilderFactory);
+        this.bind(MethodInjector.Factory.class).toInstance(injectorFactory);
+        this.bind(Callbacks.class).in(Scopes.SINGLETON);
+      }
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Constructor<T> getConstructor(String className, Class<?>... parameters)
+      throws ReflectiveOperationException {
+    Constructor<T> constructor =
+        (Constructor<T>) Class.forName(className).getDeclaredConstructor(parameters);
+    constructor.setAccessible(true);
+    return constructor;
+  }
+
+  private static Object invoke(HookService service, String name, Object... arguments)
+      throws ReflectiveOperationException {
+    for (Method method : HookService.class.getDeclaredMethods()) {
+      if (method.getName().equals(name) && method.getParameterCount() == arguments.length) {
+        method.setAccessible(true);
+        return method.invoke(service, arguments);
+      }
+    }
+    throw new NoSuchMethodException(name);
+  }
+
+  public interface Renderer {
+
+    int doRender(
+        Object entity, String name, int light, int overlay, float red, float green, float blue,
+        float alpha);
+  }
+
+  /**
+   * Template of the hooked class, every mode renames and defines its own copy.
+   */
+  public static class HookTarget implements Renderer {
+
+    @Override
+    public int doRender(
+        Object entity, String name, int light, int overlay, float red, float green, float blue,
+        float alpha) {
+      return light + overlay;
+    }
+  }
+
+  public static class Callbacks {
+
+    private long sum;
+
+    @Hook(methodName = "doRender")
+    public void args(@Named("args") Object[] args) {
+      this.sum += (int) args[2];
+    }
+
+    @Hook(methodName = "doRender")
+    public void typed(@HookArgument(2) int light) {
+      this.sum += light;
+    }
+
+    @Hook(methodName = "doRender")
+    public void none() {
+      this.sum++;
+    }
+  }
+}
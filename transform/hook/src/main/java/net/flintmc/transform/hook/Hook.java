@@ -60,9 +60,16 @@ import java.lang.annotation.Target;
  *       been fired, if the hooked method is static, this won't be available
  *   <li>{@literal @}Named("args") Object[] args - An array with all parameters that have been
  *       passed to the hooked method
+ *   <li>{@literal @}{@link HookArgument}(index) - A single parameter that has been passed to the
+ *       hooked method with its real type, this is only available if the annotated method doesn't
+ *       have the args array
  *   <li>{@link ExecutionTime} time - The execution time when the method has been fired
  * </ul>
  *
+ * <p>Annotated methods without the args array are invoked without copying the parameters into a
+ * new array and boxing primitives on every invocation of the hooked method, which should be
+ * preferred for methods that are invoked frequently.
+ *
  * @see HookResult
  */
 @Retention(RetentionPolicy.RUNTIME)
@@ -0,0 +1,57 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.transform.hook;
+
+import com.google.inject.BindingAnnotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a parameter of a {@link Hook} method that should receive an argument of the hooked method
+ * with its real type.
+ *
+ * <p>Hook methods without a {@code @Named("args") Object[]} parameter are invoked through a
+ * generated invoker that gets the arguments of the hooked method without copying them into an
+ * array or boxing primitives. The type of the annotated parameter needs to be exactly the type of
+ * the parameter of the hooked method.
+ *
+ * <pre>
+ * &#64;Hook(className = "...", methodName = "render", parameters = {&#64;Type(reference = int.class)})
+ * public void hookRender(&#64;Named("instance") Object instance, &#64;HookArgument(0) int light) {
+ * }
+ * </pre>
+ *
+ * @see Hook
+ */
+@BindingAnnotation
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface HookArgument {
+
+  /**
+   * Retrieves the index of the parameter of the hooked method, starting at 0.
+   *
+   * @return The index of the parameter of the hooked method
+   */
+  int value();
+}
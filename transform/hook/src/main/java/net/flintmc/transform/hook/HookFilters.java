@@ -19,8 +19,10 @@
 
 package net.flintmc.transform.hook;
 
+import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.NotFoundException;
+import net.flintmc.transform.launchplugin.ClassHeader;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -40,8 +42,31 @@ public enum HookFilters {
 
       return false;
     }
+
+    public boolean test(ClassPool pool, ClassHeader source, String value)
+        throws NotFoundException {
+      if (source.isDirectSubtypeOf(value)) {
+        return true;
+      }
+
+      for (String name : HookFilters.collectDirectSuperTypes(source)) {
+        if (this.test(pool.get(name), value)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
   };
 
+  private static Collection<String> collectDirectSuperTypes(ClassHeader header) {
+    Collection<String> names = new HashSet<>(Arrays.asList(header.getInterfaceNames()));
+    if (header.getSuperName() != null) {
+      names.add(header.getSuperName());
+    }
+    return names;
+  }
+
   private static Collection<CtClass> collectSuperClassesRecursive(CtClass ctClass)
       throws NotFoundException {
     Collection<CtClass> classes = new HashSet<>();
@@ -61,4 +86,7 @@ public enum HookFilters {
   }
 
   public abstract boolean test(CtClass source, String value) throws NotFoundException;
+
+  public abstract boolean test(ClassPool pool, ClassHeader source, String value)
+      throws NotFoundException;
 }
@@ -31,7 +31,7 @@ dependencies {
 
     api(project(":framework:framework-metaprogramming"))
     api(project(":util:util-mapping"))
+    api(project(":transform:transform-launcher-plugin"))
 
-    internalImplementation(project(":transform:transform-launcher-plugin"))
     internalImplementation(project(":transform:transform-minecraft"))
 }
@@ -21,17 +21,12 @@ package net.flintmc.transform.javassist.internal;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Consumer;
-import javassist.CannotCompileException;
 import javassist.ClassPool;
 import javassist.CtClass;
-import javassist.bytecode.ClassFile;
 import net.flintmc.framework.inject.implement.Implement;
 import net.flintmc.framework.packages.PackageClassLoader;
 import net.flintmc.framework.stereotype.service.Service;
@@ -47,7 +42,9 @@ import net.flintmc.transform.javassist.ConsumerBasedClassTransformMeta;
 import net.flintmc.transform.javassist.MethodBasedClassTransformMeta;
 import net.flintmc.transform.javassist.internal.factory.DefaultConsumerBasedClassTransformMetaFactory;
 import net.flintmc.transform.javassist.internal.factory.DefaultMethodBasedClassTransformMetaFactory;
+import net.flintmc.transform.launchplugin.ClassHeader;
 import net.flintmc.transform.launchplugin.LateInjectedTransformer;
+import net.flintmc.transform.launchplugin.TransformedClass;
 import net.flintmc.transform.minecraft.MinecraftTransformer;
 import net.flintmc.util.mappings.ClassMapping;
 import net.flintmc.util.mappings.ClassMappingProvider;
@@ -113,18 +110,6 @@ public class DefaultClassTransformService
     this.classTransformMetas.sort(Comparator.comparingInt(ClassTransformMeta::getPriority));
   }
 
-  @Override
-  public void notifyTransform(LateInjectedTransformer transformer, String className,
-      byte[] classData) {
-    try (ByteArrayInputStream inputStream = new ByteArrayInputStream(classData)) {
-      this.pool.makeClass(inputStream, false);
-    } catch (Exception ex) {
-      throw new RuntimeException(
-          String.format("Failed to update '%s' in the class pool", className),
-          ex);
-    }
-  }
-
   private boolean shouldTransform(String deobfuscatedName) {
     if (this.classPrefixes.length == 0) {
       return false;
@@ -140,42 +125,44 @@ public class DefaultClassTransformService
   }
 
   @Override
-  public byte[] transform(String className, CommonClassLoader classLoader, byte[] bytes)
-      throws ClassTransformException {
+  public void transform(String className, CommonClassLoader classLoader,
+      TransformedClass transformed) throws ClassTransformException {
     ClassMapping mapping = classMappingProvider.get(className);
     String deobfuscatedName = mapping != null ? mapping.getDeobfuscatedName() : className;
     if (!this.shouldTransform(deobfuscatedName)) {
       // Skip classes which are not part of minecraft or some Mojang library (by default)
       // or custom classes defined via a system property
-      return null;
+      return;
     }
 
-    CtClass ctClass;
-
-    try {
-      ctClass =
-          this.pool.makeClass(
-              new ClassFile(new DataInputStream(new ByteArrayInputStream(bytes))), true);
-
-      for (ClassTransformMeta classTransformMeta : this.classTransformMetas) {
-        if (!classTransformMeta.matches(ctClass)) {
-          continue;
+    // only parse the class if at least one transformation might be interested in it
+    ClassHeader header = transformed.getHeader();
+    List<ClassTransformMeta> claimed = null;
+    for (ClassTransformMeta classTransformMeta : this.classTransformMetas) {
+      if (classTransformMeta.claims(header)) {
+        if (claimed == null) {
+          claimed = new ArrayList<>();
         }
-        classTransformMeta.execute(ctClass);
+        claimed.add(classTransformMeta);
       }
+    }
 
-    } catch (IOException exception) {
-      throw new ClassTransformException("unable to read class", exception);
+    if (claimed == null) {
+      return;
     }
 
-    try {
-      return ctClass.toBytecode();
-    } catch (IOException exception) {
-      // Basically unreachable.
-      throw new ClassTransformException(
-          "Unable to write class bytecode to byte array: " + className, exception);
-    } catch (CannotCompileException exception) {
-      throw new ClassTransformException("Unable to transform class: " + className, exception);
+    CtClass ctClass = transformed.getCtClass();
+
+    for (ClassTransformMeta classTransformMeta : claimed) {
+      if (!classTransformMeta.matches(ctClass)) {
+        continue;
+      }
+
+      if (classTransformMeta instanceof ConsumerBasedClassTransformMeta) {
+        // added at runtime and therefore not part of the fingerprint of the TransformCache
+        transformed.disableCaching();
+      }
+      classTransformMeta.execute(ctClass);
     }
   }
 }
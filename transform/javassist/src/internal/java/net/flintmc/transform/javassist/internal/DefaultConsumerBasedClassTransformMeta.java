@@ -24,6 +24,7 @@ import javassist.CtClass;
 import net.flintmc.launcher.classloading.ClassTransformException;
 import net.flintmc.transform.javassist.ClassTransformContext;
 import net.flintmc.transform.javassist.ConsumerBasedClassTransformMeta;
+import net.flintmc.transform.launchplugin.ClassHeader;
 
 import java.util.function.Consumer;
 
@@ -56,6 +57,11 @@ public class DefaultConsumerBasedClassTransformMeta implements ConsumerBasedClas
     return this.ctClass.getName().equals(ctClass.getName());
   }
 
+  @Override
+  public boolean claims(ClassHeader header) {
+    return this.ctClass.getName().equals(header.getName());
+  }
+
   @Override
   public int getPriority() {
     return this.priority;
@@ -24,10 +24,11 @@ import com.google.inject.name.Names;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtMethod;
 import javassist.NotFoundException;
@@ -35,10 +36,12 @@ import net.flintmc.framework.inject.primitive.InjectionHolder;
 import net.flintmc.framework.stereotype.service.CtResolver;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.launcher.classloading.ClassTransformException;
+import net.flintmc.transform.javassist.ClassHeaderFilter;
 import net.flintmc.transform.javassist.ClassTransform;
 import net.flintmc.transform.javassist.ClassTransformContext;
 import net.flintmc.transform.javassist.CtClassFilter;
 import net.flintmc.transform.javassist.MethodBasedClassTransformMeta;
+import net.flintmc.transform.launchplugin.ClassHeader;
 import net.flintmc.util.commons.resolve.NameResolver;
 import net.flintmc.util.mappings.ClassMapping;
 import net.flintmc.util.mappings.ClassMappingProvider;
@@ -53,8 +56,10 @@ public class DefaultMethodBasedClassTransformMeta implements MethodBasedClassTra
   private final AnnotationMeta<ClassTransform> annotationMeta;
   private final Logger logger;
   private final NameResolver classNameResolver;
-  private Object transformInstance;
-
+  // lazily initialized, classes may be transformed and services discovered on multiple threads
+  private volatile Object transformInstance;
+  private volatile String resolvedTarget;
+  private volatile Boolean headerFilter;
 
   public DefaultMethodBasedClassTransformMeta(
       ClassTransformContext.Factory classTransformContextFactory,
@@ -69,7 +74,7 @@ public class DefaultMethodBasedClassTransformMeta implements MethodBasedClassTra
         InjectionHolder.getInjectedInstance(getAnnotation().classNameResolver());
 
     this.filters = this.createFilters();
-    this.nameResolvers = new HashMap<>();
+    this.nameResolvers = new ConcurrentHashMap<>();
   }
 
   private Collection<Predicate<CtClass>> createFilters() {
@@ -151,6 +156,83 @@ public class DefaultMethodBasedClassTransformMeta implements MethodBasedClassTra
     return true;
   }
 
+  @Override
+  public boolean claims(ClassHeader header) {
+    if (header.getName().equals(this.getTransformClass().getName())) {
+      return false;
+    }
+
+    String target = this.getResolvedTarget();
+    if (target != null && !target.isEmpty()) {
+      ClassMapping classMapping = this.classMappingProvider.get(header.getName());
+      String deobfuscatedName =
+          classMapping != null ? classMapping.getDeobfuscatedName() : header.getName();
+      String obfuscatedName =
+          classMapping != null ? classMapping.getObfuscatedName() : header.getName();
+
+      if (!target.equals(deobfuscatedName) && !target.equals(obfuscatedName)) {
+        return false;
+      }
+    }
+
+    ClassPool pool = this.getTransformClass().getClassPool();
+    for (AnnotationMeta<CtClassFilter> ctClassFilter :
+        this.getAnnotationMeta().getMetaData(CtClassFilter.class)) {
+      CtClassFilter classFilterAnnotation = ctClassFilter.getAnnotation();
+      NameResolver classNameResolver =
+          this.nameResolvers.computeIfAbsent(classFilterAnnotation.classNameResolver(),
+              InjectionHolder::getInjectedInstance);
+
+      try {
+        if (!classFilterAnnotation.value().test(
+            pool, header, classNameResolver.resolve(classFilterAnnotation.className()))) {
+          return false;
+        }
+      } catch (NotFoundException exception) {
+        // let matches(CtClass) handle the missing class
+        return true;
+      }
+    }
+
+    if (this.isHeaderFilter()) {
+      return ((ClassHeaderFilter) this.getTransformInstance()).claims(header);
+    }
+
+    return true;
+  }
+
+  private String getResolvedTarget() {
+    String[] targets = this.getAnnotation().value();
+    if (targets.length == 0) {
+      return null;
+    }
+
+    String resolvedTarget = this.resolvedTarget;
+    if (resolvedTarget == null) {
+      // matches(CtClass) only checks the first target too
+      String resolved = this.getClassNameResolver().resolve(targets[0]);
+      this.resolvedTarget = resolvedTarget = resolved != null ? resolved : targets[0];
+    }
+
+    return resolvedTarget;
+  }
+
+  private boolean isHeaderFilter() {
+    Boolean headerFilter = this.headerFilter;
+    if (headerFilter == null) {
+      CtClass transformClass = this.getTransformClass();
+      try {
+        headerFilter = transformClass.subtypeOf(
+            transformClass.getClassPool().get(ClassHeaderFilter.class.getName()));
+      } catch (NotFoundException exception) {
+        headerFilter = false;
+      }
+      this.headerFilter = headerFilter;
+    }
+
+    return headerFilter;
+  }
+
   @Override
   public Collection<Predicate<CtClass>> getFilters() {
     return this.filters;
@@ -168,11 +250,17 @@ public class DefaultMethodBasedClassTransformMeta implements MethodBasedClassTra
 
   @Override
   public Object getTransformInstance() {
-    if (this.transformInstance == null) {
-      this.transformInstance =
-          InjectionHolder.getInjectedInstance(CtResolver.get(getTransformClass()));
+    Object transformInstance = this.transformInstance;
+    if (transformInstance == null) {
+      synchronized (this) {
+        transformInstance = this.transformInstance;
+        if (transformInstance == null) {
+          this.transformInstance = transformInstance =
+              InjectionHolder.getInjectedInstance(CtResolver.get(getTransformClass()));
+        }
+      }
     }
-    return this.transformInstance;
+    return transformInstance;
   }
 
   @Override
@@ -0,0 +1,39 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.transform.javassist;
+
+import net.flintmc.transform.launchplugin.ClassHeader;
+
+/**
+ * Can be implemented by classes that contain a {@link ClassTransform} without a target class (and
+ * therefore match every class) to tell the {@link ClassTransformService} which classes they are
+ * actually interested in. Classes that no transformation claims won't be parsed at all.
+ */
+public interface ClassHeaderFilter {
+
+  /**
+   * Checks whether the transformations in this class might modify the class with the given
+   * header.
+   *
+   * @param header The non-null header of the class to check
+   * @return {@code true} if the class might be transformed, {@code false} otherwise
+   */
+  boolean claims(ClassHeader header);
+}
@@ -21,6 +21,7 @@ package net.flintmc.transform.javassist;
 
 import javassist.CtClass;
 import net.flintmc.launcher.classloading.ClassTransformException;
+import net.flintmc.transform.launchplugin.ClassHeader;
 
 public interface ClassTransformMeta {
 
@@ -28,5 +29,18 @@ public interface ClassTransformMeta {
 
   boolean matches(CtClass ctClass);
 
+  /**
+   * Checks whether this transformation might match the class with the given header. This is
+   * called before the class is parsed, if it returns {@code false}, {@link #matches(CtClass)}
+   * would have returned {@code false} too.
+   *
+   * @param header The non-null header of the class to check
+   * @return {@code true} if the class might be transformed by this transformation, {@code false}
+   * otherwise
+   */
+  default boolean claims(ClassHeader header) {
+    return true;
+  }
+
   int getPriority();
 }
@@ -19,8 +19,10 @@
 
 package net.flintmc.transform.javassist;
 
+import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.NotFoundException;
+import net.flintmc.transform.launchplugin.ClassHeader;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -40,8 +42,33 @@ public enum CtClassFilters {
 
       return false;
     }
+
+    public boolean test(ClassPool pool, ClassHeader source, String className)
+        throws NotFoundException {
+      if (source.isDirectSubtypeOf(className)) {
+        return true;
+      }
+
+      // the class itself doesn't need to be parsed, its super classes are already in the pool in
+      // most cases
+      for (String name : CtClassFilters.collectDirectSuperTypes(source)) {
+        if (this.test(pool.get(name), className)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
   };
 
+  private static Collection<String> collectDirectSuperTypes(ClassHeader header) {
+    Collection<String> names = new HashSet<>(Arrays.asList(header.getInterfaceNames()));
+    if (header.getSuperName() != null) {
+      names.add(header.getSuperName());
+    }
+    return names;
+  }
+
   private static Collection<CtClass> collectSuperClassesRecursive(CtClass ctClass)
       throws NotFoundException {
     Collection<CtClass> classes = new HashSet<>();
@@ -61,4 +88,16 @@ public enum CtClassFilters {
   }
 
   public abstract boolean test(CtClass source, String className) throws NotFoundException;
+
+  /**
+   * Tests the class with the given header without parsing the class itself.
+   *
+   * @param pool      The non-null pool to get the super types of the class from
+   * @param source    The non-null header of the class to test
+   * @param className The non-null name of the class to test for
+   * @return The same result as {@link #test(CtClass, String)} would return for the parsed class
+   * @throws NotFoundException If a super type of the class cannot be found in the pool
+   */
+  public abstract boolean test(ClassPool pool, ClassHeader source, String className)
+      throws NotFoundException;
 }
@@ -37,4 +37,7 @@ dependencies {
     api(project(":framework:framework-packages"))
     api(project(":framework:framework-service"))
     api(project(":util:util-mapping"))
+    api(project(":util:util-class-cache"))
+
+    testImplementation(project(":util:util-unit-testing"))
 }
@@ -0,0 +1,243 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.transform.launchplugin;
+
+import java.util.Arrays;
+
+/**
+ * The name, super class and interfaces of a class, read directly from the bytecode without parsing
+ * anything else than the constant pool. This is enough to decide whether a transformer is
+ * interested in a class before the class is parsed by Javassist or ASM.
+ */
+public final class ClassHeader {
+
+  private static final int MAGIC = 0xCAFEBABE;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_FLOAT = 4;
+  private static final int CONSTANT_LONG = 5;
+  private static final int CONSTANT_DOUBLE = 6;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELD_REF = 9;
+  private static final int CONSTANT_METHOD_REF = 10;
+  private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_HANDLE = 15;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+  private static final int CONSTANT_DYNAMIC = 17;
+  private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+  private static final int CONSTANT_MODULE = 19;
+  private static final int CONSTANT_PACKAGE = 20;
+
+  private final String name;
+  private final String superName;
+  private final String[] interfaceNames;
+
+  public ClassHeader(String name, String superName, String[] interfaceNames) {
+    this.name = name;
+    this.superName = superName;
+    this.interfaceNames = interfaceNames;
+  }
+
+  /**
+   * Reads the header of the given class file.
+   *
+   * @param bytes The non-null bytecode of the class
+   * @return The new non-null header of the given class
+   * @throws IllegalArgumentException If the given bytes are not a valid class file
+   */
+  public static ClassHeader read(byte[] bytes) {
+    try {
+      if (readInt(bytes, 0) != MAGIC) {
+        throw new IllegalArgumentException("Invalid class file magic");
+      }
+
+      // offsets of all entries in the constant pool, only the UTF8 and class entries are read
+      int count = readUnsignedShort(bytes, 8);
+      int[] offsets = new int[count];
+      int offset = 10;
+
+      for (int i = 1; i < count; i++) {
+        offsets[i] = offset + 1;
+
+        switch (bytes[offset]) {
+          case CONSTANT_UTF8:
+            offset += 3 + readUnsignedShort(bytes, offset + 1);
+            break;
+          case CONSTANT_CLASS:
+          case CONSTANT_STRING:
+          case CONSTANT_METHOD_TYPE:
+          case CONSTANT_MODULE:
+          case CONSTANT_PACKAGE:
+            offset += 3;
+            break;
+          case CONSTANT_METHOD_HANDLE:
+            offset += 4;
+            break;
+          case CONSTANT_INTEGER:
+          case CONSTANT_FLOAT:
+          case CONSTANT_FIELD_REF:
+          case CONSTANT_METHOD_REF:
+          case CONSTANT_INTERFACE_METHOD_REF:
+          case CONSTANT_NAME_AND_TYPE:
+          case CONSTANT_DYNAMIC:
+          case CONSTANT_INVOKE_DYNAMIC:
+            offset += 5;
+            break;
+          case CONSTANT_LONG:
+          case CONSTANT_DOUBLE:
+            // longs and doubles take two entries in the constant pool
+            offset += 9;
+            i++;
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown constant pool tag " + bytes[offset]);
+        }
+      }
+
+      // skip the access flags
+      offset += 2;
+
+      String name = readClassName(bytes, offsets, readUnsignedShort(bytes, offset));
+      String superName = readClassName(bytes, offsets, readUnsignedShort(bytes, offset + 2));
+
+      String[] interfaceNames = new String[readUnsignedShort(bytes, offset + 4)];
+      offset += 6;
+      for (int i = 0; i < interfaceNames.length; i++) {
+        interfaceNames[i] = readClassName(bytes, offsets, readUnsignedShort(bytes, offset));
+        offset += 2;
+      }
+
+      return new ClassHeader(name, superName, interfaceNames);
+    } catch (ArrayIndexOutOfBoundsException exception) {
+      throw new IllegalArgumentException("Truncated class file", exception);
+    }
+  }
+
+  private static String readClassName(byte[] bytes, int[] offsets, int index) {
+    if (index == 0) {
+      // java.lang.Object and module-info don't have a super class
+      return null;
+    }
+
+    int utf8Offset = offsets[readUnsignedShort(bytes, offsets[index])];
+    return readUtf8(bytes, utf8Offset).replace('/', '.');
+  }
+
+  private static String readUtf8(byte[] bytes, int offset) {
+    int length = readUnsignedShort(bytes, offset);
+    offset += 2;
+    int end = offset + length;
+
+    // modified UTF-8, class names are almost always plain ASCII
+    char[] chars = new char[length];
+    int charCount = 0;
+    while (offset < end) {
+      int current = bytes[offset++] & 0xFF;
+      if (current < 0x80) {
+        chars[charCount++] = (char) current;
+      } else if ((current & 0xE0) == 0xC0) {
+        chars[charCount++] = (char) (((current & 0x1F) << 6) | (bytes[offset++] & 0x3F));
+      } else {
+        chars[charCount++] = (char) (((current & 0x0F) << 12)
+            | ((bytes[offset++] & 0x3F) << 6)
+            | (bytes[offset++] & 0x3F));
+      }
+    }
+
+    return new String(chars, 0, charCount);
+  }
+
+  private static int readUnsignedShort(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 24)
+        | ((bytes[offset + 1] & 0xFF) << 16)
+        | ((bytes[offset + 2] & 0xFF) << 8)
+        | (bytes[offset + 3] & 0xFF);
+  }
+
+  /**
+   * Retrieves the name of the class.
+   *
+   * @return The non-null name of the class, separated by dots
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Retrieves the name of the direct super class of the class.
+   *
+   * @return The name of the super class separated by dots or {@code null} if the class doesn't have
+   * a super class
+   */
+  public String getSuperName() {
+    return this.superName;
+  }
+
+  /**
+   * Retrieves the names of the interfaces that are directly implemented by the class.
+   *
+   * @return The non-null array of interface names separated by dots, modifications to the array
+   * will have no effect on this header
+   */
+  public String[] getInterfaceNames() {
+    return this.interfaceNames.clone();
+  }
+
+  /**
+   * Checks whether the given name is either the super class or one of the interfaces that are
+   * directly implemented by the class.
+   *
+   * @param name The non-null name to check for, separated by dots
+   * @return {@code true} if the given name is a direct super type of the class, {@code false}
+   * otherwise
+   */
+  public boolean isDirectSubtypeOf(String name) {
+    if (name.equals(this.superName)) {
+      return true;
+    }
+
+    for (String interfaceName : this.interfaceNames) {
+      if (name.equals(interfaceName)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return "ClassHeader{"
+        + "name='" + this.name + '\''
+        + ", superName='" + this.superName + '\''
+        + ", interfaceNames=" + Arrays.toString(this.interfaceNames)
+        + '}';
+  }
+}
@@ -25,23 +25,17 @@ import javassist.ClassPool;
 import javassist.NotFoundException;
 import net.flintmc.framework.inject.InjectionService;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.packages.AnnotationMetaIndex;
 import net.flintmc.framework.packages.PackageLoader;
-import net.flintmc.framework.service.ExtendedServiceLoader;
 import net.flintmc.framework.stereotype.service.Service;
 import net.flintmc.framework.stereotype.service.ServiceRepository;
 import net.flintmc.framework.stereotype.service.Services;
 import net.flintmc.launcher.LaunchController;
 import net.flintmc.metaprogramming.AnnotationMeta;
-import net.flintmc.metaprogramming.DetectableAnnotationProvider;
-import net.flintmc.metaprogramming.ElementKind;
 import net.flintmc.metaprogramming.identifier.ClassIdentifier;
-import net.flintmc.metaprogramming.identifier.MethodIdentifier;
 import net.flintmc.transform.launchplugin.inject.module.BindConstantModule;
-import net.flintmc.util.mappings.utils.RemappingMethodLocationResolver;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 @Singleton
 public class FlintFrameworkInitializer {
@@ -86,6 +80,14 @@ public class FlintFrameworkInitializer {
       serviceRepository.flushServices(Service.State.POST_INIT);
 
       InjectionHolder.getInjectedInstance(PackageLoader.class).load();
+
+      if (TransformCache.ENABLED) {
+        // all transformers are known now, classes that have been transformed with the same
+        // transformers before can be loaded from the cache
+        TransformCache transformCache = InjectionHolder.getInjectedInstance(TransformCache.class);
+        transformCache.updateFingerprint();
+        FlintLauncherPlugin.getInstance().enableTransformCache(transformCache);
+      }
     } catch (NotFoundException e) {
       e.printStackTrace();
     }
@@ -94,7 +96,8 @@ public class FlintFrameworkInitializer {
   private void prepareServices(ServiceRepository serviceRepository)
       throws NotFoundException {
     // Discover all annotation meta data
-    List<AnnotationMeta> annotations = getAnnotationMeta();
+    List<AnnotationMeta> annotations =
+        InjectionHolder.getInjectedInstance(AnnotationMetaIndex.class).discover();
     // Iterate over all annotations
     for (AnnotationMeta<?> annotationMeta : annotations) {
       // check if metadata is a service
@@ -133,31 +136,4 @@ public class FlintFrameworkInitializer {
       serviceRepository.registerAnnotation(annotationMeta);
     }
   }
-
-  /**
-   * @return all saved annotation meta that was written to the {@link
-   * DetectableAnnotationProvider} on compile time
-   */
-  private List<AnnotationMeta> getAnnotationMeta() {
-    List<AnnotationMeta> annotationMetas = new ArrayList<>();
-
-    Set<DetectableAnnotationProvider> discover =
-        ExtendedServiceLoader.get(DetectableAnnotationProvider.class)
-            .discover(LaunchController.getInstance().getRootLoader());
-
-    discover.forEach(
-        detectableAnnotationProvider -> detectableAnnotationProvider
-            .register(annotationMetas));
-
-    RemappingMethodLocationResolver remappingMethodLocationResolver
-        = new RemappingMethodLocationResolver();
-    for (AnnotationMeta annotationMeta : annotationMetas) {
-      if (annotationMeta.getElementKind() == ElementKind.METHOD) {
-        MethodIdentifier id = annotationMeta.getMethodIdentifier();
-        id.setMethodResolver(() -> remappingMethodLocationResolver
-            .getLocation(id.getOwner(), id.getName(), id.getParameters()));
-      }
-    }
-    return annotationMetas;
-  }
 }
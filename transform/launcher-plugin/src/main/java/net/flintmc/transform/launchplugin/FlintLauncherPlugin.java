@@ -25,6 +25,7 @@ import javassist.ClassPath;
 import javassist.ClassPool;
 import javassist.NotFoundException;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.stereotype.service.CtResolver;
 import net.flintmc.launcher.LaunchController;
 import net.flintmc.launcher.classloading.ClassTransformException;
 import net.flintmc.launcher.classloading.RootClassLoader;
@@ -41,6 +42,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
@@ -48,7 +50,13 @@ public class FlintLauncherPlugin implements LauncherPlugin {
 
   private static FlintLauncherPlugin instance;
   private final Logger logger;
+  private final ClassPool pool;
   private final Multimap<Integer, LateInjectedTransformer> injectedTransformers;
+  private final AtomicInteger visitedClasses;
+  private final AtomicInteger parsedClasses;
+  private final AtomicInteger modifiedClasses;
+  private final AtomicInteger cachedClasses;
+  private volatile TransformCache transformCache;
   private List<String> launchArguments;
 
   public FlintLauncherPlugin() {
@@ -57,7 +65,8 @@ public class FlintLauncherPlugin implements LauncherPlugin {
     }
     RootClassLoader rootLoader = LaunchController.getInstance().getRootLoader();
 
-    ClassPool.getDefault()
+    this.pool = ClassPool.getDefault();
+    this.pool
         .appendClassPath(
             new ClassPath() {
               public InputStream openClassfile(String classname) throws NotFoundException {
@@ -83,6 +92,10 @@ public class FlintLauncherPlugin implements LauncherPlugin {
     this.logger = LogManager.getLogger(FlintLauncherPlugin.class);
     this.injectedTransformers =
         MultimapBuilder.treeKeys(Integer::compare).linkedListValues().build();
+    this.visitedClasses = new AtomicInteger();
+    this.parsedClasses = new AtomicInteger();
+    this.modifiedClasses = new AtomicInteger();
+    this.cachedClasses = new AtomicInteger();
   }
 
   public static FlintLauncherPlugin getInstance() {
@@ -141,22 +154,83 @@ public class FlintLauncherPlugin implements LauncherPlugin {
     injectedTransformers.put(priority, transformer);
   }
 
+  /**
+   * Enables the cache for transformed classes, classes that are found in the cache won't be passed
+   * to any transformer.
+   *
+   * @param transformCache The non-null cache with the fingerprint of all transformers that have
+   *                       been registered until now
+   */
+  public void enableTransformCache(TransformCache transformCache) {
+    this.pool.insertClassPath(transformCache.createClassPath());
+    this.transformCache = transformCache;
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public byte[] modifyClass(String className, CommonClassLoader classLoader, byte[] classData)
       throws ClassTransformException {
-    for (LateInjectedTransformer transformer : injectedTransformers.values()) {
-      byte[] newData = transformer.transform(className, classLoader, classData);
-      if (newData != null) {
-        for (LateInjectedTransformer notifyTransformer : injectedTransformers.values()) {
-          notifyTransformer.notifyTransform(transformer, className, newData);
-        }
-        classData = newData;
+    TransformCache transformCache = this.transformCache;
+    long cacheId = 0;
+    if (transformCache != null) {
+      cacheId = transformCache.getCacheId(classData);
+      byte[] cached = transformCache.getTransformedClass(className, cacheId);
+      if (cached != null) {
+        this.visitedClasses.incrementAndGet();
+        this.cachedClasses.incrementAndGet();
+        return cached;
       }
     }
-    return classData;
+
+    // transformers that generate new classes can't be cached because the generated classes
+    // wouldn't exist in the next launch
+    long definedClasses = CtResolver.getDefinedClassCount();
+
+    // the class is only parsed if a transformer needs it and written once after all transformers
+    TransformedClass transformed = new TransformedClass(this.pool, className, classData);
+    for (LateInjectedTransformer transformer : injectedTransformers.values()) {
+      transformer.transform(className, classLoader, transformed);
+    }
+
+    this.visitedClasses.incrementAndGet();
+    if (transformed.isParsed()) {
+      this.parsedClasses.incrementAndGet();
+    }
+
+    if (!transformed.isModified()) {
+      return classData;
+    }
+
+    this.modifiedClasses.incrementAndGet();
+
+    byte[] newData = transformed.complete();
+
+    if (transformCache != null
+        && transformed.isCacheable()
+        && CtResolver.getDefinedClassCount() == definedClasses) {
+      transformCache.writeTransformedClass(className, cacheId, newData);
+    }
+
+    return newData;
+  }
+
+  /**
+   * Logs how many classes have been passed through the transformers until now and how many of them
+   * have been skipped without being parsed.
+   */
+  public void logTransformSummary() {
+    int visited = this.visitedClasses.get();
+    int parsed = this.parsedClasses.get();
+
+    this.logger.info(
+        "Transformers modified {} of {} classes, {} classes have not been parsed by Javassist",
+        this.modifiedClasses.get(), visited, visited - parsed);
+    if (this.transformCache != null) {
+      this.logger.info("{} transformed classes have been loaded from the cache",
+          this.cachedClasses.get());
+    }
   }
 
   /**
@@ -39,14 +39,24 @@ public interface LateInjectedTransformer {
   }
 
   /**
-   * This method will be invoked after a class has been transformed by a transformer to use the
-   * changes, at this point no more changes can be made to the class.
+   * Transform a class that is shared with all other transformers. Transformers that work with
+   * Javassist should override this method and modify {@link TransformedClass#getCtClass()} instead
+   * of parsing and writing the bytecode on their own, classes that aren't modified by this
+   * transformer shouldn't be touched at all.
    *
-   * @param transformer The non-null transformer that transformed the class
-   * @param className   The non-null name of the class that has been transformed
-   * @param classData   The non-null data of the modified class
+   * <p>By default, this method passes the bytecode to {@link #transform(String,
+   * CommonClassLoader, byte[])}.
+   *
+   * @param className   The non-null name of the class to modify
+   * @param classLoader The non-null class loader that will be used to define the modified class
+   * @param transformed The non-null class to modify
+   * @throws ClassTransformException If the class transformation failed.
    */
-  default void notifyTransform(LateInjectedTransformer transformer, String className,
-      byte[] classData) {
+  default void transform(String className, CommonClassLoader classLoader,
+      TransformedClass transformed) throws ClassTransformException {
+    byte[] classData = this.transform(className, classLoader, transformed.getBytes());
+    if (classData != null) {
+      transformed.setBytes(classData);
+    }
   }
 }
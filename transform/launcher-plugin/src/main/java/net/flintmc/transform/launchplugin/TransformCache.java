@@ -0,0 +1,183 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.transform.launchplugin;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javassist.ClassPath;
+import net.flintmc.framework.packages.Package;
+import net.flintmc.framework.packages.PackageLoader;
+import net.flintmc.framework.stereotype.service.ServiceRepository;
+import net.flintmc.metaprogramming.AnnotationMeta;
+import net.flintmc.util.classcache.ClassCache;
+
+/**
+ * Caches the output of all {@link LateInjectedTransformer}s for a class on the disk so that the
+ * transformers can be skipped completely in the next launch.
+ *
+ * <p>Every class is cached with an identifier that is a hash of the original bytecode and a
+ * fingerprint of everything that may change the transformation: The version of Flint and
+ * Minecraft, the loaded packages and the cache identifiers of all annotations that have been
+ * discovered (they change with every build of the framework or a package). If any of them changes,
+ * the classes will simply be transformed and cached again with a new identifier.
+ *
+ * <p>This is disabled by default and can be enabled with the system property {@code
+ * net.flintmc.transform.cache}.
+ */
+@Singleton
+public class TransformCache {
+
+  public static final boolean ENABLED = Boolean.getBoolean("net.flintmc.transform.cache");
+
+  private final ClassCache classCache;
+  private final ServiceRepository serviceRepository;
+  private final PackageLoader packageLoader;
+  private final String minecraftVersion;
+  private final Map<String, Long> cachedClasses;
+
+  private long fingerprint;
+
+  @Inject
+  private TransformCache(
+      ClassCache classCache,
+      ServiceRepository serviceRepository,
+      PackageLoader packageLoader,
+      @Named("launchArguments") Map launchArguments) {
+    this.classCache = classCache;
+    this.serviceRepository = serviceRepository;
+    this.packageLoader = packageLoader;
+    this.minecraftVersion = String.valueOf(launchArguments.get("--game-version"));
+    this.cachedClasses = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Computes the fingerprint of the current transformers, this needs to be called after all
+   * packages have been loaded and before any other method in this class is used.
+   */
+  public void updateFingerprint() {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+
+    String flintVersion = FlintLauncherPlugin.class.getPackage().getImplementationVersion();
+    hasher.putString(String.valueOf(flintVersion), StandardCharsets.UTF_8);
+    hasher.putString(this.minecraftVersion, StandardCharsets.UTF_8);
+
+    List<String> packages = new ArrayList<>();
+    for (Package loaded : this.packageLoader.getLoadedPackages()) {
+      packages.add(loaded.getName() + ':' + loaded.getVersion());
+    }
+    packages.sort(String::compareTo);
+    for (String name : packages) {
+      hasher.putString(name, StandardCharsets.UTF_8);
+    }
+
+    // the order in which the annotations are discovered doesn't matter
+    long annotations = 0;
+    for (AnnotationMeta<?> meta : this.serviceRepository.getAnnotations().values()) {
+      annotations += Hashing.murmur3_128().hashLong(meta.getCacheId()).asLong();
+    }
+    hasher.putLong(annotations);
+
+    this.fingerprint = hasher.hash().asLong();
+  }
+
+  /**
+   * Computes the identifier under which the transformed version of the given class is cached.
+   *
+   * @param classData The non-null original bytecode of the class
+   * @return The identifier of the transformed class
+   */
+  public long getCacheId(byte[] classData) {
+    return Hashing.murmur3_128()
+        .newHasher()
+        .putLong(this.fingerprint)
+        .putBytes(classData)
+        .hash()
+        .asLong();
+  }
+
+  /**
+   * Retrieves the transformed bytecode of a class that has been cached in a previous launch.
+   *
+   * @param className The non-null name of the class
+   * @param cacheId   The identifier of the class from {@link #getCacheId(byte[])}
+   * @return The transformed bytecode or {@code null} if the class isn't in the cache
+   */
+  public byte[] getTransformedClass(String className, long cacheId) {
+    Optional<byte[]> bytecode = this.classCache.getClass(className, cacheId);
+    if (!bytecode.isPresent()) {
+      return null;
+    }
+
+    this.cachedClasses.put(className, cacheId);
+    return bytecode.get();
+  }
+
+  /**
+   * Writes the transformed bytecode of a class into the cache.
+   *
+   * @param className The non-null name of the class
+   * @param cacheId   The identifier of the class from {@link #getCacheId(byte[])}
+   * @param bytecode  The non-null transformed bytecode of the class
+   */
+  public void writeTransformedClass(String className, long cacheId, byte[] bytecode) {
+    this.classCache.writeClass(className, cacheId, bytecode);
+  }
+
+  /**
+   * Creates a class path for the class pool which provides the transformed bytecode of classes
+   * that have been loaded from the cache, they would otherwise be in their original state in the
+   * class pool.
+   *
+   * @return The new non-null class path
+   */
+  public ClassPath createClassPath() {
+    return new ClassPath() {
+      @Override
+      public InputStream openClassfile(String className) {
+        Long cacheId = cachedClasses.get(className);
+        if (cacheId == null) {
+          return null;
+        }
+
+        return classCache.getClass(className, cacheId)
+            .map(ByteArrayInputStream::new)
+            .orElse(null);
+      }
+
+      @Override
+      public URL find(String className) {
+        // the class will be found by the class path of the root loader
+        return null;
+      }
+    };
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.transform.launchplugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.bytecode.ClassFile;
+import net.flintmc.launcher.classloading.ClassTransformException;
+
+/**
+ * A class that is passed through all {@link LateInjectedTransformer}s. The class is only parsed
+ * into a {@link CtClass} if a transformer requests it, all following transformers work on the same
+ * {@link CtClass} and the bytecode is only written again if a transformer requests the bytes or
+ * all transformers are done.
+ *
+ * <p>Requesting the {@link CtClass} doesn't count as a modification, the class is only modified
+ * if its final bytecode differs from the original bytecode. Javassist writes unmodified classes
+ * byte for byte as they have been read.
+ */
+public final class TransformedClass {
+
+  private final ClassPool pool;
+  private final String className;
+  private final byte[] originalBytes;
+
+  private byte[] bytes;
+  private ClassHeader header;
+  private CtClass ctClass;
+  private boolean bytesOutdated;
+  private boolean parsed;
+  private boolean cacheable;
+
+  public TransformedClass(ClassPool pool, String className, byte[] bytes) {
+    this.pool = pool;
+    this.className = className;
+    this.originalBytes = bytes;
+    this.bytes = bytes;
+    this.cacheable = true;
+  }
+
+  /**
+   * Retrieves the name of the transformed class.
+   *
+   * @return The non-null name of the transformed class
+   */
+  public String getClassName() {
+    return this.className;
+  }
+
+  /**
+   * Retrieves the header of this class which can be used to check whether a transformer is
+   * interested in this class without parsing it.
+   *
+   * @return The non-null header of this class
+   * @throws ClassTransformException If the bytecode is not a valid class file
+   */
+  public ClassHeader getHeader() throws ClassTransformException {
+    if (this.header != null) {
+      return this.header;
+    }
+
+    if (this.ctClass != null) {
+      // the header may have been modified by a transformer
+      ClassFile classFile = this.ctClass.getClassFile2();
+      return new ClassHeader(
+          classFile.getName(), classFile.getSuperclass(), classFile.getInterfaces());
+    }
+
+    try {
+      return this.header = ClassHeader.read(this.bytes);
+    } catch (IllegalArgumentException exception) {
+      throw new ClassTransformException("unable to read class header", exception);
+    }
+  }
+
+  /**
+   * Retrieves the bytecode of this class with all modifications that have been made until now. If
+   * the {@link CtClass} has been requested before, it will be written into a new array.
+   *
+   * @return The non-null bytecode of this class
+   * @throws ClassTransformException If the {@link CtClass} couldn't be written
+   */
+  public byte[] getBytes() throws ClassTransformException {
+    if (this.bytesOutdated) {
+      try {
+        this.bytes = this.ctClass.toBytecode();
+      } catch (IOException exception) {
+        // Basically unreachable.
+        throw new ClassTransformException(
+            "Unable to write class bytecode to byte array: " + this.className, exception);
+      } catch (CannotCompileException exception) {
+        throw new ClassTransformException("Unable to transform class: " + this.className,
+            exception);
+      }
+
+      // the class is still used by the following transformers and the class pool
+      this.ctClass.defrost();
+      this.bytesOutdated = false;
+    }
+
+    return this.bytes;
+  }
+
+  /**
+   * Replaces the bytecode of this class, the {@link CtClass} will be parsed again if it is
+   * requested by another transformer. Nothing will be done if the given array is the one that has
+   * been returned by {@link #getBytes()}.
+   *
+   * @param bytes The non-null new bytecode of this class
+   */
+  public void setBytes(byte[] bytes) {
+    if (bytes == this.getBytesUnchecked()) {
+      return;
+    }
+
+    this.bytes = bytes;
+    this.header = null;
+    this.ctClass = null;
+    this.bytesOutdated = false;
+  }
+
+  /**
+   * Retrieves the {@link CtClass} of this class which may be modified by the caller. The class is
+   * only parsed on the first call or if the bytecode has been replaced via {@link
+   * #setBytes(byte[])}, in any other case the same instance will be returned.
+   *
+   * @return The non-null class in the class pool
+   * @throws ClassTransformException If the bytecode couldn't be parsed
+   */
+  public CtClass getCtClass() throws ClassTransformException {
+    if (this.ctClass == null) {
+      try {
+        this.ctClass = this.pool.makeClass(
+            new ClassFile(new DataInputStream(new ByteArrayInputStream(this.bytes))), true);
+        this.parsed = true;
+      } catch (IOException exception) {
+        throw new ClassTransformException("unable to read class", exception);
+      }
+    }
+
+    // the caller may modify the class, the bytecode is compared in the end
+    this.header = null;
+    this.bytesOutdated = true;
+    return this.ctClass;
+  }
+
+  /**
+   * Retrieves whether this class has been parsed into a {@link CtClass} by any transformer.
+   *
+   * @return {@code true} if the class has been parsed at least once, {@code false} otherwise
+   */
+  public boolean isParsed() {
+    return this.parsed;
+  }
+
+  /**
+   * Retrieves whether this class has been modified by any transformer. If the {@link CtClass} has
+   * been requested, it will be written to compare it with the original bytecode.
+   *
+   * @return {@code true} if the bytecode differs from the original bytecode, {@code false}
+   * otherwise
+   * @throws ClassTransformException If the {@link CtClass} couldn't be written
+   */
+  public boolean isModified() throws ClassTransformException {
+    byte[] bytes = this.getBytes();
+    return bytes != this.originalBytes && !Arrays.equals(bytes, this.originalBytes);
+  }
+
+  /**
+   * Marks that the transformation of this class had effects outside of its bytecode (e.g. something
+   * has been registered), the transformed bytecode will therefore never be cached.
+   */
+  public void disableCaching() {
+    this.cacheable = false;
+  }
+
+  /**
+   * Retrieves whether the transformed bytecode of this class may be cached and used instead of
+   * transforming the class again in the next launch.
+   *
+   * @return {@code true} if no transformer has disabled caching for this class, {@code false}
+   * otherwise
+   */
+  public boolean isCacheable() {
+    return this.cacheable;
+  }
+
+  /**
+   * Writes the final bytecode of this class after all transformers are done and makes sure that the
+   * class pool contains the final version of this class.
+   *
+   * @return The non-null final bytecode of this class
+   * @throws ClassTransformException If the {@link CtClass} couldn't be written or the bytecode
+   *                                 couldn't be parsed into the class pool
+   */
+  public byte[] complete() throws ClassTransformException {
+    byte[] bytes = this.getBytes();
+
+    if (this.ctClass == null && bytes != this.originalBytes) {
+      // the last modification has been made directly on the bytecode
+      this.getCtClass();
+      this.bytesOutdated = false;
+    }
+
+    return bytes;
+  }
+
+  private byte[] getBytesUnchecked() {
+    return this.bytesOutdated ? null : this.bytes;
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.transform.launchplugin;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Supplier;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.bytecode.ClassFile;
+import org.junit.jupiter.api.Test;
+
+public class ClassHeaderTest {
+
+  @Test
+  public void testSuperClassAndInterfacesAreRead() throws IOException {
+    ClassHeader header = ClassHeader.read(readClass(Sample.class));
+
+    assertEquals(Sample.class.getName(), header.getName());
+    assertEquals(AbstractList.class.getName(), header.getSuperName());
+    assertArrayEquals(
+        new String[]{Runnable.class.getName(), Serializable.class.getName()},
+        header.getInterfaceNames());
+    assertTrue(header.isDirectSubtypeOf(AbstractList.class.getName()));
+    assertTrue(header.isDirectSubtypeOf(Serializable.class.getName()));
+    assertFalse(header.isDirectSubtypeOf(Object.class.getName()));
+  }
+
+  @Test
+  public void testClassesWithoutSuperClassAreRead() throws IOException {
+    ClassHeader header = ClassHeader.read(readClass(Object.class));
+
+    assertEquals(Object.class.getName(), header.getName());
+    assertNull(header.getSuperName());
+    assertEquals(0, header.getInterfaceNames().length);
+
+    header = ClassHeader.read(readClass(Supplier.class));
+    assertEquals(Object.class.getName(), header.getSuperName());
+  }
+
+  @Test
+  public void testAllConstantPoolEntriesAreSkipped() throws IOException {
+    // longs, doubles, lambdas and method handles in the constant pool
+    for (Class<?> type : new Class[]{
+        Sample.class, Constants.class, HashMap.class, String.class, ClassHeader.class}) {
+      byte[] bytes = readClass(type);
+      ClassFile classFile = new ClassFile(new DataInputStream(new ByteArrayInputStream(bytes)));
+      ClassHeader header = ClassHeader.read(bytes);
+
+      assertEquals(classFile.getName(), header.getName());
+      assertEquals(classFile.getSuperclass(), header.getSuperName());
+      assertArrayEquals(classFile.getInterfaces(), header.getInterfaceNames());
+    }
+  }
+
+  @Test
+  public void testNonAsciiNamesAreRead() throws IOException, CannotCompileException {
+    ClassPool pool = new ClassPool(true);
+    CtClass ctClass = pool.makeClass("net.flintmc.\u00dcn\u00efcode\u4e2d");
+    ctClass.setInterfaces(new CtClass[]{pool.makeInterface("net.flintmc.\u00e4\u20ac")});
+
+    ClassHeader header = ClassHeader.read(ctClass.toBytecode());
+
+    assertEquals("net.flintmc.\u00dcn\u00efcode\u4e2d", header.getName());
+    assertArrayEquals(new String[]{"net.flintmc.\u00e4\u20ac"}, header.getInterfaceNames());
+  }
+
+  @Test
+  public void testInvalidClassFilesAreRejected() throws IOException {
+    byte[] bytes = readClass(Sample.class);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> ClassHeader.read(Arrays.copyOf(bytes, bytes.length / 2)));
+    assertThrows(IllegalArgumentException.class, () -> ClassHeader.read(new byte[]{1, 2, 3, 4}));
+  }
+
+  @Test
+  public void testInterfaceNamesAreCopied() throws IOException {
+    ClassHeader header = ClassHeader.read(readClass(Sample.class));
+    header.getInterfaceNames()[0] = null;
+
+    assertEquals(Runnable.class.getName(), header.getInterfaceNames()[0]);
+  }
+
+  private static byte[] readClass(Class<?> type) throws IOException {
+    String name = type.getName();
+    try (InputStream input = type.getResourceAsStream(
+        name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+      return output.toByteArray();
+    }
+  }
+
+  private abstract static class Sample extends AbstractList<String>
+      implements Runnable, Serializable {
+
+  }
+
+  private static class Constants {
+
+    private static final long LONG = System.nanoTime() * 31L + 1234567890123L;
+    private static final double DOUBLE = Math.random() * 1.5D;
+    private static final Supplier<String> LAMBDA = () -> "lambda" + LONG + DOUBLE;
+    private static final Supplier<Object> REFERENCE = Object::new;
+  }
+}
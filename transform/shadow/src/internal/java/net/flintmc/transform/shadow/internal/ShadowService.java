@@ -33,8 +33,10 @@ import net.flintmc.framework.stereotype.service.ServiceHandler;
 import net.flintmc.framework.stereotype.service.ServiceNotFoundException;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.launcher.classloading.ClassTransformException;
+import net.flintmc.transform.javassist.ClassHeaderFilter;
 import net.flintmc.transform.javassist.ClassTransform;
 import net.flintmc.transform.javassist.ClassTransformContext;
+import net.flintmc.transform.launchplugin.ClassHeader;
 import net.flintmc.transform.shadow.Shadow;
 import net.flintmc.transform.shadow.internal.handler.RegisteredShadowHandler;
 import net.flintmc.transform.shadow.internal.handler.ShadowHandlerService;
@@ -44,7 +46,7 @@ import org.apache.logging.log4j.Logger;
 
 @Singleton
 @Service(value = Shadow.class, priority = -20000, state = Service.State.AFTER_IMPLEMENT)
-public class ShadowService implements ServiceHandler<Shadow> {
+public class ShadowService implements ServiceHandler<Shadow>, ClassHeaderFilter {
 
   private final Logger logger;
   private final ClassMappingProvider classMappingProvider;
@@ -78,15 +80,21 @@ public class ShadowService implements ServiceHandler<Shadow> {
     transforms.put(target, meta);
   }
 
+  @Override
+  public boolean claims(ClassHeader header) {
+    return this.transforms.containsKey(this.getDeobfuscatedName(header.getName()));
+  }
+
+  private String getDeobfuscatedName(String className) {
+    ClassMapping classMapping = this.classMappingProvider.get(className);
+    return classMapping != null ? classMapping.getDeobfuscatedName() : className;
+  }
+
   @ClassTransform
   public void transform(ClassTransformContext classTransformContext) {
     CtClass transforming = classTransformContext.getCtClass();
 
-    ClassMapping classMapping = this.classMappingProvider
-        .get(transforming.getName());
-    String name =
-        classMapping != null ? classMapping.getDeobfuscatedName()
-            : transforming.getName();
+    String name = this.getDeobfuscatedName(transforming.getName());
 
     if (!this.transforms.containsKey(name)) {
       return;
@@ -35,4 +35,5 @@ dependencies {
     api("com.google.code.gson", "gson", "2.8.6")
 
     testImplementation(project(":util:util-unit-testing"))
+    testImplementation(project(":util:util-class-cache", "internal"))
 }
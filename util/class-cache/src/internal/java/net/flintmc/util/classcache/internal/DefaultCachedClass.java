@@ -19,37 +19,37 @@
 
 package net.flintmc.util.classcache.internal;
 
-import net.flintmc.framework.inject.assisted.Assisted;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import net.flintmc.framework.inject.implement.Implement;
-import net.flintmc.framework.inject.logging.InjectLogger;
 import net.flintmc.util.classcache.CachedClass;
-import org.apache.logging.log4j.Logger;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.util.UUID;
 
 @Implement(CachedClass.class)
 public class DefaultCachedClass implements CachedClass {
 
-  private final Logger logger;
+  private final DefaultClassCacheIndex index;
 
   private final String name;
+  private final long id;
   private final UUID uuid;
 
-  private final File file;
-
-  DefaultCachedClass(@Assisted("name") String name,
-      @Assisted("uuid") UUID uuid, @InjectLogger Logger logger) {
-    this.logger = logger;
+  DefaultCachedClass(DefaultClassCacheIndex index, String name, long id) {
+    this.index = index;
     this.name = name;
-    this.uuid = uuid;
-    this.file = new File(
-        CachedClass.CACHED_CLASS_PATH.replace("{UUID}", this.uuid.toString()));
-    //noinspection ResultOfMethodCallIgnored
-    this.file.getParentFile().mkdirs();
+    this.id = id;
+    // the cache identifier is stored in the most significant bits so that it can be restored by
+    // DefaultCachedClassFactory, the same state of a class always has the same UUID
+    this.uuid = new UUID(
+        id, UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).getLeastSignificantBits());
+  }
+
+  /**
+   * Retrieves the cache identifier of the state of the bytecode that is represented by this class.
+   *
+   * @return the cache identifier of this class
+   */
+  long getId() {
+    return this.id;
   }
 
   /**
@@ -57,26 +57,8 @@ public class DefaultCachedClass implements CachedClass {
    */
   @Override
   public byte[] read() {
-    try (FileInputStream in = new FileInputStream(this.file)) {
-
-      // we never write files longer than Integer.MAX_VALUE
-      byte[] bytes = new byte[(int) this.file.length()];
-
-      int offset = 0;
-      int read;
-
-      while ((read = in.read(bytes, offset, bytes.length - offset)) > 0) {
-        offset += read;
-      }
-
-      return bytes;
-    } catch (IOException e) {
-      this.logger
-          .error("Failed to read cached class {} from {}.", this.getName(),
-              this.file.getName(), e);
-    }
-    // return null instead of empty error to cause exceptions if this fails
-    return null;
+    // null instead of an empty array to cause exceptions if this fails
+    return this.index.read(this.name, this.id);
   }
 
   /**
@@ -84,12 +66,7 @@ public class DefaultCachedClass implements CachedClass {
    */
   @Override
   public void write(byte[] bytecode) {
-    try (FileOutputStream out = new FileOutputStream(this.file, false)) {
-      out.write(bytecode);
-    } catch (IOException e) {
-      this.logger.error("Failed to write class cache for class {} to {}",
-          this.getName(), this.file.getName(), e);
-    }
+    this.index.put(this.name, this.id, bytecode);
   }
 
   /**
@@ -113,6 +90,6 @@ public class DefaultCachedClass implements CachedClass {
    */
   @Override
   public boolean hasBytecode() {
-    return this.file.exists();
+    return this.index.contains(this.name, this.id);
   }
 }
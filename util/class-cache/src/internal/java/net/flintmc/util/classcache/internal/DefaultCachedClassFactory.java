@@ -20,12 +20,11 @@
 package net.flintmc.util.classcache.internal;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import java.util.UUID;
 import net.flintmc.framework.inject.implement.Implement;
-import net.flintmc.framework.inject.logging.InjectLogger;
 import net.flintmc.util.classcache.CachedClass;
-import org.apache.logging.log4j.Logger;
 
 // This manual implementation of the Factory is necessary because the
 // ClassCache is used before assisted factories are being made available by the
@@ -34,11 +33,11 @@ import org.apache.logging.log4j.Logger;
 @Implement(CachedClass.Factory.class)
 public class DefaultCachedClassFactory implements CachedClass.Factory {
 
-  private final Logger logger;
+  private final Provider<DefaultClassCacheIndex> index;
 
   @Inject
-  private DefaultCachedClassFactory(@InjectLogger Logger logger) {
-    this.logger = logger;
+  private DefaultCachedClassFactory(Provider<DefaultClassCacheIndex> index) {
+    this.index = index;
   }
 
   /**
@@ -46,6 +45,7 @@ public class DefaultCachedClassFactory implements CachedClass.Factory {
    */
   @Override
   public CachedClass create(String name, UUID uuid) {
-    return new DefaultCachedClass(name, uuid, logger);
+    // the cache identifier is stored in the most significant bits, see DefaultCachedClass
+    return new DefaultCachedClass(this.index.get(), name, uuid.getMostSignificantBits());
   }
 }
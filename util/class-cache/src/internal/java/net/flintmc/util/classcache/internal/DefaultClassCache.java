@@ -54,6 +54,11 @@ public class DefaultClassCache implements ClassCache {
    */
   @Override
   public Optional<byte[]> getClass(String name, long cacheId) {
+    if (!this.index.contains(name, cacheId)) {
+      // don't add every class that is looked up to the index
+      return Optional.empty();
+    }
+
     CachedClass cachedClass = this.index.getCachedClass(name, cacheId);
     if (cachedClass.hasBytecode()) {
       return Optional.of(cachedClass.read());
@@ -90,8 +95,8 @@ public class DefaultClassCache implements ClassCache {
   @Override
   public void writeClass(String name, long cacheId, byte[] byteCode) {
     CachedClass cachedClass = this.index.getCachedClass(name, cacheId);
+    // written to the disk in one batch by ClassCacheIndex#write
     cachedClass.write(byteCode);
-    this.index.write();
   }
 
   /**
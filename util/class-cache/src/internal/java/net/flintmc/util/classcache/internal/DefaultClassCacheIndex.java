@@ -19,51 +19,242 @@
 
 package net.flintmc.util.classcache.internal;
 
-import com.google.gson.Gson;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import net.flintmc.framework.inject.implement.Implement;
 import net.flintmc.framework.inject.logging.InjectLogger;
 import net.flintmc.util.classcache.CachedClass;
 import net.flintmc.util.classcache.ClassCacheIndex;
 import org.apache.logging.log4j.Logger;
-import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-import java.util.function.BiFunction;
 
+/**
+ * {@inheritDoc}
+ *
+ * <p>All cached classes are stored in a single append-only pack file which is memory mapped on
+ * startup. The file consists of a header followed by segments, every segment contains a table with
+ * the name, cache identifier, offset and length of its classes, the bytecode of these classes and
+ * its own offset as a commit marker. Classes that are written while the game is running are kept
+ * in memory until {@link #write()} is called, which appends them as a new segment. A segment that
+ * has only been written partially because of a crash is ignored when reading the pack.
+ *
+ * <p>Classes that have been loaded in this session only keep the states that have been used in
+ * this session. Once these outdated states make up more than half of the pack (or the pack
+ * contains a partial segment), the pack is compacted into a new file of the next generation which
+ * is written to a temporary file and atomically renamed.
+ */
 @Singleton
 @Implement(ClassCacheIndex.class)
 public class DefaultClassCacheIndex implements ClassCacheIndex {
 
-  private final Gson gson;
+  private static final int MAGIC = 0x464C4343; // FLCC
+  private static final int FORMAT_VERSION = 2;
+  private static final int HEADER_LENGTH = 8;
+
+  private static final String PACK_PREFIX = "classes-";
+  private static final String PACK_SUFFIX = ".pack";
+
   private final Logger logger;
-  private final CachedClass.Factory cachedClassFactory;
+  private final File directory;
+
+  private final Map<String, Map<Long, Entry>> entries;
+  private final Map<String, Long> latest;
+  private final Set<String> usedNames;
 
-  private IndexModel data;
+  private MappedByteBuffer pack;
+  private File packFile;
+  private long generation;
+  // the length of the pack without a partially written segment at its end
+  private long packLength;
+  private boolean damaged;
+  private boolean modified;
 
   @Inject
-  private DefaultClassCacheIndex(@InjectLogger Logger logger,
-      CachedClass.Factory cachedClassFactory) {
-    this.gson = new Gson();
+  private DefaultClassCacheIndex(@InjectLogger Logger logger) {
     this.logger = logger;
-    this.cachedClassFactory = cachedClassFactory;
+    this.directory = new File(PACK_FILE_DIRECTORY);
+    //noinspection ResultOfMethodCallIgnored
+    this.directory.mkdirs();
+
+    this.entries = new HashMap<>();
+    this.latest = new HashMap<>();
+    this.usedNames = new HashSet<>();
+
+    this.load();
+    Runtime.getRuntime().addShutdownHook(new Thread(this::write, "Class cache writer"));
+  }
+
+  private void load() {
+    File[] files = this.directory.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    for (File file : files) {
+      long generation = parseGeneration(file.getName());
+      if (generation >= 0 && (this.packFile == null || generation > this.generation)) {
+        this.packFile = file;
+        this.generation = generation;
+      }
+    }
+
+    this.deleteOutdatedFiles(files);
+
+    if (this.packFile == null) {
+      this.logger.info("No class cache found. Creating a new cache.");
+      return;
+    }
+
     try {
-      File indexFile = new File(INDEX_FILE_PATH);
-      //noinspection ResultOfMethodCallIgnored
-      indexFile.getParentFile().mkdirs();
-      this.data = this.gson
-          .fromJson(new FileReader(indexFile), IndexModel.class);
-      this.data.elements.forEach((name, element) -> {
-        element.setName(name);
-        element.cachedClasses = new HashMap<>();
-      });
-    } catch (FileNotFoundException e) {
-      this.logger
-          .info("Failed to read class cache index. Creating a new index.");
-      this.data = new IndexModel();
-      this.write();
+      this.pack = mapPack(this.packFile);
+      this.readPack(this.pack);
+    } catch (IOException | RuntimeException exception) {
+      this.logger.info("Failed to read class cache. Creating a new cache.", exception);
+      this.entries.clear();
+      this.latest.clear();
+      this.pack = null;
+      this.packLength = 0;
+      this.damaged = true;
+    }
+  }
+
+  /**
+   * Deletes packs of older generations and the files of the cache format that has been used before
+   * the pack file. Temporary files are kept because they might be written by another instance of
+   * the game at the same time.
+   *
+   * @param files all files in the cache directory
+   */
+  @SuppressWarnings({"ResultOfMethodCallIgnored", "deprecation"})
+  private void deleteOutdatedFiles(File[] files) {
+    String legacyIndex = new File(INDEX_FILE_PATH).getName();
+    String legacySuffix = CachedClass.CACHED_CLASS_PATH
+        .substring(CachedClass.CACHED_CLASS_PATH.lastIndexOf("{UUID}") + "{UUID}".length());
+
+    for (File file : files) {
+      String name = file.getName();
+      long generation = parseGeneration(name);
+      if ((generation >= 0 && generation < this.generation)
+          || name.equals(legacyIndex)
+          || name.endsWith(legacySuffix)) {
+        // fails on some systems while another instance has the pack mapped, it will be deleted on
+        // the next start
+        file.delete();
+      }
+    }
+  }
+
+  private static long parseGeneration(String fileName) {
+    if (!fileName.startsWith(PACK_PREFIX) || !fileName.endsWith(PACK_SUFFIX)) {
+      return -1;
+    }
+
+    try {
+      return Long.parseLong(
+          fileName.substring(PACK_PREFIX.length(), fileName.length() - PACK_SUFFIX.length()));
+    } catch (NumberFormatException exception) {
+      return -1;
+    }
+  }
+
+  private static MappedByteBuffer mapPack(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  private void readPack(ByteBuffer pack) throws IOException {
+    try {
+      if (pack.getInt() != MAGIC || pack.getInt() != FORMAT_VERSION) {
+        throw new IOException("Invalid class cache header");
+      }
+    } catch (BufferUnderflowException exception) {
+      throw new IOException("Truncated class cache header", exception);
+    }
+
+    this.packLength = HEADER_LENGTH;
+    while (pack.hasRemaining()) {
+      int start = pack.position();
+      try {
+        this.readSegment(pack, start);
+        this.packLength = pack.position();
+      } catch (BufferUnderflowException | IOException exception) {
+        // the game crashed while writing this segment, it will be dropped by the next write
+        this.logger.info("Ignoring partially written class cache segment at {}", start);
+        this.damaged = true;
+        return;
+      }
+    }
+  }
+
+  private void readSegment(ByteBuffer pack, int start) throws IOException {
+    int count = pack.getInt();
+    if (count < 0) {
+      throw new IOException("Invalid class cache segment at " + start);
+    }
+
+    List<String> names = new ArrayList<>(count);
+    List<Long> ids = new ArrayList<>(count);
+    List<Entry> segment = new ArrayList<>(count);
+    Set<Integer> latest = new HashSet<>();
+    int end = start;
+
+    for (int i = 0; i < count; i++) {
+      byte[] nameBytes = new byte[pack.getShort() & 0xFFFF];
+      pack.get(nameBytes);
+      String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+      long id = pack.getLong();
+      if (pack.get() != 0) {
+        latest.add(i);
+      }
+      int offset = pack.getInt();
+      int length = pack.getInt();
+      if (offset < start || length < 0 || offset > pack.capacity() - length) {
+        throw new IOException("Invalid class cache entry for " + name);
+      }
+
+      names.add(name);
+      ids.add(id);
+      segment.add(new Entry(offset, length));
+      end = Math.max(end, offset + length);
+    }
+
+    // the entries are only used once the whole segment including its marker has been written
+    end = Math.max(end, pack.position());
+    pack.position(end);
+    if (pack.getLong() != start) {
+      throw new IOException("Missing end of class cache segment at " + start);
+    }
+
+    for (int i = 0; i < count; i++) {
+      this.entries.computeIfAbsent(names.get(i), key -> new LinkedHashMap<>())
+          .put(ids.get(i), segment.get(i));
+      if (latest.contains(i)) {
+        this.latest.put(names.get(i), ids.get(i));
+      }
     }
   }
 
@@ -71,8 +262,17 @@ public class DefaultClassCacheIndex implements ClassCacheIndex {
    * {@inheritDoc}
    */
   @Override
-  public long getLatestId(String name) {
-    return this.data.getOrInsert(name).getLatest();
+  public synchronized long getLatestId(String name) {
+    return this.latest.getOrDefault(name, 0L);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized boolean contains(String name, long id) {
+    Map<Long, Entry> entries = this.entries.get(name);
+    return entries != null && entries.containsKey(id);
   }
 
   /**
@@ -80,95 +280,309 @@ public class DefaultClassCacheIndex implements ClassCacheIndex {
    */
   @Override
   public CachedClass getCachedClass(String name, long id) {
-    return this.data.getOrInsert(name)
-        .getCachedClass(id, this.cachedClassFactory::create);
+    return new DefaultCachedClass(this, name, id);
+  }
+
+  /**
+   * Reads the bytecode of a cached class.
+   *
+   * @param name the name of the class
+   * @param id   the cache identifier for the state of the bytecode
+   * @return the bytecode or null if the class isn't cached
+   */
+  synchronized byte[] read(String name, long id) {
+    Map<Long, Entry> entries = this.entries.get(name);
+    Entry entry = entries != null ? entries.get(id) : null;
+    if (entry == null) {
+      return null;
+    }
+
+    this.usedNames.add(name);
+    entry.used = true;
+    if (entry.bytecode != null) {
+      return entry.bytecode;
+    }
+
+    byte[] bytecode = new byte[entry.length];
+    ByteBuffer buffer = this.pack.duplicate();
+    buffer.position(entry.offset);
+    buffer.get(bytecode);
+    return bytecode;
+  }
+
+  /**
+   * Adds the bytecode of a class to this index, it will be written to the disk with the next call
+   * of {@link #write()}.
+   *
+   * @param name     the name of the class
+   * @param id       the cache identifier for the state of the bytecode
+   * @param bytecode the bytecode to cache
+   */
+  synchronized void put(String name, long id, byte[] bytecode) {
+    Entry entry = new Entry(-1, bytecode.length);
+    entry.bytecode = bytecode;
+    entry.used = true;
+
+    this.entries.computeIfAbsent(name, key -> new LinkedHashMap<>()).put(id, entry);
+    this.latest.put(name, id);
+    this.usedNames.add(name);
+    this.modified = true;
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void write() {
-    try (FileWriter out = new FileWriter(INDEX_FILE_PATH)) {
-      out.write(this.gson.toJson(this.data));
-      out.flush();
-    } catch (IOException e) {
-      this.logger.error("Failed to write class cache index.", e);
+  public synchronized void write() {
+    if (!this.modified) {
+      return;
+    }
+
+    try {
+      if (this.packFile == null || this.damaged || this.isFragmented()
+          || !this.append()) {
+        this.compact();
+      }
+    } catch (IOException exception) {
+      this.logger.error("Failed to write class cache.", exception);
+      return;
     }
+
+    this.modified = false;
   }
 
-  private static class IndexModel {
+  /**
+   * Retrieves whether more than half of the pack consists of outdated states of classes that have
+   * been loaded in this session.
+   *
+   * @return {@code true} if the pack should be compacted, {@code false} otherwise
+   */
+  private boolean isFragmented() {
+    long outdated = 0;
+    for (String name : this.usedNames) {
+      Map<Long, Entry> entries = this.entries.get(name);
+      if (entries == null) {
+        continue;
+      }
+
+      for (Entry entry : entries.values()) {
+        if (!entry.used && entry.bytecode == null) {
+          outdated += entry.length;
+        }
+      }
+    }
+
+    return outdated * 2 > this.packLength;
+  }
 
-    private final Map<String, IndexElement> elements;
+  /**
+   * Appends all classes that have been cached since the last write as a new segment to the current
+   * pack.
+   *
+   * @return {@code true} if the segment has been appended, {@code false} if the pack has been
+   * modified by another instance of the game and needs to be compacted instead
+   * @throws IOException If the segment couldn't be written
+   */
+  private boolean append() throws IOException {
+    List<String> names = new ArrayList<>();
+    List<Long> ids = new ArrayList<>();
+    List<Entry> written = new ArrayList<>();
 
-    IndexModel() {
-      this.elements = new HashMap<>();
+    for (Map.Entry<String, Map<Long, Entry>> classEntries : this.entries.entrySet()) {
+      for (Map.Entry<Long, Entry> entry : classEntries.getValue().entrySet()) {
+        if (entry.getValue().bytecode != null) {
+          names.add(classEntries.getKey());
+          ids.add(entry.getKey());
+          written.add(entry.getValue());
+        }
+      }
     }
 
-    IndexElement getOrInsert(String name) {
-      if (this.elements.containsKey(name)) {
-        return this.elements.get(name);
-      } else {
-        IndexElement element = new IndexElement(name);
-        this.elements.put(name, element);
-        return element;
+    int[] offsets;
+    try (FileChannel channel = FileChannel.open(
+        this.packFile.toPath(), StandardOpenOption.WRITE);
+        FileLock ignored = channel.lock()) {
+      if (channel.size() != this.packLength) {
+        return false;
       }
+
+      channel.position(this.packLength);
+      offsets = this.writeSegment(
+          Channels.newOutputStream(channel), this.packLength, names, ids, written);
+      channel.force(true);
     }
 
+    for (int i = 0; i < written.size(); i++) {
+      Entry entry = written.get(i);
+      entry.offset = offsets[i];
+      entry.bytecode = null;
+    }
 
+    this.packLength = offsets[offsets.length - 1];
+    this.pack = mapPack(this.packFile);
+    return true;
   }
 
-  private static class IndexElement {
+  /**
+   * Writes a new pack of the next generation that contains every class except for the outdated
+   * states of classes that have been loaded in this session.
+   *
+   * @throws IOException If the pack couldn't be written
+   */
+  private void compact() throws IOException {
+    List<String> names = new ArrayList<>();
+    List<Long> ids = new ArrayList<>();
+    List<Entry> written = new ArrayList<>();
+
+    for (Iterator<Map.Entry<String, Map<Long, Entry>>> classIterator = this.entries.entrySet()
+        .iterator(); classIterator.hasNext(); ) {
+      Map.Entry<String, Map<Long, Entry>> classEntries = classIterator.next();
+      String name = classEntries.getKey();
+      boolean used = this.usedNames.contains(name);
 
-    private long latest;
-    private final Map<Long, String> uuids;
+      for (Map.Entry<Long, Entry> entry : classEntries.getValue().entrySet()) {
+        if (used && !entry.getValue().used) {
+          // outdated state of a class that has been loaded in this session
+          continue;
+        }
+
+        names.add(name);
+        ids.add(entry.getKey());
+        written.add(entry.getValue());
+      }
+    }
 
-    private transient String name;
-    transient Map<Long, CachedClass> cachedClasses;
+    long generation = this.generation + 1;
+    File target = new File(this.directory, PACK_PREFIX + generation + PACK_SUFFIX);
+    File temp = new File(this.directory, target.getName() + ".tmp");
+
+    int[] offsets;
+    try (FileChannel channel = FileChannel.open(temp.toPath(),
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE)) {
+      OutputStream out = Channels.newOutputStream(channel);
+      DataOutputStream header = new DataOutputStream(out);
+      header.writeInt(MAGIC);
+      header.writeInt(FORMAT_VERSION);
+
+      offsets = this.writeSegment(out, HEADER_LENGTH, names, ids, written);
+      channel.force(true);
+      Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException exception) {
+      //noinspection ResultOfMethodCallIgnored
+      temp.delete();
+      throw exception;
+    }
 
-    IndexElement(String name) {
-      this.uuids = new HashMap<>();
-      this.name = name;
-      this.cachedClasses = new HashMap<>();
+    // drop the outdated states and point the remaining ones to the new pack
+    Set<Entry> kept = new HashSet<>(written);
+    for (Iterator<Map<Long, Entry>> iterator = this.entries.values().iterator();
+        iterator.hasNext(); ) {
+      Map<Long, Entry> classEntries = iterator.next();
+      classEntries.values().removeIf(entry -> !kept.contains(entry));
+      if (classEntries.isEmpty()) {
+        iterator.remove();
+      }
     }
 
-    void setName(String name) {
-      this.name = name;
+    for (int i = 0; i < written.size(); i++) {
+      Entry entry = written.get(i);
+      entry.offset = offsets[i];
+      entry.bytecode = null;
     }
 
-    void setLatest(long id, String uuid) {
-      this.latest = id;
-      this.set(id, uuid);
+    File previous = this.packFile;
+    this.packFile = target;
+    this.generation = generation;
+    this.packLength = offsets[offsets.length - 1];
+    this.damaged = false;
+    this.pack = mapPack(target);
+
+    if (previous != null) {
+      // fails on some systems while the file is still mapped, it will be deleted on the next start
+      //noinspection ResultOfMethodCallIgnored
+      previous.delete();
     }
+  }
 
-    void set(long id, String uuid) {
-      this.uuids.put(id, uuid);
+  /**
+   * Writes a segment with the given entries, the bytecode is either taken from the entries or from
+   * the current pack.
+   *
+   * @param out     the stream to write the segment to, it is not closed by this method
+   * @param start   the offset of the segment in the pack
+   * @param names   the names of the classes to write
+   * @param ids     the cache identifiers of the classes to write
+   * @param written the entries of the classes to write
+   * @return the new offsets of the written entries followed by the end of the segment
+   * @throws IOException If the segment couldn't be written
+   */
+  private int[] writeSegment(OutputStream out, long start, List<String> names, List<Long> ids,
+      List<Entry> written) throws IOException {
+    byte[][] nameBytes = new byte[names.size()][];
+    long offset = start + 4;
+    for (int i = 0; i < names.size(); i++) {
+      nameBytes[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+      offset += 2 + nameBytes[i].length + 8 + 1 + 4 + 4;
     }
 
-    long getLatest() {
-      return this.latest;
+    int[] offsets = new int[written.size() + 1];
+    for (int i = 0; i < written.size(); i++) {
+      offsets[i] = (int) offset;
+      offset += written.get(i).length;
     }
+    if (offset + 8 > Integer.MAX_VALUE) {
+      throw new IOException("Class cache exceeds the maximum size");
+    }
+    offsets[written.size()] = (int) offset + 8;
 
-    CachedClass getCachedClass(long id,
-        BiFunction<String, UUID, CachedClass> factory) {
-      if (this.cachedClasses.containsKey(id)) {
-        return this.cachedClasses.get(id);
-      } else {
-        UUID uuid;
-        if (this.uuids.containsKey(id)) {
-          uuid = UUID.fromString(uuids.get(id));
-        } else {
-          uuid = UUID.randomUUID();
-          this.setLatest(id, uuid.toString());
-        }
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(names.size());
+    for (int i = 0; i < names.size(); i++) {
+      Long latest = this.latest.get(names.get(i));
 
-        CachedClass cachedClass = factory.apply(this.name, uuid);
-        this.cachedClasses.put(id, cachedClass);
-        return cachedClass;
+      data.writeShort(nameBytes[i].length);
+      data.write(nameBytes[i]);
+      data.writeLong(ids.get(i));
+      data.writeBoolean(latest != null && latest.equals(ids.get(i)));
+      data.writeInt(offsets[i]);
+      data.writeInt(written.get(i).length);
+    }
+
+    byte[] buffer = new byte[8192];
+    for (Entry entry : written) {
+      if (entry.bytecode != null) {
+        data.write(entry.bytecode);
+        continue;
       }
 
+      ByteBuffer source = this.pack.duplicate();
+      source.position(entry.offset);
+      source.limit(entry.offset + entry.length);
+      while (source.hasRemaining()) {
+        int length = Math.min(buffer.length, source.remaining());
+        source.get(buffer, 0, length);
+        data.write(buffer, 0, length);
+      }
     }
 
+    // the marker that commits the segment
+    data.writeLong(start);
+    data.flush();
+    return offsets;
   }
 
+  private static class Entry {
+
+    private final int length;
+
+    private int offset;
+    private byte[] bytecode;
+    private boolean used;
+
+    private Entry(int offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
 }
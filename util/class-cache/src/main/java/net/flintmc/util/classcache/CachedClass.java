@@ -28,21 +28,26 @@ import java.util.UUID;
 public interface CachedClass {
 
   /**
-   * The template path to a cached class binary file. "{UUID}" should be
-   * replaced with a unique name for this file.
+   * The template path to a cached class binary file of the cache format that
+   * has been used before the pack file. "{UUID}" is replaced with the UUID of
+   * the class.
+   *
+   * @deprecated All classes are stored in a single pack file in {@link
+   * ClassCacheIndex#PACK_FILE_DIRECTORY}, files at this path are only deleted
    */
+  @Deprecated
   String CACHED_CLASS_PATH = "flint/class-cache/{UUID}.bin";
 
   /**
-   * Reads the entire cached class. Performs blocking IO.
+   * Reads the entire cached class.
    *
-   * @return the bytes that are in the file or null if the file doesn't exist
+   * @return the cached bytes or null if the class isn't cached
    */
   byte[] read();
 
   /**
-   * Writes the given bytes into the file for this class (and creates the file
-   * if it doesn't exist yet). Performs blocking IO.
+   * Writes the given bytes into the cache for this class. They will be written
+   * to the disk with the next call of {@link ClassCacheIndex#write()}.
    *
    * @param bytecode the bytes to write
    */
@@ -64,7 +69,7 @@ public interface CachedClass {
   String getName();
 
   /**
-   * Checks whether the file for this cached class exists and is not empty.
+   * Checks whether the cache contains bytecode for this class.
    *
    * @return true, if there is cached data available
    */
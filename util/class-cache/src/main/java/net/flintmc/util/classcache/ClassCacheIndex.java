@@ -20,14 +20,24 @@
 package net.flintmc.util.classcache;
 
 /**
- * Index for class cache that maps class names and cache identifiers to files on
- * disk.
+ * Index for class cache that maps class names and cache identifiers to their
+ * bytecode on disk.
  */
 public interface ClassCacheIndex {
 
   /**
-   * Path to the index file.
+   * Path to the directory that contains the pack file with all cached classes.
    */
+  String PACK_FILE_DIRECTORY = "flint/class-cache";
+
+  /**
+   * Path to the index file of the cache format that has been used before the
+   * pack file.
+   *
+   * @deprecated The index is part of the pack file in {@link
+   * #PACK_FILE_DIRECTORY}, the file at this path is only deleted
+   */
+  @Deprecated
   String INDEX_FILE_PATH = "flint/class-cache/index.json";
 
   /**
@@ -39,6 +49,16 @@ public interface ClassCacheIndex {
    */
   long getLatestId(String name);
 
+  /**
+   * Checks whether the given name and identifier have been added to this index. Unlike {@link
+   * #getCachedClass(String, long)}, this doesn't add anything to the index.
+   *
+   * @param name the name of the class
+   * @param id   the cache identifier for the state of the bytecode
+   * @return true, if the index contains the given state of the class
+   */
+  boolean contains(String name, long id);
+
   /**
    * Retrieves a {@link CachedClass} instance for the given name and identifier
    * that represents the cache for those values. This is not an indication for
@@ -53,7 +73,8 @@ public interface ClassCacheIndex {
   CachedClass getCachedClass(String name, long id);
 
   /**
-   * Writes the index to the disk.
+   * Writes all classes that have been cached since the last call of this
+   * method together with the index to the disk. Performs blocking IO.
    */
   void write();
 
@@ -0,0 +1,76 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.util.classcache.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Provides;
+import net.flintmc.util.classcache.CachedClass;
+import net.flintmc.util.unittesting.FlintTest;
+import net.flintmc.util.unittesting.RandomInt;
+import org.junit.jupiter.api.Test;
+
+@FlintTest
+public class DefaultCachedClassFactoryTest extends AbstractModule {
+
+  private static final String NAME = "net.flintmc.Example";
+
+  private final DefaultClassCacheIndex index = mock(DefaultClassCacheIndex.class);
+
+  @Inject
+  private CachedClass.Factory factory;
+
+  @Test
+  public void testIdIsRestoredFromUUID(@RandomInt int id) {
+    DefaultCachedClass cached = new DefaultCachedClass(this.index, NAME, id * 31L);
+    CachedClass restored = this.factory.create(NAME, cached.getUUID());
+
+    assertEquals(cached.getId(), ((DefaultCachedClass) restored).getId());
+    assertEquals(cached.getUUID(), restored.getUUID());
+
+    restored.read();
+    verify(this.index).read(NAME, id * 31L);
+  }
+
+  @Test
+  public void testUUIDsAreUniquePerState() {
+    DefaultCachedClass cached = new DefaultCachedClass(this.index, NAME, 1);
+
+    assertEquals(cached.getUUID(), new DefaultCachedClass(this.index, NAME, 1).getUUID());
+    assertNotEquals(cached.getUUID(), new DefaultCachedClass(this.index, NAME, 2).getUUID());
+    assertNotEquals(
+        cached.getUUID(), new DefaultCachedClass(this.index, NAME + "2", 1).getUUID());
+  }
+
+  @Provides
+  public DefaultClassCacheIndex provideIndex() {
+    return this.index;
+  }
+
+  @Override
+  protected void configure() {
+    this.bind(CachedClass.Factory.class).to(DefaultCachedClassFactory.class);
+  }
+}
@@ -0,0 +1,436 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.util.mappings;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>BinaryMappingIndex</code> is a compiled form of the mappings that have been parsed by the
+ * {@link McpMappingParser}. It consists of a string table and sorted tables for all classes, fields
+ * and methods and is memory mapped, class mappings are only created when they are looked up.
+ */
+public final class BinaryMappingIndex {
+
+  private static final int MAGIC = 0x464C4D50; // FLMP
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int CLASS_RECORD_SIZE = 6 * Integer.BYTES;
+  private static final int FIELD_RECORD_SIZE = 2 * Integer.BYTES;
+  private static final int METHOD_RECORD_SIZE = 4 * Integer.BYTES;
+
+  private final boolean obfuscated;
+  private final ByteBuffer buffer;
+
+  private final int stringOffsetsStart;
+  private final int stringDataStart;
+  private final int stringDataLength;
+  private final int classesStart;
+  private final int deobfuscatedOrderStart;
+  private final int fieldsStart;
+  private final int methodsStart;
+
+  private final String[] strings;
+  private final ClassMapping[] classes;
+
+  private Map<String, ClassMapping> obfuscatedClassMappings;
+  private Map<String, ClassMapping> deobfuscatedClassMappings;
+
+  private BinaryMappingIndex(boolean obfuscated, ByteBuffer buffer) throws IOException {
+    this.obfuscated = obfuscated;
+    this.buffer = buffer;
+
+    int stringCount = this.readCount(Integer.BYTES);
+    this.stringOffsetsStart = buffer.position();
+    buffer.position(buffer.position() + stringCount * Integer.BYTES);
+    this.stringDataLength = this.readCount(1);
+    this.stringDataStart = buffer.position();
+    buffer.position(buffer.position() + this.stringDataLength);
+
+    int classCount = this.readCount(CLASS_RECORD_SIZE + Integer.BYTES);
+    this.classesStart = buffer.position();
+    this.deobfuscatedOrderStart = this.classesStart + classCount * CLASS_RECORD_SIZE;
+    buffer.position(this.deobfuscatedOrderStart + classCount * Integer.BYTES);
+
+    int fieldCount = this.readCount(FIELD_RECORD_SIZE);
+    this.fieldsStart = buffer.position();
+    buffer.position(buffer.position() + fieldCount * FIELD_RECORD_SIZE);
+
+    this.readCount(METHOD_RECORD_SIZE);
+    this.methodsStart = buffer.position();
+
+    this.strings = new String[stringCount];
+    this.classes = new ClassMapping[classCount];
+  }
+
+  private int readCount(int recordSize) throws IOException {
+    int count = this.buffer.getInt();
+    if (count < 0 || (long) count * recordSize > this.buffer.remaining()) {
+      throw new IOException("Invalid mapping index table size: " + count);
+    }
+    return count;
+  }
+
+  /**
+   * Calculates the fingerprint of the given mapping sources which is used to detect whether a
+   * compiled index is outdated.
+   *
+   * @param sources The contents of the mapping files.
+   * @return The fingerprint of the given sources.
+   */
+  public static long fingerprint(Map<MappingType, byte[]> sources) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (MappingType type : MappingType.values()) {
+      byte[] source = sources.get(type);
+      hasher.putInt(type.ordinal()).putInt(source == null ? -1 : source.length);
+      if (source != null) {
+        hasher.putBytes(source);
+      }
+    }
+    return hasher.hash().asLong();
+  }
+
+  /**
+   * Opens a compiled index.
+   *
+   * @param file        The file to read the index from.
+   * @param fingerprint The fingerprint of the mapping sources, see {@link #fingerprint(Map)}.
+   * @param obfuscated  Whether the current environment is obfuscated.
+   * @return The index or null if the file doesn't exist or has been compiled from other sources.
+   * @throws IOException If the file could not be read or is corrupted.
+   */
+  public static BinaryMappingIndex open(File file, long fingerprint, boolean obfuscated)
+      throws IOException {
+    if (!file.isFile()) {
+      return null;
+    }
+
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    try {
+      if (buffer.getInt() != MAGIC
+          || buffer.getInt() != FORMAT_VERSION
+          || buffer.getLong() != fingerprint) {
+        return null;
+      }
+
+      return new BinaryMappingIndex(obfuscated, buffer);
+    } catch (BufferUnderflowException exception) {
+      throw new IOException("Truncated mapping index", exception);
+    }
+  }
+
+  /**
+   * Compiles the given class mappings into an index and atomically replaces the given file.
+   *
+   * @param file          The file to write the index to.
+   * @param fingerprint   The fingerprint of the mapping sources, see {@link #fingerprint(Map)}.
+   * @param classMappings The class mappings by their obfuscated name, as produced by a {@link
+   *                      MappingParser}.
+   * @throws IOException If the file could not be written.
+   */
+  public static void write(File file, long fingerprint, Map<String, ClassMapping> classMappings)
+      throws IOException {
+    List<ClassMapping> classes = new ArrayList<>(classMappings.values());
+    classes.sort(Comparator.comparing(ClassMapping::getObfuscatedName));
+
+    Integer[] deobfuscatedOrder = new Integer[classes.size()];
+    for (int i = 0; i < deobfuscatedOrder.length; i++) {
+      deobfuscatedOrder[i] = i;
+    }
+    Arrays.sort(deobfuscatedOrder,
+        Comparator.comparing(index -> classes.get(index).getDeobfuscatedName()));
+
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    List<int[]> classRecords = new ArrayList<>();
+    List<int[]> fieldRecords = new ArrayList<>();
+    List<int[]> methodRecords = new ArrayList<>();
+
+    for (ClassMapping classMapping : classes) {
+      List<FieldMapping> fields = new ArrayList<>(classMapping.obfuscatedFields.values());
+      List<MethodMapping> methods = new ArrayList<>(classMapping.obfuscatedMethods.values());
+
+      classRecords.add(new int[]{
+          string(strings, classMapping.obfuscatedName),
+          string(strings, classMapping.deobfuscatedName),
+          fieldRecords.size(), fields.size(),
+          methodRecords.size(), methods.size()});
+
+      for (FieldMapping field : fields) {
+        fieldRecords.add(new int[]{
+            string(strings, field.obfuscatedName),
+            string(strings, field.deobfuscatedName)});
+      }
+
+      for (MethodMapping method : methods) {
+        methodRecords.add(new int[]{
+            string(strings, method.obfuscatedName),
+            string(strings, method.deobfuscatedName),
+            string(strings, method.obfuscatedDescriptor),
+            string(strings, method.deobfuscatedDescriptor)});
+      }
+    }
+
+    File temp = new File(file.getPath() + ".tmp");
+    //noinspection ResultOfMethodCallIgnored
+    file.getAbsoluteFile().getParentFile().mkdirs();
+
+    try (FileOutputStream fileOut = new FileOutputStream(temp);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(fingerprint);
+
+      List<byte[]> stringBytes = new ArrayList<>(strings.size());
+      out.writeInt(strings.size());
+      int offset = 0;
+      for (String string : strings.keySet()) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        stringBytes.add(bytes);
+        out.writeInt(offset);
+        offset += bytes.length;
+      }
+      out.writeInt(offset);
+      for (byte[] bytes : stringBytes) {
+        out.write(bytes);
+      }
+
+      out.writeInt(classRecords.size());
+      writeRecords(out, classRecords);
+      for (Integer index : deobfuscatedOrder) {
+        out.writeInt(index);
+      }
+
+      out.writeInt(fieldRecords.size());
+      writeRecords(out, fieldRecords);
+
+      out.writeInt(methodRecords.size());
+      writeRecords(out, methodRecords);
+
+      out.flush();
+      fileOut.getFD().sync();
+    }
+
+    Files.move(temp.toPath(), file.toPath(),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static int string(Map<String, Integer> strings, String string) {
+    return strings.computeIfAbsent(string, key -> strings.size());
+  }
+
+  private static void writeRecords(DataOutputStream out, List<int[]> records) throws IOException {
+    for (int[] record : records) {
+      for (int value : record) {
+        out.writeInt(value);
+      }
+    }
+  }
+
+  /**
+   * Get a class mapping by obfuscated name.
+   *
+   * @param name An obfuscated name.
+   * @return A class mapping or null if no class with the given name exists.
+   */
+  public ClassMapping getByObfuscatedName(String name) {
+    int low = 0;
+    int high = this.classes.length - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = this.getString(this.getClassRecord(middle, 0)).compareTo(name);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return this.getClassMapping(middle);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Get a class mapping by deobfuscated name.
+   *
+   * @param name A deobfuscated name.
+   * @return A class mapping or null if no class with the given name exists.
+   */
+  public ClassMapping getByDeobfuscatedName(String name) {
+    int low = 0;
+    int high = this.classes.length - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int index = this.buffer.getInt(this.deobfuscatedOrderStart + middle * Integer.BYTES);
+      int comparison = this.getString(this.getClassRecord(index, 1)).compareTo(name);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return this.getClassMapping(index);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Get all class mappings by their obfuscated name. This creates the mappings of all classes in
+   * this index.
+   *
+   * @return An unmodifiable map of all class mappings.
+   */
+  public synchronized Map<String, ClassMapping> getObfuscatedClassMappings() {
+    if (this.obfuscatedClassMappings == null) {
+      this.createClassMappings();
+    }
+    return this.obfuscatedClassMappings;
+  }
+
+  /**
+   * Get all class mappings by their deobfuscated name. This creates the mappings of all classes in
+   * this index.
+   *
+   * @return An unmodifiable map of all class mappings.
+   */
+  public synchronized Map<String, ClassMapping> getDeobfuscatedClassMappings() {
+    if (this.deobfuscatedClassMappings == null) {
+      this.createClassMappings();
+    }
+    return this.deobfuscatedClassMappings;
+  }
+
+  private void createClassMappings() {
+    Map<String, ClassMapping> obfuscatedClassMappings = new HashMap<>(this.classes.length * 2);
+    Map<String, ClassMapping> deobfuscatedClassMappings = new HashMap<>(this.classes.length * 2);
+
+    for (int i = 0; i < this.classes.length; i++) {
+      ClassMapping classMapping = this.getClassMapping(i);
+      obfuscatedClassMappings.put(classMapping.obfuscatedName, classMapping);
+      deobfuscatedClassMappings.put(classMapping.deobfuscatedName, classMapping);
+    }
+
+    this.obfuscatedClassMappings = Collections.unmodifiableMap(obfuscatedClassMappings);
+    this.deobfuscatedClassMappings = Collections.unmodifiableMap(deobfuscatedClassMappings);
+  }
+
+  private synchronized ClassMapping getClassMapping(int index) {
+    ClassMapping classMapping = this.classes[index];
+    if (classMapping != null) {
+      return classMapping;
+    }
+
+    classMapping = new ClassMapping(this.obfuscated,
+        this.getString(this.getClassRecord(index, 0)),
+        this.getString(this.getClassRecord(index, 1)));
+
+    int fieldStart = this.getClassRecord(index, 2);
+    int fieldCount = this.getClassRecord(index, 3);
+    for (int i = fieldStart; i < fieldStart + fieldCount; i++) {
+      int position = this.fieldsStart + i * FIELD_RECORD_SIZE;
+      FieldMapping fieldMapping = new FieldMapping(this.obfuscated, classMapping,
+          this.getString(this.buffer.getInt(position)),
+          this.getString(this.buffer.getInt(position + Integer.BYTES)));
+
+      classMapping.obfuscatedFields.put(fieldMapping.obfuscatedName, fieldMapping);
+      classMapping.deobfuscatedFields.put(fieldMapping.deobfuscatedName, fieldMapping);
+    }
+
+    int methodStart = this.getClassRecord(index, 4);
+    int methodCount = this.getClassRecord(index, 5);
+    for (int i = methodStart; i < methodStart + methodCount; i++) {
+      int position = this.methodsStart + i * METHOD_RECORD_SIZE;
+      String obfuscatedName = this.getString(this.buffer.getInt(position));
+      String deobfuscatedName = this.getString(this.buffer.getInt(position + Integer.BYTES));
+      String obfuscatedDescriptor = this.getString(this.buffer.getInt(position + 2 * Integer.BYTES));
+      String deobfuscatedDescriptor =
+          this.getString(this.buffer.getInt(position + 3 * Integer.BYTES));
+
+      MethodMapping methodMapping = new MethodMapping(this.obfuscated, classMapping,
+          obfuscatedDescriptor, identifier(obfuscatedName, obfuscatedDescriptor),
+          obfuscatedName, deobfuscatedName);
+      methodMapping.deobfuscatedDescriptor = deobfuscatedDescriptor;
+      methodMapping.deobfuscatedIdentifier = identifier(deobfuscatedName, deobfuscatedDescriptor);
+
+      classMapping.obfuscatedMethods.put(methodMapping.obfuscatedIdentifier, methodMapping);
+      classMapping.deobfuscatedMethods.put(methodMapping.deobfuscatedIdentifier, methodMapping);
+    }
+
+    this.classes[index] = classMapping;
+    return classMapping;
+  }
+
+  private static String identifier(String name, String descriptor) {
+    return name + '(' + descriptor.substring(1, descriptor.lastIndexOf(')')) + ')';
+  }
+
+  private int getClassRecord(int index, int field) {
+    return this.buffer.getInt(this.classesStart + index * CLASS_RECORD_SIZE + field * Integer.BYTES);
+  }
+
+  private String getString(int index) {
+    String string = this.strings[index];
+    if (string != null) {
+      return string;
+    }
+
+    int start = this.buffer.getInt(this.stringOffsetsStart + index * Integer.BYTES);
+    int end = index + 1 < this.strings.length
+        ? this.buffer.getInt(this.stringOffsetsStart + (index + 1) * Integer.BYTES)
+        : this.stringDataLength;
+
+    byte[] bytes = new byte[end - start];
+    ByteBuffer data = this.buffer.duplicate();
+    data.position(this.stringDataStart + start);
+    data.get(bytes);
+
+    // racy caching is fine because strings are immutable
+    string = new String(bytes, StandardCharsets.UTF_8);
+    this.strings[index] = string;
+    return string;
+  }
+}
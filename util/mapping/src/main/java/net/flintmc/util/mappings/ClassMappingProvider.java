@@ -22,47 +22,94 @@ package net.flintmc.util.mappings;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import net.flintmc.framework.inject.logging.InjectLogger;
+import net.flintmc.util.commons.io.IOUtils;
 import net.flintmc.util.mappings.exceptions.MappingParseException;
+import org.apache.logging.log4j.Logger;
 
 /**
  * <code>ClassMappingProvider</code> manages class mappings produced by a mapping parser.
+ *
+ * <p>The parsed mappings are compiled into a {@link BinaryMappingIndex} next to the mapping files,
+ * following launches only parse the mappings again if the mapping files have been changed.
  */
 @Singleton
 public final class ClassMappingProvider {
 
-  private final Map<String, ClassMapping> obfuscatedClassMappings;
+  private static final String INDEX_FILE_NAME = "mappings.bin";
+
+  private final Logger logger;
+
+  private BinaryMappingIndex index;
+  private Map<String, ClassMapping> obfuscatedClassMappings = Collections.emptyMap();
   private final Map<String, ClassMapping> deobfuscatedClassMappings = new HashMap<>();
 
   @Inject
   private ClassMappingProvider(
+      @InjectLogger final Logger logger,
       final MappingFileProvider mappingFileProvider,
+      @Named("flintRoot") final File flintRoot,
+      @Named("obfuscated") final boolean obfuscated,
       @Named("launchArguments") final Map launchArguments)
       throws IOException, MappingParseException {
+    this.logger = logger;
     if (launchArguments.containsKey("--disable-reobfuscation")
         || launchArguments.containsKey("--dev")) {
-      this.obfuscatedClassMappings = Collections.emptyMap();
       return;
     }
 
-    Map<MappingType, InputStream> mappings = mappingFileProvider
-        .getMappings(launchArguments.get("--game-version").toString());
+    String version = launchArguments.get("--game-version").toString();
+    Map<MappingType, InputStream> mappings = mappingFileProvider.getMappings(version);
 
     if (mappings.isEmpty()) {
-      this.obfuscatedClassMappings = Collections.emptyMap();
       return;
     }
 
+    Map<MappingType, byte[]> sources = new EnumMap<>(MappingType.class);
+    for (Map.Entry<MappingType, InputStream> entry : mappings.entrySet()) {
+      try (InputStream inputStream = entry.getValue()) {
+        sources.put(entry.getKey(), IOUtils.readToArray(inputStream));
+      }
+    }
+
+    long fingerprint = BinaryMappingIndex.fingerprint(sources);
+    File indexFile = new File(flintRoot, "assets/" + version + "/" + INDEX_FILE_NAME);
+
+    try {
+      this.index = BinaryMappingIndex.open(indexFile, fingerprint, obfuscated);
+    } catch (IOException exception) {
+      this.logger.warn("Failed to read mapping index, parsing the mappings again", exception);
+    }
+
+    if (this.index != null) {
+      return;
+    }
+
+    Map<MappingType, InputStream> inputs = new EnumMap<>(MappingType.class);
+    for (Map.Entry<MappingType, byte[]> entry : sources.entrySet()) {
+      inputs.put(entry.getKey(), new ByteArrayInputStream(entry.getValue()));
+    }
+
     McpMappingParser mcpMappingParser = new McpMappingParser();
-    this.obfuscatedClassMappings = mcpMappingParser.parse(mappings);
+    this.obfuscatedClassMappings = mcpMappingParser.parse(inputs);
 
     for (ClassMapping classMapping : this.obfuscatedClassMappings.values()) {
       this.deobfuscatedClassMappings.put(classMapping.deobfuscatedName, classMapping);
     }
+
+    try {
+      BinaryMappingIndex.write(indexFile, fingerprint, this.obfuscatedClassMappings);
+    } catch (IOException exception) {
+      this.logger.warn("Failed to write mapping index", exception);
+    }
   }
 
   /**
@@ -72,6 +119,9 @@ public final class ClassMappingProvider {
    * @return A class mapping.
    */
   public ClassMapping getByObfuscatedName(final String name) {
+    if (this.index != null) {
+      return this.index.getByObfuscatedName(name);
+    }
     return this.obfuscatedClassMappings.get(name);
   }
 
@@ -82,6 +132,9 @@ public final class ClassMappingProvider {
    * @return A class mapping.
    */
   public ClassMapping getByDeobfuscatedName(final String name) {
+    if (this.index != null) {
+      return this.index.getByDeobfuscatedName(name);
+    }
     return this.deobfuscatedClassMappings.get(name);
   }
 
@@ -92,30 +145,40 @@ public final class ClassMappingProvider {
    * @return A class mapping.
    */
   public ClassMapping get(final String name) {
-    if (this.obfuscatedClassMappings.containsKey(name)) {
-      return this.obfuscatedClassMappings.get(name);
+    ClassMapping classMapping = this.getByObfuscatedName(name);
+    if (classMapping != null) {
+      return classMapping;
     }
-    if (this.deobfuscatedClassMappings.containsKey(name)) {
-      return this.deobfuscatedClassMappings.get(name);
+    classMapping = this.getByDeobfuscatedName(name);
+    if (classMapping != null) {
+      return classMapping;
     }
     return new ClassMapping(false, name, name);
   }
 
   /**
-   * Get obfuscated class mappings.
+   * Get obfuscated class mappings. If the mappings have been loaded from the {@link
+   * BinaryMappingIndex}, this creates the mappings of all classes.
    *
    * @return Obfuscated class mappings.
    */
   public Map<String, ClassMapping> getObfuscatedClassMappings() {
+    if (this.index != null) {
+      return this.index.getObfuscatedClassMappings();
+    }
     return Collections.unmodifiableMap(this.obfuscatedClassMappings);
   }
 
   /**
-   * Get deobfuscated class mappings.
+   * Get deobfuscated class mappings. If the mappings have been loaded from the {@link
+   * BinaryMappingIndex}, this creates the mappings of all classes.
    *
    * @return Deobfuscated class mappings.
    */
   public Map<String, ClassMapping> getDeobfuscatedClassMappings() {
+    if (this.index != null) {
+      return this.index.getDeobfuscatedClassMappings();
+    }
     return Collections.unmodifiableMap(this.deobfuscatedClassMappings);
   }
 }
@@ -22,16 +22,16 @@ package net.flintmc.util.mojang.internal.cache;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.framework.stereotype.service.ConcurrentServiceHandler;
 import net.flintmc.framework.stereotype.service.CtResolver;
 import net.flintmc.framework.stereotype.service.Service;
-import net.flintmc.framework.stereotype.service.ServiceHandler;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.util.mojang.internal.cache.object.CacheIO;
 import net.flintmc.util.mojang.internal.cache.object.CachedObjectIO;
 
 @Singleton
 @Service(CacheIO.class)
-public class FileCacheService implements ServiceHandler<CacheIO> {
+public class FileCacheService implements ConcurrentServiceHandler<CacheIO> {
 
   private final FileCache cache;
 
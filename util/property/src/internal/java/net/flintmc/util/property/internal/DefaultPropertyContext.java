@@ -37,6 +37,8 @@ public class DefaultPropertyContext<
   private final T_PropertyContextAware propertyContextAware;
   private final Map<Property<?, ?>, Object> propertyValues = new HashMap<>();
   private final Map<Property<?, ?>, Object> propertyMeta = new HashMap<>();
+  private final Map<Property<?, ?>, Object> unmodifiablePropertyValues =
+      Collections.unmodifiableMap(this.propertyValues);
 
   private DefaultPropertyContext(T_PropertyContextAware propertyContextAware) {
     this.propertyContextAware = propertyContextAware;
@@ -91,7 +93,7 @@ public class DefaultPropertyContext<
    */
   @Override
   public Map<Property<?, ?>, Object> getProperties() {
-    return Collections.unmodifiableMap(this.propertyValues);
+    return this.unmodifiablePropertyValues;
   }
 
   @Implement(PropertyContext.Factory.class)
@@ -21,8 +21,8 @@ package net.flintmc.util.session.internal.launcher.serializer;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import net.flintmc.framework.stereotype.service.ConcurrentServiceHandler;
 import net.flintmc.framework.stereotype.service.Service;
-import net.flintmc.framework.stereotype.service.ServiceHandler;
 import net.flintmc.metaprogramming.AnnotationMeta;
 import net.flintmc.metaprogramming.identifier.ClassIdentifier;
 import net.flintmc.util.session.launcher.LauncherProfileResolver;
@@ -30,7 +30,8 @@ import net.flintmc.util.session.launcher.serializer.ProfileSerializerVersion;
 
 @Singleton
 @Service(ProfileSerializerVersion.class)
-public class LauncherProfileSerializerService implements ServiceHandler<ProfileSerializerVersion> {
+public class LauncherProfileSerializerService
+    implements ConcurrentServiceHandler<ProfileSerializerVersion> {
 
   private final LauncherProfileResolver resolver;
 
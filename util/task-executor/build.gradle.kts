@@ -19,6 +19,7 @@
 
 plugins {
     id("java-library")
+    id("me.champeau.jmh")
 }
 
 group = "net.flintmc"
@@ -37,4 +38,11 @@ dependencies {
 
     testImplementation(project(":util:util-unit-testing"))
     testImplementation(project(":util:util-task-executor", "internal"))
+
+    jmhImplementation(project(":util:util-task-executor", "internal"))
+    jmhImplementation(project(":util:util-unit-testing"))
+}
+
+jmh {
+    jmhVersion.set("1.27")
 }
@@ -36,9 +36,18 @@ public class DefaultTask implements Task {
   private final boolean repeat;
   private final Consumer<Task> runnable;
   private final TaskExecutor taskExecutor;
-  private int ticks;
-  private int interval;
-  private boolean scheduled;
+  private final TickCounter tickCounter;
+  private volatile int ticks;
+  private volatile long ticksSetAt;
+  private volatile int interval;
+  private volatile boolean scheduled;
+  private volatile boolean exhausted;
+
+  // position in the TimingWheel of the executor, only accessed from the ticking thread
+  DefaultTask wheelPrevious;
+  DefaultTask wheelNext;
+  int wheelBucket;
+  long wheelDeadline;
 
   @AssistedInject
   private DefaultTask(
@@ -47,14 +56,17 @@ public class DefaultTask implements Task {
       @Assisted("async") boolean async,
       @Assisted("repeat") boolean repeat,
       @Assisted("runnable") Consumer<Task> runnable,
-      TaskExecutor taskExecutor) {
+      TaskExecutor taskExecutor,
+      TickCounter tickCounter) {
     this.ticks = ticks;
     this.interval = interval;
     this.async = async;
     this.repeat = repeat;
     this.runnable = runnable;
     this.taskExecutor = taskExecutor;
+    this.tickCounter = tickCounter;
     this.scheduled = false;
+    this.wheelBucket = -1;
   }
 
   /**
@@ -62,6 +74,11 @@ public class DefaultTask implements Task {
    */
   @Override
   public void schedule() {
+    if (!this.scheduled) {
+      // the ticks to start need to be correct before the executor decides whether to run the task
+      // immediately
+      this.ticksSetAt = this.tickCounter.get();
+    }
     this.scheduled = true;
     this.taskExecutor.schedule(this);
   }
@@ -112,7 +129,10 @@ public class DefaultTask implements Task {
    */
   @Override
   public int getTicksToStart() {
-    return this.ticks;
+    if (!this.scheduled) {
+      return this.ticks;
+    }
+    return (int) (this.ticks - (this.tickCounter.get() - this.ticksSetAt));
   }
 
   /**
@@ -121,6 +141,12 @@ public class DefaultTask implements Task {
   @Override
   public void setTicksToStart(int ticks) {
     this.ticks = ticks;
+    this.ticksSetAt = this.tickCounter.get();
+    this.exhausted = false;
+    if (this.scheduled) {
+      // move the task to its new position in the timing wheel
+      this.taskExecutor.schedule(this);
+    }
   }
 
   /**
@@ -138,4 +164,38 @@ public class DefaultTask implements Task {
   public void setInterval(int interval) {
     this.interval = interval;
   }
+
+  /**
+   * Restarts this repeating task after it has been executed in the given tick, the next execution
+   * will be {@link #getInterval()} ticks later. A task without a positive interval stays scheduled
+   * but won't be executed again until its ticks to start are changed.
+   *
+   * @param tick the tick in which this task has been executed
+   * @return {@code true} if this task will be executed again, {@code false} otherwise
+   */
+  boolean restart(long tick) {
+    this.ticks = this.interval - 1;
+    this.ticksSetAt = tick;
+    this.exhausted = this.interval <= 0;
+    return !this.exhausted;
+  }
+
+  /**
+   * Retrieves whether this task is repeating without a positive interval and has already been
+   * executed, see {@link #restart(long)}.
+   *
+   * @return {@code true} if this task won't be executed again, {@code false} otherwise
+   */
+  boolean isExhausted() {
+    return this.exhausted;
+  }
+
+  /**
+   * Retrieves the tick in which this task should be executed next.
+   *
+   * @return the tick of the next execution
+   */
+  long getDeadline() {
+    return this.ticksSetAt + 1 + this.ticks;
+  }
 }
@@ -21,8 +21,13 @@ package net.flintmc.util.taskexecutor.internal;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -34,6 +39,12 @@ import net.flintmc.util.taskexecutor.TaskExecutor;
 
 /**
  * {@inheritDoc}
+ *
+ * <p>Tasks created by the {@link Task.Factory} are kept in a {@link TimingWheel}, so that every
+ * tick only touches the tasks that are due in that tick. Scheduling, cancelling and changing the
+ * ticks of these tasks from any thread only puts them into a lock-free queue which is drained at
+ * the beginning of the next tick. Other implementations of {@link Task} are counted down in every
+ * tick via {@link Task#setTicksToStart(int)}.
  */
 @Singleton
 @Implement(TaskExecutor.class)
@@ -43,12 +54,21 @@ public class DefaultTaskExecutor implements TaskExecutor {
   private final ExecutorService executorService;
 
   private final Set<Task> scheduledTasks;
+  private final Set<Task> countedTasks;
+  private final Queue<DefaultTask> pendingTasks;
+  private final TimingWheel wheel;
+  private final TickCounter tickCounter;
 
   @Inject
-  private DefaultTaskExecutor(Task.Factory taskFactory, ExecutorService executorService) {
+  private DefaultTaskExecutor(
+      Task.Factory taskFactory, ExecutorService executorService, TickCounter tickCounter) {
     this.taskFactory = taskFactory;
     this.executorService = executorService;
-    this.scheduledTasks = new HashSet<>();
+    this.tickCounter = tickCounter;
+    this.scheduledTasks = ConcurrentHashMap.newKeySet();
+    this.countedTasks = ConcurrentHashMap.newKeySet();
+    this.pendingTasks = new ConcurrentLinkedQueue<>();
+    this.wheel = new TimingWheel(tickCounter.get() + 1);
   }
 
   @PostSubscribe
@@ -57,10 +77,40 @@ public class DefaultTaskExecutor implements TaskExecutor {
       return;
     }
 
-    Set<Task> tasks;
-    synchronized (this) {
-      tasks = new HashSet<>(this.scheduledTasks);
+    long tick = this.tickCounter.increment();
+
+    DefaultTask pending;
+    while ((pending = this.pendingTasks.poll()) != null) {
+      this.wheel.remove(pending);
+      if (this.scheduledTasks.contains(pending) && !pending.isExhausted()) {
+        this.wheel.add(pending, pending.getDeadline());
+      }
     }
+
+    DefaultTask task = this.wheel.advance();
+    while (task != null) {
+      DefaultTask next = task.wheelNext;
+      // the task might have been cancelled or moved by another task that was due in this tick
+      if (this.scheduledTasks.contains(task) && task.getDeadline() <= tick) {
+        if (task.isRepeating()) {
+          if (task.restart(tick)) {
+            this.wheel.add(task, task.getDeadline());
+          }
+        } else {
+          task.cancel();
+        }
+        this.execute(task);
+      }
+      task = next;
+    }
+
+    if (!this.countedTasks.isEmpty()) {
+      this.countDown();
+    }
+  }
+
+  private void countDown() {
+    List<Task> tasks = new ArrayList<>(this.countedTasks);
     for (Task task : tasks) {
       if (task.getTicksToStart() == 0) {
         if (task.isRepeating()) {
@@ -68,27 +118,46 @@ public class DefaultTaskExecutor implements TaskExecutor {
         } else {
           task.cancel();
         }
-        if (task.isAsync()) {
-          this.executorService.submit(task);
-        } else {
-          task.run();
-        }
+        this.execute(task);
       }
       task.setTicksToStart(task.getTicksToStart() - 1);
     }
   }
 
+  private void execute(Task task) {
+    if (task.isAsync()) {
+      this.executorService.submit(task);
+    } else {
+      task.run();
+    }
+  }
+
+  /**
+   * Retrieves the number of ticks that have been processed by this executor.
+   *
+   * @return the current tick
+   */
+  long getCurrentTick() {
+    return this.tickCounter.get();
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public void schedule(Task task) {
-    if (task.isAsync() && task.getTicksToStart() == 0 && !task.isRepeating()) {
+    if (task.isAsync() && task.getTicksToStart() == 0 && !task.isRepeating()
+        && !this.scheduledTasks.contains(task)) {
       this.executorService.submit(task);
+      return;
+    }
+
+    if (task instanceof DefaultTask) {
+      this.scheduledTasks.add(task);
+      this.pendingTasks.offer((DefaultTask) task);
     } else {
-      synchronized (this) {
-        this.scheduledTasks.add(task);
-      }
+      this.countedTasks.add(task);
+      this.scheduledTasks.add(task);
     }
   }
 
@@ -97,8 +166,14 @@ public class DefaultTaskExecutor implements TaskExecutor {
    */
   @Override
   public void unSchedule(Task task) {
-    synchronized (this) {
-      this.scheduledTasks.remove(task);
+    if (!this.scheduledTasks.remove(task)) {
+      return;
+    }
+
+    if (task instanceof DefaultTask) {
+      this.pendingTasks.offer((DefaultTask) task);
+    } else {
+      this.countedTasks.remove(task);
     }
   }
 
@@ -203,7 +278,7 @@ public class DefaultTaskExecutor implements TaskExecutor {
    */
   @Override
   public Set<Task> getTasks() {
-    return this.scheduledTasks;
+    return Collections.unmodifiableSet(this.scheduledTasks);
   }
 
   /**
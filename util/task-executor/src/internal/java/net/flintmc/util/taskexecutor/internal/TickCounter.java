@@ -0,0 +1,57 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.util.taskexecutor.internal;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Number of ticks that have been processed by the {@link DefaultTaskExecutor}, shared with the
+ * {@link DefaultTask}s so that they can compute their remaining ticks.
+ */
+@Singleton
+class TickCounter {
+
+  private volatile long tick;
+
+  @Inject
+  private TickCounter() {
+  }
+
+  /**
+   * Retrieves the number of ticks that have been processed until now.
+   *
+   * @return the current tick
+   */
+  long get() {
+    return this.tick;
+  }
+
+  /**
+   * Increments the number of processed ticks, may only be called from the ticking thread.
+   *
+   * @return the new current tick
+   */
+  long increment() {
+    long tick = this.tick + 1;
+    this.tick = tick;
+    return tick;
+  }
+}
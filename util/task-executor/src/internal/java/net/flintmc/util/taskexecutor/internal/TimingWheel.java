@@ -0,0 +1,138 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.util.taskexecutor.internal;
+
+/**
+ * Hierarchical timing wheel holding the scheduled {@link DefaultTask}s by the tick in which they
+ * are due. Each level has 64 buckets, a bucket in level {@code n} covers {@code 64^n} ticks and is
+ * moved into the lower levels once the wheel reaches it. Adding and removing tasks is O(1), and
+ * advancing the wheel only touches the tasks that are due or that move into a lower level.
+ *
+ * <p>The tasks are stored in intrusive linked lists, the wheel is not thread-safe and may only be
+ * used from the thread that advances it.
+ */
+final class TimingWheel {
+
+  private static final int BITS = 6;
+  private static final int SIZE = 1 << BITS;
+  private static final int MASK = SIZE - 1;
+  private static final int LEVELS = 6;
+
+  private final DefaultTask[] buckets;
+  private long tick;
+
+  /**
+   * @param tick the first tick that will be processed by {@link #advance()}
+   */
+  TimingWheel(long tick) {
+    this.buckets = new DefaultTask[LEVELS * SIZE];
+    this.tick = tick;
+  }
+
+  /**
+   * Adds the given task to the bucket of the given tick. Ticks that have already been processed
+   * are moved to the next tick that will be processed.
+   *
+   * @param task     the task to add, must not be in the wheel
+   * @param deadline the tick in which the task should be returned by {@link #advance()}
+   */
+  void add(DefaultTask task, long deadline) {
+    deadline = Math.max(deadline, this.tick);
+
+    // the lowest level whose higher digits are equal to the current tick, the digit of the deadline
+    // in that level is always bigger than the one of the current tick except for the lowest level
+    int level = 0;
+    while (level < LEVELS - 1
+        && (deadline >>> (BITS * (level + 1))) != (this.tick >>> (BITS * (level + 1)))) {
+      level++;
+    }
+
+    int bucket = level * SIZE + ((int) (deadline >>> (BITS * level)) & MASK);
+    DefaultTask head = this.buckets[bucket];
+
+    task.wheelBucket = bucket;
+    task.wheelDeadline = deadline;
+    task.wheelPrevious = null;
+    task.wheelNext = head;
+    if (head != null) {
+      head.wheelPrevious = task;
+    }
+    this.buckets[bucket] = task;
+  }
+
+  /**
+   * Removes the given task from the wheel, does nothing if the task is not in the wheel.
+   *
+   * @param task the task to remove
+   */
+  void remove(DefaultTask task) {
+    if (task.wheelBucket == -1) {
+      return;
+    }
+
+    if (task.wheelPrevious != null) {
+      task.wheelPrevious.wheelNext = task.wheelNext;
+    } else {
+      this.buckets[task.wheelBucket] = task.wheelNext;
+    }
+    if (task.wheelNext != null) {
+      task.wheelNext.wheelPrevious = task.wheelPrevious;
+    }
+
+    task.wheelBucket = -1;
+    task.wheelPrevious = null;
+    task.wheelNext = null;
+  }
+
+  /**
+   * Processes the next tick and removes every task that is due in that tick from the wheel.
+   *
+   * @return the first of the due tasks which are linked via {@link DefaultTask#wheelNext} or
+   * {@code null} if no task is due. The link has to be read before the task is added to the wheel
+   * again
+   */
+  DefaultTask advance() {
+    long tick = this.tick;
+
+    for (int level = 1; level < LEVELS && (tick & ((1L << (BITS * level)) - 1)) == 0; level++) {
+      DefaultTask task = this.detach(level * SIZE + ((int) (tick >>> (BITS * level)) & MASK));
+      while (task != null) {
+        DefaultTask next = task.wheelNext;
+        this.add(task, task.wheelDeadline);
+        task = next;
+      }
+    }
+
+    DefaultTask due = this.detach((int) tick & MASK);
+    this.tick = tick + 1;
+    return due;
+  }
+
+  private DefaultTask detach(int bucket) {
+    DefaultTask head = this.buckets[bucket];
+    this.buckets[bucket] = null;
+
+    for (DefaultTask task = head; task != null; task = task.wheelNext) {
+      task.wheelBucket = -1;
+      task.wheelPrevious = null;
+    }
+    return head;
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.util.taskexecutor.internal;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.flintmc.framework.inject.assisted.factory.AssistedFactoryModuleBuilder;
+import net.flintmc.framework.inject.primitive.InjectionHolder;
+import net.flintmc.mcapi.event.TickEvent;
+import net.flintmc.util.taskexecutor.Task;
+import net.flintmc.util.taskexecutor.TaskExecutor;
+import net.flintmc.util.unittesting.StandaloneClassSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a single tick of the {@link DefaultTaskExecutor} with 10k scheduled repeating tasks.
+ * The tasks in the {@code wheel} mode are {@link DefaultTask}s in the {@link TimingWheel}, the
+ * tasks in the {@code countdown} mode are other implementations of {@link Task} which are counted
+ * down in every tick like every task was before the timing wheel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskExecutorBenchmark {
+
+  private static final TickEvent TICK_EVENT = () -> TickEvent.Type.GENERAL;
+
+  @Param({"wheel", "countdown"})
+  public String mode;
+
+  @Param("10000")
+  public int tasks;
+
+  private ExecutorService executorService;
+  private DefaultTaskExecutor executor;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    this.executorService = Executors.newSingleThreadExecutor();
+
+    StandaloneClassSource.install();
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      @Override
+      protected void configure() {
+        this.bind(TaskExecutor.class).to(DefaultTaskExecutor.class);
+        this.bind(ExecutorService.class).toInstance(TaskExecutorBenchmark.this.executorService);
+        this.install(new AssistedFactoryModuleBuilder()
+            .implement(Task.class, DefaultTask.class)
+            .build(Task.Factory.class));
+      }
+    });
+    InjectionHolder.getInstance().getInjectorReference().set(injector);
+    this.executor = injector.getInstance(DefaultTaskExecutor.class);
+
+    // mostly idle tasks like the ones scheduled by packages, only a few are due in every tick
+    Random random = new Random(42);
+    for (int i = 0; i < this.tasks; i++) {
+      int ticks = random.nextInt(200);
+      int interval = 20 + random.nextInt(1180);
+      if (this.mode.equals("wheel")) {
+        this.executor.scheduleSyncRepeating(ticks, interval, () -> {
+        });
+      } else {
+        new CountedTask(this.executor, ticks, interval).schedule();
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.executorService.shutdownNow();
+  }
+
+  @Benchmark
+  public void tick() {
+    this.executor.onTick(TICK_EVENT);
+  }
+
+  private static final class CountedTask implements Task {
+
+    private final TaskExecutor executor;
+    private volatile int ticks;
+    private volatile int interval;
+    private volatile boolean scheduled;
+
+    private CountedTask(TaskExecutor executor, int ticks, int interval) {
+      this.executor = executor;
+      this.ticks = ticks;
+      this.interval = interval;
+    }
+
+    @Override
+    public void schedule() {
+      this.scheduled = true;
+      this.executor.schedule(this);
+    }
+
+    @Override
+    public void run() {
+    }
+
+    @Override
+    public void cancel() {
+      this.scheduled = false;
+      this.executor.unSchedule(this);
+    }
+
+    @Override
+    public boolean isAsync() {
+      return false;
+    }
+
+    @Override
+    public boolean isRepeating() {
+      return true;
+    }
+
+    @Override
+    public boolean isScheduled() {
+      return this.scheduled;
+    }
+
+    @Override
+    public int getTicksToStart() {
+      return this.ticks;
+    }
+
+    @Override
+    public void setTicksToStart(int ticks) {
+      this.ticks = ticks;
+    }
+
+    @Override
+    public int getInterval() {
+      return this.interval;
+    }
+
+    @Override
+    public void setInterval(int interval) {
+      this.interval = interval;
+    }
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.util.taskexecutor.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import net.flintmc.framework.inject.assisted.factory.AssistedFactoryModuleBuilder;
+import net.flintmc.mcapi.event.TickEvent;
+import net.flintmc.mcapi.event.TickEvent.Type;
+import net.flintmc.util.taskexecutor.Task;
+import net.flintmc.util.taskexecutor.TaskExecutor;
+import net.flintmc.util.unittesting.FlintTest;
+import net.flintmc.util.unittesting.StandaloneClassSource;
+import org.junit.jupiter.api.Test;
+
+@FlintTest
+public class TimingWheelTest extends AbstractModule {
+
+  private final ExecutorService executorService = mock(ExecutorService.class);
+
+  @Inject
+  private DefaultTaskExecutor executor;
+  @Inject
+  private Task.Factory taskFactory;
+
+  @Test
+  public void testTasksAreDueAcrossWheelRollovers() {
+    long start = 60;
+    TimingWheel wheel = new TimingWheel(start);
+    Map<DefaultTask, Long> deadlines = new HashMap<>();
+
+    // the boundaries of the first three levels and random deadlines in all of them
+    List<Long> ticks = new ArrayList<>(Arrays.asList(
+        63L, 64L, 65L, 127L, 128L, 4095L, 4096L, 4097L, 262_143L, 262_144L, 262_145L));
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      ticks.add(start + random.nextInt(300_000));
+    }
+
+    for (long tick : ticks) {
+      DefaultTask task = this.createTask();
+      wheel.add(task, tick);
+      deadlines.put(task, tick);
+    }
+
+    long last = Collections.max(ticks);
+    for (long tick = start; tick <= last; tick++) {
+      for (DefaultTask task = wheel.advance(); task != null; task = task.wheelNext) {
+        assertEquals(deadlines.remove(task), tick);
+      }
+    }
+
+    assertTrue(deadlines.isEmpty());
+  }
+
+  @Test
+  public void testRemovedTasksAreNotDue() {
+    TimingWheel wheel = new TimingWheel(1);
+    DefaultTask first = this.createTask();
+    DefaultTask removed = this.createTask();
+    DefaultTask last = this.createTask();
+    DefaultTask cascaded = this.createTask();
+
+    wheel.add(first, 10);
+    wheel.add(removed, 10);
+    wheel.add(last, 10);
+    wheel.add(cascaded, 200);
+
+    // removing a task from the middle of a bucket keeps the other tasks in that bucket
+    wheel.remove(removed);
+    wheel.remove(removed);
+    List<DefaultTask> due = advanceTo(wheel, 1, 10);
+    assertEquals(2, due.size());
+    assertTrue(due.contains(first) && due.contains(last));
+
+    // the task has been moved into the lowest level in tick 192
+    advanceTo(wheel, 11, 195);
+    wheel.remove(cascaded);
+    assertTrue(advanceTo(wheel, 196, 300).isEmpty());
+  }
+
+  @Test
+  public void testPastDeadlinesAreDueInTheNextTick() {
+    TimingWheel wheel = new TimingWheel(100);
+    DefaultTask current = this.createTask();
+    DefaultTask past = this.createTask();
+    DefaultTask negative = this.createTask();
+
+    wheel.add(current, 100);
+    wheel.add(past, 50);
+    wheel.add(negative, -5);
+
+    List<DefaultTask> due = advanceTo(wheel, 100, 100);
+    assertEquals(3, due.size());
+    assertNull(wheel.advance());
+  }
+
+  @Test
+  public void testZeroAndNegativeDelaysRunInTheNextTick() {
+    List<String> executed = new ArrayList<>();
+
+    this.executor.scheduleSync(0, () -> executed.add("zero"));
+    this.executor.scheduleSync(-5, () -> executed.add("negative"));
+    this.executor.scheduleSync(1, () -> executed.add("one"));
+
+    this.tick();
+    assertEquals(2, executed.size());
+    assertTrue(executed.containsAll(Arrays.asList("zero", "negative")));
+    this.tick();
+    assertEquals(3, executed.size());
+    assertEquals("one", executed.get(2));
+    assertTrue(this.executor.getTasks().isEmpty());
+  }
+
+  @Test
+  public void testRepeatingTaskRunsAcrossRollovers() {
+    List<Long> executions = new ArrayList<>();
+
+    this.executor.scheduleSyncRepeating(10, 50, () -> executions.add(this.executor.getCurrentTick()));
+    for (int i = 0; i < 5000; i++) {
+      this.tick();
+    }
+
+    assertEquals(100, executions.size());
+    for (int i = 0; i < executions.size(); i++) {
+      assertEquals(11 + 50L * i, executions.get(i));
+    }
+  }
+
+  @Test
+  public void testCancelledTasksAreNotExecuted() {
+    List<String> executed = new ArrayList<>();
+
+    Task cancelled = this.executor.scheduleSync(100, () -> executed.add("cancelled"));
+    this.executor.scheduleSyncRepeating(0, 1, task -> {
+      executed.add("repeating");
+      // cancelling from the task itself stops the repetition
+      task.cancel();
+    });
+
+    for (int i = 0; i < 50; i++) {
+      this.tick();
+    }
+    cancelled.cancel();
+    for (int i = 0; i < 100; i++) {
+      this.tick();
+    }
+
+    assertEquals(Collections.singletonList("repeating"), executed);
+    assertTrue(this.executor.getTasks().isEmpty());
+  }
+
+  @Test
+  public void testZeroDelayAsyncTasksRunWithoutTick() {
+    for (int i = 0; i < 10; i++) {
+      this.tick();
+    }
+
+    Task task = this.executor.scheduleAsync(0, () -> {
+    });
+
+    verify(this.executorService).submit(task);
+    assertTrue(this.executor.getTasks().isEmpty());
+  }
+
+  @Test
+  public void testRepeatingTasksWithoutIntervalRunOnce() {
+    List<Long> executions = new ArrayList<>();
+
+    Task task = this.executor.scheduleSyncRepeating(
+        2, 0, () -> executions.add(this.executor.getCurrentTick()));
+    for (int i = 0; i < 100; i++) {
+      this.tick();
+    }
+
+    assertEquals(Collections.singletonList(3L), executions);
+    assertTrue(this.executor.getTasks().contains(task));
+
+    // changing the ticks to start executes the task again
+    task.setTicksToStart(5);
+    for (int i = 0; i < 100; i++) {
+      this.tick();
+    }
+    assertEquals(Arrays.asList(3L, 106L), executions);
+  }
+
+  private static List<DefaultTask> advanceTo(TimingWheel wheel, long from, long to) {
+    List<DefaultTask> due = new ArrayList<>();
+    for (long tick = from; tick <= to; tick++) {
+      for (DefaultTask task = wheel.advance(); task != null; task = task.wheelNext) {
+        due.add(task);
+      }
+    }
+    return due;
+  }
+
+  private void tick() {
+    TickEvent event = mock(TickEvent.class);
+    when(event.getType()).thenReturn(Type.GENERAL);
+    this.executor.onTick(event);
+  }
+
+  private DefaultTask createTask() {
+    return (DefaultTask) this.taskFactory.create(0, 0, false, false, task -> {
+    });
+  }
+
+  @Override
+  protected void configure() {
+    StandaloneClassSource.install();
+    this.bind(TaskExecutor.class).to(DefaultTaskExecutor.class);
+    this.bind(ExecutorService.class).toInstance(this.executorService);
+    this.install(new AssistedFactoryModuleBuilder()
+        .implement(Task.class, DefaultTask.class)
+        .build(Task.Factory.class));
+  }
+}
@@ -29,4 +29,6 @@ dependencies {
     api("org.junit.jupiter", "junit-jupiter-api", "5.7.0")
     api("com.google.inject", "guice", "4.2.0")
     api("org.mockito:mockito-core:3.7.7")
+
+    api(project(":framework:framework-stereotype"))
 }
@@ -24,6 +24,7 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import java.util.Optional;
 import java.util.Random;
+import net.flintmc.framework.inject.primitive.InjectionHolder;
 import net.flintmc.util.unittesting.RandomInt.Range;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
@@ -45,6 +46,8 @@ public class FlintJunitExtension implements TestInstanceFactory,
       Object instance = factoryContext.getTestClass().newInstance();
       if (instance instanceof AbstractModule) {
         Injector injector = Guice.createInjector((AbstractModule) instance);
+        // assisted factories create their instances through the injector of the InjectionHolder
+        InjectionHolder.getInstance().getInjectorReference().set(injector);
         injector.injectMembers(instance);
       }
       return instance;
@@ -0,0 +1,49 @@
+/*
+ * FlintMC
+ * Copyright (C) 2020-2021 LabyMedia GmbH and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.flintmc.util.unittesting;
+
+import net.flintmc.framework.stereotype.service.CtResolver;
+import net.flintmc.framework.stereotype.service.CtResolver.ClassSource;
+
+/**
+ * {@link ClassSource} for the {@link CtResolver} which defines classes in a plain class loader, so
+ * that generated classes can be used in unit tests and benchmarks without the launcher.
+ */
+public class StandaloneClassSource extends ClassLoader implements ClassSource {
+
+  public StandaloneClassSource() {
+    super(StandaloneClassSource.class.getClassLoader());
+  }
+
+  /**
+   * Sets a new {@link StandaloneClassSource} as the class source of the {@link CtResolver}.
+   */
+  public static void install() {
+    CtResolver.setClassSource(new StandaloneClassSource());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Class<?> defineClass(String name, byte[] bytes) {
+    return super.defineClass(name, bytes, 0, bytes.length);
+  }
+}